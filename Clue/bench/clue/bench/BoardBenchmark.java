@@ -0,0 +1,83 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.bench;
+
+import clue.BoardMappings;
+import clue.BoardTopology;
+import clue.MapLayout;
+import clue.MissingRoomDuringCreationException;
+import clue.sim.GameThreads;
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a board and looking tiles up on it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"archersAvenue", "sampleCustomMap", "IntriguePathTest"})
+    public String map;
+
+    private BoardTopology topology;
+    private BoardMappings board;
+
+    @Setup
+    public void setUp() throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+        GameThreads.silence();
+        topology = new BoardTopology(MapLayout.parseCsv(Engine.tilePath(map), Engine.doorPath(map), false));
+        board = new BoardMappings(topology);
+    }
+
+    /**
+     * Parses the csv pair and builds the board from it, what loading a map cost before topologies were cached
+     */
+    @Benchmark
+    public BoardMappings fromCsv() throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+        return new BoardMappings(MapLayout.parseCsv(Engine.tilePath(map), Engine.doorPath(map), false));
+    }
+
+    /**
+     * Builds the board of a new game from a topology that is already loaded
+     */
+    @Benchmark
+    public BoardMappings fromTopology() {
+        return new BoardMappings(topology);
+    }
+
+    /**
+     * Looks up every cell of the board once
+     */
+    @Benchmark
+    public int getTile() throws NoSuchRoomException {
+        int found = 0;
+        for (int y = 0; y < board.getBoardHeight(); y++) {
+            for (int x = 0; x < board.getBoardWidth(); x++) {
+                if (board.getTile(x, y).getX() >= 0) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+}
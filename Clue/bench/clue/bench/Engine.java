@@ -0,0 +1,34 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.bench;
+
+/**
+ * What the benchmarks share: where the shipped maps are. Silencing the engine and the threads whole games are played on
+ * come from GameThreads.
+ */
+final class Engine {
+
+    private Engine() {
+    }
+
+    /**
+     * Gets the tile csv of a shipped map
+     * @param map the name of the map folder
+     * @return the path of its tile csv
+     */
+    static String tilePath(String map) {
+        return "Maps/" + map + "/" + map + "Tiles.csv";
+    }
+
+    /**
+     * Gets the door csv of a shipped map
+     * @param map the name of the map folder
+     * @return the path of its door csv
+     */
+    static String doorPath(String map) {
+        return "Maps/" + map + "/" + map + "Doors.csv";
+    }
+}
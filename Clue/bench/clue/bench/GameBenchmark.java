@@ -0,0 +1,119 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.bench;
+
+import clue.BoardTopology;
+import clue.GameController;
+import clue.GameController.TooManyPlayersException;
+import clue.MapLayout;
+import clue.MissingRoomDuringCreationException;
+import clue.NotEnoughPlayersException;
+import clue.action.SuggestAction;
+import clue.card.Card;
+import clue.card.PersonCard;
+import clue.card.RoomCard;
+import clue.card.WeaponCard;
+import clue.player.Player;
+import clue.sim.GameThreads;
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Starting a game, suggestions, and whole AI only games. Every game gets a new seed so the AI games measured are
+ * spread over many different games rather than the same one replayed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss" + (GameThreads.STACK_SIZE >> 20) + "m")//the games run on the benchmark thread
+public class GameBenchmark {
+
+    @Param({"archersAvenue", "sampleCustomMap", "IntriguePathTest"})
+    public String map;
+
+    private BoardTopology topology;
+    private long seed;
+    private Player suggester;
+    private List<Player> players;
+    private PersonCard person;
+    private RoomCard room;
+    private WeaponCard weapon;
+    private WeaponCard heldWeapon;
+
+    @Setup
+    public void setUp() throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException, TooManyPlayersException, NotEnoughPlayersException {
+        GameThreads.silence();
+        topology = new BoardTopology(MapLayout.parseCsv(Engine.tilePath(map), Engine.doorPath(map), false));
+        GameController game = new GameController(6, 0, topology, 1);
+        players = game.getPlayers();
+        suggester = players.get(0);
+        List<Card> murder = game.getMurderCards();
+        person = (PersonCard) murder.get(0);
+        room = (RoomCard) murder.get(1);
+        weapon = (WeaponCard) murder.get(2);
+        for (Card card : players.get(players.size() - 1).getCards()) {//the last player asked
+            if (card instanceof WeaponCard) {
+                heldWeapon = (WeaponCard) card;
+            }
+        }
+        if (heldWeapon == null) {
+            heldWeapon = weapon;
+        }
+    }
+
+    /**
+     * Creates a game of 6 human players, which places them and hands out the cards (GameController.handOutCards is run
+     * by the StartAction the constructor performs) and then waits for the first player
+     */
+    @Benchmark
+    public GameController newGame() throws NoSuchRoomException, NoSuchTileException, TooManyPlayersException, NotEnoughPlayersException {
+        return new GameController(6, 0, topology, seed++);
+    }
+
+    /**
+     * A suggestion nobody can show a card for, so every other player is asked
+     */
+    @Benchmark
+    public boolean suggestUnrefuted() {
+        SuggestAction suggestion = new SuggestAction(person, room, weapon, suggester, players);
+        suggestion.execute();
+        return suggestion.result;
+    }
+
+    /**
+     * A suggestion the last player asked shows a card for, when they hold a weapon
+     */
+    @Benchmark
+    public boolean suggestRefuted() {
+        SuggestAction suggestion = new SuggestAction(person, room, heldWeapon, suggester, players);
+        suggestion.execute();
+        return suggestion.result;
+    }
+
+    /**
+     * Plays a whole game of 6 AIs
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GameController aiGame() throws NoSuchRoomException, NoSuchTileException, TooManyPlayersException, NotEnoughPlayersException {
+        return new GameController(0, 6, topology, seed++);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.bench;
+
+import clue.BoardMappings;
+import clue.MapLayout;
+import clue.MissingRoomDuringCreationException;
+import clue.action.MoveAction;
+import clue.player.AiAdvanced;
+import clue.player.Player;
+import clue.sim.GameThreads;
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import clue.tile.Tile;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The path finding a turn does: a player moving from their starting tile to a tile next to it, to the furthest tile
+ * they can reach and to a tile that isn't on the board at all (so the whole board is searched), and the AI looking for
+ * its nearest room.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    private static final int MOVES = 1000;
+
+    @Param({"archersAvenue", "sampleCustomMap", "IntriguePathTest"})
+    public String map;
+
+    private BoardMappings board;
+    private Player player;
+    private AiAdvanced ai;
+    private Tile near;
+    private Tile far;
+    private Tile unreachable;
+
+    @Setup
+    public void setUp() throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+        GameThreads.silence();
+        board = new BoardMappings(MapLayout.parseCsv(Engine.tilePath(map), Engine.doorPath(map), false));
+        LinkedList<Tile> starts = board.getStartingTiles();
+        player = new Player(0, null);
+        player.setPosition(starts.get(0));
+        ai = new AiAdvanced(1, null, board.getBoardWidth(), board.getBoardHeight(), 1);
+        ai.setPosition(starts.get(1));
+
+        List<Tile> reachable = MoveAction.reachable(starts.get(0), MOVES, board.getBoardWidth(), board.getBoardHeight());
+        near = reachable.get(0);
+        far = near;
+        for (Tile tile : reachable) {//found nearest first
+            if (!tile.isRoom()) {
+                far = tile;
+            }
+        }
+        unreachable = new Tile(0, 0);
+    }
+
+    @Benchmark
+    public boolean moveNear() {
+        return move(near);
+    }
+
+    @Benchmark
+    public boolean moveFar() {
+        return move(far);
+    }
+
+    @Benchmark
+    public boolean moveUnreachable() {
+        return move(unreachable);
+    }
+
+    @Benchmark
+    public LinkedList<Tile> aiBfs() {
+        return ai.BFS();
+    }
+
+    /**
+     * Moves the player from their starting tile, the move is only worked out and the player stays where they are
+     * @param target the tile to move to
+     * @return whether the player could get there
+     */
+    private boolean move(Tile target) {
+        player.setMoves(MOVES);
+        MoveAction move = new MoveAction(player, target, board.getBoardWidth(), board.getBoardHeight());
+        move.execute();
+        return move.result;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.bench;
+
+import clue.BoardTopology;
+import clue.GameController;
+import clue.GameListener;
+import clue.MapLayout;
+import clue.action.Action;
+import clue.action.ActionType;
+import clue.player.Player;
+import clue.sim.GameThreads;
+import clue.tile.Room;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Plays seeded AI only games one after another in one JVM, the way a long running server would, and looks for anything
+ * that keeps growing.
+ * <pre>java clue.bench.Soak [games] [games per sample]</pre>
+ * After every game it checks the structures a game reuses: a room can't have more free locations than it has
+ * locations, the intrigue deck and the intrigue cards players hold always add up to the 16 the game started with, and
+ * the action log grows by about the same number of actions every turn. Every sample it collects the garbage and
+ * records the heap left in use along with the worst of each of those since the last sample. A structure that broke its
+ * rule, or a measurement that went up in each of the last 8 samples, is reported and the soak fails. Only the first
+ * broken rule since the last sample is reported so a leak in every game doesn't flood the console.
+ */
+public class Soak implements GameListener {
+
+    private static final String[] MAPS = {"archersAvenue", "sampleCustomMap", "IntriguePathTest"};
+    private static final int MIN_PLAYERS = 2;
+    private static final int MAX_PLAYERS = 6;
+    private static final int INTRIGUE_CARDS = 16;
+    private static final int GROWING_SAMPLES = 8;
+    private static final String[] SERIES = {"heap after gc", "extra room locations", "intrigue cards", "actions per turn"};
+
+    private int turns;
+    private int roomOverflow;
+    private int intrigueCards;
+    private double actionsPerTurn;
+    private String broken;
+
+    /**
+     * Counts the turns of a game
+     * @param game the game
+     * @param action the action
+     */
+    @Override
+    public void actionPerformed(GameController game, Action action) {
+        if (action.getActionType() == ActionType.STARTTURN) {
+            turns++;
+        }
+    }
+
+    /**
+     * Checks the structures of a game that has just ended and keeps the worst of them
+     * @param game the game
+     */
+    @Override
+    public void gameEnded(GameController game) {
+        for (Room room : game.getRooms()) {
+            int extra = room.getFreeLocationCount() - room.getLocations().size();
+            roomOverflow = Math.max(roomOverflow, extra);
+            if (extra > 0 && broken == null) {
+                broken = "room " + room.getId() + " has " + room.getFreeLocationCount() + " free locations but only " + room.getLocations().size() + " locations, game " + game.getSeed();
+            }
+        }
+        int intrigues = game.getIntrigueDeckSize();
+        for (Player player : game.getPlayers()) {
+            intrigues += player.getIntrigues().size();
+        }
+        intrigueCards = Math.max(intrigueCards, intrigues);
+        if (intrigues > INTRIGUE_CARDS && broken == null) {
+            broken = intrigues + " intrigue cards in game " + game.getSeed() + ", it started with " + INTRIGUE_CARDS;
+        }
+        if (turns > 0) {
+            actionsPerTurn = Math.max(actionsPerTurn, (double) game.getActionLogSize() / turns);
+        }
+        turns = 0;
+    }
+
+    /**
+     * Plays the games and reports what grew, on a game thread (see GameThreads)
+     * @param args [games], [games per sample]
+     * @throws Exception thrown when a map could not be loaded or a game could not be created
+     */
+    public static void main(String[] args) throws Exception {
+        GameThreads.run("soak", () -> {
+            run(args);
+            return null;
+        });
+    }
+
+    /**
+     * Plays the games and reports what grew
+     * @param args [games], [games per sample]
+     * @throws Exception thrown when a map could not be loaded or a game could not be created
+     */
+    private static void run(String[] args) throws Exception {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+        int sampleEvery = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        PrintStream console = GameThreads.silence();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        BoardTopology[] topologies = new BoardTopology[MAPS.length];
+        for (int m = 0; m < MAPS.length; m++) {
+            topologies[m] = new BoardTopology(MapLayout.parseCsv(Engine.tilePath(MAPS[m]), Engine.doorPath(MAPS[m]), false));
+        }
+        int configs = MAPS.length * (MAX_PLAYERS - MIN_PLAYERS + 1);
+
+        Soak soak = new Soak();
+        double[][] samples = new double[SERIES.length][GROWING_SAMPLES + 1];
+        int sampleCount = 0;
+        boolean failed = false;
+        console.printf("%12s %14s %12s %10s %10s%n", "games", "heap after gc", "extra locs", "intrigues", "acts/turn");
+        for (long seed = 0; seed < games; seed++) {
+            int config = (int) (seed % configs);
+            new GameController(0, MIN_PLAYERS + config % (MAX_PLAYERS - MIN_PLAYERS + 1), topologies[config / (MAX_PLAYERS - MIN_PLAYERS + 1)], seed, soak);
+            if ((seed + 1) % sampleEvery != 0 && seed + 1 != games) {
+                continue;
+            }
+            if (soak.broken != null) {//only the first since the last sample
+                console.println("  LEAK " + soak.broken);
+                soak.broken = null;
+                failed = true;
+            }
+
+            System.gc();
+            System.gc();
+            double[] sample = {memory.getHeapMemoryUsage().getUsed(), soak.roomOverflow, soak.intrigueCards, soak.actionsPerTurn};
+            console.printf(Locale.ROOT, "%12d %14.0f %12.0f %10.0f %10.2f%n", seed + 1, sample[0], sample[1], sample[2], sample[3]);
+            for (int s = 0; s < SERIES.length; s++) {
+                System.arraycopy(samples[s], 1, samples[s], 0, GROWING_SAMPLES);
+                samples[s][GROWING_SAMPLES] = sample[s];
+            }
+            sampleCount++;
+            if (sampleCount > GROWING_SAMPLES) {
+                for (int s = 0; s < SERIES.length; s++) {
+                    if (isGrowing(samples[s])) {
+                        console.println("  GROWING " + SERIES[s] + ": " + Arrays.toString(samples[s]));
+                        failed = true;
+                    }
+                }
+            }
+            soak.roomOverflow = 0;
+            soak.intrigueCards = 0;
+            soak.actionsPerTurn = 0;
+        }
+
+        if (failed) {
+            console.println("something grew that shouldn't have");
+            System.exit(1);
+        }
+        console.println("nothing grew in " + games + " games");
+    }
+
+    /**
+     * Checks whether every sample is larger than the one before it
+     * @param samples the samples, oldest first
+     * @return true when they only went up
+     */
+    private static boolean isGrowing(double[] samples) {
+        for (int i = 1; i < samples.length; i++) {
+            if (samples[i] <= samples[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.bench;
+
+import clue.BoardTopology;
+import clue.GameController;
+import clue.GameListener;
+import clue.MapLayout;
+import clue.action.Action;
+import clue.sim.GameThreads;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Plays seeded AI only games on every shipped map with 2 to 6 players and measures games per second, bytes allocated per
+ * game and the 99th percentile time of a turn, then compares them with a baseline file and fails when any of them got
+ * worse by more than the threshold.
+ * <pre>java clue.bench.Throughput &lt;baseline file&gt; [games] [threshold %] [write]</pre>
+ * The same seeds are played every run, so the games, and the bytes they allocate, only change when the engine does.
+ * Give "write" as the last argument to record a new baseline instead of comparing with it. Times depend on the machine,
+ * so a baseline should be recorded on the machine it is compared on, the bytes per game are the same on any machine.
+ * By default 500 games are played 3 times for every map and player count and a measurement may be 30% worse. The p99
+ * turn is a few microseconds that one collection can double, so it may get twice as much worse as the others, and a
+ * map and player count that regressed is measured again before it is reported.
+ */
+public class Throughput implements GameListener {
+
+    private static final String[] MAPS = {"archersAvenue", "sampleCustomMap", "IntriguePathTest"};
+    private static final int MIN_PLAYERS = 2;
+    private static final int MAX_PLAYERS = 6;
+    private static final int WARMUP_GAMES = 100;
+    private static final int ROUNDS = 3;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private long[] turns;
+    private int turnCount;
+    private long turnStart;
+
+    /**
+     * Creates the measurements of one map and player count
+     */
+    private Throughput() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        turns = new long[1024];
+    }
+
+    /**
+     * Times each turn, from the STARTTURN that begins it to the ENDTURN that ends it
+     * @param game the game
+     * @param action the action
+     */
+    @Override
+    public void actionPerformed(GameController game, Action action) {
+        switch (action.getActionType()) {
+            case STARTTURN:
+                turnStart = System.nanoTime();
+                break;
+            case ENDTURN:
+                if (turnStart != 0) {
+                    if (turnCount == turns.length) {
+                        turns = Arrays.copyOf(turns, turnCount * 2);
+                    }
+                    turns[turnCount++] = System.nanoTime() - turnStart;
+                    turnStart = 0;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void gameEnded(GameController game) {
+        turnStart = 0;
+    }
+
+    /**
+     * Plays the games of one map and player count a few times over, keeping the best time of each measurement so a
+     * garbage collection or another process getting in the way of one round doesn't count as a regression
+     * @param topology the board
+     * @param players the number of ai players
+     * @param games how many games to measure
+     * @return games per second, bytes allocated per game and the 99th percentile turn in microseconds
+     * @throws Exception thrown when a game could not be created
+     */
+    private double[] measure(BoardTopology topology, int players, int games) throws Exception {
+        double[] best = round(topology, players, games);
+        for (int i = 1; i < ROUNDS; i++) {
+            double[] measured = round(topology, players, games);
+            best[0] = Math.max(best[0], measured[0]);
+            best[1] = Math.min(best[1], measured[1]);
+            best[2] = Math.min(best[2], measured[2]);
+        }
+        return best;
+    }
+
+    /**
+     * Plays the games of one map and player count once
+     * @param topology the board
+     * @param players the number of ai players
+     * @param games how many games to play
+     * @return games per second, bytes allocated per game and the 99th percentile turn in microseconds
+     * @throws Exception thrown when a game could not be created
+     */
+    private double[] round(BoardTopology topology, int players, int games) throws Exception {
+        turnCount = 0;
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int seed = 0; seed < games; seed++) {
+            new GameController(0, players, topology, seed, this);
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        Arrays.sort(turns, 0, turnCount);
+        long p99 = turnCount == 0 ? 0 : turns[Math.min(turnCount - 1, (int) (turnCount * 0.99))];
+        return new double[]{games / (elapsed / 1e9), (double) allocated / games, p99 / 1e3};
+    }
+
+    /**
+     * Measures every map and player count and compares them with the baseline, on a game thread (see GameThreads)
+     * @param args baseline file, [games per map and player count], [threshold percent], [write]
+     * @throws Exception thrown when the baseline can't be read or written or a game could not be created
+     */
+    public static void main(String[] args) throws Exception {
+        GameThreads.run("throughput", () -> {
+            run(args);
+            return null;
+        });
+    }
+
+    /**
+     * Measures every map and player count and compares them with the baseline
+     * @param args baseline file, [games per map and player count], [threshold percent], [write]
+     * @throws Exception thrown when the baseline can't be read or written or a game could not be created
+     */
+    private static void run(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: Throughput <baseline file> [games] [threshold %] [write]");
+            System.exit(1);
+        }
+        String baselinePath = args[0];
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.3;
+        boolean write = args.length > 3 && args[3].equals("write");
+
+        Properties baseline = new Properties();
+        if (!write) {
+            try (InputStream in = new FileInputStream(baselinePath)) {
+                baseline.load(in);
+            }
+        }
+        Properties results = new Properties();
+        PrintStream console = GameThreads.silence();
+        Throughput throughput = new Throughput();
+        int regressions = 0;
+        BoardTopology[] topologies = new BoardTopology[MAPS.length];
+        for (int m = 0; m < MAPS.length; m++) {//every map and player count is played before anything is measured
+            topologies[m] = new BoardTopology(MapLayout.parseCsv(Engine.tilePath(MAPS[m]), Engine.doorPath(MAPS[m]), false));
+            for (int players = MIN_PLAYERS; players <= MAX_PLAYERS; players++) {
+                for (int seed = 0; seed < WARMUP_GAMES; seed++) {
+                    new GameController(0, players, topologies[m], -1 - seed);
+                }
+            }
+        }
+        console.printf("%-18s %7s %10s %14s %12s%n", "map", "players", "games/s", "bytes/game", "p99 turn us");
+        for (int m = 0; m < MAPS.length; m++) {
+            String map = MAPS[m];
+            for (int players = MIN_PLAYERS; players <= MAX_PLAYERS; players++) {
+                String key = map + "." + players;
+                double[] measured = throughput.measure(topologies[m], players, games);
+                if (!write && regressions(null, baseline, key, measured, threshold) > 0) {
+                    measured = throughput.measure(topologies[m], players, games);//confirm it wasn't the machine
+                }
+                results.setProperty(key + ".gamesPerSecond", String.format(Locale.ROOT, "%.1f", measured[0]));
+                results.setProperty(key + ".bytesPerGame", String.format(Locale.ROOT, "%.0f", measured[1]));
+                results.setProperty(key + ".p99TurnMicros", String.format(Locale.ROOT, "%.1f", measured[2]));
+                console.printf("%-18s %7d %10.1f %14.0f %12.1f%n", map, players, measured[0], measured[1], measured[2]);
+                if (!write) {
+                    regressions += regressions(console, baseline, key, measured, threshold);
+                }
+            }
+        }
+
+        if (write) {
+            try (OutputStream out = new FileOutputStream(baselinePath)) {
+                results.store(out, "clue.bench.Throughput, " + games + " games per map and player count");
+            }
+            console.println("baseline written to " + baselinePath);
+        } else if (regressions > 0) {
+            console.println(regressions + " regression(s) of more than " + Math.round(threshold * 100) + "%");
+            System.exit(1);
+        } else {
+            console.println("no regressions of more than " + Math.round(threshold * 100) + "%");
+        }
+    }
+
+    /**
+     * Compares the measurements of one map and player count with their baseline
+     * @param console where to report a regression, null to only count them
+     * @param baseline the baseline
+     * @param key the map and player count
+     * @param measured games per second, bytes allocated per game and the 99th percentile turn in microseconds
+     * @param threshold how much worse they may get, 0.2 is 20%
+     * @return how many of them regressed
+     */
+    private static int regressions(PrintStream console, Properties baseline, String key, double[] measured, double threshold) {
+        return compare(console, baseline, key + ".gamesPerSecond", measured[0], threshold, false)
+                + compare(console, baseline, key + ".bytesPerGame", measured[1], threshold, true)
+                + compare(console, baseline, key + ".p99TurnMicros", measured[2], threshold * 2, true);
+    }
+
+    /**
+     * Compares one measurement with its baseline
+     * @param console where to report a regression, null to only count it
+     * @param baseline the baseline
+     * @param key the name of the measurement
+     * @param measured the value measured now
+     * @param threshold how much worse it may get, 0.2 is 20%
+     * @param lowerIsBetter true for bytes and times, false for games per second
+     * @return 1 when it regressed, 0 when it didn't or there is no baseline for it
+     */
+    private static int compare(PrintStream console, Properties baseline, String key, double measured, double threshold, boolean lowerIsBetter) {
+        String value = baseline.getProperty(key);
+        if (value == null) {
+            if (console != null) {
+                console.println("  no baseline for " + key);
+            }
+            return 0;
+        }
+        double base = Double.parseDouble(value);
+        boolean worse = lowerIsBetter ? measured > base * (1 + threshold) : measured < base * (1 - threshold);
+        if (worse && console != null) {
+            console.printf("  REGRESSION %s: %.1f, baseline %.1f%n", key, measured, base);
+        }
+        return worse ? 1 : 0;
+    }
+}
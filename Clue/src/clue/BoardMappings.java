@@ -17,9 +17,6 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
-import java.util.List;
-import java.util.PriorityQueue;
-import java.util.regex.Pattern;
 
 /**
  * Used to build the board from csv files. Also maps x y coordinates to tiles, allowing other classes to get a tile from x y coordinate
@@ -28,42 +25,13 @@ import java.util.regex.Pattern;
  */
 public final class BoardMappings {
     
+    private final BoardTopology topology;
+    private final MapLayout layout;
     private Tile[][] mappings;
-    private PriorityQueue<StartingTile> startingTilesPQ;
     private LinkedList<Tile> startTiles;
     private Room[] rooms;
     private int boardWidth;
     private int boardHeight;
-    
-    class StartingTile implements Comparable<StartingTile>{
-
-        
-        public Tile t;
-        public int i;
-        
-        /**
-         * Creates a starting tile
-         * @param t the tile 
-         * @param i the id of the starting tile
-         */
-        StartingTile(Tile t, int i){
-            this.t = t;
-            this.i = i;
-        }
-
-        @Override
-        public int compareTo(StartingTile t) {
-            if (this.i > t.i){
-                return 1;
-            }
-            else if (this.i < t.i){
-                return -1;
-            }    
-            else {
-                return 0;
-            }    
-        }
-    }
 
     /**
      * BoardMappings will create the board (the Tiles and there adjacencies) from csv files and provide mappings from (int x, y) coordinates to tiles/rooms.
@@ -82,6 +50,8 @@ public final class BoardMappings {
      *          index 3: the direction the player has to take to go from the room to the outside tile (U or D or L or R)
      *          *Note, doors cannot exist between two rooms, instead addShortcut should be used
      * 
+     * A compiled map (a .cluemap written by MapCompiler) can be given as the tile path instead, the door path is then ignored.
+     * 
      * @param tileRoomLayoutPath the path of the csv file that contains the tile information
      * @param doorLocationsPath the path of the csv file that contains the door information
      * @throws NoSuchRoomException thrown when the map failed to generate because it expected a room but it did not exist (due to being provided a bad csv pair)
@@ -89,110 +59,67 @@ public final class BoardMappings {
      * @throws clue.MissingRoomDuringCreationException thrown when room with id N was found, but a no id for some id less than N was found
      */
     public BoardMappings(String tileRoomLayoutPath, String doorLocationsPath) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException{
-
-        startTiles = new LinkedList<>();
-        startingTilesPQ = new PriorityQueue<>();
-        
-        ArrayList<ArrayList<String>> tiles = loadCsv2D(tileRoomLayoutPath);
-        calculateBoardWidthHeight(tiles);//sets the values of boardWidth and boardHeight
-        paddWithEmpty(tiles);//pads the 2d string representation of the tile csv
-        int roomCount = getRoomCount(tiles);
-        
-        //System.out.println(boardWidth+","+boardHeight);
-        rooms = loadRooms(roomCount);
-        mappings = createTileMappings(tiles, roomCount);
-
-        List<Door> doorLocations = loadCsvDoors(doorLocationsPath);
-        //System.out.println(this);
-        addDoorsToTileAdjacencies(doorLocations);
-        
-        if (tileRoomLayoutPath.equals("Maps/archersAvenue/archersAvenueTiles.csv")){
-            addShortcut(0,8);
-            addShortcut(6,2);
-        }
-        
-
-
-        
-        //----------------debugging prints below--------------------------//
-        //for (Tile[] tArr : mappings){        
-        //    for (Tile t : tArr){
-        //        if (t != null){
-        //            System.out.print((t.getX()+1)+","+(t.getY()+1)+": ");
-        //        }
-        //        else{continue;}
-        //        for (Tile aj : t.getAdjacent()){
-        //            if (aj != null){   
-        //                System.out.print((aj.getX()+1)+","+(aj.getY()+1)+","); 
-        //            }
-        //        }   
-        //        System.out.println();
-        //    }
-        //}
-        
-        //System.out.println("Rooms");
-        //for (Tile t : rooms){        
-        //    System.out.print("id_"+(t.getY())+": ");
-        //    for (Tile aj : t.getAdjacent()){
-        //        System.out.print((aj.getX())+","+(aj.getY()));
-        //    }
-        //    System.out.println();
-        //}  
-    }    
+        this(BoardTopology.load(tileRoomLayoutPath, doorLocationsPath));
+    }
     
     /**
-     * Calculates the width and the height of the board from the loaded csv tile data
-     * @param tiles the 2d representation of the tiles csv
-     * 
+     * Creates the board (the Tiles and their adjacencies) from a map layout
+     * @param layout the layout of the board, loaded from csv files or a compiled .cluemap, or built by MapLayout.Builder
      */
-    public void calculateBoardWidthHeight(ArrayList<ArrayList<String>> tiles){
-        
-        int maxWidth = -1;
-        int lastRowWithValue = -1;
-        
-        int rowWidth = 0;
-        for (int i = 0; i < tiles.size(); i++){
-            ArrayList<String> row = tiles.get(i);
-            rowWidth = row.size();
-            for (int j = row.size() - 1; j >= 0; j--){
-                //reduce the width of the row by the number of empty cells after the first non empty cell
-                if (row.get(j).equals("")){
-                    rowWidth--;
-                }
-                else{//stop reducing count, non empty cell found
-                    lastRowWithValue = i;//value was found so update last row with value indicator
-                    break;
-                }
-            }
-            if (maxWidth < rowWidth){
-                maxWidth = rowWidth;
-            }    
-        
-        }
-
-        
-        
-        
-        boardWidth = maxWidth;
-        boardHeight = lastRowWithValue+1;
-    
+    public BoardMappings(MapLayout layout){
+        this(new BoardTopology(layout));
     }
     
     /**
-     * Pads the 2d representation of the tile csv with empty tile representation
-     * @param tiles the 2d representation of the tiles csv
+     * Creates the board (the Tiles and their adjacencies) of one game from a topology that can be shared by any number of
+     * games, the Tiles and Rooms made here hold everything a game changes (occupancy and the room locations tokens are drawn at)
+     * so nothing is parsed or searched
+     * @param topology the topology of the board
      */
-    public void paddWithEmpty(ArrayList<ArrayList<String>> tiles){
-        for (int i = 0; i < tiles.size(); i++){
-            ArrayList<String> row = tiles.get(i);
-            while (row.size() < boardWidth){
-                row.add("-1");
+    public BoardMappings(BoardTopology topology){
+        this.topology = topology;
+        layout = topology.getLayout();
+        boardWidth = layout.getWidth();
+        boardHeight = layout.getHeight();
+        rooms = new Room[layout.getRoomCount()];
+        for (int i = 0; i < rooms.length; i++){
+            rooms[i] = new Room(new RoomCard(i), topology.getRoomLocations(i), topology.getDoorLocations(i), topology.getDrawingLocations(i));
+        }
+        mappings = new Tile[boardHeight][boardWidth];
+        
+        Tile[] nodes = new Tile[layout.getNodeCount()];
+        for (int y = 0; y < boardHeight; y++){
+            for (int x = 0; x < boardWidth; x++){
+                switch (layout.getType(x, y)){
+                    case MapLayout.TILE:
+                    case MapLayout.START:
+                        mappings[y][x] = new Tile(x,y);
+                        break;
+                    case MapLayout.INTRIGUE:
+                        mappings[y][x] = new SpecialTile(x,y);
+                        break;
+                    default://room cells and empty cells
+                        mappings[y][x] = new Tile(-1,-1);
+                        break;
+                }
+                nodes[y * boardWidth + x] = mappings[y][x];
             }
-        } 
-    }
+        }
+        for (Room room : rooms){
+            nodes[layout.getRoomNode(room.getId())] = room;
+        }
         
+        startTiles = new LinkedList<>();
+        for (int i = 0; i < topology.getStartCount(); i++){
+            startTiles.add(nodes[topology.getStartCell(i)]);
+        }
         
-    
+        for (int node = 0; node < nodes.length; node++){
+            for (int i = layout.getAdjacencyStart(node); i < layout.getAdjacencyEnd(node); i++){
+                nodes[node].addAdjacent(nodes[layout.getAdjacentNode(i)]);
+            }
+        }
+    }    
     
     /**
      * loads the data from the csv file for the tiles maintaining the 2d structure of the csv
@@ -308,15 +235,10 @@ public final class BoardMappings {
     public final Tile getTile(int x, int y) throws NoSuchRoomException, ArrayIndexOutOfBoundsException{
         if (x >= 0 && x < mappings[0].length && y >= 0 && y < mappings.length){//trying to get a non room tile when x >=0
             
-            for (Room room : rooms){//try to pair the x y coord with a room location
-                for (int[] loc : room.getLocations()){
-                    if ( x == loc[0] && y == loc[1]){
-                        return room;
-                    }          
-                }
+            if (layout.getType(x, y) == MapLayout.ROOM){//the x y coord is a room location
+                return rooms[layout.getValue(x, y)];
             }
             
-            
             return mappings[y][x];
         }
         else if ( x == -1 && y >= 0){//trying to get a room tile using room id
@@ -377,217 +299,11 @@ public final class BoardMappings {
         return loadedRooms;
     }
 
-    /**
-     * Creates the mappings for non room / non empty tiles, maps int coordinates to the index of the array
-     * @param tiles the 2d representation of the board (outputted by loadCsv)
-     * @param roomCount the number of rooms
-     * @return Tile[][] the tile mappings of the board, rooms and empty tiles will be null in this structure
-     * @throws NoSuchRoomException thrown when it tried to fetch a room that didn't exist
-     */
-    public Tile[][] createTileMappings(ArrayList<ArrayList<String>> tiles, int roomCount) throws NoSuchRoomException {
-        
-        
-        Tile[][] localMappings = new Tile[boardHeight][boardWidth];      
-        String cell;      
-        for (int y = 0; y < boardHeight; y++){//create Tile objects in mappings, object may be tile,room,special or null depending on what the csv cell was
-            for (int x = 0; x < boardWidth; x++){
-                
-
-                cell = tiles.get(y).get(x);
-                switch (cell) {
-                    case "":
-                        localMappings[y][x] = new Tile(-1,-1);
-                        break;
-                    case "-1":
-                        localMappings[y][x] = new Tile(-1,-1);
-                        break;
-                    case "0":
-                        localMappings[y][x] = new Tile(x,y);
-                        break;
-                    case "I":
-                        localMappings[y][x] = new SpecialTile(x,y);
-                        //tiles.get(y).set(x, "0");
-                        break;
-                    case "S":
-                        localMappings[y][x] = new Tile(x,y);
-                        startingTilesPQ.add( new StartingTile(localMappings[y][x],100));
-                        break;
-                    default:
-
-                        if (cell.startsWith("S")){
-                        
-                            cell = cell.substring(1);
-                            
-                            try{
-                                int startingId = Integer.parseInt(cell);
-                                if (startingId < 0 || startingId > 99){
-                                    throw new NumberFormatException("values in tiles csv must be -1,0,I,Sn (where n is a number between 0 and 99), or a number that is less than the total room count, found: "+cell+"\n");
-                            
-                                }
-                                localMappings[y][x] = new Tile(x,y);
-                                startingTilesPQ.add(new StartingTile(localMappings[y][x], startingId));
-                            }
-                            catch (NumberFormatException ex){
-                                throw new NumberFormatException("values in tiles csv must be -1,0,I,Sn (where n is a number between 0 and 99), or a number that is less than the total room count, found: "+cell+"\n");
-                            
-                            }
-                        }
-                        else{
-                            cell = cell.replaceAll("[^0-9]+", "");
-                            localMappings[y][x] = new Tile(-1,-1);
-
-                            try{
-                                if (Integer.parseInt(cell) > roomCount){
-                                    throw new NoSuchRoomException();
-                                }
-                                else{
-                                    getRoom(Integer.parseInt(cell)-1).addLocation(x,y);
-                                }
-                            }
-                            catch (NumberFormatException ex){
-                                throw new NumberFormatException("values in tiles csv must be -1,0,I,Sn (where n is a number between 0 and 99), or a number that is less than the total room count, found: "+cell+"\n");
-                            }
-                            //break;
-                        }
-
-                }
-   
-            }
-        }
-        
-        Tile currentTile;
-        String nonRoomTilePattern = "S|0|I|S[0-9]";
-        for (int y = 0; y < boardHeight; y++){
-            for (int x = 0; x < boardWidth; x++){
-                
-                
-
-                //if (currentTile != null){
-                    //System.out.println(currentTile.getX()+","+currentTile.getY()+","+x+","+y);
-                //}
-                if (Pattern.matches(nonRoomTilePattern, tiles.get(y).get(x))){//if current tile is a standard tile
-                    currentTile = localMappings[y][x];
-                    if (currentTile.getY() != -1 || currentTile.getX() != -1){//should allways be non null
-                        //System.out.println(currentTile != null);
-                        if (x>0){//there is a left tile
-                            if (Pattern.matches(nonRoomTilePattern, tiles.get(y).get(x-1))){ //if tile to the left is also a standard tile
-                                currentTile.addAdjacentBoth(localMappings[y][x-1]);
-                            }
-                        } 
-                        
-                       
-                        
-                        
-                        
-                        //if (x<boardWidth-1){//if there is a right tile
-                        //    if (Pattern.matches(nonRoomTilePattern, tiles.get(y).get(x+1))){ ///if tile to the right is also a standard tile
-                        //        currentTile.addAdjacent(localMappings[y][x+1]);
-                        //    }
-                        //}
-                        //if (y>0){//if there is a above tile
-                        //    if (Pattern.matches(nonRoomTilePattern, tiles.get(y-1).get(x))){ //if tile above is also a standard tile
-                        //        currentTile.addAdjacent(localMappings[y-1][x]);
-                        //    }
-                        //}
-                        if (y<boardHeight-1){//if there is a tile below
-                            if (Pattern.matches(nonRoomTilePattern, tiles.get(y+1).get(x))){ //if tile below is also a standard tile
-                                currentTile.addAdjacentBoth(localMappings[y+1][x]);
-                            }
-                        }    
-                    }
-                    else{
-                        //(currentTile.getY() == -1 || currentTile.getX() == -1)+",,,,,,,,,,,"+currentTile.getX()+","+currentTile.getY());
-                        throw new NullPointerException("[BoardMappings.createTileMappings]@mw434 FATAL ERROR CODED WRONG");
-                    
-                    }
- 
-                }   
-            }
-        }
-        
-        
-        return localMappings;
-    }
-
-    /**
-     * each Door object will add an equivalent adjacency to the tiles associated for that Door to allow movement between a basic Tile and a Room
-     * @param doorLocations
-     * @throws NoSuchRoomException
-     * @throws NoSuchTileException 
-     */
-    private void addDoorsToTileAdjacencies(List<Door> doorLocations) throws NoSuchRoomException, NoSuchTileException {
-        Tile outside;
-        Tile room;
-        int[] loc = new int[3];
-        for (Door door: doorLocations){
-            
-            try {
-                room = getTile(-1, door.getRoomY());
-                //System.out.println("R"+room);
-                outside = getTile(door.getTileX(), door.getTileY());
-                //System.out.println("O"+outside);
-                room.addAdjacentBoth(outside);
-                
-                switch (door.getDir()) {
-                    
-                    case "U"://the tile is above the room
-                        loc[0] = outside.getX();
-                        loc[1] = outside.getY()+1;
-                        loc[2] = 1;
-                        
-                        break;
-                    case "R":
-                        loc[0] = outside.getX()-1;
-                        loc[1] = outside.getY();
-                        loc[2] = 2;
-                        break;
-                    case "D"://the tile is below the room
-                        loc[0] = outside.getX();
-                        loc[1] = outside.getY()-1;
-                        loc[2] = 3;
-                        break;   
-                        
-                    case "L":
-                        loc[0] = outside.getX()+1;
-                        loc[1] = outside.getY();
-                        loc[2] = 4;
-                        break;    
-
-                    default:
-                        loc[0] = -1;
-                        loc[1] = -1;
-                        loc[2] = -1;
-                        break;
-                }
-                ((Room)room).addDoorLocation(loc);
-                
-                
-                
-            } catch (NoSuchRoomException ex) {
-                throw ex;
-            }
-            catch (NullPointerException ex){
-                throw new NoSuchTileException("door csv file contains an illegal door, the outside tile index (1,2) must be the x y coordinates of a base tile or special tile");
-            }
-            catch (ArrayIndexOutOfBoundsException ex){
-                throw new NoSuchTileException(ex.toString());
-            }
-        }
-        
-        for (Room r : rooms){
-            r.removeDoorLocationsFromDrawingLocations();
-        }
-    }
      /**
       * gets the starting locations of the board
       * @return the list of starting tiles on the board
       */
     public LinkedList<Tile> getStartingTiles(){
-        if (startTiles.isEmpty()){
-            while (!startingTilesPQ.isEmpty()){
-                startTiles.add(startingTilesPQ.poll().t);
-            }
-        }
         return startTiles;
     }  
     
@@ -617,6 +333,22 @@ public final class BoardMappings {
     
     }
     
+    /**
+     * Gets the topology the board was created from, it is shared with every other game on the same map
+     * @return the topology
+     */
+    public BoardTopology getTopology(){
+        return topology;
+    }
+    
+    /**
+     * Gets the layout the board was created from
+     * @return the layout
+     */
+    public MapLayout getLayout(){
+        return layout;
+    }
+    
     public int getBoardWidth(){
         return boardWidth;
     }
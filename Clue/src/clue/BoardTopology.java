@@ -0,0 +1,248 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The parts of a board that never change during a game: the layout and adjacency, the cells of every room, the drawing
+ * location of every door and the order starting tiles are handed out in.
+ * A topology is immutable so one is shared by every game played on the same map. Topologies loaded from files are cached
+ * by the content of the files, so an edited map gets a new topology while the same map under another path shares one.
+ * Each game builds its own BoardMappings from the topology, which only holds what a game changes: who occupies which tile
+ * and which room locations tokens are drawn at.
+ */
+public final class BoardTopology {
+
+    /**
+     * The most topologies kept, the cache is emptied when it grows past this (the editor makes a new map on every save)
+     */
+    static final int MAX_CACHED = 16;
+
+    private static final ConcurrentHashMap<String, BoardTopology> CACHE = new ConcurrentHashMap<>();
+
+    private final MapLayout layout;
+    private final List<List<int[]>> roomLocations;
+    private final List<List<int[]>> doorLocations;
+    private final List<List<int[]>> drawingLocations;
+    private final int[] startCells;
+
+    /**
+     * Works out the topology of a layout, the layout is shared and not copied
+     * @param layout the layout of the board
+     */
+    public BoardTopology(MapLayout layout) {
+        this.layout = layout;
+        int width = layout.getWidth();
+        List<List<int[]>> locations = new ArrayList<>();
+        List<List<int[]>> doors = new ArrayList<>();
+        List<List<int[]>> drawing = new ArrayList<>();
+        for (int r = 0; r < layout.getRoomCount(); r++) {
+            locations.add(new ArrayList<>());
+            doors.add(new ArrayList<>());
+        }
+        for (int y = 0; y < layout.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                if (layout.getType(x, y) == MapLayout.ROOM) {
+                    locations.get(layout.getValue(x, y)).add(new int[]{x, y});
+                }
+            }
+        }
+        for (int i = 0; i < layout.getDoorCount(); i++) {
+            doors.get(layout.getDoorRoom(i)).add(doorLocation(layout, i));
+        }
+        for (int r = 0; r < layout.getRoomCount(); r++) {
+            List<int[]> free = new ArrayList<>(locations.get(r));
+            for (int[] loc : doors.get(r)) {//a token is never drawn in a doorway
+                for (int i = 0; i < free.size(); i++) {
+                    if (loc[0] == free.get(i)[0] && loc[1] == free.get(i)[1]) {
+                        free.remove(i);
+                        break;
+                    }
+                }
+            }
+            locations.set(r, Collections.unmodifiableList(locations.get(r)));
+            doors.set(r, Collections.unmodifiableList(doors.get(r)));
+            drawing.add(Collections.unmodifiableList(free));
+        }
+        roomLocations = Collections.unmodifiableList(locations);
+        doorLocations = Collections.unmodifiableList(doors);
+        drawingLocations = Collections.unmodifiableList(drawing);
+
+        PriorityQueue<int[]> starts = new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+        for (int i = 0; i < layout.getStartCount(); i++) {//queued in board order and polled the way BoardMappings always did
+            starts.add(new int[]{layout.getStartCell(i), layout.getStartId(i)});
+        }
+        startCells = new int[starts.size()];
+        for (int i = 0; i < startCells.length; i++) {
+            startCells[i] = starts.poll()[0];
+        }
+    }
+
+    /**
+     * Works out where a door is drawn: the room location next to the outside tile and the direction of the door
+     * @param layout the layout of the board
+     * @param door the index of the door
+     * @return x,y and the direction (up = 1, right = 2, down = 3, left = 4), all -1 for an unknown direction
+     */
+    private static int[] doorLocation(MapLayout layout, int door) {
+        int x = layout.getDoorX(door);
+        int y = layout.getDoorY(door);
+        switch (layout.getType(x, y)) {//the outside "tile" is whatever BoardMappings holds for that cell
+            case MapLayout.ROOM:
+                y = layout.getValue(x, y);
+                x = -1;
+                break;
+            case MapLayout.EMPTY:
+                x = -1;
+                y = -1;
+                break;
+            default:
+                break;
+        }
+        switch (layout.getDoorDirection(door)) {
+            case MapLayout.UP://the tile is above the room
+                return new int[]{x, y + 1, MapLayout.UP};
+            case MapLayout.RIGHT:
+                return new int[]{x - 1, y, MapLayout.RIGHT};
+            case MapLayout.DOWN://the tile is below the room
+                return new int[]{x, y - 1, MapLayout.DOWN};
+            case MapLayout.LEFT:
+                return new int[]{x + 1, y, MapLayout.LEFT};
+            default:
+                return new int[]{-1, -1, -1};
+        }
+    }
+
+    /**
+     * Gets the topology of a map, from the cache when a map with the same content was loaded before
+     * @param tilePath the tile csv, or a .cluemap file
+     * @param doorPath the door csv, ignored for a .cluemap file
+     * @return the topology
+     * @throws NoSuchRoomException thrown when a door leads to a room that doesn't exist
+     * @throws NoSuchTileException thrown when a door leads to a tile that doesn't exist, or the compiled map can't be read
+     * @throws MissingRoomDuringCreationException thrown when room with id N was found, but a room id less than N is missing
+     */
+    public static BoardTopology load(String tilePath, String doorPath) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+        String key;
+        try {
+            key = contentKey(tilePath, doorPath);
+        } catch (IOException ex) {//let MapLayout report the missing file the way it always has
+            return new BoardTopology(MapLayout.load(tilePath, doorPath));
+        }
+        BoardTopology topology = CACHE.get(key);
+        if (topology == null) {
+            topology = new BoardTopology(MapLayout.load(tilePath, doorPath));
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            BoardTopology cached = CACHE.putIfAbsent(key, topology);
+            if (cached != null) {//another game loaded it at the same time
+                topology = cached;
+            }
+        }
+        return topology;
+    }
+
+    /**
+     * Hashes everything a map is built from: the bytes of its files and whether it gets the built in shortcuts
+     * @param tilePath the tile csv, or a .cluemap file
+     * @param doorPath the door csv, ignored for a .cluemap file
+     * @return the hex SHA-256 of the map
+     * @throws IOException thrown when a file can't be read
+     */
+    static String contentKey(String tilePath, String doorPath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {//every JVM has SHA-256
+            throw new IllegalStateException(ex);
+        }
+        boolean compiled = tilePath.endsWith(MapLayout.EXTENSION);
+        byte[] tiles = Files.readAllBytes(Paths.get(tilePath));
+        byte[] doors = compiled ? new byte[0] : Files.readAllBytes(Paths.get(doorPath));
+        digest.update(ByteBuffer.allocate(9).putInt(tiles.length).putInt(doors.length)
+                .put((byte) ((compiled ? 1 : 0) | (MapLayout.hasBuiltInShortcuts(tilePath) ? 2 : 0))).array());
+        digest.update(tiles);
+        digest.update(doors);
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Empties the cache, games already running keep their topology
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Gets the layout of the board
+     * @return the layout
+     */
+    public MapLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets the cells of a room in board order
+     * @param room the room id
+     * @return the x,y locations of the room, the arrays must not be changed
+     */
+    public List<int[]> getRoomLocations(int room) {
+        return roomLocations.get(room);
+    }
+
+    /**
+     * Gets the drawing locations of the doors of a room
+     * @param room the room id
+     * @return x,y and the direction of each door (up = 1, right = 2, down = 3, left = 4), the arrays must not be changed
+     */
+    public List<int[]> getDoorLocations(int room) {
+        return doorLocations.get(room);
+    }
+
+    /**
+     * Gets the cells of a room tokens can be drawn at, every cell but the doorways
+     * @param room the room id
+     * @return the x,y locations, the arrays must not be changed
+     */
+    public List<int[]> getDrawingLocations(int room) {
+        return drawingLocations.get(room);
+    }
+
+    /**
+     * Gets the number of starting tiles
+     * @return the number of starting tiles
+     */
+    public int getStartCount() {
+        return startCells.length;
+    }
+
+    /**
+     * Gets a starting tile in the order they are handed out
+     * @param i the index of the start, 0 is handed out first
+     * @return the cell (y*width+x) of the starting tile
+     */
+    public int getStartCell(int i) {
+        return startCells[i];
+    }
+}
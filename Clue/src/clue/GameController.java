@@ -15,8 +15,11 @@ import clue.tile.SpecialTile;
 import clue.tile.Tile;
 import clue.tile.Room;
 import clue.tile.TileOccupiedException;
+import clue.metrics.GameMetrics;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
@@ -46,12 +49,22 @@ public final class GameController {
     private int winner;
     private Player player;
     private final Random random;
+    private final long seed;
     private List<Action> actionLog;
     private Queue<Action> actions;
     private List<WeaponCard> weaponCards;
     private List<PersonCard> personCards;
     private List<RoomCard> roomCards;
     private GameInstance gui;
+    private final List<GameListener> listeners;
+    private boolean endReported;
+    private final GameMetrics metrics = GameMetrics.getDefault();
+    private long timedNanos;
+    
+    /**
+     * Actions which start other actions while executing, these are reported to listeners before they execute
+     */
+    private static final EnumSet<ActionType> REPORTED_BEFORE_EXECUTE = EnumSet.of(ActionType.STARTTURN, ActionType.ENDTURN, ActionType.SHOWCARDS, ActionType.THROWAGAIN);
 
     /**
      * Creates a new GameController which provides the backend logic and calls used by players to participate in the game
@@ -67,11 +80,70 @@ public final class GameController {
      * @throws clue.NotEnoughPlayersException thrown when game is created with less then 2 players
      */
     public GameController(int human, int ai, String tilePath, String doorPath) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException, TooManyPlayersException, NotEnoughPlayersException {
-        //TODO
-        bm = new BoardMappings(tilePath, doorPath);
+        this(human, ai, tilePath, doorPath, new GameListener[0]);
+    }
+    
+    /**
+     * Creates a new GameController with listeners attached before the game starts,
+     * games with only ai players are played to completion inside the constructor so this is the only way to observe them
+     *
+     * @param human the number of human players
+     * @param ai the number of ai players
+     * @param tilePath the directory of the csv file used to make the tiles
+     * @param doorPath the directory of the csv file used to make the doors
+     * @param listeners the listeners to notify of every action performed
+     * @throws clue.tile.NoSuchRoomException thrown when a door in doorPath csv points to a room that was not found
+     * @throws clue.tile.NoSuchTileException thrown when a door in doorPath csv points to a tile that was not found
+     * @throws clue.MissingRoomDuringCreationException thrown when the tilePath csv is missing a room, if the max room id is N, you must have 1-N in the csv
+     * @throws clue.GameController.TooManyPlayersException thrown when player count exceeds 6 or the number of starting locations
+     * @throws clue.NotEnoughPlayersException thrown when game is created with less then 2 players
+     */
+    public GameController(int human, int ai, String tilePath, String doorPath, GameListener... listeners) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException, TooManyPlayersException, NotEnoughPlayersException {
+        this(human, ai, tilePath, doorPath, Calendar.getInstance().getTimeInMillis(), listeners);
+    }
+    
+    /**
+     * Creates a new GameController whose dice, card deals, intrigue draws and ai decisions all come from one seed,
+     * two games created with the same seed, board and players play out identically
+     *
+     * @param human the number of human players
+     * @param ai the number of ai players
+     * @param tilePath the directory of the csv file used to make the tiles
+     * @param doorPath the directory of the csv file used to make the doors
+     * @param seed the seed of every random choice made in the game
+     * @param listeners the listeners to notify of every action performed
+     * @throws clue.tile.NoSuchRoomException thrown when a door in doorPath csv points to a room that was not found
+     * @throws clue.tile.NoSuchTileException thrown when a door in doorPath csv points to a tile that was not found
+     * @throws clue.MissingRoomDuringCreationException thrown when the tilePath csv is missing a room, if the max room id is N, you must have 1-N in the csv
+     * @throws clue.GameController.TooManyPlayersException thrown when player count exceeds 6 or the number of starting locations
+     * @throws clue.NotEnoughPlayersException thrown when game is created with less then 2 players
+     */
+    public GameController(int human, int ai, String tilePath, String doorPath, long seed, GameListener... listeners) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException, TooManyPlayersException, NotEnoughPlayersException {
+        this(human, ai, BoardTopology.load(tilePath, doorPath), seed, listeners);
+    }
+    
+    /**
+     * Creates a new GameController on a board that is already in memory, such as the map open in the board editor,
+     * so nothing is read from disk or parsed
+     *
+     * @param human the number of human players
+     * @param ai the number of ai players
+     * @param topology the board, it can be shared with any number of other games
+     * @param seed the seed of every random choice made in the game
+     * @param listeners the listeners to notify of every action performed
+     * @throws clue.tile.NoSuchRoomException thrown when the board has no rooms to put players or weapons in
+     * @throws clue.tile.NoSuchTileException thrown when the board has fewer starting tiles than players
+     * @throws clue.GameController.TooManyPlayersException thrown when player count exceeds 6 or the number of starting locations
+     * @throws clue.NotEnoughPlayersException thrown when game is created with less then 2 players
+     */
+    public GameController(int human, int ai, BoardTopology topology, long seed, GameListener... listeners) throws NoSuchRoomException, NoSuchTileException, TooManyPlayersException, NotEnoughPlayersException {
+        bm = new BoardMappings(topology);
         LinkedList<Tile> startingTiles = bm.getStartingTiles();
         
         gui = null;
+        this.listeners = new ArrayList<>(Arrays.asList(listeners));
+        this.seed = seed;
+        random = new Random(seed);
         winner = -1;
         
         weaponCards = new ArrayList<>();
@@ -85,14 +157,13 @@ public final class GameController {
             players.add(new Player(i, this));
         }
         for (int i = human; i < human + ai; i++) {
-            players.add(new AiAdvanced(i, this, getBoardWidth(), getBoardHeight()));
+            players.add(new AiAdvanced(i, this, getBoardWidth(), getBoardHeight(), random.nextLong()));
         }
         if (players.size() > 6 || players.size() > startingTiles.size()) {
             throw new TooManyPlayersException();
         }
         
         
-        random = new Random(Calendar.getInstance().getTimeInMillis());
         actionLog = new ArrayList();
         state = new GameState(players);
         if (human+ai > startingTiles.size()){
@@ -153,7 +224,35 @@ public final class GameController {
     }
     
     /**
-     * Performs a given action, constructs and performs the next action if the given action produces another action
+     * Adds a listener which is notified of every action performed from now on
+     * @param listener the listener to add
+     */
+    public void addGameListener(GameListener listener){
+        listeners.add(listener);
+    }
+    
+    /**
+     * Removes a previously added listener
+     * @param listener the listener to remove
+     */
+    public void removeGameListener(GameListener listener){
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Tells every listener that an action was performed
+     * @param action the performed action
+     */
+    private void notifyListeners(Action action){
+        for (GameListener listener : listeners){
+            listener.actionPerformed(this, action);
+        }
+    }
+    
+    /**
+     * Performs a given action, constructs and performs the next action if the given action produces another action.
+     * How long the action took, apart from the actions it went on to perform, is recorded in the GameMetrics. An action
+     * that throws isn't recorded, its time goes to the action that performed it.
      *
      * @param action the action to be executed
      * @throws UnknownActionException thrown when it was given an action that it didn't know how to handle
@@ -162,12 +261,18 @@ public final class GameController {
     public void performAction(Action action) throws UnknownActionException, TileOccupiedException {
         
         if (state.isRunning()){//only execute the action if game is running
+            long started = System.nanoTime();
+            long timedBefore = timedNanos;
             Action nextAction = null;
 
             player = players.get(state.getPlayerTurn());//get the current player whose turn it is
 
             System.out.println("[GameController.performAction] ----"+action.getActionType() + " executing------"
                     + "---------------------------------------------------------- player turn: "+player.getId());
+            boolean reportedEarly = REPORTED_BEFORE_EXECUTE.contains(action.getActionType());
+            if (reportedEarly){
+                notifyListeners(action);
+            }
             action.execute();//action.execute() handles a lot of the logic behind execution of an action
             switch (action.getActionType()) {
                 default:
@@ -301,6 +406,7 @@ public final class GameController {
                     break;
                 case SUGGEST:
                     System.out.println("    CASE SUGGEST "+action.getPlayer().getId() + " FROM: "+state.getLastAction().getActionType());
+                    metrics.addSuggestion(action.result);
                     if (!(state.getLastAction().getActionType() == ActionType.SUGGEST || state.getLastAction().getActionType() == ActionType.ACCUSATION)) {
                         if (action.result){
 
@@ -361,9 +467,27 @@ public final class GameController {
                     nextAction = new StartTurnAction(action.getPlayer());
                     break;
             }
+            if (!reportedEarly){
+                notifyListeners(action);
+            }
+            if (!state.isRunning() && !endReported){//tell listeners once, after the action which ended the game
+                endReported = true;
+                for (GameListener listener : listeners){
+                    listener.gameEnded(this);
+                }
+            }
             //update game state
             state.setAction(action);
             //state.notifyAllPlayers();
+            long ownNanos = System.nanoTime() - started - (timedNanos - timedBefore);//the actions it performed were timed already
+            metrics.recordAction(action.getActionType(), ownNanos);
+            timedNanos += ownNanos;
+            if (action instanceof MoveAction) {
+                metrics.addBfsExpansions(((MoveAction) action).getBfsExpansions());
+            }
+            if (action.getPlayer() instanceof AiAdvanced) {//the searches it ran to decide what to do inside this action
+                metrics.addBfsExpansions(((AiAdvanced) action.getPlayer()).takeBfsExpansions());
+            }
             if (nextAction != null) {
                 performAction(nextAction);
             }
@@ -410,6 +534,14 @@ public final class GameController {
         return null;
     }
     
+    /**
+     * Gets the seed the game's random choices were made from
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+    
     /**
      * Gets the winning Player id
      * @return the player id of who won
@@ -468,6 +600,14 @@ public final class GameController {
         }
     }
 
+    /**
+     * Gets every tile and room the current player can move to with the moves they have left
+     * @return the reachable tiles nearest first, empty when the player has no moves
+     */
+    public List<Tile> getReachableTiles() {
+        return MoveAction.reachable(player.getPosition(), player.getMoves(), bm.getBoardWidth(), bm.getBoardHeight());
+    }
+
     /**
      * rolls the current player's moves
      *
@@ -488,11 +628,10 @@ public final class GameController {
         int numberOfPersons = 6;
                 
         ArrayList<Card> cardDeck = new ArrayList<>();
-        Random rand = new Random(Calendar.getInstance().getTimeInMillis());
         int randInt = -1;
               
         Room[] rooms = bm.getRooms();
-        randInt = rand.nextInt(rooms.length);
+        randInt = random.nextInt(rooms.length);
         try {
             for (int i = 0; i < rooms.length; i++){
                 roomCards.add(rooms[i].getCard());
@@ -509,7 +648,7 @@ public final class GameController {
             System.out.println(ex);
         }
         
-        randInt = rand.nextInt(numberOfWeapons);       
+        randInt = random.nextInt(numberOfWeapons);       
         WeaponCard weaponCard;
         for (int i = 0; i < numberOfWeapons; i++){
             weaponCard = new WeaponCard(i);
@@ -522,7 +661,7 @@ public final class GameController {
             }
             
         }
-        randInt = rand.nextInt(numberOfPersons);   
+        randInt = random.nextInt(numberOfPersons);   
         
         PersonCard personCard;
         for (int i = 0; i < numberOfPersons; i++){
@@ -545,7 +684,7 @@ public final class GameController {
                 playerIndex = 0;
             }
             else if (players.get(playerIndex).isActive()){//only give cards to active players
-                randInt = rand.nextInt(cardDeck.size());//select random index
+                randInt = random.nextInt(cardDeck.size());//select random index
                 players.get(playerIndex).addCard(cardDeck.get(randInt));//give card from cards list at the random index
                 cardDeck.remove(randInt);//remove the already given card from cards list
                 playerIndex++;
@@ -728,6 +867,7 @@ public final class GameController {
      * @return a random intrigue card
      */
     public IntrigueCard drawCard() {
+        metrics.addIntrigueDraw();
         int nextCard = random.nextInt(intrigueCards.size());
         return intrigueCards.remove(nextCard);
     }
@@ -838,6 +978,38 @@ public final class GameController {
         return bm.getBoardHeight();
     }
     
+    /**
+     * Gets the layout of the board, the type of every cell for drawing it
+     * @return the board's layout
+     */
+    public MapLayout getMapLayout() {
+        return bm.getLayout();
+    }
+    
+    /**
+     * Gets the rooms of the board
+     * @return the rooms, indexed by room id
+     */
+    public Room[] getRooms() {
+        return bm.getRooms();
+    }
+    
+    /**
+     * Gets how many intrigue cards are left in the deck, the rest are held by players
+     * @return the number of cards in the deck, 0 before the game has started
+     */
+    public int getIntrigueDeckSize() {
+        return intrigueCards == null ? 0 : intrigueCards.size();
+    }
+    
+    /**
+     * Gets how many actions have been logged for players to be told about
+     * @return the size of the action log
+     */
+    public int getActionLogSize() {
+        return actionLog.size();
+    }
+    
     /**
      * Gets all the (x,y) coordinates of room tiles which the GUI should draw doors at
      * @return the list of (x,y) coordinates
@@ -0,0 +1,33 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.action.Action;
+
+/**
+ * Receives the stream of actions performed by a GameController.
+ * Listeners are called on the thread performing the action and should return quickly.
+ */
+public interface GameListener {
+
+    /**
+     * Called each time the GameController performs an action.
+     * Actions which hand control over to other actions (STARTTURN, ENDTURN, SHOWCARDS and THROWAGAIN)
+     * are reported before they execute so that listeners receive actions in the order they happen,
+     * every other action is reported once its effects (token movement, winner etc.) have been applied.
+     *
+     * @param game the game the action was performed in
+     * @param action the action that was performed
+     */
+    void actionPerformed(GameController game, Action action);
+
+    /**
+     * Called once when the game has ended
+     *
+     * @param game the game which ended
+     */
+    void gameEnded(GameController game);
+}
@@ -0,0 +1,53 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import java.io.IOException;
+
+/**
+ * Compiles the csv pair of a map into a .cluemap file, which BoardMappings and GameController load in place of the csv files:
+ * <pre>java clue.MapCompiler Maps/name/nameTiles.csv Maps/name/nameDoors.csv Maps/name/name.cluemap [distances]</pre>
+ * The csv files stay the source of a map, compile again after editing them.
+ */
+public class MapCompiler {
+
+    /**
+     * Compiles a map
+     * @param tilePath the tile csv
+     * @param doorPath the door csv
+     * @param outputPath the .cluemap file to write
+     * @param withDistances whether to store the distance tables
+     * @return the compiled layout
+     * @throws IOException thrown when the .cluemap file can't be written
+     * @throws NoSuchRoomException thrown when a door leads to a room that doesn't exist
+     * @throws NoSuchTileException thrown when a door leads to a tile that doesn't exist
+     * @throws MissingRoomDuringCreationException thrown when room with id N was found, but a room id less than N is missing
+     */
+    public static MapLayout compile(String tilePath, String doorPath, String outputPath, boolean withDistances) throws IOException, NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+        MapLayout layout = MapLayout.parseCsv(tilePath, doorPath, withDistances);
+        layout.write(outputPath);
+        return layout;
+    }
+
+    /**
+     * Compiles the map given on the command line
+     * @param args tile csv, door csv, output .cluemap file, and optionally "distances"
+     * @throws Exception thrown when the map is not valid or can't be written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: MapCompiler <tiles csv> <doors csv> <output" + MapLayout.EXTENSION + "> [distances]");
+            System.exit(1);
+        }
+        boolean withDistances = args.length > 3 && args[3].equals("distances");
+        MapLayout layout = compile(args[0], args[1], args[2], withDistances);
+        System.out.println("[MapCompiler.main] " + args[2] + ": " + layout.getWidth() + "x" + layout.getHeight() + ", "
+                + layout.getRoomCount() + " rooms, " + layout.getDoorCount() + " doors, " + layout.getStartCount() + " starts"
+                + (withDistances ? ", with distances" : ""));
+    }
+}
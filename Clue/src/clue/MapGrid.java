@@ -0,0 +1,494 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import java.util.Arrays;
+
+/**
+ * A map being edited, held in two primitive arrays: the type of every cell (the MapLayout types) and the direction of
+ * the door on every room cell. Reading or changing a cell is an array index, so the editor can paint, fill and repaint
+ * maps hundreds of cells per side without searching for the cell it was given.
+ * Every change is reported to the CellListener one cell at a time, which is how the editor knows what to repaint.
+ * Changes are also recorded by the grid's MapHistory, when it has one, so they can be undone.
+ *
+ * The rooms of the map (the connected areas of room cells) are tracked with a union-find over the cells: painting a
+ * room cell joins it to the room cells next to it straight away, and the rooms are only worked out again, in one sweep
+ * of the grid, after a room cell was painted over, which can split a room.
+ */
+public class MapGrid {
+
+    /**
+     * The door direction of a cell without a door
+     */
+    public static final byte NO_DOOR = 0;
+
+    /**
+     * Told about every cell that changed
+     */
+    public interface CellListener {
+
+        /**
+         * Called after the type or door of a cell changed
+         * @param x the x coordinate of the cell
+         * @param y the y coordinate of the cell
+         */
+        void cellChanged(int x, int y);
+    }
+
+    private final int width;
+    private final int height;
+    private final byte[] types;
+    private final byte[] doors;
+    private CellListener listener;
+    private MapHistory history;
+    private int version;
+    private final int[] parent;
+    private boolean roomsValid;
+    private int roomCount;
+
+    /**
+     * Creates a grid with every cell of one type
+     * @param width the width of the map
+     * @param height the height of the map
+     * @param type the MapLayout type every cell starts as
+     */
+    public MapGrid(int width, int height, byte type) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("A map must be at least 1x1, not " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        types = new byte[width * height];
+        doors = new byte[width * height];
+        parent = new int[width * height];
+        Arrays.fill(types, type);
+    }
+
+    /**
+     * Sets what is told about changed cells
+     * @param listener the listener, null for none
+     */
+    public void setCellListener(CellListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the width of the map
+     * @return the number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the map
+     * @return the number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Checks whether a cell is on the map
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return true when it is on the map
+     */
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * Gets the type of a cell
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return one of the MapLayout types
+     */
+    public byte getType(int x, int y) {
+        return types[y * width + x];
+    }
+
+    /**
+     * Gets the door of a cell
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the MapLayout direction of the door, NO_DOOR when there is none
+     */
+    public byte getDoor(int x, int y) {
+        return doors[y * width + x];
+    }
+
+    /**
+     * Sets the type of a cell, removing its door
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param type one of the MapLayout types
+     * @return true when the cell changed
+     */
+    public boolean setType(int x, int y, byte type) {
+        int cell = y * width + x;
+        if (types[cell] == type && doors[cell] == NO_DOOR) {
+            return false;
+        }
+        set(cell, type, NO_DOOR, true);
+        return true;
+    }
+
+    /**
+     * Sets the door of a room cell
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param direction the MapLayout direction the door leads out of the room, NO_DOOR to remove it
+     * @return true when the cell changed
+     */
+    public boolean setDoor(int x, int y, byte direction) {
+        int cell = y * width + x;
+        if (types[cell] != MapLayout.ROOM) {
+            throw new IllegalArgumentException("Doors can only be placed on room cells, not at " + x + "," + y);
+        }
+        if (doors[cell] == direction) {
+            return false;
+        }
+        set(cell, types[cell], direction, true);
+        return true;
+    }
+
+    /**
+     * Puts a cell back the way it was, without it being recorded by the history, used to undo and redo edits
+     * @param cell the cell (y*width+x)
+     * @param type one of the MapLayout types
+     * @param door the MapLayout direction of the door, NO_DOOR for none
+     */
+    void restore(int cell, byte type, byte door) {
+        if (types[cell] != type || doors[cell] != door) {
+            set(cell, type, door, false);
+        }
+    }
+
+    /**
+     * Sets the history that records every change made to the grid
+     * @param history the history, null for none
+     */
+    void setHistory(MapHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Changes a cell, keeping the rooms up to date and telling the history and the listener
+     * @param cell the cell (y*width+x)
+     * @param type one of the MapLayout types
+     * @param door the MapLayout direction of the door, NO_DOOR for none
+     * @param record whether the history should record the change
+     */
+    private void set(int cell, byte type, byte door, boolean record) {
+        byte old = types[cell];
+        if (record && history != null) {
+            history.record(cell, old, doors[cell], type, door);
+        }
+        types[cell] = type;
+        doors[cell] = door;
+        version++;
+        if (old == MapLayout.ROOM && type != MapLayout.ROOM) {
+            roomsValid = false;
+        } else if (old != MapLayout.ROOM && type == MapLayout.ROOM && roomsValid) {
+            addRoomCell(cell);
+        }
+        changed(cell % width, cell / width);
+    }
+
+    /**
+     * Sets every cell of a rectangle to a type, the corners may be given in any order and are clamped to the map
+     * @param x0 the x coordinate of one corner
+     * @param y0 the y coordinate of one corner
+     * @param x1 the x coordinate of the opposite corner
+     * @param y1 the y coordinate of the opposite corner
+     * @param type one of the MapLayout types
+     * @return how many cells changed
+     */
+    public int fillRect(int x0, int y0, int x1, int y1, byte type) {
+        int left = Math.max(0, Math.min(x0, x1));
+        int right = Math.min(width - 1, Math.max(x0, x1));
+        int top = Math.max(0, Math.min(y0, y1));
+        int bottom = Math.min(height - 1, Math.max(y0, y1));
+        int count = 0;
+        for (int y = top; y <= bottom; y++) {
+            for (int x = left; x <= right; x++) {
+                if (setType(x, y, type)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sets the connected area of cells sharing the type of a cell to another type, cells connect up, down, left and right.
+     * The area is filled a row span at a time with an explicit stack, so a fill of the whole map does not recurse.
+     * @param x the x coordinate of the cell to fill from
+     * @param y the y coordinate of the cell to fill from
+     * @param type one of the MapLayout types
+     * @return how many cells changed
+     */
+    public int floodFill(int x, int y, byte type) {
+        byte from = getType(x, y);
+        if (from == type) {
+            return 0;
+        }
+        int count = 0;
+        int[] stack = new int[64];
+        int size = 0;
+        stack[size++] = y * width + x;
+        while (size > 0) {
+            int cell = stack[--size];
+            int cy = cell / width;
+            int left = cell % width;
+            if (types[cell] != from) {
+                continue;
+            }
+            while (left > 0 && types[cy * width + left - 1] == from) {
+                left--;
+            }
+            int right = left;
+            boolean spanAbove = false;
+            boolean spanBelow = false;
+            while (right < width && types[cy * width + right] == from) {
+                setType(right, cy, type);
+                count++;
+                if (cy > 0) {
+                    boolean open = types[(cy - 1) * width + right] == from;
+                    if (open && !spanAbove) {
+                        if (size == stack.length) {
+                            stack = Arrays.copyOf(stack, size * 2);
+                        }
+                        stack[size++] = (cy - 1) * width + right;
+                    }
+                    spanAbove = open;
+                }
+                if (cy < height - 1) {
+                    boolean open = types[(cy + 1) * width + right] == from;
+                    if (open && !spanBelow) {
+                        if (size == stack.length) {
+                            stack = Arrays.copyOf(stack, size * 2);
+                        }
+                        stack[size++] = (cy + 1) * width + right;
+                    }
+                    spanBelow = open;
+                }
+                right++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the cells of a type
+     * @param type one of the MapLayout types
+     * @return the number of cells
+     */
+    public int count(byte type) {
+        int count = 0;
+        for (byte cell : types) {
+            if (cell == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets a number that changes every time a cell changes, so whatever was made from the grid can tell it is out of date
+     * @return the version of the grid
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Builds the layout of the map as it is now, the same layout the csv pair or .cluemap it is saved as would load.
+     * Rooms are numbered by labelRooms and the starting tiles are handed out in reading order.
+     * @param withDistances whether to compute the distance tables
+     * @return the layout
+     * @throws NoSuchRoomException never thrown for a grid, every door belongs to a labelled room
+     * @throws NoSuchTileException thrown when a door leads off the board
+     * @throws MissingRoomDuringCreationException never thrown for a grid, rooms are numbered without gaps
+     */
+    public MapLayout toLayout(boolean withDistances) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+        int[] rooms = labelRooms();
+        MapLayout.Builder builder = new MapLayout.Builder(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                switch (types[cell]) {
+                    case MapLayout.EMPTY:
+                        break;
+                    case MapLayout.INTRIGUE:
+                        builder.setCell(x, y, MapLayout.INTRIGUE, 0);
+                        break;
+                    case MapLayout.START:
+                        builder.setCell(x, y, MapLayout.START, MapLayout.UNNUMBERED_START);
+                        break;
+                    case MapLayout.ROOM:
+                        int room = rooms[cell] - 1;
+                        builder.setCell(x, y, MapLayout.ROOM, room);
+                        switch (doors[cell]) {
+                            case MapLayout.LEFT:
+                                builder.addDoor(room, x - 1, y, MapLayout.LEFT);
+                                break;
+                            case MapLayout.RIGHT:
+                                builder.addDoor(room, x + 1, y, MapLayout.RIGHT);
+                                break;
+                            case MapLayout.DOWN:
+                                builder.addDoor(room, x, y + 1, MapLayout.DOWN);
+                                break;
+                            case MapLayout.UP:
+                                builder.addDoor(room, x, y - 1, MapLayout.UP);
+                                break;
+                            default:
+                                break;
+                        }
+                        break;
+                    default:
+                        builder.setCell(x, y, MapLayout.TILE, 0);
+                        break;
+                }
+            }
+        }
+        return builder.build(withDistances);
+    }
+
+    /**
+     * Gets how many rooms the map has, a room being a connected area of room cells
+     * @return the number of rooms
+     */
+    public int getRoomCount() {
+        validateRooms();
+        return roomCount;
+    }
+
+    /**
+     * Numbers the rooms of the map from 1, in the order their first cell is met reading the map row by row
+     * @return the room id of every cell (y*width+x), 0 for cells which aren't in a room
+     */
+    public int[] labelRooms() {
+        validateRooms();
+        int[] labels = new int[types.length];
+        int next = 1;
+        for (int cell = 0; cell < types.length; cell++) {
+            if (types[cell] == MapLayout.ROOM) {
+                int root = find(cell);
+                labels[cell] = root == cell ? next++ : labels[root];//the root of a room is its first cell
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Checks whether two cells are in the same room
+     * @param x0 the x coordinate of one cell
+     * @param y0 the y coordinate of one cell
+     * @param x1 the x coordinate of the other cell
+     * @param y1 the y coordinate of the other cell
+     * @return true when both are room cells of the same room
+     */
+    public boolean isSameRoom(int x0, int y0, int x1, int y1) {
+        if (getType(x0, y0) != MapLayout.ROOM || getType(x1, y1) != MapLayout.ROOM) {
+            return false;
+        }
+        validateRooms();
+        return find(y0 * width + x0) == find(y1 * width + x1);
+    }
+
+    /**
+     * Works the rooms out again when a room cell was painted over since, in one sweep joining every room cell to the
+     * room cells left of and above it
+     */
+    private void validateRooms() {
+        if (roomsValid) {
+            return;
+        }
+        roomCount = 0;
+        for (int cell = 0; cell < types.length; cell++) {
+            if (types[cell] == MapLayout.ROOM) {
+                parent[cell] = cell;
+                roomCount++;
+                if (cell % width > 0 && types[cell - 1] == MapLayout.ROOM) {
+                    union(cell, cell - 1);
+                }
+                if (cell >= width && types[cell - width] == MapLayout.ROOM) {
+                    union(cell, cell - width);
+                }
+            }
+        }
+        roomsValid = true;
+    }
+
+    /**
+     * Adds a newly painted room cell as a room of its own and joins it to the rooms next to it
+     * @param cell the cell (y*width+x)
+     */
+    private void addRoomCell(int cell) {
+        parent[cell] = cell;
+        roomCount++;
+        int x = cell % width;
+        if (x > 0 && types[cell - 1] == MapLayout.ROOM) {
+            union(cell, cell - 1);
+        }
+        if (x < width - 1 && types[cell + 1] == MapLayout.ROOM) {
+            union(cell, cell + 1);
+        }
+        if (cell >= width && types[cell - width] == MapLayout.ROOM) {
+            union(cell, cell - width);
+        }
+        if (cell + width < types.length && types[cell + width] == MapLayout.ROOM) {
+            union(cell, cell + width);
+        }
+    }
+
+    /**
+     * Finds the root of a room cell, halving the path on the way
+     * @param cell the cell (y*width+x)
+     * @return the first cell of its room
+     */
+    private int find(int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * Joins the rooms of two room cells, the root with the lower index is kept so a room's root is always its first cell
+     * @param a one cell
+     * @param b the other cell
+     */
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else {
+            parent[rootA] = rootB;
+        }
+        roomCount--;
+    }
+
+    /**
+     * Tells the listener a cell changed
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    private void changed(int x, int y) {
+        if (listener != null) {
+            listener.cellChanged(x, y);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import java.util.Arrays;
+
+/**
+ * The undo and redo history of a MapGrid. Every change to a cell is recorded as one int holding the cell index and the
+ * type and door of the cell before and after the change, and the changes made between beginEdit and endEdit (a brush
+ * stroke, a rectangle or a fill) are undone and redone together. A cell painted more than once in a row within an edit
+ * is kept as one change.
+ * The history holds at most a set number of changes, once it is over that the oldest edits are dropped, so it never
+ * costs more than four bytes a change however large the map is. Undo and redo only touch the cells of the edit.
+ */
+public class MapHistory {
+
+    /**
+     * The most cells a grid may have to be recorded, the cell index is kept in the top 19 bits of a change
+     */
+    public static final int MAX_CELLS = 1 << 19;
+
+    private final MapGrid grid;
+    private final int maxChanges;
+    private int[] changes;
+    private int size;
+    private int[] edits;
+    private int editCount;
+    private int current;
+    private boolean editing;
+    private boolean editStarted;
+
+    /**
+     * Creates the history of a grid and starts recording every change made to it
+     * @param grid the grid
+     * @param maxChanges the most changes kept before the oldest edits are dropped, the latest edit is always kept
+     */
+    public MapHistory(MapGrid grid, int maxChanges) {
+        if (grid.getWidth() * grid.getHeight() > MAX_CELLS) {
+            throw new IllegalArgumentException("A map of " + grid.getWidth() + "x" + grid.getHeight() + " is too large to record");
+        }
+        this.grid = grid;
+        this.maxChanges = maxChanges;
+        changes = new int[1024];
+        edits = new int[64];
+        grid.setHistory(this);
+    }
+
+    /**
+     * Starts an edit, every change until endEdit is undone together
+     */
+    public void beginEdit() {
+        editing = true;
+        editStarted = false;
+    }
+
+    /**
+     * Ends the current edit, dropping the oldest edits when the history is too large
+     */
+    public void endEdit() {
+        editing = false;
+        trim();
+    }
+
+    /**
+     * Checks whether there is an edit to undo
+     * @return true when undo would change the grid
+     */
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    /**
+     * Checks whether there is an undone edit to redo
+     * @return true when redo would change the grid
+     */
+    public boolean canRedo() {
+        return current < editCount;
+    }
+
+    /**
+     * Undoes the latest edit, putting its cells back in the reverse order they were changed
+     * @return how many changes were undone, 0 when there was nothing to undo
+     */
+    public int undo() {
+        if (!canUndo()) {
+            return 0;
+        }
+        editing = false;
+        current--;
+        int end = end(current);
+        for (int i = end - 1; i >= edits[current]; i--) {
+            int change = changes[i];
+            int code = (change >>> 6) & 0x3F;
+            grid.restore(change >>> 12, (byte) (code >>> 3), (byte) (code & 7));
+        }
+        return end - edits[current];
+    }
+
+    /**
+     * Redoes the latest undone edit
+     * @return how many changes were redone, 0 when there was nothing to redo
+     */
+    public int redo() {
+        if (!canRedo()) {
+            return 0;
+        }
+        editing = false;
+        int end = end(current);
+        for (int i = edits[current]; i < end; i++) {
+            int change = changes[i];
+            int code = change & 0x3F;
+            grid.restore(change >>> 12, (byte) (code >>> 3), (byte) (code & 7));
+        }
+        return end - edits[current++];
+    }
+
+    /**
+     * Forgets every edit
+     */
+    public void clear() {
+        size = 0;
+        editCount = 0;
+        current = 0;
+        editStarted = false;
+    }
+
+    /**
+     * Gets how many changes the history holds, undone ones included
+     * @return the number of changes
+     */
+    public int getChangeCount() {
+        return size;
+    }
+
+    /**
+     * Records a change to a cell, called by the grid
+     * @param cell the cell (y*width+x)
+     * @param oldType the type before the change
+     * @param oldDoor the door before the change
+     * @param type the type after the change
+     * @param door the door after the change
+     */
+    void record(int cell, byte oldType, byte oldDoor, byte type, byte door) {
+        if (current < editCount) {//a new change can't be followed by the edits undone before it
+            size = edits[current];
+            editCount = current;
+            editStarted = false;
+        }
+        int code = (type << 3) | door;
+        if (editing && editStarted && size > edits[editCount - 1] && changes[size - 1] >>> 12 == cell) {
+            changes[size - 1] = (changes[size - 1] & ~0x3F) | code;//the same cell again, keep where it started from
+            return;
+        }
+        if (!editing || !editStarted) {
+            if (editCount == edits.length) {
+                edits = Arrays.copyOf(edits, editCount * 2);
+            }
+            edits[editCount++] = size;
+            current = editCount;
+            editStarted = editing;
+        }
+        if (size == changes.length) {
+            changes = Arrays.copyOf(changes, size * 2);
+        }
+        changes[size++] = (cell << 12) | (((oldType << 3) | oldDoor) << 6) | code;
+        if (!editing) {
+            trim();
+        }
+    }
+
+    /**
+     * Gets where an edit's changes end
+     * @param edit the edit
+     * @return the index after its last change
+     */
+    private int end(int edit) {
+        return edit + 1 < editCount ? edits[edit + 1] : size;
+    }
+
+    /**
+     * Drops the oldest edits until the history holds at most maxChanges changes, or only the latest edit is left
+     */
+    private void trim() {
+        if (size <= maxChanges || editCount <= 1) {
+            return;
+        }
+        int drop = 1;
+        while (drop < editCount - 1 && size - edits[drop] > maxChanges) {
+            drop++;
+        }
+        int offset = edits[drop];
+        System.arraycopy(changes, offset, changes, 0, size - offset);
+        size -= offset;
+        for (int i = drop; i < editCount; i++) {
+            edits[i - drop] = edits[i] - offset;
+        }
+        editCount -= drop;
+        current = Math.max(0, current - drop);
+        if (changes.length > 1024 && size < changes.length / 4) {
+            changes = Arrays.copyOf(changes, Math.max(1024, size * 2));
+        }
+    }
+}
@@ -0,0 +1,998 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The layout of a board held in primitive arrays: the type of every cell, the room or start id of every cell, the doors,
+ * the starting tiles, the room shortcuts and the adjacency of every tile and room. Optionally it also holds the distance
+ * (in moves) between every pair of tiles and rooms.
+ * A layout is built from the csv pair of a map (the source format), from a Builder, or read from a compiled .cluemap file
+ * which is memory mapped so loading a compiled map is a handful of bulk copies. BoardMappings turns a layout into Tiles.
+ *
+ * Adjacency is indexed by node, the node of the cell at x,y is y*width+x and the node of room r is width*height+r.
+ */
+public final class MapLayout {
+
+    /**
+     * A cell that is not part of the board
+     */
+    public static final byte EMPTY = 0;
+    /**
+     * A basic tile
+     */
+    public static final byte TILE = 1;
+    /**
+     * A starting tile, its value is the start id (starts are handed out in increasing id)
+     */
+    public static final byte START = 2;
+    /**
+     * An intrigue tile
+     */
+    public static final byte INTRIGUE = 3;
+    /**
+     * A cell of a room, its value is the room id
+     */
+    public static final byte ROOM = 4;
+
+    /**
+     * Door direction from the room to the outside tile, these are also the direction keys of Room door locations
+     */
+    public static final int UP = 1;
+    public static final int RIGHT = 2;
+    public static final int DOWN = 3;
+    public static final int LEFT = 4;
+
+    /**
+     * The start id given to a starting tile without a number, so it is handed out after every numbered start
+     */
+    public static final int UNNUMBERED_START = 100;
+
+    /**
+     * The file extension of compiled maps
+     */
+    public static final String EXTENSION = ".cluemap";
+
+    static final int MAGIC = 0x436C4D50;
+    static final int VERSION = 1;
+    private static final int HAS_DISTANCES = 1;
+    private static final String ARCHERS_AVENUE_TILES = "Maps/archersAvenue/archersAvenueTiles.csv";
+
+    private final int width;
+    private final int height;
+    private final int roomCount;
+    private final byte[] types;
+    private final short[] values;
+    private final int[] starts;
+    private final int[] doors;
+    private final int[] shortcuts;
+    private final int[] adjacencyStart;
+    private final int[] adjacency;
+    private final ShortBuffer distances;
+
+    private MapLayout(int width, int height, int roomCount, byte[] types, short[] values, int[] starts, int[] doors,
+            int[] shortcuts, int[] adjacencyStart, int[] adjacency, ShortBuffer distances) {
+        this.width = width;
+        this.height = height;
+        this.roomCount = roomCount;
+        this.types = types;
+        this.values = values;
+        this.starts = starts;
+        this.doors = doors;
+        this.shortcuts = shortcuts;
+        this.adjacencyStart = adjacencyStart;
+        this.adjacency = adjacency;
+        this.distances = distances;
+    }
+
+    /**
+     * Loads the layout of a map, either a compiled .cluemap or the csv pair
+     * @param tilePath the tile csv, or a .cluemap file
+     * @param doorPath the door csv, ignored for a .cluemap file
+     * @return the layout
+     * @throws NoSuchRoomException thrown when a door leads to a room that doesn't exist
+     * @throws NoSuchTileException thrown when a door leads to a tile that doesn't exist, or the compiled map can't be read
+     * @throws MissingRoomDuringCreationException thrown when room with id N was found, but a room id less than N is missing
+     */
+    public static MapLayout load(String tilePath, String doorPath) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+        if (tilePath.endsWith(EXTENSION)) {
+            try {
+                return read(tilePath);
+            } catch (IOException ex) {
+                throw new NoSuchTileException("compiled map " + tilePath + " could not be read: " + ex.getMessage());
+            }
+        }
+        return parseCsv(tilePath, doorPath, false);
+    }
+
+    /**
+     * Checks whether a compiled map is newer than the csv files it was compiled from, the csv files are the source of
+     * the map and once one of them is edited the compiled map is out of date
+     * @param compiledPath the .cluemap file
+     * @param sourcePaths the csv files, missing files and nulls are skipped
+     * @return true when the compiled map exists and was written after every source
+     */
+    public static boolean isCurrent(String compiledPath, String... sourcePaths) {
+        File compiled = new File(compiledPath);
+        if (!compiled.isFile()) {
+            return false;
+        }
+        for (String sourcePath : sourcePaths) {
+            if (sourcePath != null && new File(sourcePath).lastModified() >= compiled.lastModified()) {//0 when it's missing
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the csv pair of a map, see BoardMappings for the csv key
+     * @param tilePath the tile csv
+     * @param doorPath the door csv
+     * @param withDistances whether to compute the distance tables
+     * @return the layout
+     * @throws NoSuchRoomException thrown when a door leads to a room that doesn't exist
+     * @throws NoSuchTileException thrown when a door leads to a tile that doesn't exist
+     * @throws MissingRoomDuringCreationException thrown when room with id N was found, but a room id less than N is missing
+     */
+    public static MapLayout parseCsv(String tilePath, String doorPath, boolean withDistances) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+        CsvScanner tileCsv = new CsvScanner(readCsv(tilePath));
+        List<int[]> rows = new ArrayList<>();
+        int width = 0;
+        int height = 0;
+        int maxRoom = 0;
+        int[] row = new int[32];
+        while (tileCsv.hasRow()) {
+            int cells = 0;
+            int lastValue = -1;
+            while (tileCsv.nextCell()) {
+                if (cells == row.length) {
+                    row = Arrays.copyOf(row, cells * 2);
+                }
+                int cell = tileCsv.tileCell();
+                if (cell != CsvScanner.BLANK) {
+                    lastValue = cells;
+                    if (cell >> 16 == ROOM) {
+                        maxRoom = Math.max(maxRoom, (cell & 0xFFFF) + 1);
+                    }
+                }
+                row[cells++] = cell;
+            }
+            if (lastValue >= 0) {//trailing blank cells don't widen the board, rows of blanks only count when a later row has a value
+                width = Math.max(width, lastValue + 1);
+                height = rows.size() + 1;
+            }
+            rows.add(Arrays.copyOf(row, cells));
+        }
+
+        Builder builder = new Builder(width, height);
+        for (int y = 0; y < height; y++) {
+            int[] cells = rows.get(y);
+            for (int x = 0; x < width && x < cells.length; x++) {
+                if (cells[x] != CsvScanner.BLANK) {
+                    builder.setCell(x, y, (byte) (cells[x] >> 16), cells[x] & 0xFFFF);
+                }
+            }
+        }
+
+        CsvScanner doorCsv = new CsvScanner(readCsv(doorPath));
+        while (doorCsv.hasRow()) {
+            if (!doorCsv.nextCell() || doorCsv.isBlank()) {
+                doorCsv.skipRow();
+                continue;
+            }
+            int room = doorCsv.digits();
+            int x = -1;
+            int y = -1;
+            if (room >= 0 && room - 1 >= maxRoom) {
+                throw new NoSuchRoomException("Attempted to create door to invalid room with csv value: " + room);
+            }
+            if (doorCsv.nextCell()) {
+                x = doorCsv.digits();
+            }
+            if (doorCsv.nextCell()) {
+                y = doorCsv.digits();
+            }
+            if (room < 0 || x < 0 || y < 0 || !doorCsv.nextCell()) {
+                throw new NoSuchTileException("Attempted to create door (from door csv) with: roomid = " + room + " tile.x = " + x + " tile.y = " + y);
+            }
+            int direction = doorCsv.direction();
+            doorCsv.skipRow();
+            builder.addDoor(room - 1, x, y, direction);
+        }
+
+        if (hasBuiltInShortcuts(tilePath)) {
+            builder.addShortcut(0, 8);
+            builder.addShortcut(6, 2);
+        }
+        return builder.build(withDistances);
+    }
+
+    /**
+     * Checks whether parsing a tile csv adds shortcuts that are not in its door csv
+     * @param tilePath the tile csv
+     * @return true for the archers avenue map, whose secret passages predate shortcuts in the csv
+     */
+    static boolean hasBuiltInShortcuts(String tilePath) {
+        return tilePath.equals(ARCHERS_AVENUE_TILES);
+    }
+
+    /**
+     * Reads a whole csv file, a missing file is reported and read as empty as it always has been
+     * @param path the csv file
+     * @return the bytes of the file
+     */
+    private static byte[] readCsv(String path) {
+        try {
+            return Files.readAllBytes(Paths.get(path));
+        } catch (NoSuchFileException ex) {
+            System.out.println(new FileNotFoundException(path));
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+        return new byte[0];
+    }
+
+    /**
+     * Reads a compiled map, the file is memory mapped and the distance tables are used in place
+     * @param path the .cluemap file
+     * @return the layout
+     * @throws IOException thrown when the file can't be read or is not a compiled map
+     */
+    public static MapLayout read(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                if (map.getInt() != MAGIC) {
+                    throw new IOException(path + " is not a compiled map");
+                }
+                if (map.getShort() != VERSION) {
+                    throw new IOException(path + " was compiled by a different version");
+                }
+                int flags = map.getShort();
+                int width = map.getInt();
+                int height = map.getInt();
+                int roomCount = map.getInt();
+                byte[] types = new byte[width * height];
+                map.get(types);
+                short[] values = new short[width * height];
+                map.asShortBuffer().get(values);
+                map.position(map.position() + 2 * values.length);
+                int[] starts = readInts(map, 2);
+                int[] doors = readInts(map, 4);
+                int[] shortcuts = readInts(map, 2);
+                int nodeCount = map.getInt();
+                int[] adjacencyStart = new int[nodeCount + 1];
+                map.asIntBuffer().get(adjacencyStart);
+                map.position(map.position() + 4 * adjacencyStart.length);
+                int[] adjacency = new int[adjacencyStart[nodeCount]];
+                map.asIntBuffer().get(adjacency);
+                map.position(map.position() + 4 * adjacency.length);
+                ShortBuffer distances = null;
+                if ((flags & HAS_DISTANCES) != 0) {
+                    distances = map.slice().asShortBuffer();
+                    if (distances.capacity() < nodeCount * nodeCount) {
+                        throw new IOException(path + " is truncated");
+                    }
+                }
+                return new MapLayout(width, height, roomCount, types, values, starts, doors, shortcuts, adjacencyStart, adjacency, distances);
+            } catch (RuntimeException ex) {//BufferUnderflowException, NegativeArraySizeException
+                throw new IOException(path + " is not a valid compiled map", ex);
+            }
+        }
+    }
+
+    /**
+     * Reads a count followed by count groups of ints
+     * @param map the mapped file
+     * @param group the number of ints in each group
+     * @return the ints
+     */
+    private static int[] readInts(ByteBuffer map, int group) {
+        int[] ints = new int[map.getInt() * group];
+        map.asIntBuffer().get(ints);
+        map.position(map.position() + 4 * ints.length);
+        return ints;
+    }
+
+    /**
+     * Writes the layout as a compiled map. It is written to a temporary file next to the map and moved over it, a
+     * layout read from a file keeps its distances mapped from that file and can be written back to it safely.
+     * @param path the .cluemap file to create or replace
+     * @throws IOException thrown when the file can't be written
+     */
+    public void write(String path) throws IOException {
+        int nodeCount = getNodeCount();
+        long size = 20 + types.length + 2L * values.length + 4L * (4 + starts.length + doors.length + shortcuts.length
+                + adjacencyStart.length + adjacency.length) + (distances == null ? 0 : 2L * nodeCount * nodeCount);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("map is too large to compile");
+        }
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putInt(MAGIC);
+        out.putShort((short) VERSION);
+        out.putShort((short) (distances == null ? 0 : HAS_DISTANCES));
+        out.putInt(width);
+        out.putInt(height);
+        out.putInt(roomCount);
+        out.put(types);
+        out.asShortBuffer().put(values);
+        out.position(out.position() + 2 * values.length);
+        writeInts(out, starts, 2);
+        writeInts(out, doors, 4);
+        writeInts(out, shortcuts, 2);
+        out.putInt(nodeCount);
+        out.asIntBuffer().put(adjacencyStart);
+        out.position(out.position() + 4 * adjacencyStart.length);
+        out.asIntBuffer().put(adjacency);
+        out.position(out.position() + 4 * adjacency.length);
+        if (distances != null) {
+            ShortBuffer source = distances.duplicate();
+            source.clear();
+            out.asShortBuffer().put(source);
+            out.position(out.position() + 2 * nodeCount * nodeCount);
+        }
+        out.flip();
+        Path target = Paths.get(path).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);//only still there when it couldn't be written or moved
+        }
+    }
+
+    /**
+     * Writes a count followed by the ints
+     * @param out the buffer to write to
+     * @param ints the ints
+     * @param group the number of ints in each counted group
+     */
+    private static void writeInts(ByteBuffer out, int[] ints, int group) {
+        out.putInt(ints.length / group);
+        out.asIntBuffer().put(ints);
+        out.position(out.position() + 4 * ints.length);
+    }
+
+    /**
+     * @return the number of cells across the board
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the number of cells down the board
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of rooms
+     */
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    /**
+     * Gets the type of a cell
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return EMPTY, TILE, START, INTRIGUE or ROOM
+     */
+    public byte getType(int x, int y) {
+        return types[y * width + x];
+    }
+
+    /**
+     * Gets the value of a cell
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the room id of a ROOM cell, the start id of a START cell, otherwise 0
+     */
+    public int getValue(int x, int y) {
+        return values[y * width + x];
+    }
+
+    /**
+     * @return the number of starting tiles
+     */
+    public int getStartCount() {
+        return starts.length / 2;
+    }
+
+    /**
+     * Gets the cell of a starting tile, starts are kept in board order (row by row)
+     * @param i the index of the start
+     * @return the cell, y*width+x
+     */
+    public int getStartCell(int i) {
+        return starts[2 * i];
+    }
+
+    /**
+     * Gets the id of a starting tile
+     * @param i the index of the start
+     * @return the start id, UNNUMBERED_START when the csv gave none
+     */
+    public int getStartId(int i) {
+        return starts[2 * i + 1];
+    }
+
+    /**
+     * @return the number of doors
+     */
+    public int getDoorCount() {
+        return doors.length / 4;
+    }
+
+    /**
+     * @param i the index of the door
+     * @return the id of the room the door leads to
+     */
+    public int getDoorRoom(int i) {
+        return doors[4 * i];
+    }
+
+    /**
+     * @param i the index of the door
+     * @return the x coordinate of the tile outside the door
+     */
+    public int getDoorX(int i) {
+        return doors[4 * i + 1];
+    }
+
+    /**
+     * @param i the index of the door
+     * @return the y coordinate of the tile outside the door
+     */
+    public int getDoorY(int i) {
+        return doors[4 * i + 2];
+    }
+
+    /**
+     * @param i the index of the door
+     * @return the direction from the room to the outside tile, UP, RIGHT, DOWN or LEFT, 0 when unknown
+     */
+    public int getDoorDirection(int i) {
+        return doors[4 * i + 3];
+    }
+
+    /**
+     * @return the number of shortcuts between rooms
+     */
+    public int getShortcutCount() {
+        return shortcuts.length / 2;
+    }
+
+    /**
+     * @param i the index of the shortcut
+     * @param end 0 or 1
+     * @return the id of the room at that end of the shortcut
+     */
+    public int getShortcutRoom(int i, int end) {
+        return shortcuts[2 * i + end];
+    }
+
+    /**
+     * @return the number of nodes, one for each cell and one for each room
+     */
+    public int getNodeCount() {
+        return adjacencyStart.length - 1;
+    }
+
+    /**
+     * Gets the node of a room
+     * @param room the room id
+     * @return the node
+     */
+    public int getRoomNode(int room) {
+        return width * height + room;
+    }
+
+    /**
+     * Gets the index of the first neighbour of a node, neighbours run up to getAdjacencyEnd
+     * @param node the node
+     * @return the index to pass to getAdjacentNode
+     */
+    public int getAdjacencyStart(int node) {
+        return adjacencyStart[node];
+    }
+
+    /**
+     * Gets the index after the last neighbour of a node
+     * @param node the node
+     * @return the end index
+     */
+    public int getAdjacencyEnd(int node) {
+        return adjacencyStart[node + 1];
+    }
+
+    /**
+     * Gets a neighbour
+     * @param index an index between getAdjacencyStart and getAdjacencyEnd of a node
+     * @return the neighbouring node
+     */
+    public int getAdjacentNode(int index) {
+        return adjacency[index];
+    }
+
+    /**
+     * @return true when the layout holds distance tables
+     */
+    public boolean hasDistances() {
+        return distances != null;
+    }
+
+    /**
+     * Gets the smallest number of moves between two nodes
+     * @param from the node moved from
+     * @param to the node moved to
+     * @return the number of moves, -1 when to can't be reached
+     */
+    public int getDistance(int from, int to) {
+        if (distances == null) {
+            throw new IllegalStateException("the map was built without distance tables");
+        }
+        return distances.get(from * getNodeCount() + to);
+    }
+
+    /**
+     * Builds a layout from cell types and values, doors and shortcuts. Cells start EMPTY.
+     */
+    public static class Builder {
+
+        private final int width;
+        private final int height;
+        private final byte[] types;
+        private final short[] values;
+        private final List<int[]> doors;
+        private final List<int[]> shortcuts;
+
+        /**
+         * Creates a builder for an empty board
+         * @param width the number of cells across the board
+         * @param height the number of cells down the board
+         */
+        public Builder(int width, int height) {
+            if (width < 0 || height < 0) {
+                throw new IllegalArgumentException("board size " + width + "x" + height);
+            }
+            this.width = width;
+            this.height = height;
+            types = new byte[width * height];
+            values = new short[width * height];
+            doors = new ArrayList<>();
+            shortcuts = new ArrayList<>();
+        }
+
+        /**
+         * Sets a cell
+         * @param x the x coordinate of the cell
+         * @param y the y coordinate of the cell
+         * @param type EMPTY, TILE, START, INTRIGUE or ROOM
+         * @param value the room id of a ROOM cell, the start id of a START cell, ignored otherwise
+         * @return this builder
+         */
+        public Builder setCell(int x, int y, byte type, int value) {
+            if (type < EMPTY || type > ROOM) {
+                throw new IllegalArgumentException("cell type " + type);
+            }
+            if ((type == ROOM || type == START) && (value < 0 || value > Short.MAX_VALUE)) {
+                throw new IllegalArgumentException("cell value " + value);
+            }
+            types[y * width + x] = type;
+            values[y * width + x] = (type == ROOM || type == START) ? (short) value : 0;
+            return this;
+        }
+
+        /**
+         * Adds a door
+         * @param room the id of the room the door leads to
+         * @param x the x coordinate of the tile outside the door
+         * @param y the y coordinate of the tile outside the door
+         * @param direction the direction from the room to the outside tile, UP, RIGHT, DOWN or LEFT
+         * @return this builder
+         */
+        public Builder addDoor(int room, int x, int y, int direction) {
+            doors.add(new int[]{room, x, y, direction});
+            return this;
+        }
+
+        /**
+         * Adds a shortcut between two rooms
+         * @param room1 the id of one room
+         * @param room2 the id of the other room
+         * @return this builder
+         */
+        public Builder addShortcut(int room1, int room2) {
+            shortcuts.add(new int[]{room1, room2});
+            return this;
+        }
+
+        /**
+         * Builds the layout, working out its adjacency in the same order BoardMappings always added it:
+         * basic tiles to the tile on their left and the tile below, then doors, then shortcuts
+         * @param withDistances whether to compute the distance tables
+         * @return the layout
+         * @throws NoSuchRoomException thrown when a door or shortcut leads to a room that doesn't exist
+         * @throws NoSuchTileException thrown when a door leads to a tile outside the board
+         * @throws MissingRoomDuringCreationException thrown when room with id N was found, but a room id less than N is missing
+         */
+        public MapLayout build(boolean withDistances) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException {
+            int cellCount = width * height;
+            int roomCount = 0;
+            int startCount = 0;
+            for (int i = 0; i < cellCount; i++) {
+                if (types[i] == ROOM) {
+                    roomCount = Math.max(roomCount, values[i] + 1);
+                } else if (types[i] == START) {
+                    startCount++;
+                }
+            }
+            boolean[] found = new boolean[roomCount];
+            for (int i = 0; i < cellCount; i++) {
+                if (types[i] == ROOM) {
+                    found[values[i]] = true;
+                }
+            }
+            for (int r = 0; r < roomCount; r++) {
+                if (!found[r]) {
+                    throw new MissingRoomDuringCreationException(roomCount + " room id was found, but there is a missing room number: " + (r + 1));
+                }
+            }
+
+            int[] starts = new int[2 * startCount];
+            int s = 0;
+            for (int i = 0; i < cellCount; i++) {
+                if (types[i] == START) {
+                    starts[s++] = i;
+                    starts[s++] = values[i];
+                }
+            }
+
+            AdjacencyLists lists = new AdjacencyLists(cellCount + roomCount);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int cell = y * width + x;
+                    if (isStandard(types[cell])) {
+                        if (x > 0 && isStandard(types[cell - 1])) {
+                            lists.addBoth(cell, cell - 1);
+                        }
+                        if (y < height - 1 && isStandard(types[cell + width])) {
+                            lists.addBoth(cell, cell + width);
+                        }
+                    }
+                }
+            }
+            int[] doorArray = new int[4 * doors.size()];
+            int d = 0;
+            for (int[] door : doors) {
+                if (door[0] < 0 || door[0] >= roomCount) {
+                    throw new NoSuchRoomException("roomId: " + door[0]);
+                }
+                if (door[1] < 0 || door[1] >= width || door[2] < 0 || door[2] >= height) {
+                    throw new NoSuchTileException("door csv file contains an illegal door, the outside tile " + door[1] + "," + door[2] + " is not on the board");
+                }
+                int outside = door[2] * width + door[1];
+                if (types[outside] == ROOM) {//a door straight into another room
+                    outside = cellCount + values[outside];
+                }
+                lists.addBoth(cellCount + door[0], outside);
+                System.arraycopy(door, 0, doorArray, d, 4);
+                d += 4;
+            }
+            int[] shortcutArray = new int[2 * shortcuts.size()];
+            int c = 0;
+            for (int[] shortcut : shortcuts) {
+                for (int room : shortcut) {
+                    if (room < 0 || room >= roomCount) {
+                        throw new NoSuchRoomException("roomId: " + room);
+                    }
+                }
+                lists.addBoth(cellCount + shortcut[0], cellCount + shortcut[1]);
+                shortcutArray[c++] = shortcut[0];
+                shortcutArray[c++] = shortcut[1];
+            }
+
+            int[] adjacencyStart = lists.offsets();
+            int[] adjacency = lists.flatten();
+            ShortBuffer distances = withDistances ? ShortBuffer.wrap(distances(adjacencyStart, adjacency)) : null;
+            return new MapLayout(width, height, roomCount, types.clone(), values.clone(), starts, doorArray, shortcutArray,
+                    adjacencyStart, adjacency, distances);
+        }
+
+        /**
+         * Checks whether a cell is joined to the standard cells around it
+         * @param type the cell type
+         * @return true for basic, starting and intrigue tiles
+         */
+        private static boolean isStandard(byte type) {
+            return type == TILE || type == START || type == INTRIGUE;
+        }
+
+        /**
+         * Runs a breadth first search from every node
+         * @param adjacencyStart the adjacency offsets
+         * @param adjacency the neighbours
+         * @return the moves from node a to node b at a*nodeCount+b, -1 when b can't be reached
+         */
+        private static short[] distances(int[] adjacencyStart, int[] adjacency) {
+            int nodeCount = adjacencyStart.length - 1;
+            short[] table = new short[nodeCount * nodeCount];
+            Arrays.fill(table, (short) -1);
+            int[] queue = new int[nodeCount];
+            for (int from = 0; from < nodeCount; from++) {
+                int row = from * nodeCount;
+                int head = 0;
+                int tail = 0;
+                table[row + from] = 0;
+                queue[tail++] = from;
+                while (head < tail) {
+                    int node = queue[head++];
+                    short next = (short) (table[row + node] + 1);
+                    for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+                        int neighbour = adjacency[i];
+                        if (table[row + neighbour] == -1) {
+                            table[row + neighbour] = next;
+                            queue[tail++] = neighbour;
+                        }
+                    }
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Growable neighbour lists that keep the insertion order and ignore repeats, like Tile.addAdjacent
+     */
+    private static class AdjacencyLists {
+
+        private final int[][] lists;
+        private final int[] sizes;
+
+        AdjacencyLists(int nodeCount) {
+            lists = new int[nodeCount][];
+            sizes = new int[nodeCount];
+        }
+
+        void add(int node, int neighbour) {
+            int[] list = lists[node];
+            for (int i = 0; i < sizes[node]; i++) {
+                if (list[i] == neighbour) {
+                    return;
+                }
+            }
+            if (list == null) {
+                list = new int[4];
+                lists[node] = list;
+            } else if (sizes[node] == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+                lists[node] = list;
+            }
+            list[sizes[node]++] = neighbour;
+        }
+
+        void addBoth(int node, int neighbour) {
+            add(node, neighbour);
+            add(neighbour, node);
+        }
+
+        int[] offsets() {
+            int[] offsets = new int[sizes.length + 1];
+            for (int i = 0; i < sizes.length; i++) {
+                offsets[i + 1] = offsets[i] + sizes[i];
+            }
+            return offsets;
+        }
+
+        int[] flatten() {
+            int total = 0;
+            for (int size : sizes) {
+                total += size;
+            }
+            int[] flat = new int[total];
+            int position = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                if (sizes[i] > 0) {
+                    System.arraycopy(lists[i], 0, flat, position, sizes[i]);
+                    position += sizes[i];
+                }
+            }
+            return flat;
+        }
+    }
+
+    /**
+     * Splits csv bytes into rows and cells without building strings, keeping only the characters 0-9, A-Z and '-'
+     * of each cell as the csv loader always has (this also drops a byte order mark and carriage returns)
+     */
+    private static class CsvScanner {
+
+        static final int BLANK = -1;
+
+        private final byte[] data;
+        private int position;
+        private final byte[] cell;
+        private int cellLength;
+        private boolean rowEnded;
+
+        CsvScanner(byte[] data) {
+            this.data = data;
+            cell = new byte[64];
+            rowEnded = true;
+        }
+
+        /**
+         * Starts the next row
+         * @return false at the end of the data
+         */
+        boolean hasRow() {
+            if (!rowEnded) {
+                skipRow();
+            }
+            if (position >= data.length) {
+                return false;
+            }
+            rowEnded = false;
+            return true;
+        }
+
+        /**
+         * Reads the next cell of the current row
+         * @return false when the row has no more cells
+         */
+        boolean nextCell() {
+            if (rowEnded) {
+                return false;
+            }
+            cellLength = 0;
+            while (position < data.length) {
+                byte b = data[position++];
+                if (b == ',') {
+                    return true;
+                }
+                if (b == '\n') {
+                    rowEnded = true;
+                    return true;
+                }
+                if ((b >= '0' && b <= '9') || (b >= 'A' && b <= 'Z') || b == '-') {
+                    if (cellLength < cell.length) {
+                        cell[cellLength++] = b;
+                    }
+                }
+            }
+            rowEnded = true;
+            return true;
+        }
+
+        /**
+         * Skips to the start of the next row
+         */
+        void skipRow() {
+            while (!rowEnded && position < data.length) {
+                if (data[position++] == '\n') {
+                    rowEnded = true;
+                }
+            }
+            rowEnded = true;
+        }
+
+        boolean isBlank() {
+            return cellLength == 0;
+        }
+
+        /**
+         * Reads the digits of the cell as a number, ignoring every other character
+         * @return the number, -1 when the cell has no digits
+         */
+        int digits() {
+            int value = -1;
+            for (int i = 0; i < cellLength; i++) {
+                if (cell[i] >= '0' && cell[i] <= '9') {
+                    value = (value < 0 ? 0 : value * 10) + cell[i] - '0';
+                    if (value > Short.MAX_VALUE) {
+                        throw new NumberFormatException("number too large: " + new String(cell, 0, cellLength));
+                    }
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Reads the door direction of the cell, the first U, R, D or L
+         * @return UP, RIGHT, DOWN or LEFT, 0 when there is none
+         */
+        int direction() {
+            for (int i = 0; i < cellLength; i++) {
+                switch (cell[i]) {
+                    case 'U':
+                        return UP;
+                    case 'R':
+                        return RIGHT;
+                    case 'D':
+                        return DOWN;
+                    case 'L':
+                        return LEFT;
+                    default:
+                        break;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Decodes the cell of a tile csv
+         * @return BLANK for an empty cell, otherwise type shifted left 16 bits or'd with the value
+         * @throws NoSuchRoomException thrown for a room id of 0
+         */
+        int tileCell() throws NoSuchRoomException {
+            if (cellLength == 0) {
+                return BLANK;
+            }
+            if (cellLength == 2 && cell[0] == '-' && cell[1] == '1') {
+                return EMPTY << 16;
+            }
+            if (cellLength == 1 && cell[0] == '0') {
+                return TILE << 16;
+            }
+            if (cellLength == 1 && cell[0] == 'I') {
+                return INTRIGUE << 16;
+            }
+            if (cell[0] == 'S') {
+                if (cellLength == 1) {
+                    return START << 16 | UNNUMBERED_START;
+                }
+                int id = 0;
+                for (int i = 1; i < cellLength; i++) {
+                    if (cell[i] < '0' || cell[i] > '9' || i > 2) {
+                        throw badCell();
+                    }
+                    id = id * 10 + cell[i] - '0';
+                }
+                return START << 16 | id;
+            }
+            int room = digits();
+            if (room < 0) {
+                throw badCell();
+            }
+            if (room == 0) {
+                throw new NoSuchRoomException("roomId: -1");
+            }
+            return ROOM << 16 | (room - 1);
+        }
+
+        private NumberFormatException badCell() {
+            return new NumberFormatException("values in tiles csv must be -1,0,I,Sn (where n is a number between 0 and 99), or a number that is less than the total room count, found: "
+                    + new String(cell, 0, cellLength) + "\n");
+        }
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of what is wrong with a map while it is edited: doors that don't lead onto a walkable tile, the wrong
+ * number of rooms or starting tiles, and rooms or starting tiles that can't be reached from the others.
+ * It is told about every changed cell and keeps a union-find over the cells, where walkable tiles are joined to the
+ * walkable tiles next to them, room cells to the cells of their room and a door to the tile it leads onto. Painting a
+ * walkable tile, a room cell or a door only joins sets. Painting over one can split the board, so then the sets are
+ * worked out again, once, the next time the problems are asked for. Every other change is a handful of array updates.
+ */
+public class MapValidator implements MapGrid.CellListener {
+
+    private static final byte NONE = 0;
+    private static final byte WALK = 1;
+    private static final byte ROOM = 2;
+
+    private final MapGrid grid;
+    private final int width;
+    private final int height;
+    private final int rooms;
+    private final int starts;
+    private final byte[] types;
+    private final byte[] doors;
+    private final boolean[] badDoor;
+    private final int[] parent;
+    private final int[] needed;
+    private int badDoors;
+    private int startCount;
+    private int neededComponents;
+    private boolean dirty;
+
+    /**
+     * Creates a validator for a grid, it must then be told about every cell that changes
+     * @param grid the map being edited
+     * @param rooms how many rooms the map must have
+     * @param starts how many starting tiles the map must have
+     */
+    public MapValidator(MapGrid grid, int rooms, int starts) {
+        this.grid = grid;
+        this.rooms = rooms;
+        this.starts = starts;
+        width = grid.getWidth();
+        height = grid.getHeight();
+        types = new byte[width * height];
+        doors = new byte[width * height];
+        badDoor = new boolean[width * height];
+        parent = new int[width * height];
+        needed = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                types[cell] = grid.getType(x, y);
+                doors[cell] = grid.getDoor(x, y);
+                if (types[cell] == MapLayout.START) {
+                    startCount++;
+                }
+            }
+        }
+        for (int cell = 0; cell < types.length; cell++) {
+            checkDoor(cell);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Brings the validator up to date with a changed cell
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     */
+    @Override
+    public void cellChanged(int x, int y) {
+        int cell = y * width + x;
+        byte oldType = types[cell];
+        byte oldDoor = doors[cell];
+        byte type = grid.getType(x, y);
+        byte door = grid.getDoor(x, y);
+        types[cell] = type;
+        doors[cell] = door;
+        if (oldType == MapLayout.START) {
+            startCount--;
+        }
+        if (type == MapLayout.START) {
+            startCount++;
+        }
+
+        checkDoor(cell);
+        if (x > 0) {
+            checkDoor(cell - 1);
+        }
+        if (x < width - 1) {
+            checkDoor(cell + 1);
+        }
+        if (y > 0) {
+            checkDoor(cell - width);
+        }
+        if (y < height - 1) {
+            checkDoor(cell + width);
+        }
+
+        if (dirty) {
+            return;
+        }
+        byte oldKind = kind(oldType);
+        byte kind = kind(type);
+        if ((oldKind != NONE && oldKind != kind) || (oldDoor != MapGrid.NO_DOOR && oldDoor != door)) {
+            dirty = true;//something was cut, the board may have split
+        } else if (oldKind == NONE) {
+            if (kind != NONE) {
+                addCell(cell);
+            }
+        } else {
+            int delta = (isNeeded(type) ? 1 : 0) - (isNeeded(oldType) ? 1 : 0);
+            if (delta != 0) {
+                addNeeded(find(cell), delta);
+            }
+            if (door != MapGrid.NO_DOOR && !badDoor[cell]) {
+                union(cell, facing(cell));
+            }
+        }
+    }
+
+    /**
+     * Checks whether the map has no problems
+     * @return true when the map can be played
+     */
+    public boolean isValid() {
+        return getProblems().isEmpty();
+    }
+
+    /**
+     * Lists what is wrong with the map
+     * @return a description of every problem, empty when there are none
+     */
+    public List<String> getProblems() {
+        List<String> problems = new ArrayList<>();
+        int roomCount = grid.getRoomCount();
+        if (roomCount != rooms) {
+            problems.add("You must have " + rooms + " Rooms Exactly, there are " + roomCount);
+        }
+        if (startCount != starts) {
+            problems.add("There must be " + starts + " starting Tiles, there are " + startCount);
+        }
+        if (badDoors > 0) {
+            problems.add(badDoors + " door(s) don't face a Walkable tile or a Starting Tile");
+        }
+        if (!isConnected()) {
+            problems.add("Some rooms or starting tiles can't be reached from the others");
+        }
+        return problems;
+    }
+
+    /**
+     * Checks whether every room and starting tile can be reached from every other
+     * @return true when they are all joined
+     */
+    public boolean isConnected() {
+        if (dirty) {
+            rebuild();
+        }
+        return neededComponents <= 1;
+    }
+
+    /**
+     * Checks whether the door of a room cell doesn't lead onto a walkable tile
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return true when the cell has a door that leads nowhere
+     */
+    public boolean isBadDoor(int x, int y) {
+        return badDoor[y * width + x];
+    }
+
+    /**
+     * Works out whether the door on a cell leads onto a walkable tile and keeps the count of bad doors
+     * @param cell the cell (y*width+x)
+     */
+    private void checkDoor(int cell) {
+        boolean bad = doors[cell] != MapGrid.NO_DOOR;
+        if (bad) {
+            int outside = facing(cell);
+            bad = outside < 0 || kind(types[outside]) != WALK;
+        }
+        if (bad != badDoor[cell]) {
+            badDoor[cell] = bad;
+            badDoors += bad ? 1 : -1;
+        }
+    }
+
+    /**
+     * Gets the cell a door leads onto
+     * @param cell the room cell with the door
+     * @return the cell, -1 when it is off the board
+     */
+    private int facing(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        switch (doors[cell]) {
+            case MapLayout.UP:
+                y--;
+                break;
+            case MapLayout.DOWN:
+                y++;
+                break;
+            case MapLayout.LEFT:
+                x--;
+                break;
+            case MapLayout.RIGHT:
+                x++;
+                break;
+            default:
+                return -1;
+        }
+        return grid.inBounds(x, y) ? y * width + x : -1;
+    }
+
+    /**
+     * Adds a cell that was not part of the board as a set of its own and joins it to the cells it is connected to
+     * @param cell the cell (y*width+x)
+     */
+    private void addCell(int cell) {
+        parent[cell] = cell;
+        needed[cell] = 0;
+        if (isNeeded(types[cell])) {
+            addNeeded(cell, 1);
+        }
+        int x = cell % width;
+        if (x > 0) {
+            link(cell, cell - 1);
+        }
+        if (x < width - 1) {
+            link(cell, cell + 1);
+        }
+        if (cell >= width) {
+            link(cell, cell - width);
+        }
+        if (cell + width < types.length) {
+            link(cell, cell + width);
+        }
+    }
+
+    /**
+     * Joins two neighbouring cells when the board connects them: both walkable, both room cells, or a door between them
+     * @param cell a cell on the board
+     * @param other the cell next to it
+     */
+    private void link(int cell, int other) {
+        byte kind = kind(types[cell]);
+        byte otherKind = kind(types[other]);
+        if (otherKind == NONE) {
+            return;
+        }
+        if (kind == otherKind
+                || (kind == ROOM && !badDoor[cell] && facing(cell) == other)
+                || (otherKind == ROOM && !badDoor[other] && facing(other) == cell)) {
+            union(cell, other);
+        }
+    }
+
+    /**
+     * Works the sets out again from scratch in one sweep of the board, joining every cell to the cells left of and above
+     * it, which also joins every door whichever way it faces
+     */
+    private void rebuild() {
+        neededComponents = 0;
+        for (int cell = 0; cell < types.length; cell++) {
+            if (kind(types[cell]) != NONE) {
+                parent[cell] = cell;
+                needed[cell] = 0;
+                if (isNeeded(types[cell])) {
+                    addNeeded(cell, 1);
+                }
+                if (cell % width > 0) {
+                    link(cell, cell - 1);
+                }
+                if (cell >= width) {
+                    link(cell, cell - width);
+                }
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * Changes how many room cells and starting tiles a set holds, keeping count of the sets that hold any
+     * @param root the root of the set
+     * @param delta the change
+     */
+    private void addNeeded(int root, int delta) {
+        if (needed[root] == 0) {
+            neededComponents++;
+        }
+        needed[root] += delta;
+        if (needed[root] == 0) {
+            neededComponents--;
+        }
+    }
+
+    /**
+     * Finds the root of a cell's set, halving the path on the way
+     * @param cell the cell (y*width+x)
+     * @return the root
+     */
+    private int find(int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * Joins the sets of two cells
+     * @param a one cell
+     * @param b the other cell
+     */
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        parent[rootB] = rootA;
+        if (needed[rootA] > 0 && needed[rootB] > 0) {
+            neededComponents--;
+        }
+        needed[rootA] += needed[rootB];
+    }
+
+    /**
+     * Gets how a cell type connects
+     * @param type the MapLayout type
+     * @return WALK for tiles a player can walk on, ROOM for room cells, NONE otherwise
+     */
+    private static byte kind(byte type) {
+        switch (type) {
+            case MapLayout.TILE:
+            case MapLayout.START:
+            case MapLayout.INTRIGUE:
+                return WALK;
+            case MapLayout.ROOM:
+                return ROOM;
+            default:
+                return NONE;
+        }
+    }
+
+    /**
+     * Checks whether a cell has to be reachable
+     * @param type the MapLayout type
+     * @return true for room cells and starting tiles
+     */
+    private static boolean isNeeded(byte type) {
+        return type == MapLayout.ROOM || type == MapLayout.START;
+    }
+}
@@ -7,10 +7,10 @@ package clue.action;
 
 import clue.player.Player;
 import clue.tile.Tile;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
 
 /**
  * Represents a player moving from Tile s to Tile tiles
@@ -24,6 +24,8 @@ public class MoveAction extends Action {
     private int boardWidth;
     private int boardHeight;
     private int cost;
+    private List<Tile> path;
+    private int bfsExpansions;
 
     /**
      * Creates a new MoveAction
@@ -77,7 +79,9 @@ public class MoveAction extends Action {
             }
             
         }
-        
+        if (!result){
+            path = null;
+        }
         
     }
 
@@ -89,85 +93,125 @@ public class MoveAction extends Action {
     public Tile getTile() {
         return t;
     }
+
+    /**
+     * Gets the tiles the player walked through, in order
+     *
+     * @return the tiles after the source up to and including the destination, empty when the player stayed put, null when the move failed
+     */
+    public List<Tile> getPath() {
+        return path == null ? null : Collections.unmodifiableList(path);
+    }
     
+    /**
+     * Gets how many tiles the search of execute took off its queue and looked around
+     *
+     * @return the number of tiles, 0 before it is executed
+     */
+    public int getBfsExpansions() {
+        return bfsExpansions;
+    }
+
+    /**
+     * Finds every tile and room a player could move to, with the same rules as execute: paths don't go through rooms or
+     * occupied tiles and a room ends a path. One breadth first search, one level per move, so it never looks further
+     * than the moves allow.
+     *
+     * @param s the tile the player is on
+     * @param moves how many moves the player has
+     * @param boardWidth the width of the board
+     * @param boardHeight the height of the board
+     * @return the reachable tiles nearest first, each room once, not including s
+     */
+    public static List<Tile> reachable(Tile s, int moves, int boardWidth, int boardHeight){
+        List<Tile> found = new ArrayList<>();
+        boolean visited[] = new boolean[boardWidth * boardHeight];
+        if (!s.isRoom()){
+            visited[s.getY() * boardWidth + s.getX()] = true;
+        }
+        List<Tile> frontier = new ArrayList<>();
+        frontier.add(s);
+        for (int distance = 1; distance <= moves && !frontier.isEmpty(); distance++){
+            List<Tile> next = new ArrayList<>();
+            for (Tile from : frontier){
+                for (Tile to : from.getAdjacent()){
+                    if (to == s || to.isFull()){
+                        continue;
+                    }
+                    if (to.isRoom()){//a room can be entered but not walked through
+                        if (!found.contains(to)){
+                            found.add(to);
+                        }
+                        continue;
+                    }
+                    int index = to.getY() * boardWidth + to.getX();
+                    if (!visited[index]){
+                        visited[index] = true;
+                        found.add(to);
+                        next.add(to);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return found;
+    }
+
     /**
      * Finds if there is a room the player can go to with the current moves it has.
+     * A breadth first search that keeps the tile each tile was first reached from rather than a copy of the path to
+     * every tile, so it costs two arrays the size of the board however many tiles it looks at, and the path is only
+     * built for the target. Tiles are looked at in the same order as ever, so the same shortest path is found.
      * @return true if there is a room within how many moves the player has.
      */
     private boolean BFS(){   
         cost = 0;
-        //System.out.println("BFS with moves left: "+player.getMoves());
-        //System.out.println("s: "+s);
-        //System.out.println("t: ->>"+t.getX()+","+t.getY());
+        path = null;
+        bfsExpansions = 0;
         if (t==s){
+            path = new ArrayList<>(0);
             return true;
         }
-        boolean visited[][] = new boolean[boardWidth][boardHeight];
-        
-        for(boolean []a : visited){
-            Arrays.fill(a,false);
-        }
+        Tile[] from = new Tile[boardWidth * boardHeight];//the tile each tile was reached from, null when not visited
+        Tile[] queue = new Tile[boardWidth * boardHeight + 1];
         if (!s.isRoom()){
-            visited[s.getX()][s.getY()] = true;
+            from[s.getY() * boardWidth + s.getX()] = s;
         }
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = s;
         
-        
-        LinkedList<LinkedList<Tile>> pathList = new LinkedList<>();      
-        LinkedList<Tile> newPath = new LinkedList<>();
-        LinkedList<Tile> currentPath;
-        
-        newPath.add(s);
-        pathList.add(newPath);
-      
-        while(true){
-            
-            if (pathList.isEmpty()){
-                //System.out.println("no valid path found");
-                return false;
-            }
-            
-            currentPath = pathList.get(0);
-            //System.out.println("expanding a path to have one extra distance from source");
-            //System.out.println(currentPath.size());
-            
-            for (Tile currentTile : currentPath.getLast().getAdjacent()){//try to explore all the tiles adjacent to the last tile in the path
+        while(head < tail){
+            Tile current = queue[head++];
+            for (Tile currentTile : current.getAdjacent()){//try to explore all the tiles adjacent to the current tile
                 if (currentTile == t){//shortest path found to target
-                    currentPath.add(currentTile);
-                    currentPath.remove(s);
-                    cost = currentPath.size();
-                    //System.out.println("found target, player has enough moves :"+ (cost < player.getMoves()));
-                    
+                    cost = 1;
+                    for (Tile back = current; back != s; back = from[back.getY() * boardWidth + back.getX()]){
+                        cost++;
+                    }
+                    Tile[] walked = new Tile[cost];
+                    walked[cost - 1] = t;
+                    Tile back = current;
+                    for (int i = cost - 2; i >= 0; i--){
+                        walked[i] = back;
+                        back = from[back.getY() * boardWidth + back.getX()];
+                    }
+                    path = Arrays.asList(walked);
+                    bfsExpansions = head;
                     return cost <= player.getMoves();
                 }
-                else if (currentTile.isRoom()){//do not try to build a path through a room, this else if must come before indexing visited because rooms.getX() returns -1
-                    continue;
-                }    
-                    
-                else if (currentTile.isFull() || visited[currentTile.getX()][currentTile.getY()]){//if the tile is full or is already visited, do not explore it
+                else if (currentTile.isRoom()){//do not try to build a path through a room, this else if must come before indexing from because rooms.getX() returns -1
                     continue;
                 }
-                
-                newPath = new LinkedList<>();
-                for (Tile ti : currentPath){
-                    newPath.add(ti);
+                int index = currentTile.getY() * boardWidth + currentTile.getX();
+                if (currentTile.isFull() || from[index] != null){//if the tile is full or is already visited, do not explore it
+                    continue;
                 }
-                
-                newPath.add(currentTile);//add new path to pathList (current path + newly found tile)
-                
-                pathList.add(newPath);
-                
-//                System.out.println("current paths:");
-//                for (LinkedList<Tile> storedPath : pathList){
-//                    System.out.println("path:");
-//                    for (Tile ti: storedPath){
-//                        System.out.println("   "+ti.getX() +","+ ti.getY());
-//                    }
-//                }
-           
-                visited[currentTile.getX()][currentTile.getY()] = true;//tile is now marked as visited    
+                from[index] = current;//tile is now marked as visited
+                queue[tail++] = currentTile;
             }
-            pathList.remove(currentPath);
-  
         }
+        bfsExpansions = head;
+        return false;//no valid path found
     }
 }
@@ -0,0 +1,192 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javafx.animation.AnimationTimer;
+import javafx.scene.text.Font;
+
+/**
+ * The fonts, sounds and images of the client, loaded once for the whole run.
+ * start begins loading everything the menu and a game need on a pool of background threads while the menu is shown,
+ * screens then get their assets from here instead of reading the files again. An asset that is still loading is
+ * waited for, an asset that was never preloaded is loaded the first time it is asked for.
+ * It also measures how long the menu and the first board took to appear.
+ */
+public final class AssetRegistry {
+
+    public static final String AVENIR = "resources/fonts/Avenir-Book.ttf";
+    public static final String RINGBEARER = "resources/fonts/ringbearer.ttf";
+    public static final String MUSIC = "resources/Music/backgroundMusic.wav";
+    public static final String END_TURN_SOUND = "resources/Sounds/endTurnSound.wav";
+
+    private static final String[] CARD_DIRECTORIES = {"resources/Character", "resources/Weapon", "resources/Room"};
+    private static final String BOARD_IMAGE = "resources/boardFinal.png";
+    private static final double[] AVENIR_SIZES = {15, 20, 30};
+
+    private static final ConcurrentHashMap<String, CompletableFuture<Font>> FONTS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, CompletableFuture<Sound>> SOUNDS = new ConcurrentHashMap<>();
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+        Thread thread = new Thread(r, "asset-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile long timeToMenu = -1;
+    private static volatile long timeToFirstBoardFrame = -1;
+
+    private AssetRegistry() {
+    }
+
+    /**
+     * Starts loading the fonts, sounds and images of the menu and the game in the background, returns straight away
+     */
+    public static void start() {
+        font(RINGBEARER, 80, false);
+        for (double size : AVENIR_SIZES) {
+            font(AVENIR, size, false);
+        }
+        sound(END_TURN_SOUND, false);
+        TextureCache.get("resources/Sprites/volumeOn.png", 50, 50);
+        TextureCache.get("resources/Sprites/volumeOff.png", 50, 50);
+        for (String directory : CARD_DIRECTORIES) {
+            File[] cards = new File(directory).listFiles((dir, name) -> name.endsWith(".png"));
+            if (cards != null) {
+                for (File card : cards) {
+                    TextureCache.get(directory + "/" + card.getName());
+                }
+            }
+        }
+        TextureCache.get(BOARD_IMAGE, 912, 950);
+    }
+
+    /**
+     * Gets a font, waiting for it if it is still loading
+     * @param path the path to a TTF file
+     * @param size the size of the font
+     * @return the font, the default font at that size when the file can't be loaded
+     */
+    public static Font font(String path, double size) {
+        return font(path, size, true).join();
+    }
+
+    /**
+     * Gets a font, loading it in the background the first time it is asked for
+     * @param path the path to a TTF file
+     * @param size the size of the font
+     * @param waiting true when the caller will wait for it, it is then loaded on the caller's thread
+     * @return the font being loaded
+     */
+    private static CompletableFuture<Font> font(String path, double size, boolean waiting) {
+        return FONTS.computeIfAbsent(path + '@' + size, key -> load(() -> {
+            try (InputStream in = new FileInputStream(path)) {
+                Font font = Font.loadFont(in, size);
+                if (font != null) {
+                    return font;
+                }
+            } catch (IOException ex) {
+                System.out.println("[AssetRegistry.font] could not load " + path + ": " + ex);
+            }
+            return new Font(size);
+        }, waiting));
+    }
+
+    /**
+     * Gets a sound, waiting for it if it is still loading
+     * @param path the path to a .wav file
+     * @return the sound, shared by every screen that plays it
+     */
+    public static Sound sound(String path) {
+        return sound(path, true).join();
+    }
+
+    /**
+     * Gets a sound, loading it in the background the first time it is asked for
+     * @param path the path to a .wav file
+     * @param waiting true when the caller will wait for it, it is then loaded on the caller's thread
+     * @return the sound being loaded
+     */
+    private static CompletableFuture<Sound> sound(String path, boolean waiting) {
+        return SOUNDS.computeIfAbsent(path, key -> load(() -> new Sound(path), waiting));
+    }
+
+    /**
+     * Loads an asset on a loader thread, or on this thread when it is going to be waited for anyway
+     * @param loader what loads the asset
+     * @param waiting true to load it on this thread
+     * @return the asset being loaded
+     */
+    private static <T> CompletableFuture<T> load(Supplier<T> loader, boolean waiting) {
+        if (waiting) {
+            return CompletableFuture.completedFuture(loader.get());
+        }
+        return CompletableFuture.supplyAsync(loader, LOADER);
+    }
+
+    /**
+     * Records and reports how long after launch the menu was first drawn, call it after the menu stage is shown
+     */
+    public static void menuShown() {
+        onNextFrame(() -> {
+            timeToMenu = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            System.out.println("[AssetRegistry] time to menu: " + timeToMenu + " ms after launch");
+        });
+    }
+
+    /**
+     * Records and reports how long a board took to be drawn, call it after the game stage is shown
+     * @param openedAt the System.nanoTime the game was opened at
+     */
+    public static void boardShown(long openedAt) {
+        onNextFrame(() -> {
+            long millis = (System.nanoTime() - openedAt) / 1000000;
+            if (timeToFirstBoardFrame < 0) {
+                timeToFirstBoardFrame = millis;
+            }
+            System.out.println("[AssetRegistry] time to board frame: " + millis + " ms after opening the game, "
+                    + (System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()) + " ms after launch");
+        });
+    }
+
+    /**
+     * Runs something in the next pulse, the pulse that draws what was just shown
+     * @param frame what to run
+     */
+    private static void onNextFrame(Runnable frame) {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                frame.run();
+            }
+        }.start();
+    }
+
+    /**
+     * Gets how long after launch the menu was first drawn
+     * @return the time in milliseconds, -1 before the menu was drawn
+     */
+    public static long getTimeToMenu() {
+        return timeToMenu;
+    }
+
+    /**
+     * Gets how long the first board of the run took to be drawn after its game was opened
+     * @return the time in milliseconds, -1 before a board was drawn
+     */
+    public static long getTimeToFirstBoardFrame() {
+        return timeToFirstBoardFrame;
+    }
+}
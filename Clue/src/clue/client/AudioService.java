@@ -0,0 +1,98 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays every sound of the client on one audio thread, so playing a sound never starts a thread, and holds the master
+ * volume and mute that are applied to every sound on top of its own volume.
+ */
+public final class AudioService {
+
+    private static final ScheduledExecutorService WORKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "audio");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final List<Runnable> SOUNDS = new CopyOnWriteArrayList<>();
+
+    private static volatile float masterVolume = 1;
+    private static volatile boolean muted = false;
+
+    private AudioService() {
+    }
+
+    /**
+     * Runs an audio task on the audio thread, tasks run one at a time in the order they were given
+     * @param task the task
+     */
+    static void submit(Runnable task) {
+        WORKER.execute(task);
+    }
+
+    /**
+     * Runs an audio task on the audio thread after a delay, in between the tasks given to submit
+     * @param task the task
+     * @param delay the delay in milliseconds
+     */
+    static void schedule(Runnable task, long delay) {
+        WORKER.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a sound so changes to the master volume reach it
+     * @param applyVolume what re-applies the volume of the sound, run on the audio thread
+     */
+    static void register(Runnable applyVolume) {
+        SOUNDS.add(applyVolume);
+    }
+
+    /**
+     * Sets the volume every sound is scaled by
+     * @param volume the percentage from 0 - 1
+     */
+    public static void setMasterVolume(float volume) {
+        masterVolume = Math.max(0, Math.min(1, volume));
+        applyToAll();
+    }
+
+    /**
+     * Gets the volume every sound is scaled by
+     * @return the percentage from 0 - 1
+     */
+    public static float getMasterVolume() {
+        return masterVolume;
+    }
+
+    /**
+     * Mutes or unmutes every sound without stopping them
+     * @param mute true to mute
+     */
+    public static void setMuted(boolean mute) {
+        muted = mute;
+        applyToAll();
+    }
+
+    /**
+     * Checks whether every sound is muted
+     * @return true when muted
+     */
+    public static boolean isMuted() {
+        return muted;
+    }
+
+    /**
+     * Applies the master volume and mute to every sound
+     */
+    private static void applyToAll() {
+        submit(() -> SOUNDS.forEach(Runnable::run));
+    }
+}
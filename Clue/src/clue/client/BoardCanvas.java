@@ -0,0 +1,374 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import clue.MapLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Draws the board on two canvases instead of a node per tile: the tiles and doors are painted once onto the bottom
+ * canvas, the tiles a player can reach are highlighted on a canvas above them, the tokens are painted onto the top canvas and only the tiles a token left or entered are repainted.
+ * One token at a time can slide between tiles for a TokenAnimator, it is drawn at a pixel over the tiles it covers.
+ * Clicks are turned into tile coordinates by dividing by the tile size.
+ */
+public class BoardCanvas extends Pane {
+
+    /**
+     * Receives the tile a player clicked
+     */
+    public interface TileClickListener {
+
+        /**
+         * Called when a tile of the board is clicked
+         * @param x the x coordinate of the tile
+         * @param y the y coordinate of the tile
+         */
+        void tileClicked(int x, int y);
+    }
+
+    private static final int DOOR_WIDTH = 5;
+    private static final Color DOOR_COLOR = Color.web("#A36200");
+    private static final Color HIGHLIGHT_COLOR = Color.rgb(255, 255, 255, 0.45);
+    private static final Color[] ROOM_COLORS = {//Study, Hall, Lounge, Library, Billiard Room, Dining room, Convervatory, Ballroom, Kitchen
+        Color.web("#696969"), Color.web("#42d4f4"), Color.web("#000075"), Color.web("#f58231"), Color.web("#911eb4"),
+        Color.web("#800000"), Color.web("#808000"), Color.web("#fffac8"), Color.web("#fabebe")};
+
+    private final int tileSize;
+    private final int boardWidth;
+    private final int boardHeight;
+    private final Canvas tileLayer;
+    private final Canvas highlightLayer;
+    private final Canvas tokenLayer;
+    private final List<TokenSprite> tokens;
+    private TokenSprite sliding;
+
+    /**
+     * Creates the board and paints its tiles
+     * @param layout the layout of the board, the type of every cell
+     * @param doorLocations the (x,y,direction) of every door to draw, only drawn when there is no background
+     * @param background the picture of the board drawn under the tiles, null to draw coloured tiles instead (custom maps),
+     * the tiles are painted once it has loaded
+     * @param backgroundWidth the width to draw the background at
+     * @param backgroundHeight the height to draw the background at
+     * @param font the font of the "?" on intrigue tiles
+     * @param tileSize the size of a tile in pixels
+     */
+    public BoardCanvas(MapLayout layout, List<int[]> doorLocations, Image background, double backgroundWidth, double backgroundHeight, Font font, int tileSize) {
+        this.tileSize = tileSize;
+        boardWidth = layout.getWidth();
+        boardHeight = layout.getHeight();
+        tokens = new ArrayList<>();
+        double width = Math.max(boardWidth * tileSize, background == null ? 0 : backgroundWidth);
+        double height = Math.max(boardHeight * tileSize, background == null ? 0 : backgroundHeight);
+        tileLayer = new Canvas(width, height);
+        highlightLayer = new Canvas(width, height);
+        tokenLayer = new Canvas(width, height);
+        getChildren().addAll(tileLayer, highlightLayer, tokenLayer);
+
+        TextureCache.whenLoaded(background, () -> paintBoard(layout, doorLocations, background, backgroundWidth, backgroundHeight, font));
+    }
+
+    /**
+     * Paints the background, tiles and doors onto the tile layer
+     * @param layout the layout of the board
+     * @param doorLocations the (x,y,direction) of every door to draw
+     * @param background the picture of the board, null for custom maps
+     * @param backgroundWidth the width to draw the background at
+     * @param backgroundHeight the height to draw the background at
+     * @param font the font of the "?" on intrigue tiles
+     */
+    private void paintBoard(MapLayout layout, List<int[]> doorLocations, Image background, double backgroundWidth, double backgroundHeight, Font font) {
+        GraphicsContext g = tileLayer.getGraphicsContext2D();
+        if (background != null) {
+            g.drawImage(background, 0, 0, backgroundWidth, backgroundHeight);
+        }
+        paintTiles(g, layout, background == null, font);
+        if (background == null) {
+            g.setFill(DOOR_COLOR);
+            for (int[] door : doorLocations) {
+                paintDoor(g, door[0] * tileSize, door[1] * tileSize, door[2]);
+            }
+        }
+    }
+
+    /**
+     * Paints every tile of the board
+     * @param g the tile layer
+     * @param layout the layout of the board
+     * @param coloured true to colour every tile (custom maps), false to only mark the intrigue tiles over the background
+     * @param font the font of the "?" on intrigue tiles
+     */
+    private void paintTiles(GraphicsContext g, MapLayout layout, boolean coloured, Font font) {
+        Random rand = new Random(System.currentTimeMillis());
+        Color[] extraRooms = new Color[Math.max(0, layout.getRoomCount() - ROOM_COLORS.length)];
+        for (int i = 0; i < extraRooms.length; i++) {
+            extraRooms[i] = Color.rgb(rand.nextInt(255) + 1, rand.nextInt(255) + 1, rand.nextInt(255) + 1);
+        }
+        g.setFont(font);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+        g.setLineWidth(1);
+        g.setStroke(Color.BLACK);
+        for (int y = 0; y < boardHeight; y++) {
+            for (int x = 0; x < boardWidth; x++) {
+                byte cell = layout.getType(x, y);
+                double px = x * tileSize;
+                double py = y * tileSize;
+                if (!coloured) {
+                    if (cell == MapLayout.INTRIGUE) {
+                        g.setGlobalAlpha(0.70);
+                        g.setFill(Color.GREEN);
+                        g.fillRect(px, py, tileSize, tileSize);
+                        paintIntrigueMark(g, px, py);
+                        g.setGlobalAlpha(1);
+                    }
+                    continue;
+                }
+                boolean border = true;
+                switch (cell) {
+                    case MapLayout.TILE:
+                        g.setFill(Color.rgb(222, 151, 29));
+                        break;
+                    case MapLayout.START:
+                        g.setFill(Color.rgb(55, 136, 4));
+                        break;
+                    case MapLayout.INTRIGUE:
+                        g.setGlobalAlpha(0.70);
+                        g.setFill(Color.ALICEBLUE);
+                        break;
+                    case MapLayout.ROOM:
+                        int room = layout.getValue(x, y);
+                        border = room >= ROOM_COLORS.length;//the named rooms were always styled without a border
+                        g.setFill(border ? extraRooms[room - ROOM_COLORS.length] : ROOM_COLORS[room]);
+                        break;
+                    default:
+                        g.setFill(Color.rgb(7, 80, 2));
+                        break;
+                }
+                g.fillRect(px, py, tileSize, tileSize);
+                if (border) {
+                    g.strokeRect(px + 0.5, py + 0.5, tileSize - 1, tileSize - 1);
+                }
+                if (cell == MapLayout.INTRIGUE) {
+                    paintIntrigueMark(g, px, py);
+                    g.setGlobalAlpha(1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Paints the "?" of an intrigue tile
+     * @param g the tile layer
+     * @param px the x pixel of the tile
+     * @param py the y pixel of the tile
+     */
+    private void paintIntrigueMark(GraphicsContext g, double px, double py) {
+        g.setFill(Color.WHITE);
+        g.fillText("?", px + tileSize / 2.0, py + tileSize / 2.0);
+    }
+
+    /**
+     * Paints a door as a thick edge on the side of the room location that leads out
+     * @param g the tile layer
+     * @param px the x pixel of the room location
+     * @param py the y pixel of the room location
+     * @param direction the direction of the door (up = 1, right = 2, down = 3, left = 4)
+     */
+    private void paintDoor(GraphicsContext g, double px, double py, int direction) {
+        switch (direction) {
+            case MapLayout.UP:
+                g.fillRect(px, py, tileSize, DOOR_WIDTH);
+                break;
+            case MapLayout.RIGHT:
+                g.fillRect(px + tileSize - DOOR_WIDTH, py, DOOR_WIDTH, tileSize);
+                break;
+            case MapLayout.DOWN:
+                g.fillRect(px, py + tileSize - DOOR_WIDTH, tileSize, DOOR_WIDTH);
+                break;
+            case MapLayout.LEFT:
+                g.fillRect(px, py, DOOR_WIDTH, tileSize);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Highlights tiles, replacing the tiles highlighted before
+     * @param cells the x,y of every tile to highlight, empty to clear the highlight
+     */
+    public void setHighlighted(List<int[]> cells) {
+        GraphicsContext g = highlightLayer.getGraphicsContext2D();
+        g.clearRect(0, 0, highlightLayer.getWidth(), highlightLayer.getHeight());
+        g.setFill(HIGHLIGHT_COLOR);
+        for (int[] cell : cells) {
+            g.fillRect(cell[0] * tileSize + 1, cell[1] * tileSize + 1, tileSize - 2, tileSize - 2);
+        }
+    }
+
+    /**
+     * Sets what is told when a tile is clicked
+     * @param listener the listener, clicks outside the tiles are ignored
+     */
+    public void setOnTileClicked(TileClickListener listener) {
+        tokenLayer.setOnMouseClicked(e -> {
+            if (e.getButton() != MouseButton.PRIMARY && e.getButton() != MouseButton.NONE) {
+                return;
+            }
+            int x = (int) Math.floor(e.getX() / tileSize);
+            int y = (int) Math.floor(e.getY() / tileSize);
+            if (x >= 0 && x < boardWidth && y >= 0 && y < boardHeight) {
+                listener.tileClicked(x, y);
+            }
+        });
+    }
+
+    /**
+     * Puts a token on the board, tokens added later are drawn over tokens on the same tile
+     * @param token the token
+     */
+    public void addToken(TokenSprite token) {
+        tokens.add(token);
+        repaintTile(token.getPositionX(), token.getPositionY());
+    }
+
+    /**
+     * Moves a token and repaints the tile it left and the tile it entered, a token that is being animated is only told
+     * where to end up once its animation finishes
+     * @param token the token
+     * @param x the x coordinate of the tile to move to, negative to take the token off the board
+     * @param y the y coordinate of the tile to move to, negative to take the token off the board
+     */
+    public void moveToken(TokenSprite token, int x, int y) {
+        if (token.isAnimated()) {
+            token.setTarget(x, y);
+            return;
+        }
+        placeToken(token, x, y);
+    }
+
+    /**
+     * Moves a token and repaints the tile it left and the tile it entered
+     * @param token the token
+     * @param x the x coordinate of the tile to move to
+     * @param y the y coordinate of the tile to move to
+     */
+    void placeToken(TokenSprite token, int x, int y) {
+        int oldX = token.getPositionX();
+        int oldY = token.getPositionY();
+        token.setPosition(x, y);
+        repaintTile(oldX, oldY);
+        if (x != oldX || y != oldY) {
+            repaintTile(x, y);
+        }
+    }
+
+    /**
+     * Lifts a token off its tile so it can be drawn at any pixel, it starts where its tile is
+     * @param token the token, only one token slides at a time
+     */
+    void startSliding(TokenSprite token) {
+        sliding = token;
+        token.setPixel(token.getPositionX() * tileSize, token.getPositionY() * tileSize);
+        repaintTile(token.getPositionX(), token.getPositionY());
+    }
+
+    /**
+     * Draws the sliding token at a pixel, repainting only the tiles it left and the tiles it now covers
+     * @param token the sliding token
+     * @param px the x pixel of the tile sized square the token is drawn in
+     * @param py the y pixel of the tile sized square the token is drawn in
+     */
+    void slideToken(TokenSprite token, double px, double py) {
+        double oldX = token.getPixelX();
+        double oldY = token.getPixelY();
+        token.setPixel(px, py);
+        repaintArea(oldX, oldY);
+        repaintArea(px, py);
+    }
+
+    /**
+     * Puts the sliding token back down on a tile
+     * @param token the sliding token
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     */
+    void stopSliding(TokenSprite token, int x, int y) {
+        sliding = null;
+        repaintArea(token.getPixelX(), token.getPixelY());
+        placeToken(token, x, y);
+    }
+
+    /**
+     * Repaints the tiles a tile sized square at a pixel overlaps, at most four
+     * @param px the x pixel of the square
+     * @param py the y pixel of the square
+     */
+    private void repaintArea(double px, double py) {
+        int x0 = (int) Math.floor(px / tileSize);
+        int y0 = (int) Math.floor(py / tileSize);
+        int x1 = (int) Math.floor((px + tileSize - 1) / tileSize);
+        int y1 = (int) Math.floor((py + tileSize - 1) / tileSize);
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                repaintTile(x, y);
+            }
+        }
+    }
+
+    /**
+     * Repaints the tokens of one tile, a token is drawn within its tile so no other tile is touched, the part of the
+     * sliding token over the tile is drawn last
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     */
+    private void repaintTile(int x, int y) {
+        if (x < 0 || y < 0 || x >= boardWidth || y >= boardHeight) {
+            return;
+        }
+        GraphicsContext g = tokenLayer.getGraphicsContext2D();
+        double px = x * tileSize;
+        double py = y * tileSize;
+        double offset = (tileSize - TokenSprite.SIZE) / 2.0;
+        g.clearRect(px, py, tileSize, tileSize);
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenSprite token = tokens.get(i);
+            if (token != sliding && token.getPositionX() == x && token.getPositionY() == y && token.getImage() != null) {
+                g.setGlobalAlpha(token.getOpacity());
+                g.drawImage(token.getImage(), token.getFrameX(), token.getFrameY(), token.getFrameSize(), token.getFrameSize(),
+                        px + offset, py + offset, TokenSprite.SIZE, TokenSprite.SIZE);
+            }
+        }
+        if (sliding != null && sliding.getImage() != null) {
+            double left = Math.max(px, sliding.getPixelX() + offset);
+            double top = Math.max(py, sliding.getPixelY() + offset);
+            double right = Math.min(px + tileSize, sliding.getPixelX() + offset + TokenSprite.SIZE);
+            double bottom = Math.min(py + tileSize, sliding.getPixelY() + offset + TokenSprite.SIZE);
+            if (right > left && bottom > top) {
+                double scale = (double) sliding.getFrameSize() / TokenSprite.SIZE;
+                g.setGlobalAlpha(sliding.getOpacity());
+                g.drawImage(sliding.getImage(),
+                        sliding.getFrameX() + (left - sliding.getPixelX() - offset) * scale,
+                        sliding.getFrameY() + (top - sliding.getPixelY() - offset) * scale,
+                        (right - left) * scale, (bottom - top) * scale,
+                        left, top, right - left, bottom - top);
+            }
+        }
+        g.setGlobalAlpha(1);
+    }
+}
@@ -7,25 +7,24 @@ package clue.client;
 
 import clue.GameController;
 import clue.GameController.TooManyPlayersException;
+import clue.GameListener;
+import clue.MapLayout;
 import clue.MissingRoomDuringCreationException;
 import clue.NotEnoughPlayersException;
-import clue.action.AccuseAction;
-import clue.action.Action;
-import clue.action.ShowCardAction;
-import clue.action.SuggestAction;
+import clue.replay.Replay;
+import clue.replay.ReplayRecorder;
 import clue.tile.NoSuchRoomException;
 import clue.tile.NoSuchTileException;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javafx.application.Application;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
@@ -37,7 +36,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
-import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -60,10 +58,12 @@ import javafx.stage.Stage;
  */
 public class ClueClient extends Application {
     
+    private static final int MAX_REPLAYS = 20;//the newest ai games kept in the replays folder
+    
     private Scene prevScene;
     private Stage stage;
     
-    Sound backgroundMusic;
+    MusicStream backgroundMusic;
     
     private Image volumeOn;
     private Image volumeOff;
@@ -99,14 +99,12 @@ public class ClueClient extends Application {
         
         stage = primaryStage;
         
-        try {
-            volumeOn = new Image(new FileInputStream(new File("resources/Sprites/volumeOn.png")), 50, 50, false, false);
-            volumeOff = new Image(new FileInputStream(new File("resources/Sprites/volumeOff.png")), 50, 50, false, false);
-        } catch(FileNotFoundException ex) {
-            
-        }
+        AssetRegistry.start();
+        
+        volumeOn = TextureCache.get("resources/Sprites/volumeOn.png", 50, 50);
+        volumeOff = TextureCache.get("resources/Sprites/volumeOff.png", 50, 50);
 
-        backgroundMusic = new Sound("resources/Music/backgroundMusic.wav");
+        backgroundMusic = new MusicStream(AssetRegistry.MUSIC);//streamed, the menu doesn't wait for the music
         backgroundMusic.loop();
         backgroundMusic.setVolume(0.6f);
         
@@ -125,6 +123,7 @@ public class ClueClient extends Application {
         
         primaryStage.setScene(scene);
         primaryStage.show();
+        AssetRegistry.menuShown();
     }
     
     /**
@@ -133,18 +132,10 @@ public class ClueClient extends Application {
      */
     private void addUIControls(VBox menuOptions) {
         // Game Title
-        Font titleFont = new Font(80);
-        avenirLarge = new Font(30);
-        avenirTitle = new Font(20);
-        avenirNormal = new Font(12);
-        try {
-            titleFont = Font.loadFont(new FileInputStream(new File("./resources/fonts/ringbearer.ttf")), 80);
-            avenirLarge = Font.loadFont(new FileInputStream(new File("./resources/fonts/Avenir-Book.ttf")), 30);
-            avenirTitle = Font.loadFont(new FileInputStream(new File("./resources/fonts/Avenir-Book.ttf")), 20);
-            avenirNormal = Font.loadFont(new FileInputStream(new File("./resources/fonts/Avenir-Book.ttf")), 15);
-        } catch(FileNotFoundException e) {
-            
-        }
+        Font titleFont = AssetRegistry.font(AssetRegistry.RINGBEARER, 80);
+        avenirLarge = AssetRegistry.font(AssetRegistry.AVENIR, 30);
+        avenirTitle = AssetRegistry.font(AssetRegistry.AVENIR, 20);
+        avenirNormal = AssetRegistry.font(AssetRegistry.AVENIR, 15);
         
         Label gameTitle = new Label("cluE");
         gameTitle.setFont(titleFont);
@@ -229,17 +220,35 @@ public class ClueClient extends Application {
         startGameButton.setOnMouseClicked(e -> {
             String doorFile = "resources/archersAvenueDoors.csv";
             String tileFile = "resources/archersAvenueTiles.csv";
+            String replayFile = null;
+            GameListener[] listeners = new GameListener[0];
+            ReplayRecorder recorder = null;
             try {
-                GameController gameController = new GameController(0, numberOfAIs, tileFile, doorFile);
+                File replayFolder = new File("replays");
+                replayFolder.mkdirs();
+                ReplayRecorder.deleteOldest(replayFolder, MAX_REPLAYS - 1);//room for this one
+                replayFile = new File(replayFolder, "aiGame" + System.currentTimeMillis() + ".cluereplay").getPath();
+                recorder = new ReplayRecorder(replayFile, tileFile, doorFile);
+                listeners = new GameListener[]{recorder};
+            } catch (IOException ex) {//play the game without recording it
+                Logger.getLogger(ClueClient.class.getName()).log(Level.SEVERE, null, ex);
+                replayFile = null;
+            }
+            try {
+                GameController gameController = new GameController(0, numberOfAIs, tileFile, doorFile, listeners);
                 stage.hide();
                 stage.setScene(prevScene);
-                DisplayAIGameLog(stage, gameController);
+                DisplayAIGameLog(stage, gameController, replayFile);
             } catch(TooManyPlayersException | MissingRoomDuringCreationException | NoSuchRoomException | NoSuchTileException ex) {
                 System.out.println("Ice Cream Machine BROKE");
             } catch(NotEnoughPlayersException ex) {
                 Prompt playerPrompt = new Prompt("Not Enough Players");
                 playerPrompt.setLabelTitle("Start Game Error");
                 playerPrompt.showAndWait();    
+            } finally {
+                if (recorder != null) {
+                    recorder.close();
+                }
             }
             
         });
@@ -271,7 +280,7 @@ public class ClueClient extends Application {
         stage.setScene(scene);
     }
     
-    private void DisplayAIGameLog(Stage stage, GameController gameController) {
+    private void DisplayAIGameLog(Stage stage, GameController gameController, String replayFile) {
         HashMap<String, String> CardNameMap = new HashMap<>();
         
         CardNameMap.put("character0", "Miss Scarlet");
@@ -305,82 +314,37 @@ public class ClueClient extends Application {
         
         Label historyLabel = getLabel("History", avenirTitle); 
         
-        TextArea history = new TextArea();
-        history.setPrefRowCount(30);
-        history.setPrefColumnCount(30);
-        history.setWrapText(true);
-        history.setFont(avenirNormal);
-        history.setStyle("-fx-control-inner-background: #fff2ab;");
-        history.setEditable(false);
+        HistoryView history = new HistoryView(CardNameMap, avenirNormal, 30);
+        history.setMaxWidth(600);
+        history.addAll(gameController.getActionLog());
         
-        List<Action> log = gameController.getActionLog();
-
-        for (Action action: log) {
-            StringBuilder message = new StringBuilder();     
-            switch (action.getActionType()) {
-                case ACCUSATION:
-                    int accuser = ((AccuseAction) action).getPlayer().getId();
-                    final int[] cards = ((AccuseAction) action).getAccusationCards();
-                    message.append(CardNameMap.get("character" + accuser));
-                    message.append(" accused ");
-                    message.append(CardNameMap.get("character" + cards[0]));
-                    message.append(" of murder in the ");
-                    message.append(CardNameMap.get("room" + cards[2]));
-                    message.append(" using the ");
-                    message.append(CardNameMap.get("weapon" + cards[1]));
-                    message.append("\n");
-                    history.appendText("--------------------\n");
-                    history.appendText(message.toString());
-                    break;
-                case SHOWCARD:
-                    int suggestee = ((ShowCardAction) action).getWhoShowedTheCard().getId();
-                    int suggester = ((ShowCardAction) action).getPlayer().getId();
-                    message.append(CardNameMap.get("character" + suggestee));
-                    message.append(" showed a card to ");
-                    message.append(CardNameMap.get("character" + suggester));
-                    message.append("\n");
-                    history.appendText("--------------------\n");
-                    history.appendText(message.toString());
-                    break;
-                case SUGGEST:
-                    SuggestAction suggestedAction = ((SuggestAction) action);
-                    message.append(CardNameMap.get("character" + suggestedAction.getPlayer().getId()));
-                    message.append(" suggested ");
-                    message.append(CardNameMap.get("character" + suggestedAction.getPersonCard().getId()));
-                    message.append(" of the murder in the ");
-                    message.append(CardNameMap.get("room" + suggestedAction.getRoomCard().getId()));
-                    message.append(" using the ");
-                    message.append(CardNameMap.get("weapon" + suggestedAction.getWeaponCard().getId()));
-                    message.append("\n");
-                    history.appendText("--------------------\n");
-                    history.appendText(message.toString());
-                    break;
-                case SHOWCARDS:
-                    
-                    break;
-                default:
-                    break;
-            }
-        }
-        
-        StringBuilder winner = new StringBuilder();
         int winningPlayer = gameController.getWinner();
         if (winningPlayer == -1) {
-            winner.append("No one won");
-            winner.append("\n");
+            history.addLine("No one won");
         } else {
-            winner.append(CardNameMap.get("character" + winningPlayer));
-            winner.append(" accused correctly and won!!!");
-            winner.append("\n");
+            history.addLine(CardNameMap.get("character" + winningPlayer) + " accused correctly and won!!!");
         }
-        history.appendText("--------------------\n");
-        history.appendText(winner.toString());
         
         MenuItem backButton = new MenuItem("Back", avenirTitle);
         backButton.setOnMouseClicked(e -> stage.setScene(prevScene));
         
         gameLog.getChildren().addAll(historyLabel, history, backButton);
         
+        if (replayFile != null) {
+            MenuItem replayButton = new MenuItem("Watch Replay", avenirTitle);
+            replayButton.setOnMouseClicked(e -> {
+                try {
+                    GameInstance viewer = new GameInstance();
+                    viewer.startReplay(Replay.load(replayFile), stage);
+                } catch (IOException ex) {
+                    Logger.getLogger(ClueClient.class.getName()).log(Level.SEVERE, null, ex);
+                    Prompt replayPrompt = new Prompt("Replay could not be loaded");
+                    replayPrompt.showAndWait();
+                }
+            });
+            gameLog.getChildren().add(replayButton);
+        }
+        
         Scene scene = new Scene(gameLog, width, height);
         stage.setScene(scene);
         stage.show();
@@ -478,24 +442,26 @@ public class ClueClient extends Application {
             String mapDirPath = "Maps/" + maps.getValue();
             File mapDirectory = new File(mapDirPath);
             String[] mapFiles = mapDirectory.list();
-            String doorFile;
-            String tileFile;
+            String doorFile = null;
+            String tileFile = null;
+            String compiledFile = null;
             Prompt fileErrorPrompt = new Prompt("");
-            if (mapFiles.length == 2) {
-                if (mapFiles[0].endsWith("Doors.csv") && mapFiles[1].endsWith("Tiles.csv")) {
-                    doorFile = mapDirPath + "/" + mapFiles[0];
-                    tileFile = mapDirPath + "/" + mapFiles[1];
-                } else if (mapFiles[0].endsWith("Tiles.csv") && mapFiles[1].endsWith("Doors.csv")) {
-                    doorFile = mapDirPath + "/" + mapFiles[1];
-                    tileFile = mapDirPath + "/" + mapFiles[0];
-                } else {
-                    fileErrorPrompt.setMessage("Door and Tile csv files not found. Loading default map.");
-                    fileErrorPrompt.showAndWait();
-                    doorFile = "resources/archersAvenueDoors.csv";
-                    tileFile = "resources/archersAvenueTiles.csv";
+            for (String mapFile : mapFiles) {
+                if (mapFile.endsWith("Doors.csv")) {
+                    doorFile = mapDirPath + "/" + mapFile;
+                } else if (mapFile.endsWith("Tiles.csv")) {
+                    tileFile = mapDirPath + "/" + mapFile;
+                } else if (mapFile.endsWith(MapLayout.EXTENSION)) {
+                    compiledFile = mapDirPath + "/" + mapFile;
                 }
-            } else {
-                fileErrorPrompt.setMessage("Error loading map too many file found. Loading default map.");
+            }
+            if (compiledFile != null && MapLayout.isCurrent(compiledFile, tileFile, doorFile)) {//a compiled map holds the doors too
+                tileFile = compiledFile;
+                if (doorFile == null) {
+                    doorFile = "";
+                }
+            } else if (tileFile == null || doorFile == null) {
+                fileErrorPrompt.setMessage("Door and Tile csv files not found. Loading default map.");
                 fileErrorPrompt.showAndWait();
                 doorFile = "resources/archersAvenueDoors.csv";
                 tileFile = "resources/archersAvenueTiles.csv";
@@ -750,7 +716,9 @@ public class ClueClient extends Application {
         Label toggleVolume = new Label("",new ImageView(volumeOn));
        
         
-        toggleVolume.setOnMouseClicked(e -> backgroundMusic.toggleSound());
+        toggleVolume.setOnMouseClicked(e -> {
+            backgroundMusic.toggleSound();
+        });
         
         Slider backgroundMusicVolume = new Slider(0, 100, 100);
         backgroundMusicVolume.setMaxWidth(1000);
@@ -5,37 +5,44 @@
  */
 package clue.client;
 
+import clue.BoardMappings;
+import clue.MapLayout;
 import clue.GameController;
+import clue.GameListener;
+import clue.MissingRoomDuringCreationException;
 import clue.action.AccuseAction;
 import clue.action.Action;
+import clue.action.ActionType;
+import clue.action.MoveAction;
 import clue.action.ShowCardAction;
 import clue.action.ShowCardsAction;
-import clue.action.SuggestAction;
 import clue.card.Card;
 import clue.card.CardType;
 import clue.player.AiAdvanced;
 import clue.card.WeaponCard;
 import clue.player.Player;
+import clue.replay.Replay;
+import clue.replay.ReplayEvent;
+import clue.replay.ReplayFrame;
 import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
 import clue.tile.Room;
+import clue.tile.Tile;
 import clue.tile.TileOccupiedException;
-import java.io.BufferedReader;
-import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
-import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.geometry.Bounds;
@@ -45,6 +52,7 @@ import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
 import javafx.scene.control.TextArea;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.image.Image;
@@ -76,6 +84,8 @@ public class GameInstance {
     
     // Data for constructing the game
     private static final int TILE_SIZE = 38;
+    private static final int BOARD_WIDTH = 912;
+    private static final int BOARD_HEIGHT = 950;
     private String boardTilePath;
     
     private final HashMap<String, String> ImagePathMap = new HashMap<>();
@@ -83,17 +93,25 @@ public class GameInstance {
     private final HashMap<String, String> TokenPathMap = new HashMap<>();
     
     // Game board
-    private StackPane[][] board;
+    private BoardCanvas board;
+    private TokenAnimator animator;
     private double stageX;
     private double stageY;
     
     // Backend Interface
     private GameController gameInterface;
     
+    // Replay viewer, null when playing a game
+    private Replay replay;
+    private Slider replayTimeline;
+    private Label replayEventLabel;
+    private Timeline replayPlayback;
+    
     // Game Sprites
     private PlayerSprite currentPlayer;
     private PlayerSprite[] playerSprites;
     private WeaponSprite[] weaponSprites;
+    private SpriteAtlas tokenAtlas;
     
     //End turn button
     private MenuItem endButton;
@@ -108,7 +126,18 @@ public class GameInstance {
     
     // Player Data JavaFX Nodes
     Label playerCardsLabel;
-    private TextArea history;
+    private HistoryView history;
+    private final UiEventQueue events = new UiEventQueue(this::redrawPlayers, this::redrawWeapons, () -> createCardsDisplay(this.cardsDisplay));
+    private final GameListener moveAnimation = new GameListener() {
+        @Override
+        public void actionPerformed(GameController game, Action action) {
+            animateMove(action);
+        }
+
+        @Override
+        public void gameEnded(GameController game) {
+        }
+    };
     private GridPane cardsDisplay;
     private TextArea notepad;
     private Label remainingMovesLabel;
@@ -140,190 +169,66 @@ public class GameInstance {
     private final Background blackFill = new Background(new BackgroundFill(Color.BLACK, CornerRadii.EMPTY, Insets.EMPTY));
     
     /**
-     * Creates the Tile board in the form of a GridPane and adds it to a StackPane.
+     * Creates the board canvas and adds it to a StackPane.
      * 
+     * @param layout the layout of the board, the type of every cell
+     * @param doorLocations the (x,y,direction) of every door to draw
      * @return StackPane object
      */
-    private StackPane createBoard() {
+    private StackPane createBoard(MapLayout layout, ArrayList<int[]> doorLocations) {
         StackPane root = new StackPane();
         root.setPadding(new Insets(10, 5, 5, 0));
         root.setAlignment(Pos.CENTER);
-                
-        GridPane boardPane = new GridPane();
-
-        int boardHeight = gameInterface.getBoardHeight();
-        int boardWidth = gameInterface.getBoardWidth();
-        board = new StackPane[boardHeight][boardWidth];
 
         Image image = null;
         
         if (boardTilePath.contains("archersAvenue")) {
-            try {
-                image = new Image(new FileInputStream(new File(ImagePathMap.get("board"))));
-            } catch(FileNotFoundException ex) {
-            }
+            image = TextureCache.get(ImagePathMap.get("board"), BOARD_WIDTH, BOARD_HEIGHT);
         }
         
-        ImageView boardview = new ImageView(image);
-        boardview.setFitWidth(912);
-        boardview.setFitHeight(950);
+        board = new BoardCanvas(layout, doorLocations, image, BOARD_WIDTH, BOARD_HEIGHT, avenirTitle, TILE_SIZE);
+        board.setOnTileClicked(this::tileClicked);
+        animator = new TokenAnimator(board, TILE_SIZE);
         
         Pane alignment = new Pane();
-        alignment.getChildren().addAll(boardview, boardPane);
+        alignment.getChildren().add(board);
         
         root.getChildren().add(alignment);
-        String line;
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(boardTilePath))) {
-            int y = 0;
-            while ((line = br.readLine()) != null && y < boardHeight) {
-                String[] tiles = line.split(",");
-                int x = 0;
-                for (int i=0; i < boardWidth; i++) {
-                    String tile = tiles[i];
-                    String cell = tile.replaceAll("[^0-9A-Z-]+", "");
-                    StackPane tilePane = new StackPane();
-                    tilePane.setAlignment(Pos.CENTER);
-                    Tile tileSprite = new Tile(TILE_SIZE);
-                    if (!boardTilePath.contains("archersAvenue")) {
-                        tileSprite.setStyle("-fx-border-width: 1px 1px 1px 1px; -fx-border-style: solid; -fx-border-color: black;");
-                    }
-                    final int coordX = x;
-                    final int coordY = y;
-                    final boolean intrigueTile = cell.contains("I");
-                    
-                    tilePane.setOnMouseClicked(e -> {
-                        boolean isIntrigue = intrigueTile;
-                        try {
-                            if (gameInterface.move(coordX, coordY)) {
-                                //currentPlayer.move(gameInterface.getPlayer().getDrawX(), gameInterface.getPlayer().getDrawY(), board, currentPlayer);
-                                redrawPlayers();
-                                remainingMoves.set(gameInterface.getPlayer().getMoves());
-                                if (isIntrigue && gameInterface.getPlayer().getCanReceiveIntrigue()) {
-                                    endButton.setText("Use Intrigue");
-                                } else {
-                                    endButton.setText("End Turn");
-                                }
-                            } else {
-                                Prompt moveError = new Prompt("Invalid Move");
-                                moveError.show();
-                            }
-                        } catch (NoSuchRoomException | TileOccupiedException ex) {
-                            Logger.getLogger(GameInstance.class.getName()).log(Level.SEVERE, null, ex);
-                        } catch (NullPointerException ex) {
-                            Prompt rollError = new Prompt("Roll First");
-                            rollError.show();
-                        }
-                    });
-                    
-                    // overlay intrigue tiles
-                    if (cell.equals("I")) {
-                        tileSprite.setColor(Color.GREEN);
-                        tileSprite.setOpacity(0.70);
-                        tileSprite.setText("?");
-                        tileSprite.setAlignment(Pos.CENTER);
-                        tileSprite.setFont(avenirTitle);
-                        tileSprite.setTextFill(Color.WHITE);
-                    }
-                    
-                    if (!boardTilePath.contains("archersAvenue")) {
-                        if (cell.equals("-1") || cell.equals("")) {
-                            tileSprite.setColor(Color.rgb(7, 80, 2));
-                        } else if (cell.equals("0")) {
-                            tileSprite.setColor(Color.rgb(222, 151,  29));
-                        } else if (cell.contains("S")) {
-                            tileSprite.setColor(Color.rgb(55, 136, 4));
-                        }else if (cell.contains("I")) {
-                            tileSprite.setColor(Color.ALICEBLUE);
-                        } else if (Integer.valueOf(cell) > 0) {
-                            paintRoom(tileSprite, Integer.valueOf(cell));
-                        } 
-                    }
-
-                    tilePane.getChildren().add(tileSprite);
-                    board[y][x] = tilePane;
-                    boardPane.add(tilePane, x, y);
-                    x++;
-                }
-                y++;
-                
-            }
-        } catch(IOException ex) {
-            Prompt boardMapError = new Prompt("Board File not found");
-            boardMapError.show();
-        }
-        
-        if (!boardTilePath.contains("archersAvenue")) {
-            ArrayList<int[]> doorLocations = gameInterface.getDoorLocations();
-            doorLocations.forEach((coords) -> {
-                Tile doorSprite = new Tile(TILE_SIZE);
-                switch (coords[2]) {
-                    case 1:
-                        doorSprite.setStyle("-fx-border-width: 5px 0px 0px 0px; -fx-border-style: solid; -fx-border-color: #A36200;");
-                        break;
-                    case 2:
-                        doorSprite.setStyle("-fx-border-width: 0px 5px 0px 0px; -fx-border-style: solid; -fx-border-color: #A36200;");
-                        break;
-                    case 3:
-                        doorSprite.setStyle("-fx-border-width: 0px 0px 5px 0px; -fx-border-style: solid; -fx-border-color: #A36200;");
-                        break;
-                    case 4:
-                        doorSprite.setStyle("-fx-border-width: 0px 0px 0px 5px; -fx-border-style: solid; -fx-border-color: #A36200;");
-                        break;
-                }
-                board[coords[1]][coords[0]].getChildren().add(doorSprite);
-            });
-        }
-        
-        spawnPlayers(board);
-        spawnWeapons(board);
         
         rolled = false;
         return root;
     }
     
     /**
-     * Changes each rooms appearance to be different by changing their colour on the board(custom maps only).
+     * Moves the current player to the clicked tile.
      * 
-     * @param tile  the Tile(Label) to change appearance
-     * @param id the id of the room 1 to 9.
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
      */
-    private void paintRoom(Tile tile, int id){
-        Random rand = new Random(Calendar.getInstance().getTimeInMillis());
-        switch(id){
-            case 1://Study
-                tile.setStyle("-fx-background-color: #696969;");
-                break;
-            case 2://Hall
-                tile.setStyle("-fx-background-color: #42d4f4;");
-                break;
-            case 3://Lounge
-                tile.setStyle("-fx-background-color: #000075;");
-                break;
-            case 4://Library
-                tile.setStyle("-fx-background-color: #f58231;");
-                break;
-            case 5://Billiard Room
-                tile.setStyle("-fx-background-color: #911eb4;");
-                break;
-            case 6://Dining room
-                tile.setStyle("-fx-background-color: #800000;");
-                break;
-            case 7://Convervatory
-                tile.setStyle("-fx-background-color: #808000;");
-                break;
-            case 8://Ballroom
-                tile.setStyle("-fx-background-color: #fffac8;");
-                break;
-            case 9://Kitchen
-                tile.setStyle("-fx-background-color: #fabebe;");
-                break;
-            default:
-                int r = rand.nextInt(255)+1;
-                int g = rand.nextInt(255)+1;
-                int b = rand.nextInt(255)+1;
-                tile.setColor(Color.rgb(r,g,b));
-                break;
+    private void tileClicked(int x, int y) {
+        if (gameInterface == null) {//watching a replay, the board can't be played on
+            return;
+        }
+        boolean isIntrigue = gameInterface.getMapLayout().getType(x, y) == MapLayout.INTRIGUE;
+        try {
+            if (gameInterface.move(x, y)) {
+                events.invalidate(UiEventQueue.PLAYERS);
+                remainingMoves.set(gameInterface.getPlayer().getMoves());
+                showReachableTiles();
+                if (isIntrigue && gameInterface.getPlayer().getCanReceiveIntrigue()) {
+                    endButton.setText("Use Intrigue");
+                } else {
+                    endButton.setText("End Turn");
+                }
+            } else {
+                Prompt moveError = new Prompt("Invalid Move");
+                moveError.show();
+            }
+        } catch (NoSuchRoomException | TileOccupiedException ex) {
+            Logger.getLogger(GameInstance.class.getName()).log(Level.SEVERE, null, ex);
+        } catch (NullPointerException ex) {
+            Prompt rollError = new Prompt("Roll First");
+            rollError.show();
         }
     }
 
@@ -332,15 +237,15 @@ public class GameInstance {
      * 
      * @param board the GUI representation of the board
      */
-    private void spawnPlayers(StackPane[][] board) {
+    private void spawnPlayers(BoardCanvas board) {
         List<Player> players = gameInterface.getPlayers();
         playerSprites = new PlayerSprite[players.size()];
         for(int i = players.size()-1; i>= 0; i--) {
             int x = players.get(i).getDrawX();
             int y = players.get(i).getDrawY();
 
-            playerSprites[i] = new PlayerSprite(x, y, TokenPathMap.get("character" + players.get(i).getId()));
-            board[y][x].getChildren().add(playerSprites[i]);
+            playerSprites[i] = new PlayerSprite(x, y, tokenAtlas, "character" + players.get(i).getId());
+            board.addToken(playerSprites[i]);
         }
         currentPlayer = playerSprites[0];
     }
@@ -350,24 +255,67 @@ public class GameInstance {
      * 
      * @param board the GUI representation of the board
      */
-    private void spawnWeapons(StackPane[][] board) {
+    private void spawnWeapons(BoardCanvas board) {
         List<WeaponCard> weapons = gameInterface.getWeaponCards();
         weaponSprites = new WeaponSprite[weapons.size()];
         for (int i=0; i < weapons.size(); i++) {
             int x = weapons.get(i).getDrawX();
             int y = weapons.get(i).getDrawY();
-            weaponSprites[i] = new WeaponSprite(x, y, TokenPathMap.get("weapon" + weapons.get(i).getId()));
-            board[y][x].getChildren().add(weaponSprites[i]);
+            weaponSprites[i] = new WeaponSprite(x, y, tokenAtlas, "weapon" + weapons.get(i).getId());
+            board.addToken(weaponSprites[i]);
         }
     }
     
+    /**
+     * Highlights every tile and room the current player can still move to, rooms are highlighted whole.
+     */
+    private void showReachableTiles() {
+        List<int[]> cells = new ArrayList<>();
+        for (Tile tile : gameInterface.getReachableTiles()) {
+            if (tile.isRoom()) {
+                cells.addAll(((Room) tile).getLocations());
+            } else {
+                cells.add(new int[]{tile.getX(), tile.getY()});
+            }
+        }
+        board.setHighlighted(cells);
+    }
+
+    /**
+     * Queues the token of a player who walked to slide along the path they took, AI players included.
+     * Called by the GameController for every action, the path and end tile are read straight away and the
+     * animation is queued with the next batch of events.
+     * 
+     * @param action the action that was performed
+     */
+    private void animateMove(Action action) {
+        if (action.getActionType() != ActionType.MOVE || !action.result) {
+            return;
+        }
+        List<Tile> path = ((MoveAction) action).getPath();
+        if (path == null) {//teleported, the token jumps when the players are redrawn
+            return;
+        }
+        int[] pathX = new int[path.size()];
+        int[] pathY = new int[path.size()];
+        for (int i = 0; i < pathX.length; i++) {
+            pathX[i] = path.get(i).getX();
+            pathY[i] = path.get(i).getY();
+        }
+        Player player = action.getPlayer();
+        int endX = player.getDrawX();
+        int endY = player.getDrawY();
+        boolean ai = player instanceof AiAdvanced;
+        events.post(() -> animator.animate(playerSprites[player.getId()], pathX, pathY, endX, endY, ai));
+    }
+
     /**
      * Re-renders where the player tokens are on the board
      */
     private void redrawPlayers() {
         gameInterface.getPlayers().forEach((player) -> {
             PlayerSprite sprite = playerSprites[player.getId()];
-            sprite.move(player.getDrawX(), player.getDrawY(), board, sprite);
+            sprite.move(player.getDrawX(), player.getDrawY(), board);
         });
     }
     /**
@@ -376,7 +324,7 @@ public class GameInstance {
     private void redrawWeapons() {
         gameInterface.getWeaponCards().forEach((weapon) -> {
             WeaponSprite sprite = weaponSprites[weapon.getId()];
-            sprite.move(weapon.getDrawX(), weapon.getDrawY(), board, sprite);
+            sprite.move(weapon.getDrawX(), weapon.getDrawY(), board);
         });
     }
     
@@ -409,13 +357,7 @@ public class GameInstance {
         Label historyLabel = getLabel("History", avenirTitle); 
         hiddenLayout.setLeft(historyLabel);
         
-        history = new TextArea();
-        history.setPrefRowCount(18);
-        history.setPrefColumnCount(20);
-        history.setWrapText(true);
-        history.setFont(avenirText);
-        history.setStyle("-fx-control-inner-background: #fff2ab;");
-        history.setEditable(false);
+        history = new HistoryView(CardNameMap, avenirText, 18);
         
         leftPanelLayout.getChildren().addAll(notepadLabel, notepad, hiddenLayout, history);
         
@@ -495,7 +437,7 @@ public class GameInstance {
      */
     private VBox createPlayerControls() {    
         //Sounds
-        endTurnSound = new Sound("resources/Sounds/endTurnSound.wav");
+        endTurnSound = AssetRegistry.sound(AssetRegistry.END_TURN_SOUND);
         endTurnSound.setVolume(0.75f);
         
         
@@ -558,6 +500,7 @@ public class GameInstance {
                 remainingMovesLabel.setText("Remaining Moves: " + remainingMoves.get());
                 remainingMoves.addListener((observable, oldValue, newValue) -> remainingMovesLabel.setText("Remaining Moves: " + newValue));
                 rolled = true;
+                showReachableTiles();
             } else {
                 Prompt alreadyRolled = new Prompt("You cannot roll");
                 alreadyRolled.showAndWait();
@@ -570,6 +513,7 @@ public class GameInstance {
             rolled = true;
         
             gameInterface.getPlayer().setNotes(notes);
+            board.setHighlighted(new ArrayList<>());
             gameInterface.endTurn();
             endTurnSound.play();
         });
@@ -602,7 +546,9 @@ public class GameInstance {
         
         main.setLeft(createLeftPanel());
         
-        main.setCenter(createBoard());
+        main.setCenter(createBoard(gameInterface.getMapLayout(), gameInterface.getDoorLocations()));
+        spawnPlayers(board);
+        spawnWeapons(board);
         
         BorderPane rightPanel = new BorderPane();
         
@@ -623,11 +569,20 @@ public class GameInstance {
     }
     
     /**
-     * Used by the backend to communicate with the GUI.
+     * Used by the backend to communicate with the GUI, the response is queued and shown with the next batch of events.
      * 
      * @param action a type of action
      */
     public void actionResponse(Action action) {
+        events.post(() -> respondToAction(action));
+    }
+
+    /**
+     * Shows the response to an action in the GUI.
+     * 
+     * @param action a type of action
+     */
+    private void respondToAction(Action action) {
         switch (action.getActionType()) {
             case SHOWCARDS:
                 System.out.println("[gameInstance.actionResponse] case SHOWCARDS ----");
@@ -638,8 +593,7 @@ public class GameInstance {
                 System.out.println("[gameInstance.actionResponse] case SHOWCARD ----");
                 endTurnSound.play();
                 showCard(action);
-                redrawPlayers();
-                redrawWeapons();
+                events.invalidate(UiEventQueue.PLAYERS | UiEventQueue.WEAPONS);
                 if (((ShowCardAction) action).getWhoShowedTheCard() instanceof AiAdvanced) {
                     showCardPrompt.show();
                 }
@@ -673,27 +627,16 @@ public class GameInstance {
      * @return an Image object of the card
      */
     private Image getImage(int cardId, CardType cardType) {
-        Image cardImage = null;
-        try {
-            switch (cardType) {
-                case PERSON:
-                    cardImage = new Image(new FileInputStream(new File(ImagePathMap.get("character"+cardId))));
-                    break;
-                case WEAPON:
-                    cardImage = new Image(new FileInputStream(new File(ImagePathMap.get("weapon"+cardId))));
-                    break;
-                case ROOM:
-                    cardImage = new Image(new FileInputStream(new File(ImagePathMap.get("room"+cardId))));
-                    break;
-                default:
-                    cardImage = new Image(new FileInputStream(new File(ImagePathMap.get("character1"))));
-                    break;
-            }
-        } catch(FileNotFoundException ex) {
-
+        switch (cardType) {
+            case PERSON:
+                return TextureCache.get(ImagePathMap.get("character"+cardId));
+            case WEAPON:
+                return TextureCache.get(ImagePathMap.get("weapon"+cardId));
+            case ROOM:
+                return TextureCache.get(ImagePathMap.get("room"+cardId));
+            default:
+                return TextureCache.get(ImagePathMap.get("character1"));
         }
-        
-        return cardImage;
     }
     
     /**
@@ -772,6 +715,15 @@ public class GameInstance {
      * @param message the message to show the user
      */
     public void notifyUser(String message) {
+        events.post(() -> showNotice(message));
+    }
+
+    /**
+     * Shows a prompt(window) with a message to the player.
+     * 
+     * @param message the message to show the user
+     */
+    private void showNotice(String message) {
         Prompt notifyPrompt = new Prompt(message);
         System.out.println("message: " + message);
         if (message.contains("EXTRATURN")) {
@@ -948,20 +900,31 @@ public class GameInstance {
         CardNameMap.put("room8", "Kitchen");
     }
     
+    /**
+     * Starts loading every card and board image in the background and builds the token atlas, so nothing is read from disk
+     * when they are shown.
+     */
+    private void preloadTextures() {
+        ArrayList<String> cardPaths = new ArrayList<>();
+        ImagePathMap.forEach((key, path) -> {
+            if (!key.equals("board")) {
+                cardPaths.add(path);
+            }
+        });
+        TextureCache.preload(cardPaths, 0, 0);
+        tokenAtlas = SpriteAtlas.get(TokenPathMap, TokenSprite.SIZE);
+        if (boardTilePath.contains("archersAvenue")) {
+            TextureCache.get(ImagePathMap.get("board"), BOARD_WIDTH, BOARD_HEIGHT);
+        }
+    }
+    
     /**
      * Initialises the Fonts.
      */
     private void initFonts() {
-        avenirLarge = new Font(30);
-        avenirTitle = new Font(20);
-        avenirText = new Font(15);
-        try {
-            avenirLarge = Font.loadFont(new FileInputStream(new File("resources/fonts/Avenir-Book.ttf")), 30);
-            avenirTitle = Font.loadFont(new FileInputStream(new File("resources/fonts/Avenir-Book.ttf")), 20);
-            avenirText = Font.loadFont(new FileInputStream(new File("resources/fonts/Avenir-Book.ttf")), 15);
-        } catch(FileNotFoundException e) {
-            
-        }
+        avenirLarge = AssetRegistry.font(AssetRegistry.AVENIR, 30);
+        avenirTitle = AssetRegistry.font(AssetRegistry.AVENIR, 20);
+        avenirText = AssetRegistry.font(AssetRegistry.AVENIR, 15);
     }
     
     /**
@@ -998,6 +961,7 @@ public class GameInstance {
      * @param tilePath CSV representation of the board
      */
     public void startGame(GameController gameController, Stage client,String tilePath) {
+        long openedAt = System.nanoTime();
         gameStage = new Stage();
         
         gameStage.xProperty().addListener((observable, oldValue, newValue) -> stageX = newValue.doubleValue());
@@ -1018,16 +982,210 @@ public class GameInstance {
         
         gameInterface = gameController;
         gameInterface.setGameInstance(this);
+        gameInterface.addGameListener(moveAnimation);
         
         initFonts();
         initDefaultTokens();
         initDefaultGraphics();
         initDefaultNames();
         initCustomSettings();
+        preloadTextures();
         
         uiScene = new Scene(createUI(), Color.BLACK);
         gameStage.setScene(uiScene);
         gameStage.show();
+        AssetRegistry.boardShown(openedAt);
+    }
+    
+    /**
+     * Opens a recorded game in a read only viewer with a timeline which can be scrubbed to any point of the game.
+     * 
+     * @param replay the loaded replay to view
+     * @param client the main window which started GameInstance
+     */
+    public void startReplay(Replay replay, Stage client) {
+        long openedAt = System.nanoTime();
+        BoardMappings boardMappings;
+        try {
+            boardMappings = new BoardMappings(replay.getTilePath(), replay.getDoorPath());
+        } catch (NoSuchRoomException | NoSuchTileException | MissingRoomDuringCreationException ex) {
+            Logger.getLogger(GameInstance.class.getName()).log(Level.SEVERE, null, ex);
+            Prompt boardMapError = new Prompt("Replay board could not be loaded");
+            boardMapError.show();
+            return;
+        }
+        
+        gameStage = new Stage();
+        gameStage.initModality(Modality.APPLICATION_MODAL);
+        gameStage.setTitle("Clue Replay");
+        gameStage.setResizable(false);
+        gameStage.setOnHidden(e -> replayPlayback.stop());
+        
+        this.client = client;
+        this.boardTilePath = replay.getTilePath();
+        this.replay = replay;
+        
+        initFonts();
+        initDefaultTokens();
+        initDefaultGraphics();
+        initDefaultNames();
+        initCustomSettings();
+        preloadTextures();
+        
+        ArrayList<int[]> doorLocations = new ArrayList<>();
+        for (Room room : boardMappings.getRooms()) {
+            doorLocations.addAll(room.getDoorLocations());
+        }
+        
+        BorderPane main = new BorderPane();
+        main.setBackground(greenFill);
+        main.setCenter(createBoard(boardMappings.getLayout(), doorLocations));
+        main.setBottom(createReplayControls());
+        spawnReplayTokens();
+        showReplayFrame(0);
+        
+        uiScene = new Scene(main, Color.BLACK);
+        gameStage.setScene(uiScene);
+        gameStage.show();
+        AssetRegistry.boardShown(openedAt);
+    }
+    
+    /**
+     * Creates the timeline slider, step and play buttons of the replay viewer.
+     * 
+     * @return VBox containing the replay controls
+     */
+    private VBox createReplayControls() {
+        VBox replayControlsLayout = new VBox();
+        replayControlsLayout.setAlignment(Pos.CENTER);
+        replayControlsLayout.setPadding(new Insets(0, 20, 10, 20));
+        
+        replayEventLabel = getLabel("", avenirTitle);
+        
+        replayTimeline = new Slider(0, replay.getEventCount(), 0);
+        replayTimeline.setBlockIncrement(1);
+        replayTimeline.setMajorTickUnit(replay.getKeyframeInterval());
+        replayTimeline.setMinorTickCount(0);
+        replayTimeline.setShowTickMarks(true);
+        replayTimeline.setPrefWidth(700);
+        replayTimeline.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (oldValue.intValue() != newValue.intValue()) {
+                showReplayFrame(newValue.intValue());
+            }
+        });
+        
+        MenuItem previousButton = new MenuItem("<", avenirTitle);
+        previousButton.setOnMouseClicked(e -> replayTimeline.setValue(Math.max(0, (int) replayTimeline.getValue() - 1)));
+        
+        MenuItem nextButton = new MenuItem(">", avenirTitle);
+        nextButton.setOnMouseClicked(e -> replayTimeline.setValue(Math.min(replay.getEventCount(), (int) replayTimeline.getValue() + 1)));
+        
+        MenuItem playButton = new MenuItem("Play", avenirTitle);
+        replayPlayback = new Timeline(new KeyFrame(Duration.millis(250), e -> {
+            if ((int) replayTimeline.getValue() >= replay.getEventCount()) {
+                replayPlayback.stop();
+                playButton.setText("Play");
+            } else {
+                replayTimeline.setValue((int) replayTimeline.getValue() + 1);
+            }
+        }));
+        replayPlayback.setCycleCount(Animation.INDEFINITE);
+        playButton.setOnMouseClicked(e -> {
+            if (replayPlayback.getStatus() == Animation.Status.RUNNING) {
+                replayPlayback.stop();
+                playButton.setText("Play");
+            } else {
+                replayPlayback.play();
+                playButton.setText("Pause");
+            }
+        });
+        
+        MenuItem backButton = new MenuItem("Back", avenirTitle);
+        backButton.setOnMouseClicked(e -> {
+            client.show();
+            gameStage.close();
+        });
+        
+        HBox timelineLayout = new HBox();
+        timelineLayout.setAlignment(Pos.CENTER);
+        timelineLayout.setSpacing(10);
+        timelineLayout.getChildren().addAll(backButton, previousButton, replayTimeline, nextButton, playButton);
+        
+        replayControlsLayout.getChildren().addAll(replayEventLabel, timelineLayout);
+        return replayControlsLayout;
+    }
+    
+    /**
+     * Creates a sprite for every token in the replay and puts it on the board, showReplayFrame moves them.
+     */
+    private void spawnReplayTokens() {
+        ReplayFrame start = replay.seek(0);
+        playerSprites = new PlayerSprite[start.getPlayerCount()];
+        for (int i = 0; i < playerSprites.length; i++) {
+            playerSprites[i] = new PlayerSprite(start.getPlayerX(i), start.getPlayerY(i), tokenAtlas, "character" + i);
+            board.addToken(playerSprites[i]);
+        }
+        weaponSprites = new WeaponSprite[start.getWeaponCount()];
+        for (int i = 0; i < weaponSprites.length; i++) {
+            weaponSprites[i] = new WeaponSprite(start.getWeaponX(i), start.getWeaponY(i), tokenAtlas, "weapon" + i);
+            board.addToken(weaponSprites[i]);
+        }
+    }
+    
+    /**
+     * Moves every token to where it was after a number of events of the replay.
+     * 
+     * @param eventIndex the number of events played, 0 is the start of the game
+     */
+    private void showReplayFrame(int eventIndex) {
+        ReplayFrame frame = replay.seek(eventIndex);
+        for (int i = 0; i < playerSprites.length; i++) {
+            playerSprites[i].setOpacity(frame.isActive(i) ? 1 : 0.5);
+            playerSprites[i].move(frame.getPlayerX(i), frame.getPlayerY(i), board);
+        }
+        for (int i = 0; i < weaponSprites.length; i++) {
+            weaponSprites[i].move(frame.getWeaponX(i), frame.getWeaponY(i), board);
+        }
+        replayEventLabel.setText("Event " + eventIndex + "/" + replay.getEventCount() + ": " + describeReplayEvent(eventIndex));
+    }
+    
+    /**
+     * Creates a human readable description of the last event played in the replay.
+     * 
+     * @param eventIndex the number of events played
+     * @return the description
+     */
+    private String describeReplayEvent(int eventIndex) {
+        if (eventIndex == 0) {
+            return "Start of the game";
+        }
+        ReplayEvent event = replay.getEvent(eventIndex - 1);
+        String player = CardNameMap.get("character" + event.getPlayerId());
+        switch (event.getActionType()) {
+            case START:
+                return "The cards were dealt";
+            case STARTTURN:
+                return player + "'s turn";
+            case ENDTURN:
+                return player + " ended their turn";
+            case MOVE:
+                return player + (event.getResult() ? " moved" : " could not move");
+            case SUGGEST:
+                return player + " suggested " + CardNameMap.get("character" + event.getPersonId())
+                        + " in the " + CardNameMap.get("room" + event.getRoomId())
+                        + " using the " + CardNameMap.get("weapon" + event.getWeaponId());
+            case ACCUSATION:
+                return player + " accused " + CardNameMap.get("character" + event.getPersonId())
+                        + " in the " + CardNameMap.get("room" + event.getRoomId())
+                        + " using the " + CardNameMap.get("weapon" + event.getWeaponId())
+                        + (event.getResult() ? " and won" : " and was wrong");
+            case SHOWCARDS:
+                return player + " has to show a card to " + CardNameMap.get("character" + event.getOtherPlayerId());
+            case SHOWCARD:
+                return CardNameMap.get("character" + event.getOtherPlayerId()) + " showed a card to " + player;
+            default:
+                return player + " " + event.getActionType();
+        }
     }
     
     /**
@@ -1098,61 +1256,12 @@ public class GameInstance {
     
     
     /**
-     * Creates the "history" to be displayed in the GUI in the form of strings. These Strings are descriptions of the actions.
+     * Adds the actions to the "history" displayed in the GUI, as rows describing them.
      * 
-     * @param actionsToNotify the list of actions to be turned into human readable strings.
+     * @param actionsToNotify the list of actions to be turned into human readable rows.
      */
     public void showActionLog(LinkedList<Action> actionsToNotify) {
-        for (Action action: actionsToNotify) {
-            StringBuilder message = new StringBuilder();     
-            switch (action.getActionType()) {
-                case ACCUSATION:
-                    int accuser = ((AccuseAction) action).getPlayer().getId();
-                    final int[] cards = ((AccuseAction) action).getAccusationCards();
-                    message.append(CardNameMap.get("character" + accuser));
-                    message.append(" accused ");
-                    message.append(CardNameMap.get("character" + cards[0]));
-                    message.append(" of murder in the ");
-                    message.append(CardNameMap.get("room" + cards[2]));
-                    message.append(" using the ");
-                    message.append(CardNameMap.get("weapon" + cards[1]));
-                    message.append("\n");
-                    history.appendText("--------------------\n");
-                    history.appendText(message.toString());
-                    break;
-                case SHOWCARD:
-                    int suggestee = ((ShowCardAction) action).getWhoShowedTheCard().getId();
-                    int suggester = ((ShowCardAction) action).getPlayer().getId();
-                    message.append(CardNameMap.get("character" + suggestee));
-                    message.append(" showed a card to ");
-                    message.append(CardNameMap.get("character" + suggester));
-                    message.append("\n");
-                    history.appendText("--------------------\n");
-                    history.appendText(message.toString());
-                    break;
-                case SUGGEST:
-                    SuggestAction suggestedAction = ((SuggestAction) action);
-                    message.append(CardNameMap.get("character" + suggestedAction.getPlayer().getId()));
-                    message.append(" suggested ");
-                    message.append(CardNameMap.get("character" + suggestedAction.getPersonCard().getId()));
-                    message.append(" of the murder in the ");
-                    message.append(CardNameMap.get("room" + suggestedAction.getRoomCard().getId()));
-                    message.append(" using the ");
-                    message.append(CardNameMap.get("weapon" + suggestedAction.getWeaponCard().getId()));
-                    message.append("\n");
-                    history.appendText("--------------------\n");
-                    history.appendText(message.toString());
-                    break;
-                case SHOWCARDS:
-                    
-                    break;
-                default:
-                    final int[] mathew = new int[1];
-                    System.out.println(mathew[-1]);
-                    break;
-            }
-        }
-        
+        history.addAll(actionsToNotify);
     }
 
     /**
@@ -1161,16 +1270,24 @@ public class GameInstance {
      * @param actionsToNotify the actions that have happened previously.
      */
     public void newHumanPlayerTurn(LinkedList<Action> actionsToNotify) {
+        events.post(() -> startHumanTurn(actionsToNotify));
+    }
+
+    /**
+     * Switches the GUI over to the next human player, their tokens and cards are redrawn after the batch of events.
+     * 
+     * @param actionsToNotify the actions that have happened previously.
+     */
+    private void startHumanTurn(LinkedList<Action> actionsToNotify) {
         resetRoll();
+        board.setHighlighted(new ArrayList<>());
         suggested = false;
         accused = false;
         currentPlayer = playerSprites[gameInterface.getPlayer().getId()];
         notepad.setText(gameInterface.getPlayer().getNotes());
         history.clear();
         switchToCurtain();
-        redrawPlayers();
-        redrawWeapons();
-        createCardsDisplay(cardsDisplay);
+        events.invalidate(UiEventQueue.PLAYERS | UiEventQueue.WEAPONS | UiEventQueue.CARDS);
         if (gameInterface.getPlayer().getPosition().isSpecial()) {
             endButton.setText("Use Intrigue");
         }
@@ -1191,6 +1308,13 @@ public class GameInstance {
      * Called by GameController when the game has finished, player is the winning player, player is null if there is no winner.
      */
     public void gameOver() {
+        events.post(this::showGameOver);
+    }
+
+    /**
+     * Shows that no one won and goes back to the menu once it is closed.
+     */
+    private void showGameOver() {
         Prompt gameOverPrompt = new Prompt("No one was able to guess the murder cards");
         gameOverPrompt.setTitle("GAME OVER");
         gameOverPrompt.setOnCloseRequest(e -> {
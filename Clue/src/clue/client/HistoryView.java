@@ -0,0 +1,223 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import clue.action.AccuseAction;
+import clue.action.Action;
+import clue.action.ActionType;
+import clue.action.ShowCardAction;
+import clue.action.SuggestAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.geometry.Insets;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+/**
+ * The suggestion and accusation history of a game, one row per action.
+ * Rows are kept in a list and shown in a ListView, which only lays out the rows that are on screen, so adding to a log
+ * of tens of thousands of actions or scrolling through it costs the same as for a short one.
+ * The rows can be filtered by the player involved and by the kind of action.
+ */
+public class HistoryView extends VBox {
+
+    private static final String ALL_PLAYERS = "All players";
+    private static final String[] KINDS = {"All actions", "Suggestions", "Cards shown", "Accusations"};
+    private static final ActionType[] KIND_TYPES = {null, ActionType.SUGGEST, ActionType.SHOWCARD, ActionType.ACCUSATION};
+    private static final int PLAYERS = 6;
+
+    private final Map<String, String> cardNames;
+    private final ObservableList<Entry> entries;
+    private final FilteredList<Entry> shown;
+    private final ListView<Entry> rows;
+    private final ComboBox<String> playerFilter;
+    private final ComboBox<String> kindFilter;
+
+    /**
+     * One row of the history
+     */
+    private static final class Entry {
+        private final String text;
+        private final ActionType type;
+        private final int players;
+
+        /**
+         * Creates a row
+         * @param text what is shown
+         * @param type the type of the action, null for a row that isn't an action
+         * @param players a bit for the id of every player involved
+         */
+        private Entry(String text, ActionType type, int players) {
+            this.text = text;
+            this.type = type;
+            this.players = players;
+        }
+    }
+
+    /**
+     * Creates an empty history
+     * @param cardNames the name of every card by its key, "character0" to "character5" are the players
+     * @param font the font of the rows
+     * @param rowCount how many rows tall the history is
+     */
+    public HistoryView(Map<String, String> cardNames, Font font, int rowCount) {
+        this.cardNames = cardNames;
+        entries = FXCollections.observableArrayList();
+        shown = new FilteredList<>(entries);
+
+        playerFilter = new ComboBox<>();
+        playerFilter.getItems().add(ALL_PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            playerFilter.getItems().add(cardNames.get("character" + i));
+        }
+        playerFilter.setValue(ALL_PLAYERS);
+        kindFilter = new ComboBox<>(FXCollections.observableArrayList(KINDS));
+        kindFilter.setValue(KINDS[0]);
+        playerFilter.setOnAction(e -> refilter());
+        kindFilter.setOnAction(e -> refilter());
+        HBox filters = new HBox(5, playerFilter, kindFilter);
+
+        rows = new ListView<>(shown);
+        rows.setStyle("-fx-control-inner-background: #fff2ab;");
+        rows.setPrefHeight(rowCount * font.getSize() * 1.4);
+        rows.setCellFactory(list -> new ListCell<Entry>() {
+            {
+                setWrapText(true);
+                setFont(font);
+                prefWidthProperty().bind(list.widthProperty().subtract(20));
+                setMaxWidth(USE_PREF_SIZE);
+            }
+
+            @Override
+            protected void updateItem(Entry entry, boolean empty) {
+                super.updateItem(entry, empty);
+                setText(empty || entry == null ? null : entry.text);
+            }
+        });
+        VBox.setVgrow(rows, Priority.ALWAYS);
+
+        setSpacing(5);
+        setPadding(new Insets(0, 0, 5, 0));
+        getChildren().addAll(filters, rows);
+    }
+
+    /**
+     * Adds a row for every action that is shown in the history, in one change so the list is only laid out once
+     * @param actions the actions, actions that aren't suggestions, shown cards or accusations are left out
+     */
+    public void addAll(Collection<? extends Action> actions) {
+        List<Entry> added = new ArrayList<>(actions.size());
+        for (Action action : actions) {
+            Entry entry = describe(action);
+            if (entry != null) {
+                added.add(entry);
+            }
+        }
+        entries.addAll(added);
+        scrollToEnd();
+    }
+
+    /**
+     * Adds a row that isn't an action, it is shown whatever the filters are
+     * @param text what is shown
+     */
+    public void addLine(String text) {
+        entries.add(new Entry(text, null, -1));
+        scrollToEnd();
+    }
+
+    /**
+     * Removes every row
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets how many rows the history holds, including the rows the filters hide
+     * @return the number of rows
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Scrolls to the newest row
+     */
+    private void scrollToEnd() {
+        if (!shown.isEmpty()) {
+            rows.scrollTo(shown.size() - 1);
+        }
+    }
+
+    /**
+     * Shows only the rows that match the chosen player and kind of action
+     */
+    private void refilter() {
+        int player = playerFilter.getSelectionModel().getSelectedIndex() - 1;
+        ActionType type = KIND_TYPES[Math.max(0, kindFilter.getSelectionModel().getSelectedIndex())];
+        if (player < 0 && type == null) {
+            shown.setPredicate(null);
+        } else {
+            int playerBit = player < 0 ? -1 : 1 << player;
+            shown.setPredicate(entry -> entry.type == null
+                    || ((entry.players & playerBit) != 0 && (type == null || entry.type == type)));
+        }
+        scrollToEnd();
+    }
+
+    /**
+     * Turns an action into a human readable row
+     * @param action the action
+     * @return the row, null when the action isn't shown in the history
+     */
+    private Entry describe(Action action) {
+        StringBuilder message = new StringBuilder();
+        switch (action.getActionType()) {
+            case ACCUSATION:
+                int accuser = ((AccuseAction) action).getPlayer().getId();
+                final int[] cards = ((AccuseAction) action).getAccusationCards();
+                message.append(cardNames.get("character" + accuser));
+                message.append(" accused ");
+                message.append(cardNames.get("character" + cards[0]));
+                message.append(" of murder in the ");
+                message.append(cardNames.get("room" + cards[2]));
+                message.append(" using the ");
+                message.append(cardNames.get("weapon" + cards[1]));
+                return new Entry(message.toString(), ActionType.ACCUSATION, 1 << accuser);
+            case SHOWCARD:
+                int suggestee = ((ShowCardAction) action).getWhoShowedTheCard().getId();
+                int suggester = ((ShowCardAction) action).getPlayer().getId();
+                message.append(cardNames.get("character" + suggestee));
+                message.append(" showed a card to ");
+                message.append(cardNames.get("character" + suggester));
+                return new Entry(message.toString(), ActionType.SHOWCARD, (1 << suggestee) | (1 << suggester));
+            case SUGGEST:
+                SuggestAction suggestedAction = ((SuggestAction) action);
+                int suggesting = suggestedAction.getPlayer().getId();
+                message.append(cardNames.get("character" + suggesting));
+                message.append(" suggested ");
+                message.append(cardNames.get("character" + suggestedAction.getPersonCard().getId()));
+                message.append(" of the murder in the ");
+                message.append(cardNames.get("room" + suggestedAction.getRoomCard().getId()));
+                message.append(" using the ");
+                message.append(cardNames.get("weapon" + suggestedAction.getWeaponCard().getId()));
+                return new Entry(message.toString(), ActionType.SUGGEST, 1 << suggesting);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import java.io.File;
+import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.BooleanControl;
+import javax.sound.sampled.FloatControl;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * A long track streamed from its file instead of being decoded into memory. The audio thread keeps the small buffer
+ * of a SourceDataLine topped up from the file a chunk at a time, in between the sound effects, and reopens the file
+ * the moment it ends so a loop has no gap. Only the line's buffer and one chunk are held in memory.
+ */
+public class MusicStream {
+    /**
+     * How much audio the line buffers, in milliseconds
+     */
+    static final int BUFFER_MILLIS = 200;
+    /**
+     * How often the buffer is topped up, in milliseconds
+     */
+    private static final int REFILL_MILLIS = BUFFER_MILLIS / 4;
+
+    private final String fileName;
+    private AudioInputStream stream;
+    private SourceDataLine line;
+    private byte[] chunk;
+    private boolean looping;
+    private int generation;
+    private volatile boolean playing;
+    private volatile float volumeLevel;
+    private volatile boolean toggledOff;
+
+    /**
+     * Creates a music stream, nothing is read until it is played
+     * @param fileName the path to where the .wav file is
+     */
+    public MusicStream(String fileName) {
+        this.fileName = fileName;
+        volumeLevel = 1;
+        AudioService.register(this::applyVolume);
+    }
+
+    /**
+     * Plays the track once
+     */
+    public void play() {
+        start(false);
+    }
+
+    /**
+     * Plays the track on a loop until stopped
+     */
+    public void loop() {
+        start(true);
+    }
+
+    /**
+     * Starts streaming the track from the beginning
+     * @param loop true to loop it
+     */
+    private void start(boolean loop) {
+        AudioService.submit(() -> {
+            close();
+            looping = loop;
+            try {
+                stream = AudioSystem.getAudioInputStream(new File(fileName));
+                AudioFormat format = stream.getFormat();
+                int frames = Math.max(1, (int) (format.getFrameRate() * BUFFER_MILLIS / 1000));
+                line = AudioSystem.getSourceDataLine(format);
+                line.open(format, frames * format.getFrameSize());
+                chunk = new byte[Math.max(format.getFrameSize(), line.getBufferSize() / 4 / format.getFrameSize() * format.getFrameSize())];
+                applyVolume();
+                playing = true;
+                fill();
+                line.start();
+                int started = generation;
+                AudioService.schedule(() -> refill(started), REFILL_MILLIS);
+            } catch (IOException | LineUnavailableException | UnsupportedAudioFileException | IllegalArgumentException e) {
+                System.out.println("[MusicStream] " + fileName + " could not be played: " + e);
+                close();
+            }
+        });
+    }
+
+    /**
+     * Tops up the line's buffer and schedules the next top up, until the stream is stopped or ends
+     * @param started the generation the stream was started in, a top up left over from before a close does nothing
+     */
+    private void refill(int started) {
+        if (!playing || started != generation) {
+            return;
+        }
+        try {
+            if (fill()) {
+                AudioService.schedule(() -> refill(started), REFILL_MILLIS);
+            } else {
+                line.drain();
+                close();
+            }
+        } catch (IOException | UnsupportedAudioFileException e) {
+            System.out.println("[MusicStream.refill] " + fileName + " stopped: " + e);
+            close();
+        }
+    }
+
+    /**
+     * Writes as much of the stream as the line has room for, without blocking, reopening the file when it ends on a loop
+     * @return false when the track has ended and is not looping
+     * @throws IOException thrown when the file can't be read
+     * @throws UnsupportedAudioFileException thrown when the file can't be reopened for the next loop
+     */
+    private boolean fill() throws IOException, UnsupportedAudioFileException {
+        int frameSize = stream.getFormat().getFrameSize();
+        int room = line.available() / frameSize * frameSize;
+        while (room > 0) {
+            int read = stream.read(chunk, 0, Math.min(room, chunk.length));
+            if (read < 0) {
+                stream.close();
+                if (!looping) {
+                    return false;
+                }
+                stream = AudioSystem.getAudioInputStream(new File(fileName));
+                continue;
+            }
+            room -= line.write(chunk, 0, read);
+        }
+        return true;
+    }
+
+    /**
+     * Stops the track and frees its line and file
+     */
+    public void stop() {
+        AudioService.submit(this::close);
+    }
+
+    /**
+     * Stops streaming and closes the line and the file, run on the audio thread
+     */
+    private void close() {
+        playing = false;
+        generation++;//ends the top ups scheduled for what was playing
+        if (line != null) {
+            line.stop();
+            line.flush();
+            line.close();
+            line = null;
+        }
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException ex) {
+                System.out.println("[MusicStream.close] " + ex);
+            }
+            stream = null;
+        }
+        chunk = null;
+    }
+
+    /**
+     * returns whether the track is playing or not.
+     * @return true if active false otherwise
+     */
+    public boolean isActive() {
+        return playing;
+    }
+
+    /**
+     * Sets the volume of the track, it is scaled by the AudioService master volume
+     * @param f the percentage from 0 - 1 to set the volume to
+     */
+    public void setVolume(float f) {
+        volumeLevel = f;
+        AudioService.submit(this::applyVolume);
+    }
+
+    /**
+     * Mutes/unmutes the track without stopping it
+     */
+    public void toggleSound() {
+        if (volumeLevel != 0) {
+            toggledOff = !toggledOff;
+            AudioService.submit(this::applyVolume);
+        }
+    }
+
+    /**
+     * Applies the track's volume, the master volume and the mutes to the line, run on the audio thread
+     */
+    private void applyVolume() {
+        if (line == null) {
+            return;
+        }
+        float level = volumeLevel * AudioService.getMasterVolume();
+        boolean mute = level == 0 || toggledOff || AudioService.isMuted();
+        if (line.isControlSupported(BooleanControl.Type.MUTE)) {
+            ((BooleanControl) line.getControl(BooleanControl.Type.MUTE)).setValue(mute);
+        }
+        if (!mute && line.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+            FloatControl volume = (FloatControl) line.getControl(FloatControl.Type.MASTER_GAIN);
+            float range = volume.getMaximum() - volume.getMinimum();
+            volume.setValue((range * level) + volume.getMinimum());
+        }
+    }
+}
@@ -5,9 +5,6 @@
  */
 package clue.client;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Dialog;
@@ -75,15 +72,8 @@ public class Prompt extends Dialog {
      * Initialises the Fonts.
      */
     private void initFonts() {
-        avenirLarge = new Font(20);
-        avenirMedium = new Font(15);
-        try {
-            avenirLarge = Font.loadFont(new FileInputStream(new File("./resources/fonts/Avenir-Book.ttf")), 20);
-            avenirMedium = Font.loadFont(new FileInputStream(new File("./resources/fonts/Avenir-Book.ttf")), 15);
-            
-        } catch(FileNotFoundException ex) {
-            
-        }
+        avenirLarge = AssetRegistry.font(AssetRegistry.AVENIR, 20);
+        avenirMedium = AssetRegistry.font(AssetRegistry.AVENIR, 15);
     }
     
     /**
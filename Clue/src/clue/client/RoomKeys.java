@@ -5,9 +5,6 @@
  */
 package clue.client;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -132,15 +129,8 @@ public class RoomKeys {
      * Initialises the fonts and tries to load the ttf file.
      */
     private void initFont() {
-        avenirLarge = new Font(20);
-        avenirText = new Font(15);
-        try {
-            avenirLarge = Font.loadFont(new FileInputStream(new File("resources/fonts/Avenir-Book.ttf")), 20);
-            avenirText = Font.loadFont(new FileInputStream(new File("resources/fonts/Avenir-Book.ttf")), 15);
-            
-        } catch(FileNotFoundException ex) {
-            
-        }
+        avenirLarge = AssetRegistry.font(AssetRegistry.AVENIR, 20);
+        avenirText = AssetRegistry.font(AssetRegistry.AVENIR, 15);
     }
     
     /**
@@ -5,9 +5,10 @@
  */
 package clue.client;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.net.URL;
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.BooleanControl;
@@ -17,126 +18,196 @@ import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 /**
- *
+ * A sound decoded once and played through a small pool of clips, so the same sound can overlap itself without
+ * decoding it again. Every clip is driven from the AudioService thread.
  * @author zemig
  */
 public class Sound {
-   private Clip clip;
-   private FloatControl volume;
-   private BooleanControl muteControl;
-   private boolean muted;
-   private float range;
-   
+   /**
+    * The most clips a sound plays through at once, a play beyond that restarts the oldest
+    */
+   static final int MAX_CLIPS = 3;
+   /**
+    * The frame every play starts from
+    */
+   private static final int START_FRAME = 1000;
+
+   private AudioFormat format;
+   private byte[] data;
+   private final Clip[] clips;
+   private volatile int openClips;//written on the audio thread, read by isActive on any thread
+   private int nextClip;
+   private volatile float volumeLevel;
+   private volatile boolean toggledOff;
+
 
    /**
-    * Creates a sound 
-    * @param fileName the path to where the .wav file is 
+    * Creates a sound, decoding the file and opening its first clip
+    * @param fileName the path to where the .wav file is
     */
     public Sound(String fileName) {
-        try{
-            File sound = new File(fileName);
-            AudioInputStream ais = AudioSystem.getAudioInputStream(sound);
-            clip = AudioSystem.getClip();
-            clip.open(ais);
-            volume = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-            range = volume.getMaximum() - volume.getMinimum();
-            muteControl = (BooleanControl) clip.getControl(BooleanControl.Type.MUTE);
-            muteControl.setValue(false);
-            muted = false;
+        clips = new Clip[MAX_CLIPS];
+        volumeLevel = 1;
+        try (AudioInputStream ais = AudioSystem.getAudioInputStream(new File(fileName))) {
+            format = ais.getFormat();
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = ais.read(buffer)) > 0) {
+                decoded.write(buffer, 0, read);
+            }
+            data = decoded.toByteArray();
+            openClip();
         } catch (IOException | LineUnavailableException | UnsupportedAudioFileException e){
+            System.out.println("[Sound] " + fileName + " could not be loaded: " + e);
         }
+        AudioService.register(this::applyVolume);
+    }
 
+    /**
+     * Opens another clip of the sound
+     * @return the clip
+     * @throws LineUnavailableException thrown when the mixer has no line left
+     */
+    private Clip openClip() throws LineUnavailableException {
+        Clip clip = AudioSystem.getClip();
+        clip.open(format, data, 0, data.length);
+        clips[openClips] = clip;
+        openClips++;//only counted once it is in the array, for isActive
+        applyVolume(clip);
+        return clip;
     }
-    
+
     /**
-     * Plays the sound once in a thread.
+     * Finds a clip to play the sound on: one that isn't playing, a newly opened one, or else the oldest
+     * @return the clip, null when the sound could not be loaded
      */
-   public void play(){
-       try{
-           new Thread(){
-            @Override
-            public void run(){
-                synchronized(clip){
-                    clip.stop();
-                    clip.setFramePosition(1000);
-                    clip.start();
-                }
+    private Clip freeClip() {
+        for (int i = 0; i < openClips; i++) {
+            if (!clips[i].isActive()) {
+                return clips[i];
             }
-           }.start();
-           
-       } catch(Exception e){
-           System.out.println("ASD");
-            e.printStackTrace();
-       }
+        }
+        if (openClips < MAX_CLIPS && data != null) {
+            try {
+                return openClip();
+            } catch (LineUnavailableException ex) {
+                System.out.println("[Sound.freeClip] no line for another clip: " + ex);
+            }
+        }
+        if (openClips == 0) {
+            return null;
+        }
+        nextClip = (nextClip + 1) % openClips;
+        return clips[nextClip];
+    }
+
+    /**
+     * Plays the sound once, overlapping any play that is still going.
+     */
+   public void play(){
+       AudioService.submit(() -> {
+           Clip clip = freeClip();
+           if (clip != null) {
+               clip.stop();
+               clip.setFramePosition(START_FRAME);
+               clip.start();
+           }
+       });
    }
-   
+
   /**
    * Stops the sound from playing
    */
    public void stop(){
-       if(clip == null) return;
-       clip.stop();  
+       AudioService.submit(() -> {
+           for (int i = 0; i < openClips; i++) {
+               clips[i].stop();
+           }
+       });
    }
-   
+
    /**
     * Plays the sound on a loop until stopped.
     */
    public void loop(){
-        try{
-            if(clip != null){
-                new Thread(){
-                    public void run(){
-                        synchronized(clip){
-                            clip.stop();
-                            clip.setFramePosition(1000);
-                            clip.loop(Clip.LOOP_CONTINUOUSLY);
-
-                        }
-                    }
-                }.start();
-            }
-        } catch(Exception e){
-            e.printStackTrace();
-        }
+       AudioService.submit(() -> {
+           if (openClips > 0) {
+               clips[0].stop();
+               clips[0].setFramePosition(START_FRAME);
+               clips[0].loop(Clip.LOOP_CONTINUOUSLY);
+           }
+       });
    }
-   
+
    /**
     * returns whether the sound is playing or not.
     * @return true if active false otherwise
     */
     public boolean isActive(){
-       return clip.isActive();
+        int open = openClips;
+        for (int i = 0; i < open; i++) {
+            if (clips[i].isActive()) {
+                return true;
+            }
+        }
+        return false;
     }
-   
+
     /**
-     * Sets the volume of the sound
+     * Sets the volume of the sound, it is scaled by the AudioService master volume
      * @param f the percentage from 0 - 1 to set the volume to
      */
     public void setVolume(float f){
-        if(f == 0.0){
-            muteControl.setValue(true);
-            muted = true;
-            return;
-        }
-        muted = false;
-        
-        float gain = (range * f) + volume.getMinimum();
-        muteControl.setValue(false);
-        volume.setValue(gain);
+        volumeLevel = f;
+        AudioService.submit(this::applyVolume);
     }
-   
+
     /**
      * Mutes/unmutes the sound without stopping it
      */
     public void toggleSound(){
-        if(!muted) muteControl.setValue(!muteControl.getValue());
+        if (volumeLevel != 0) {
+            toggledOff = !toggledOff;
+            AudioService.submit(this::applyVolume);
+        }
     }
-    
+
     /**
      * If the sound is active, it will play from the beggining.
      */
     public void reset(){
-        stop();
-        clip.setFramePosition(1000);
+        AudioService.submit(() -> {
+            for (int i = 0; i < openClips; i++) {
+                clips[i].stop();
+                clips[i].setFramePosition(START_FRAME);
+            }
+        });
+    }
+
+    /**
+     * Applies the sound's volume, the master volume and the mutes to every open clip, run on the audio thread
+     */
+    private void applyVolume() {
+        for (int i = 0; i < openClips; i++) {
+            applyVolume(clips[i]);
+        }
+    }
+
+    /**
+     * Applies the sound's volume, the master volume and the mutes to a clip
+     * @param clip the clip
+     */
+    private void applyVolume(Clip clip) {
+        float level = volumeLevel * AudioService.getMasterVolume();
+        boolean mute = level == 0 || toggledOff || AudioService.isMuted();
+        if (clip.isControlSupported(BooleanControl.Type.MUTE)) {
+            ((BooleanControl) clip.getControl(BooleanControl.Type.MUTE)).setValue(mute);
+        }
+        if (!mute && clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+            FloatControl volume = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
+            float range = volume.getMaximum() - volume.getMinimum();
+            volume.setValue((range * level) + volume.getMinimum());
+        }
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+/**
+ * One image holding every token, each scaled once to the size tokens are drawn at and placed in a grid of frames.
+ * A canvas draws a token by copying its frame out of the atlas, so all tokens share one texture.
+ * Atlases are made the first time a set of tokens is asked for and kept for the rest of the run.
+ */
+public final class SpriteAtlas {
+
+    private static final ConcurrentHashMap<String, SpriteAtlas> ATLASES = new ConcurrentHashMap<>();
+
+    private final WritableImage image;
+    private final HashMap<String, int[]> frames;
+    private final int frameSize;
+
+    /**
+     * Builds an atlas, reading and scaling every token file
+     * @param paths the path to the PNG of each token by its key, missing files get no frame
+     * @param frameSize the size of a frame in pixels
+     */
+    private SpriteAtlas(Map<String, String> paths, int frameSize) {
+        this.frameSize = frameSize;
+        frames = new HashMap<>();
+        int columns = Math.max(1, (int) Math.ceil(Math.sqrt(paths.size())));
+        int rows = Math.max(1, (paths.size() + columns - 1) / columns);
+        image = new WritableImage(columns * frameSize, rows * frameSize);
+        int frame = 0;
+        for (Map.Entry<String, String> token : paths.entrySet()) {
+            File file = new File(token.getValue());
+            if (!file.isFile()) {
+                System.out.println("[SpriteAtlas] token not found: " + token.getValue());
+                continue;
+            }
+            Image scaled = new Image(file.toURI().toString(), frameSize, frameSize, false, true);
+            if (scaled.isError()) {
+                System.out.println("[SpriteAtlas] token could not be read: " + token.getValue());
+                continue;
+            }
+            int x = (frame % columns) * frameSize;
+            int y = (frame / columns) * frameSize;
+            image.getPixelWriter().setPixels(x, y, frameSize, frameSize, scaled.getPixelReader(), 0, 0);
+            frames.put(token.getKey(), new int[]{x, y});
+            frame++;
+        }
+    }
+
+    /**
+     * Gets the atlas of a set of tokens, building it the first time the set is asked for
+     * @param paths the path to the PNG of each token by its key
+     * @param frameSize the size tokens are drawn at in pixels
+     * @return the atlas
+     */
+    public static SpriteAtlas get(Map<String, String> paths, int frameSize) {
+        TreeMap<String, String> sorted = new TreeMap<>(paths);
+        String key = frameSize + "" + sorted;
+        SpriteAtlas atlas = ATLASES.get(key);
+        if (atlas == null) {
+            atlas = new SpriteAtlas(sorted, frameSize);
+            SpriteAtlas built = ATLASES.putIfAbsent(key, atlas);
+            if (built != null) {
+                atlas = built;
+            }
+        }
+        return atlas;
+    }
+
+    /**
+     * Gets the image holding every frame
+     * @return the atlas image
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Gets the size of a frame
+     * @return the width and height of a frame in pixels
+     */
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    /**
+     * Gets where the frame of a token is in the atlas image
+     * @param key the key of the token
+     * @return the x,y pixel of the top left of the frame, null when the token has no frame
+     */
+    public int[] getFrame(String key) {
+        int[] frame = frames.get(key);
+        return frame == null ? null : frame.clone();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.image.Image;
+
+/**
+ * The images of the whole application, each file is read and decoded once per size it is shown at.
+ * Images load in the background, an ImageView shows its image as soon as it is decoded and whenLoaded lets a canvas
+ * repaint once an image it drew is ready. preload starts loading whole sets of images before they are shown so cards
+ * and prompts open without touching the disk.
+ */
+public final class TextureCache {
+
+    private static final ConcurrentHashMap<String, Image> IMAGES = new ConcurrentHashMap<>();
+
+    private TextureCache() {
+    }
+
+    /**
+     * Gets an image at the size of its file
+     * @param path the path to a PNG
+     * @return the image, which may still be loading, null when the file does not exist
+     */
+    public static Image get(String path) {
+        return get(path, 0, 0);
+    }
+
+    /**
+     * Gets an image scaled to a size, the image is decoded at that size so a small token does not hold a large picture
+     * @param path the path to a PNG
+     * @param width the width to scale to, 0 for the width of the file
+     * @param height the height to scale to, 0 for the height of the file
+     * @return the image, which may still be loading, null when the file does not exist
+     */
+    public static Image get(String path, double width, double height) {
+        if (path == null) {
+            return null;
+        }
+        String key = path + '@' + width + 'x' + height;
+        Image image = IMAGES.get(key);
+        if (image == null) {
+            File file = new File(path);
+            if (!file.isFile()) {
+                System.out.println("[TextureCache.get] image not found: " + path);
+                return null;
+            }
+            image = new Image(file.toURI().toString(), width, height, false, true, true);
+            Image cached = IMAGES.putIfAbsent(key, image);
+            if (cached != null) {
+                image = cached;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Starts loading images that will be shown later
+     * @param paths the paths to PNGs
+     * @param width the width they will be shown at, 0 for the width of the files
+     * @param height the height they will be shown at, 0 for the height of the files
+     */
+    public static void preload(Collection<String> paths, double width, double height) {
+        for (String path : paths) {
+            get(path, width, height);
+        }
+    }
+
+    /**
+     * Runs something once an image has finished loading, straight away if it already has
+     * @param image the image, null is treated as loaded
+     * @param loaded what to run, on the FX thread when the image was still loading
+     */
+    public static void whenLoaded(Image image, Runnable loaded) {
+        if (image == null || image.getProgress() >= 1) {
+            loaded.run();
+            return;
+        }
+        image.progressProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue.doubleValue() >= 1) {
+                loaded.run();
+            }
+        });
+    }
+
+    /**
+     * Forgets every image, images already shown stay on screen
+     */
+    public static void clear() {
+        IMAGES.clear();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import java.util.ArrayDeque;
+import javafx.animation.AnimationTimer;
+
+/**
+ * Slides tokens along the paths they moved, one move at a time in the order they happened.
+ * A single AnimationTimer drives every move and only runs while moves are queued, each frame works out where the
+ * token is between two tiles of its path and repaints the tiles it covers, without allocating anything.
+ * Moves are sped up while more are waiting behind them, so a chain of AI turns catches up with the game.
+ */
+public class TokenAnimator extends AnimationTimer {
+
+    /**
+     * How long a token takes to cross one tile at normal speed, in nanoseconds
+     */
+    static final long STEP_NANOS = 90000000L;
+    /**
+     * How much faster AI moves are shown than human moves
+     */
+    static final int AI_SPEED = 3;
+    /**
+     * The fastest a move is ever shown, as a multiple of normal speed
+     */
+    static final int MAX_SPEED = 20;
+
+    private final BoardCanvas board;
+    private final int tileSize;
+    private final ArrayDeque<Move> queue;
+    private Move current;
+    private double progress;
+    private long lastFrame;
+    private boolean running;
+
+    /**
+     * A queued move, the tiles the token passes through from where it started to where it ends
+     */
+    private static final class Move {
+        private final TokenSprite token;
+        private final int[] xs;
+        private final int[] ys;
+        private final int length;
+        private final int speed;
+
+        /**
+         * Creates a move
+         * @param token the token that moves
+         * @param xs the x coordinate of every tile of the path, the first is where it starts
+         * @param ys the y coordinate of every tile of the path, the first is where it starts
+         * @param length how many tiles of the arrays are used
+         * @param speed how many times faster than normal the move is shown
+         */
+        private Move(TokenSprite token, int[] xs, int[] ys, int length, int speed) {
+            this.token = token;
+            this.xs = xs;
+            this.ys = ys;
+            this.length = length;
+            this.speed = speed;
+        }
+    }
+
+    /**
+     * Creates an animator for a board
+     * @param board the board the tokens are on
+     * @param tileSize the size of a tile in pixels
+     */
+    public TokenAnimator(BoardCanvas board, int tileSize) {
+        this.board = board;
+        this.tileSize = tileSize;
+        queue = new ArrayDeque<>();
+    }
+
+    /**
+     * Queues a token to slide along a path, it starts where the token will be once its earlier moves are shown.
+     * Must be called on the FX thread.
+     * @param token the token
+     * @param pathX the x coordinate of every tile it passes through, negative coordinates (rooms) are skipped
+     * @param pathY the y coordinate of every tile it passes through
+     * @param endX the x coordinate of the tile it ends on
+     * @param endY the y coordinate of the tile it ends on
+     * @param ai true to show the move at AI speed
+     */
+    public void animate(TokenSprite token, int[] pathX, int[] pathY, int endX, int endY, boolean ai) {
+        int[] xs = new int[pathX.length + 2];
+        int[] ys = new int[pathX.length + 2];
+        int length = 0;
+        xs[length] = token.getTargetX();
+        ys[length++] = token.getTargetY();
+        for (int i = 0; i < pathX.length; i++) {
+            if (pathX[i] >= 0 && pathY[i] >= 0) {
+                xs[length] = pathX[i];
+                ys[length++] = pathY[i];
+            }
+        }
+        if (xs[length - 1] != endX || ys[length - 1] != endY) {
+            xs[length] = endX;
+            ys[length++] = endY;
+        }
+        token.queueMove(endX, endY);
+        queue.add(new Move(token, xs, ys, length, ai ? AI_SPEED : 1));
+        if (!running) {
+            running = true;
+            start();
+        }
+    }
+
+    /**
+     * Shows the end of every queued move straight away
+     */
+    public void finishAll() {
+        if (current != null) {
+            finish(current);
+            current = null;
+        }
+        Move move;
+        while ((move = queue.poll()) != null) {
+            board.startSliding(move.token);
+            finish(move);
+        }
+    }
+
+    /**
+     * Moves the sliding token on by the time since the last frame
+     * @param now the time of this frame in nanoseconds
+     */
+    @Override
+    public void handle(long now) {
+        if (current == null) {
+            current = queue.poll();
+            if (current == null) {
+                running = false;
+                stop();
+                return;
+            }
+            progress = 0;
+            lastFrame = now;
+            board.startSliding(current.token);
+        }
+        int speed = Math.min(MAX_SPEED, current.speed * (1 + queue.size()));
+        progress += (double) (now - lastFrame) * speed / STEP_NANOS;
+        lastFrame = now;
+        if (progress >= current.length - 1) {
+            finish(current);
+            current = null;
+            return;
+        }
+        int step = (int) progress;
+        double along = progress - step;
+        double x = current.xs[step] + (current.xs[step + 1] - current.xs[step]) * along;
+        double y = current.ys[step] + (current.ys[step + 1] - current.ys[step]) * along;
+        board.slideToken(current.token, x * tileSize, y * tileSize);
+    }
+
+    /**
+     * Puts a sliding token down at the end of its move, or where it was last sent when it was its last queued move
+     * @param move the move
+     */
+    private void finish(Move move) {
+        int x = move.token.getTargetX();
+        int y = move.token.getTargetY();
+        if (move.token.finishMove()) {
+            board.stopSliding(move.token, x, y);
+        } else {
+            board.stopSliding(move.token, move.xs[move.length - 1], move.ys[move.length - 1]);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import javafx.scene.image.Image;
+
+/**
+ * A token drawn on a BoardCanvas from its frame of a SpriteAtlas. A token is not a node, moving it only repaints the
+ * tiles it left and entered.
+ */
+public abstract class TokenSprite {
+
+    /**
+     * The size tokens are drawn at in pixels
+     */
+    public static final int SIZE = 32;
+
+    private final Image image;
+    private final int frameX;
+    private final int frameY;
+    private final int frameSize;
+    private int positionX;
+    private int positionY;
+    private double opacity;
+    private int pendingMoves;
+    private int targetX;
+    private int targetY;
+    private double pixelX;
+    private double pixelY;
+
+    /**
+     * Creates a token at a tile
+     * @param positionX the x coordinate of the tile the token is on, negative when it is off the board
+     * @param positionY the y coordinate of the tile the token is on, negative when it is off the board
+     * @param atlas the atlas holding the token's frame
+     * @param key the key of the token in the atlas
+     */
+    protected TokenSprite(int positionX, int positionY, SpriteAtlas atlas, String key) {
+        this.positionX = positionX;
+        this.positionY = positionY;
+        int[] frame = atlas.getFrame(key);
+        image = frame == null ? null : atlas.getImage();
+        frameX = frame == null ? 0 : frame[0];
+        frameY = frame == null ? 0 : frame[1];
+        frameSize = atlas.getFrameSize();
+        opacity = 1;
+    }
+
+    /**
+     * Gets the atlas image the token is drawn from
+     * @return the atlas image, null when the token has no frame
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Gets the x pixel of the token's frame in the atlas image
+     * @return the x pixel
+     */
+    public int getFrameX() {
+        return frameX;
+    }
+
+    /**
+     * Gets the y pixel of the token's frame in the atlas image
+     * @return the y pixel
+     */
+    public int getFrameY() {
+        return frameY;
+    }
+
+    /**
+     * Gets the size of the token's frame in the atlas image
+     * @return the width and height in pixels
+     */
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    /**
+     * Gets the x coordinate of the tile the token is on
+     * @return the x coordinate, negative when it is off the board
+     */
+    public int getPositionX() {
+        return positionX;
+    }
+
+    /**
+     * Gets the y coordinate of the tile the token is on
+     * @return the y coordinate, negative when it is off the board
+     */
+    public int getPositionY() {
+        return positionY;
+    }
+
+    /**
+     * Sets the tile the token is on, BoardCanvas.moveToken also repaints it
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     */
+    void setPosition(int x, int y) {
+        positionX = x;
+        positionY = y;
+    }
+
+    /**
+     * Gets the opacity the token is drawn with
+     * @return the opacity from 0 to 1
+     */
+    public double getOpacity() {
+        return opacity;
+    }
+
+    /**
+     * Sets the opacity the token is drawn with, it shows the next time the token's tile is repainted
+     * @param opacity the opacity from 0 to 1
+     */
+    public void setOpacity(double opacity) {
+        this.opacity = opacity;
+    }
+
+    /**
+     * Checks whether the token is moving or has moves queued on a TokenAnimator
+     * @return true while it is animated
+     */
+    public boolean isAnimated() {
+        return pendingMoves > 0;
+    }
+
+    /**
+     * Counts a move queued for the token
+     * @param x the x coordinate of the tile the move ends on
+     * @param y the y coordinate of the tile the move ends on
+     */
+    void queueMove(int x, int y) {
+        pendingMoves++;
+        setTarget(x, y);
+    }
+
+    /**
+     * Counts a queued move as finished
+     * @return true when it was the last queued move
+     */
+    boolean finishMove() {
+        pendingMoves--;
+        return pendingMoves == 0;
+    }
+
+    /**
+     * Sets where the token ends up once its queued moves are finished
+     * @param x the x coordinate of the tile
+     * @param y the y coordinate of the tile
+     */
+    void setTarget(int x, int y) {
+        targetX = x;
+        targetY = y;
+    }
+
+    /**
+     * Gets the x coordinate of the tile the token ends up on, its position when it isn't animated
+     * @return the x coordinate
+     */
+    public int getTargetX() {
+        return pendingMoves > 0 ? targetX : positionX;
+    }
+
+    /**
+     * Gets the y coordinate of the tile the token ends up on, its position when it isn't animated
+     * @return the y coordinate
+     */
+    public int getTargetY() {
+        return pendingMoves > 0 ? targetY : positionY;
+    }
+
+    /**
+     * Gets the x pixel of the tile sized square the token is drawn in while it is animated
+     * @return the x pixel
+     */
+    double getPixelX() {
+        return pixelX;
+    }
+
+    /**
+     * Gets the y pixel of the tile sized square the token is drawn in while it is animated
+     * @return the y pixel
+     */
+    double getPixelY() {
+        return pixelY;
+    }
+
+    /**
+     * Sets where the token is drawn while it is animated, BoardCanvas.moveTokenTo also repaints it
+     * @param x the x pixel
+     * @param y the y pixel
+     */
+    void setPixel(double x, double y) {
+        pixelX = x;
+        pixelY = y;
+    }
+
+    /**
+     * Re-renders the token at a new position on the board.
+     *
+     * @param x the x coordinate of where to move the sprite to.
+     * @param y the y coordinate of where to move the sprite to.
+     * @param board the board the token is on.
+     */
+    public void move(int x, int y, BoardCanvas board) {
+        board.moveToken(this, x, y);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.client;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.application.Platform;
+
+/**
+ * Sits between the GameController and a GameInstance. Events from the engine are queued as they happen and applied
+ * together on the FX thread, and the redraws they ask for are only marked, then done once after the whole batch,
+ * so a burst of actions costs one redraw of the tokens and the cards instead of one per action.
+ */
+public class UiEventQueue {
+
+    /**
+     * The player tokens need redrawing
+     */
+    public static final int PLAYERS = 1;
+    /**
+     * The weapon tokens need redrawing
+     */
+    public static final int WEAPONS = 2;
+    /**
+     * The current player's cards need redrawing
+     */
+    public static final int CARDS = 4;
+
+    private final ConcurrentLinkedQueue<Runnable> events;
+    private final AtomicInteger dirty;
+    private final AtomicBoolean scheduled;
+    private final Runnable redrawPlayers;
+    private final Runnable redrawWeapons;
+    private final Runnable redrawCards;
+
+    /**
+     * Creates an empty queue
+     * @param redrawPlayers redraws the player tokens
+     * @param redrawWeapons redraws the weapon tokens
+     * @param redrawCards redraws the current player's cards
+     */
+    public UiEventQueue(Runnable redrawPlayers, Runnable redrawWeapons, Runnable redrawCards) {
+        this.redrawPlayers = redrawPlayers;
+        this.redrawWeapons = redrawWeapons;
+        this.redrawCards = redrawCards;
+        events = new ConcurrentLinkedQueue<>();
+        dirty = new AtomicInteger();
+        scheduled = new AtomicBoolean();
+    }
+
+    /**
+     * Queues an event, it is applied on the FX thread with every other event queued before the next batch
+     * @param event the event
+     */
+    public void post(Runnable event) {
+        events.add(event);
+        schedule();
+    }
+
+    /**
+     * Marks parts of the screen as needing a redraw, they are redrawn once after the next batch of events
+     * @param parts PLAYERS, WEAPONS and/or CARDS
+     */
+    public void invalidate(int parts) {
+        dirty.getAndAccumulate(parts, (current, added) -> current | added);
+        schedule();
+    }
+
+    /**
+     * Applies the queued events and redraws now instead of waiting for the batch, must be called on the FX thread
+     */
+    public void flush() {
+        scheduled.set(false);
+        Runnable event;
+        while ((event = events.poll()) != null) {
+            event.run();
+        }
+        int parts = dirty.getAndSet(0);
+        if ((parts & PLAYERS) != 0) {
+            redrawPlayers.run();
+        }
+        if ((parts & WEAPONS) != 0) {
+            redrawWeapons.run();
+        }
+        if ((parts & CARDS) != 0) {
+            redrawCards.run();
+        }
+    }
+
+    /**
+     * Makes sure a batch is going to run, only one is ever waiting
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::flush);
+        }
+    }
+}
@@ -5,9 +5,23 @@
  */
 package clue.client;
 
+import clue.BoardTopology;
+import clue.GameController;
+import clue.GameController.TooManyPlayersException;
+import clue.MapGrid;
+import clue.MapHistory;
+import clue.MapLayout;
+import clue.MapValidator;
+import clue.MissingRoomDuringCreationException;
+import clue.NotEnoughPlayersException;
+import clue.sim.GameRecord;
+import clue.sim.GameThreads;
+import clue.sim.Simulation;
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,16 +29,22 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyCode;
 import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.CornerRadii;
-import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
@@ -32,20 +52,63 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 /**
- *
+ * The board editor. The board is held in a MapGrid and drawn on a canvas, a click is turned into a cell by dividing by
+ * the cell size and only the cells that change are redrawn, so large boards stay responsive.
+ * Cells are painted with a brush, a rectangle or a flood fill.
  * @author hungb
  */
 public class boardEditor {
     
+    /**
+     * How a stroke on the board paints it
+     */
+    private enum Tool {
+        BRUSH,
+        RECTANGLE,
+        FILL;
+    }
+    
+    private static final int CELL_SIZE = 38;
+    private static final int MIN_CELL_SIZE = 6;
+    private static final int BOARD_WIDTH = 912;
+    private static final int BOARD_HEIGHT = 950;
+    private static final int MAX_SIZE = 500;
+    private static final int ROOM_COUNT = 9;
+    private static final int START_COUNT = 6;
+    private static final int UNDO_LIMIT = 1 << 16;
+    private static final int PREVIEW_GAMES = 20;
+    private static final Color ROOM_COLOR = Color.web("#5a4c41");
+    private static final Color EMPTY_COLOR = Color.web("#075002");
+    private static final Color HALL_COLOR = Color.web("#de971d");
+    private static final Color START_COLOR = Color.web("#378804");
+    private static final Color DOOR_COLOR = Color.web("#A36200");
+    
     private Stage clientStage;
     private Stage editorStage;
     
     private Font avenirLarge;
     private Font avenirNormal;
-    private EditorTile[][] board;
+    private MapGrid grid;
+    private MapValidator validator;
+    private MapHistory history;
+    private BoardTopology previewTopology;
+    private int previewVersion;
+    private boolean simulating;
+    private Canvas canvas;
+    private Canvas overlay;
+    private ScrollPane boardPane;
+    private int cellSize;
     private EditorTileType lastSelected;
+    private Tool tool;
+    private int pressX = -1;
+    private int pressY = -1;
+    private int lastX;
+    private int lastY;
     private String mapName;
     private TextField mapNameField;
+    private TextField widthField;
+    private TextField heightField;
+    private Label problemsLabel;
     
     
     /**
@@ -148,6 +211,69 @@ public class boardEditor {
             currentlySelected.setText(lastSelected.toString().replace("_", " "));
         });
         
+        Label toolLabel = new Label("Tool: BRUSH");
+        toolLabel.setFont(avenirNormal);
+        toolLabel.setTextFill(Color.WHITE);
+        
+        MenuItem brushButton = new MenuItem("Brush", avenirNormal);
+        brushButton.setOnMouseClicked(e -> {
+            tool = Tool.BRUSH;
+            toolLabel.setText("Tool: " + tool);
+        });
+        
+        MenuItem rectangleButton = new MenuItem("Rect", avenirNormal);
+        rectangleButton.setOnMouseClicked(e -> {
+            tool = Tool.RECTANGLE;
+            toolLabel.setText("Tool: " + tool);
+        });
+        
+        MenuItem fillButton = new MenuItem("Fill", avenirNormal);
+        fillButton.setOnMouseClicked(e -> {
+            tool = Tool.FILL;
+            toolLabel.setText("Tool: " + tool);
+        });
+        
+        HBox toolButtons = new HBox(10, brushButton, rectangleButton, fillButton);
+        toolButtons.setAlignment(Pos.CENTER);
+        
+        MenuItem undoButton = new MenuItem("Undo", avenirNormal);
+        undoButton.setOnMouseClicked(e -> undo());
+        
+        MenuItem redoButton = new MenuItem("Redo", avenirNormal);
+        redoButton.setOnMouseClicked(e -> redo());
+        
+        HBox historyButtons = new HBox(10, undoButton, redoButton);
+        historyButtons.setAlignment(Pos.CENTER);
+        
+        widthField = new TextField("24");
+        widthField.setPrefColumnCount(3);
+        heightField = new TextField("25");
+        heightField.setPrefColumnCount(3);
+        
+        MenuItem newBoardButton = new MenuItem("New", avenirNormal);
+        newBoardButton.setOnMouseClicked(e -> {
+            try {
+                int width = Integer.parseInt(widthField.getText().trim());
+                int height = Integer.parseInt(heightField.getText().trim());
+                if (width < 1 || height < 1 || width > MAX_SIZE || height > MAX_SIZE) {
+                    throw new NumberFormatException();
+                }
+                generateBoard(width, height);
+            } catch (NumberFormatException ex) {
+                Prompt sizeError = new Prompt("The board must be between 1 and " + MAX_SIZE + " tiles wide and high");
+                sizeError.show();
+            }
+        });
+        
+        HBox sizeFields = new HBox(5, widthField, heightField, newBoardButton);
+        sizeFields.setAlignment(Pos.CENTER);
+        
+        problemsLabel = new Label();
+        problemsLabel.setFont(avenirNormal);
+        problemsLabel.setTextFill(Color.WHITE);
+        problemsLabel.setWrapText(true);
+        problemsLabel.setMaxWidth(200);
+        
         mapNameField = new TextField();
         mapNameField.setText("Custom Map 1");
         mapNameField.setPrefColumnCount(5);
@@ -164,6 +290,15 @@ public class boardEditor {
             }
         });
         
+        MenuItem playButton = new MenuItem("Play", avenirNormal);
+        playButton.setOnMouseClicked(e -> playPreview());
+        
+        MenuItem simulateButton = new MenuItem("Simulate", avenirNormal);
+        simulateButton.setOnMouseClicked(e -> simulatePreview());
+        
+        HBox previewButtons = new HBox(10, playButton, simulateButton);
+        previewButtons.setAlignment(Pos.CENTER);
+        
         MenuItem backButton = new MenuItem("Back", avenirLarge);
         backButton.setOnMouseClicked(e -> {
             clientStage.show();
@@ -173,261 +308,447 @@ public class boardEditor {
         paletteLayout.getChildren().addAll(selectedLabel, currentlySelected,
                 roomButton, emptyButton, hallButton, spawnButton, 
                 intrigueButton, doorUpButton, doorDownButton,
-                doorLeftButton, doorRightButton, mapNameField, createCSV,
+                doorLeftButton, doorRightButton, toolLabel, toolButtons, historyButtons,
+                sizeFields, problemsLabel, previewButtons, mapNameField, createCSV,
                 backButton);
         return paletteLayout;
     }
     
     /**
-     * Makes the tiles and renders them in the boardEditor.
-     * 
-     * @param x the width of the board
-     * @param y the height of the board
-     * @param pane where the tiles will be placed 
+     * Makes a blank board and the canvas it is drawn on, replacing the board being edited.
+     *
+     * @param width the width of the board
+     * @param height the height of the board
      */
-    private void generateBoard(int x, int y, GridPane pane) {
-        board = new EditorTile[y][x];
-        
-        for (int i=0; i < x; i++) {
-            for (int j=0; j < y; j++) {
-                Label l = new Label();
-                l.setMinSize(38, 38);
-                
-                l.setOnMouseClicked(e -> {
-                    try {
-                        paintTile(l);
-                    } catch (CreationException ex) {
-                        Prompt error = new Prompt(ex.message);
-                        error.show();
-                    }
-                });
-                
-                l.setStyle("-fx-border-color: black; -fx-background-color: #de971d;");
-                board[j][i] = new EditorTile(l, "0", i, j);
-                pane.add(l, i, j);
+    private void generateBoard(int width, int height) {
+        grid = new MapGrid(width, height, MapLayout.TILE);
+        validator = new MapValidator(grid, ROOM_COUNT, START_COUNT);
+        history = new MapHistory(grid, UNDO_LIMIT);
+        previewTopology = null;
+        grid.setCellListener((x, y) -> {
+            paintCell(x, y);
+            validator.cellChanged(x, y);
+        });
+        cellSize = Math.max(MIN_CELL_SIZE, Math.min(CELL_SIZE, Math.min(BOARD_WIDTH / width, BOARD_HEIGHT / height)));
+
+        canvas = new Canvas(width * cellSize, height * cellSize);
+        overlay = new Canvas(width * cellSize, height * cellSize);
+        overlay.setOnMousePressed(e -> pressed(cellX(e.getX()), cellY(e.getY())));
+        overlay.setOnMouseDragged(e -> dragged(cellX(e.getX()), cellY(e.getY())));
+        overlay.setOnMouseReleased(e -> released(cellX(e.getX()), cellY(e.getY())));
+        boardPane.setContent(new Pane(canvas, overlay));
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                paintCell(x, y);
             }
         }
+        showProblems();
     }
-    
+
     /**
-     * Sets it so there is no door in Tile which corresponds to l
-     * 
-     * @param l label(tile) to have their door direction reverted.
+     * Undoes the latest stroke, rectangle, fill or door. Only the cells it changed are put back and redrawn, all within
+     * this one event, so even a fill of the whole board is undone in a single frame.
      */
-    public void resetDoorDirection(Label l) {
-        for (int y = 0; y < board.length; y++) {
-            for (int x = 0; x < board[0].length; x++) {
-                if(board[y][x].getLabel() == l){
-                    board[y][x].setDoorDirection("-1");
-                    return;
-                }
-            }
+    private void undo() {
+        if (history.undo() > 0) {
+            showProblems();
         }
     }
-    
+
     /**
-     * This method finds room tiles and groups them together into one room/"building".
-     * It will do this by updating their roomId to the corresponding id.
-     * This method runs recursively until it finishes.
-     * 
-     * @param x the x coordinate of a tile.
-     * @param y the y coordinate of a tile.
-     * @param roomId the highest of the current found room/s.
+     * Redoes the latest undone stroke, rectangle, fill or door.
      */
-    private void grabRoom(int x, int y, int roomId) {
-        if(x<board[0].length-1){//If thereis a RIGHT tile
-            if ("r".equals(board[y][x+1].getS())){
-                board[y][x+1].setS("" + roomId);
-                grabRoom(x+1, y, roomId);
-            }
+    private void redo() {
+        if (history.redo() > 0) {
+            showProblems();
         }
-        
-        if(x>0){//If there is a LEFT tile
-            if ("r".equals(board[y][x-1].getS())){
-                board[y][x-1].setS("" + roomId);
-                grabRoom(x-1, y, roomId);
+    }
+
+    /**
+     * Gets the board as it is now for a preview game, straight from the grid without saving or parsing any files.
+     * The topology is only built again when the board was changed since the last preview.
+     *
+     * @return the topology of the board
+     * @throws CreationException thrown when the board is not a valid map yet
+     */
+    private BoardTopology previewTopology() throws CreationException {
+        List<String> problems = validator.getProblems();
+        if (!problems.isEmpty()) {
+            throw new CreationException(problems.get(0));
+        }
+        if (previewTopology == null || previewVersion != grid.getVersion()) {
+            try {
+                previewTopology = new BoardTopology(grid.toLayout(false));
+                previewVersion = grid.getVersion();
+            } catch (NoSuchRoomException | NoSuchTileException | MissingRoomDuringCreationException ex) {
+                Logger.getLogger(boardEditor.class.getName()).log(Level.SEVERE, null, ex);
+                throw new CreationException("The map could not be built: " + ex.getMessage());
             }
         }
-        
-        if(y<board.length-1){//If there is a tile BELOW
-            if ("r".equals(board[y+1][x].getS())){
-                board[y+1][x].setS("" + roomId);
-                grabRoom(x, y+1, roomId);
+        return previewTopology;
+    }
+
+    /**
+     * Plays the board being edited against 5 AIs, the editor stays open underneath so the board can be fixed and
+     * played again straight away.
+     */
+    private void playPreview() {
+        try {
+            GameController gameController = new GameController(1, START_COUNT - 1, previewTopology(), System.currentTimeMillis());
+            GameInstance game = new GameInstance();
+            game.startGame(gameController, editorStage, "preview");
+        } catch (CreationException ex) {
+            Prompt previewError = new Prompt(ex.message);
+            previewError.show();
+        } catch (TooManyPlayersException | NotEnoughPlayersException | NoSuchRoomException | NoSuchTileException ex) {
+            Logger.getLogger(boardEditor.class.getName()).log(Level.SEVERE, null, ex);
+            Prompt previewError = new Prompt("The preview game could not be started");
+            previewError.show();
+        }
+    }
+
+    /**
+     * Plays a batch of AI only games on the board being edited without showing them, and reports how long they took.
+     * The games are played on a game thread so the editor keeps responding, the report is shown once they are done.
+     */
+    private void simulatePreview() {
+        if (simulating) {
+            return;
+        }
+        Simulation simulation;
+        try {
+            simulation = new Simulation("preview", previewTopology(), START_COUNT);
+        } catch (CreationException ex) {
+            Prompt previewError = new Prompt(ex.message);
+            previewError.show();
+            return;
+        }
+        simulating = true;
+        Thread games = GameThreads.newThread(() -> {
+            GameRecord record = new GameRecord();
+            int played = 0;
+            int turns = 0;
+            int longest = 0;
+            long start = System.nanoTime();
+            for (int seed = 0; seed < PREVIEW_GAMES; seed++) {
+                try {
+                    simulation.play(seed, record);
+                    played++;
+                    turns += record.getTurns();
+                    longest = Math.max(longest, record.getTurns());
+                } catch (TooManyPlayersException | NotEnoughPlayersException | NoSuchRoomException | NoSuchTileException
+                        | MissingRoomDuringCreationException | RuntimeException | StackOverflowError ex) {
+                    Logger.getLogger(boardEditor.class.getName()).log(Level.SEVERE, "preview game " + seed + " failed", ex);
+                }
             }
+            long millis = (System.nanoTime() - start) / 1000000;
+            String report = played == 0 ? "The preview games could not be played"
+                    : played + " games played in " + millis + "ms\nAverage turns: " + turns / played
+                    + "\nLongest game: " + longest + " turns"
+                    + (played < PREVIEW_GAMES ? "\n" + (PREVIEW_GAMES - played) + " games failed" : "");
+            Platform.runLater(() -> {
+                simulating = false;
+                Prompt results = new Prompt(report);
+                results.setLabelTitle("Simulation");
+                results.show();
+            });
+        }, "preview-simulation");
+        games.setDaemon(true);//closing the client doesn't wait for the batch
+        games.start();
+    }
+
+    /**
+     * Shows what is still wrong with the board under the palette, so it can be fixed before it is saved.
+     */
+    private void showProblems() {
+        List<String> problems = validator.getProblems();
+        problemsLabel.setTextFill(problems.isEmpty() ? Color.WHITE : Color.SALMON);
+        problemsLabel.setText(problems.isEmpty() ? "The board is ready to save" : String.join("\n", problems));
+    }
+
+    /**
+     * Turns an x pixel of the canvas into the x coordinate of a cell.
+     *
+     * @param px the x pixel
+     * @return the x coordinate, may be off the board
+     */
+    private int cellX(double px) {
+        return (int) Math.floor(px / cellSize);
+    }
+
+    /**
+     * Turns a y pixel of the canvas into the y coordinate of a cell.
+     *
+     * @param py the y pixel
+     * @return the y coordinate, may be off the board
+     */
+    private int cellY(double py) {
+        return (int) Math.floor(py / cellSize);
+    }
+
+    /**
+     * Starts a stroke of the current tool at a cell: the brush paints it, the rectangle starts there and fill fills
+     * from it. Doors are always placed one cell at a time.
+     *
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     */
+    private void pressed(int x, int y) {
+        if (!grid.inBounds(x, y)) {
+            return;
         }
-            
-        if(y>0){//If there is a tile ABOVE
-            if ("r".equals(board[y-1][x].getS())){
-                board[y-1][x].setS("" + roomId);
-                grabRoom(x, y-1, roomId);
+        pressX = x;
+        pressY = y;
+        lastX = x;
+        lastY = y;
+        history.beginEdit();
+        try {
+            if (isDoor(lastSelected) || tool == Tool.BRUSH) {
+                paintTile(x, y);
+            } else if (tool == Tool.FILL) {
+                grid.floodFill(x, y, cellType(lastSelected));
+            } else {
+                drawSelection(x, y);
             }
+        } catch (CreationException ex) {
+            Prompt error = new Prompt(ex.message);
+            error.show();
         }
+        showProblems();
     }
-    
+
     /**
-     * Resets the rooms with roomsIds greater than 0 and sets them back to r.
+     * Continues a stroke: the brush paints every cell it is dragged over and the rectangle follows the mouse.
+     *
+     * @param x the x coordinate of the cell under the mouse
+     * @param y the y coordinate of the cell under the mouse
      */
-    private void ungrabRooms(){
-        for(int y=0; y < board.length; y++){
-            for(int x=0; x< board[0].length; x++){
-                
-                if(!board[y][x].getS().equals("0") && !board[y][x].getS().equals("-1")){
-                    try{
-                        Integer.parseInt(board[y][x].getS());
-                        board[y][x].setS("r");
-                    } catch(NumberFormatException e){
+    private void dragged(int x, int y) {
+        if (isDoor(lastSelected) || pressX < 0) {
+            return;
+        }
+        x = Math.max(0, Math.min(grid.getWidth() - 1, x));
+        y = Math.max(0, Math.min(grid.getHeight() - 1, y));
+        if (x == lastX && y == lastY) {
+            return;
+        }
+        if (tool == Tool.BRUSH) {
+            paintLine(lastX, lastY, x, y);
+        } else if (tool == Tool.RECTANGLE) {
+            drawSelection(x, y);
+        }
+        lastX = x;
+        lastY = y;
+        showProblems();
+    }
 
-                    }        
-                } 
-            }
+    /**
+     * Ends a stroke, the rectangle is filled from where it was started to the cell under the mouse. Everything the
+     * stroke changed is undone together.
+     *
+     * @param x the x coordinate of the cell under the mouse
+     * @param y the y coordinate of the cell under the mouse
+     */
+    private void released(int x, int y) {
+        if (pressX >= 0 && tool == Tool.RECTANGLE && !isDoor(lastSelected)) {
+            overlay.getGraphicsContext2D().clearRect(0, 0, overlay.getWidth(), overlay.getHeight());
+            grid.fillRect(pressX, pressY, x, y, cellType(lastSelected));
+            showProblems();
         }
+        pressX = -1;
+        pressY = -1;
+        history.endEdit();
     }
- 
+
     /**
-     * Changes the representation of the tile into something else.
-     * 
-     * @param l the tile to change string of.
-     * @param s the string to change it to.
+     * Paints every cell on the line between two cells, so a fast drag leaves no gaps.
+     *
+     * @param x0 the x coordinate of the first cell
+     * @param y0 the y coordinate of the first cell
+     * @param x1 the x coordinate of the last cell
+     * @param y1 the y coordinate of the last cell
      */
-    private void updateBoard(Label l, String s){
-        for(int y = 0; y < board.length; y++){
-            for(int x = 0; x < board[0].length; x++){
-                if(board[y][x].getLabel() == l){
-                    board[y][x].setS(s);
-                    return;
-                }
+    private void paintLine(int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0);
+        int dy = -Math.abs(y1 - y0);
+        int stepX = x0 < x1 ? 1 : -1;
+        int stepY = y0 < y1 ? 1 : -1;
+        int error = dx + dy;
+        byte type = cellType(lastSelected);
+        while (true) {
+            grid.setType(x0, y0, type);
+            if (x0 == x1 && y0 == y1) {
+                return;
+            }
+            int doubled = 2 * error;
+            if (doubled >= dy) {
+                error += dy;
+                x0 += stepX;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                y0 += stepY;
             }
         }
     }
-    
+
     /**
-     * This is called when a tile is clicked. It will "paint" the depending on their last selected "brush" from the palette.
-     * This will change the tiles String representation to correspond their "brush" and changes the style of the Label(tile) accordingly.
-     * 
-     * @param l the tile to be "painted".
-     * @throws CreationException 
+     * Outlines the rectangle being dragged out on the overlay.
+     *
+     * @param x the x coordinate of the corner under the mouse
+     * @param y the y coordinate of the corner under the mouse
      */
-    private void paintTile(Label l) throws CreationException {
-        int x = -1;
-        int y = -1;
-        
-        for(int i =0; i<board.length; i++){
-            for(int u =0; u<board[0].length; u++){
-                if(board[i][u].getLabel() == l){
-                    x = u;
-                    y = i;
-                }
-            }
+    private void drawSelection(int x, int y) {
+        GraphicsContext g = overlay.getGraphicsContext2D();
+        g.clearRect(0, 0, overlay.getWidth(), overlay.getHeight());
+        g.setStroke(Color.WHITE);
+        g.setLineWidth(2);
+        g.strokeRect(Math.min(x, pressX) * cellSize + 1, Math.min(y, pressY) * cellSize + 1,
+                (Math.abs(x - pressX) + 1) * cellSize - 2, (Math.abs(y - pressY) + 1) * cellSize - 2);
+    }
+
+    /**
+     * Redraws one cell of the board, called by the grid for every cell that changes.
+     *
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     */
+    private void paintCell(int x, int y) {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double px = x * cellSize;
+        double py = y * cellSize;
+        byte type = grid.getType(x, y);
+        switch (type) {
+            case MapLayout.ROOM:
+                g.setFill(ROOM_COLOR);
+                break;
+            case MapLayout.EMPTY:
+                g.setFill(EMPTY_COLOR);
+                break;
+            case MapLayout.INTRIGUE:
+                g.setFill(Color.GOLD);
+                break;
+            case MapLayout.START:
+                g.setFill(START_COLOR);
+                break;
+            default:
+                g.setFill(HALL_COLOR);
+                break;
         }
-        
-        switch(lastSelected){
-            case ROOM:
-                updateBoard(l, "r");
-                resetDoorDirection(l);
-                l.setStyle("-fx-background-color: #5a4c41;");
+        g.fillRect(px, py, cellSize, cellSize);
+        if (type != MapLayout.ROOM) {
+            g.setStroke(Color.BLACK);
+            g.setLineWidth(1);
+            g.strokeRect(px + 0.5, py + 0.5, cellSize - 1, cellSize - 1);
+            return;
+        }
+        double door = Math.max(1, cellSize * 5 / 38.0);
+        g.setFill(DOOR_COLOR);
+        switch (grid.getDoor(x, y)) {
+            case MapLayout.UP:
+                g.fillRect(px, py, cellSize, door);
                 break;
-                
-            case EMPTY:
-                updateBoard(l, "-1");
-                resetDoorDirection(l);
-                l.setStyle("-fx-border-color: black; -fx-background-color: #075002;");
+            case MapLayout.DOWN:
+                g.fillRect(px, py + cellSize - door, cellSize, door);
                 break;
-                
-            case HALL:
-                updateBoard(l, "0");
-                resetDoorDirection(l);
-                l.setStyle("-fx-border-color: black; -fx-background-color: #de971d;");
+            case MapLayout.LEFT:
+                g.fillRect(px, py, door, cellSize);
                 break;
-                
-            case INTRIGUE:
-                updateBoard(l, "I");
-                resetDoorDirection(l);
-                l.setStyle("-fx-border-color: black; -fx-background-color: gold;");
+            case MapLayout.RIGHT:
+                g.fillRect(px + cellSize - door, py, door, cellSize);
                 break;
-                
-            case START:
-                updateBoard(l, "S");
-                resetDoorDirection(l);
-                l.setStyle("-fx-border-color: black; -fx-background-color: #378804;");
+            default:
                 break;
-                
+        }
+    }
+
+    /**
+     * Checks whether a brush places doors.
+     *
+     * @param type the brush
+     * @return true for the door brushes
+     */
+    private static boolean isDoor(EditorTileType type) {
+        return type == EditorTileType.DOOR_UP || type == EditorTileType.DOOR_DOWN
+                || type == EditorTileType.DOOR_LEFT || type == EditorTileType.DOOR_RIGHT;
+    }
+
+    /**
+     * Gets the cell type a brush paints.
+     *
+     * @param type the brush, not a door
+     * @return the MapLayout type
+     */
+    private static byte cellType(EditorTileType type) {
+        switch (type) {
+            case ROOM:
+                return MapLayout.ROOM;
+            case EMPTY:
+                return MapLayout.EMPTY;
+            case INTRIGUE:
+                return MapLayout.INTRIGUE;
+            case START:
+                return MapLayout.START;
+            default:
+                return MapLayout.TILE;
+        }
+    }
+
+    /**
+     * This is called when a cell is clicked with the brush. It will "paint" the cell depending on their last selected "brush" from the palette.
+     * Doors are only placed on room cells facing a hall, intrigue or starting tile.
+     *
+     * @param x the x coordinate of the cell to be "painted".
+     * @param y the y coordinate of the cell to be "painted".
+     * @throws CreationException thrown when a door can't be placed there
+     */
+    private void paintTile(int x, int y) throws CreationException {
+        switch(lastSelected){
             case DOOR_UP:
-                if (board[y][x].getS().equals("r")) {
-                    if (y==0) {
-                        throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
-                    }
-                    if (y>0) {
-                        if (board[y-1][x].getS().equals("S") || board[y-1][x].getS().equals("0") || board[y+1][x].getS().equals("I")) {
-                            board[y][x].setDoorDirection("up");
-                            l.setStyle("-fx-background-color: #5a4c41; -fx-border-width: 5px 0px 0px 0px; -fx-border-style: solid; -fx-border-color: #A36200;");
-                        } else {
-                            throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
-                        }
-                    }
-                } else {
-                    throw new CreationException("Doors must be placed in room tiles.");
-                }
+                placeDoor(x, y, 0, -1, MapLayout.UP);
                 break;
-                
             case DOOR_DOWN:
-                if (board[y][x].getS().equals("r")) {
-                    if (y==board.length-1) {
-                        throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
-                    }
-                    if (y<board.length) {
-                        if (board[y+1][x].getS().equals("S") || board[y+1][x].getS().equals("0") || board[y+1][x].getS().equals("I")) {
-                            board[y][x].setDoorDirection("down");
-                            l.setStyle("-fx-background-color: #5a4c41; -fx-border-width: 0px 0px 5px 0px; -fx-border-style: solid; -fx-border-color: #A36200;");
-                        } else {
-                            throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
-                        }
-                    }
-                } else {
-                    throw new CreationException("Doors must be placed in room tiles.");
-                }
+                placeDoor(x, y, 0, 1, MapLayout.DOWN);
                 break;
-                
             case DOOR_LEFT:
-                if (board[y][x].getS().equals("r")) {
-                    if (x==0) {
-                        throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
-                    } else if (x>0) {
-                        if (board[y][x-1].getS().equals("S") || board[y][x-1].getS().equals("0") || board[y+1][x].getS().equals("I")){
-                            board[y][x].setDoorDirection("left");
-                            l.setStyle("-fx-background-color: #5a4c41; -fx-border-width: 0px 0px 0px 5px; -fx-border-style: solid; -fx-border-color: #A36200;");
-                        } else {
-                            throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
-                        }
-                    }
-                } else {
-                    throw new CreationException("Doors must be placed in room tiles.");
-                }
+                placeDoor(x, y, -1, 0, MapLayout.LEFT);
                 break;
-                
             case DOOR_RIGHT:
-                if (board[y][x].getS().equals("r")) {
-                    if (x==board[0].length-1) {
-                        throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
-                    }
-                    if (x<board[0].length-1) {
-                        if (board[y][x+1].getS().equals("S") || board[y][x+1].getS().equals("0") || board[y+1][x].getS().equals("I")) {
-                            board[y][x].setDoorDirection("right");
-                            l.setStyle("-fx-background-color: #5a4c41; -fx-border-width: 0px 5px 0px 0px; -fx-border-style: solid; -fx-border-color: #A36200;");
-                        } else {
-                            throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
-                        }
-                    }
-                } else {
-                    throw new CreationException("Doors must be placed in room tiles.");
-                }
+                placeDoor(x, y, 1, 0, MapLayout.RIGHT);
+                break;
+            default:
+                grid.setType(x, y, cellType(lastSelected));
                 break;
         }
     }
-    
+
+    /**
+     * Places a door on a room cell.
+     *
+     * @param x the x coordinate of the room cell
+     * @param y the y coordinate of the room cell
+     * @param dx the x step to the cell the door leads to
+     * @param dy the y step to the cell the door leads to
+     * @param direction the MapLayout direction of the door
+     * @throws CreationException thrown when the cell isn't a room or the door doesn't face a walkable tile
+     */
+    private void placeDoor(int x, int y, int dx, int dy, int direction) throws CreationException {
+        if (grid.getType(x, y) != MapLayout.ROOM) {
+            throw new CreationException("Doors must be placed in room tiles.");
+        }
+        byte facing = grid.inBounds(x + dx, y + dy) ? grid.getType(x + dx, y + dy) : MapLayout.EMPTY;
+        if (facing != MapLayout.START && facing != MapLayout.TILE && facing != MapLayout.INTRIGUE) {
+            throw new CreationException("Doors must be placed facing either a Walkable tile or a Starting Tile");
+        }
+        grid.setDoor(x, y, (byte) direction);
+    }
+
     /**
      * This is run when the "Save" button is pressed.
      * Creates 2 CSV files. These 2 files are representations of the custom board.
      * these 2 files are to be interpreted by the boardMappings class which can then load a map.
+     * The board is also exported as a compiled .cluemap, which is what the game loads when it is there.
      * 
      * This will save the CSV files into a folder named after what the player wants to name their map.
      * 
@@ -435,49 +756,24 @@ public class boardEditor {
      * @throws FileNotFoundException 
      */
     private void createCSV() throws CreationException, FileNotFoundException {
-        int currentRoomInt = 1;
-        int startTileCounter= 0;
-        
         //reading textField
         mapName = mapNameField.getText();
         
-        ungrabRooms();
-        for(int y=0; y < board.length; y++){
-            for(int x=0; x< board[0].length; x++){
-                if(board[y][x].getS().equals("S")){
-                    startTileCounter++;
-                }
-                
-                
-                else if((board[y][x].getS().equals("r"))){
-                    board[y][x].setS("" + currentRoomInt);
-                    grabRoom(x, y, currentRoomInt);
-                    currentRoomInt++;
-  
-                }
-                    
-                
-            }
-        }
-        
         //Checking Leglity of the board.
-        if(currentRoomInt != 10){
-            ungrabRooms();
-            throw new CreationException("You must have 9 Rooms Exactly.");
-        }
-        
-        if(startTileCounter != 6){
-            ungrabRooms();
-            throw new CreationException("There must be 6 starting Tiles");
+        List<String> problems = validator.getProblems();
+        if(!problems.isEmpty()){
+            throw new CreationException(problems.get(0));
         }
         
         //Making CSV files.
+        int[] rooms = grid.labelRooms();
         String newName = mapName.replaceAll(" ", "");
         File tempFile = new File("./Maps/" +newName);
         if(!tempFile.exists()){
             new File("./Maps/" + newName).mkdirs();
-            makeDoorCsv(newName);
-            makeTileCsv(newName);
+            makeDoorCsv(newName, rooms);
+            makeTileCsv(newName, rooms);
+            makeCompiledMap(newName);
         } else {
             throw new CreationException("A custom Map with this name already exists. \nPick a new name, or delete the already existing one.");
         }
@@ -489,33 +785,35 @@ public class boardEditor {
      * Creates the CSV file for the Doors.
      * 
      * @param name the name of the CSV file.
+     * @param rooms the room id of every cell from MapGrid.labelRooms()
      * @throws FileNotFoundException 
      */
-    private void makeDoorCsv(String name) throws FileNotFoundException{    
+    private void makeDoorCsv(String name, int[] rooms) throws FileNotFoundException{    
         List<String[]> csv = new ArrayList<>();
+        int width = grid.getWidth();
                 
-        for(int y=0; y < board.length; y++){
-            for(int x=0; x< board[0].length; x++){
-                if(!board[y][x].getDoorDirection().equals("-1")){
+        for(int y=0; y < grid.getHeight(); y++){
+            for(int x=0; x < width; x++){
+                if(grid.getDoor(x, y) != MapGrid.NO_DOOR){
                      String[] temp = new String[4]; 
-                     temp[0] = board[y][x].getS();
-                    switch(board[y][x].getDoorDirection()){
-                        case "left":
+                     temp[0] = Integer.toString(rooms[y*width+x]);
+                    switch(grid.getDoor(x, y)){
+                        case MapLayout.LEFT:
                             temp[1] = Integer.toString(x-1);
                             temp[2] = Integer.toString(y);
                             temp[3] = "L";
                             break;
-                        case "right":
+                        case MapLayout.RIGHT:
                             temp[1] = Integer.toString(x+1);
                             temp[2] = Integer.toString(y);
                             temp[3] = "R";
                             break;
-                        case "down":
+                        case MapLayout.DOWN:
                             temp[1] = Integer.toString(x);
                             temp[2] = Integer.toString(y+1);
                             temp[3] = "D";
                             break;
-                        case "up":
+                        case MapLayout.UP:
                             temp[1] = Integer.toString(x);
                             temp[2] = Integer.toString(y-1);
                             temp[3] = "U";
@@ -527,7 +825,7 @@ public class boardEditor {
             }  
         }
         
-        File csvFile = new File("./Maps/"+mapName+"/"+mapName+"Doors.csv");
+        File csvFile = new File("./Maps/"+name+"/"+name+"Doors.csv");
         
         try (PrintWriter pw = new PrintWriter(csvFile)) {
             csv.stream().map(this::convertToCSV).forEach(pw::println);
@@ -540,26 +838,61 @@ public class boardEditor {
      * Creates the CSV file for the Tiles(everything but the doors).
      * 
      * @param name the name of the CSV file.
+     * @param rooms the room id of every cell from MapGrid.labelRooms()
      * @throws FileNotFoundException 
      */
-    private void makeTileCsv(String name) throws FileNotFoundException{
+    private void makeTileCsv(String name, int[] rooms) throws FileNotFoundException{
         List<String[]> csv = new ArrayList<>();
+        int width = grid.getWidth();
                 
-        for(int y=0; y < board.length; y++){
-            String[] temp = new String[24];
-            for(int x=0; x< board[0].length; x++){
-                temp[x] = board[y][x].getS();
+        for(int y=0; y < grid.getHeight(); y++){
+            String[] temp = new String[width];
+            for(int x=0; x < width; x++){
+                switch(grid.getType(x, y)){
+                    case MapLayout.EMPTY:
+                        temp[x] = "-1";
+                        break;
+                    case MapLayout.INTRIGUE:
+                        temp[x] = "I";
+                        break;
+                    case MapLayout.START:
+                        temp[x] = "S";
+                        break;
+                    case MapLayout.ROOM:
+                        temp[x] = Integer.toString(rooms[y*width+x]);
+                        break;
+                    default:
+                        temp[x] = "0";
+                        break;
+                }
             }
             csv.add(temp);
         }
         
-        File csvFile = new File("./Maps/" + mapName +"/" + mapName + "Tiles.csv");
+        File csvFile = new File("./Maps/" + name +"/" + name + "Tiles.csv");
         
         try (PrintWriter pw = new PrintWriter(csvFile)) {
             csv.stream().map(this::convertToCSV).forEach(pw::println);
         }
     }
     
+    /**
+     * Called by createCSV()
+     * 
+     * Compiles the board straight into a .cluemap file next to the CSV files, so the map loads without parsing them.
+     * 
+     * @param name the name of the map.
+     * @throws CreationException thrown when the board is not a valid map or the file can't be written.
+     */
+    private void makeCompiledMap(String name) throws CreationException {
+        try {
+            grid.toLayout(false).write("./Maps/" + name + "/" + name + MapLayout.EXTENSION);
+        } catch (NoSuchRoomException | NoSuchTileException | MissingRoomDuringCreationException | IOException ex) {
+            Logger.getLogger(boardEditor.class.getName()).log(Level.SEVERE, null, ex);
+            throw new CreationException("The map could not be compiled: " + ex.getMessage());
+        }
+    }
+    
     /**
      * Separates an Array of Strings into COmma separated values.
      * 
@@ -574,14 +907,8 @@ public class boardEditor {
      * Initialises the fonts.
      */
     private void initFonts() {
-        avenirLarge = new Font(20);
-        avenirNormal = new Font(15);
-        try {
-            avenirLarge = Font.loadFont(new FileInputStream(new File("./resources/fonts/Avenir-Book.ttf")), 20);
-            avenirNormal = Font.loadFont(new FileInputStream(new File("./resources/fonts/Avenir-Book.ttf")), 15);
-        } catch (FileNotFoundException ex) {
-            Logger.getLogger(boardEditor.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        avenirLarge = AssetRegistry.font(AssetRegistry.AVENIR, 20);
+        avenirNormal = AssetRegistry.font(AssetRegistry.AVENIR, 15);
     }
     
     /**
@@ -597,6 +924,7 @@ public class boardEditor {
         
         this.clientStage = clientStage;
         this.lastSelected = EditorTileType.HALL;
+        this.tool = Tool.BRUSH;
         
         initFonts();
         
@@ -604,13 +932,27 @@ public class boardEditor {
         editorLayout.setBackground(new Background(new BackgroundFill(Color.rgb(7, 80, 2), CornerRadii.EMPTY, Insets.EMPTY)));
         editorLayout.setLeft(createPalette());
         
-        GridPane boardPane = new GridPane();
+        boardPane = new ScrollPane();
         boardPane.setPadding(new Insets(10, 0, 0, 10));
+        boardPane.setPrefViewportWidth(BOARD_WIDTH);
+        boardPane.setPrefViewportHeight(BOARD_HEIGHT);
+        boardPane.setStyle("-fx-background: #075002; -fx-background-color: #075002;");
         editorLayout.setCenter(boardPane);
         
-        generateBoard(24, 25, boardPane);
+        generateBoard(24, 25);
         
         Scene scene = new Scene(editorLayout);
+        scene.setOnKeyPressed(e -> {
+            if (e.isShortcutDown() && e.getCode() == KeyCode.Z) {
+                if (e.isShiftDown()) {
+                    redo();
+                } else {
+                    undo();
+                }
+            } else if (e.isShortcutDown() && e.getCode() == KeyCode.Y) {
+                redo();
+            }
+        });
         editorStage.setScene(scene);
         editorStage.show();
     }
@@ -6,9 +6,6 @@
 package clue.client;
 
 import clue.GameController;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import javafx.geometry.HPos;
@@ -63,12 +60,7 @@ public class selectCards {
             }
         });
          
-        Image character = null;
-        try {
-            character = new Image(new FileInputStream(new File(ImagePathMap.get("character0"))));
-        } catch (FileNotFoundException ex) {
-            System.out.println("File not found");
-        }
+        Image character = TextureCache.get(ImagePathMap.get("character0"));
         ImageView characterView = new ImageView(character);
         characterView.setFitHeight(230);
         characterView.setFitWidth(150);
@@ -80,12 +72,7 @@ public class selectCards {
             characterView.setImage(getImage(newValue.toString()));
         });
         
-        Image weapon = null;
-        try {
-            weapon = new Image(new FileInputStream(new File(ImagePathMap.get("weapon0"))));
-        } catch (FileNotFoundException ex) {
-            System.out.println("File not found");
-        }
+        Image weapon = TextureCache.get(ImagePathMap.get("weapon0"));
         ImageView weaponView = new ImageView(weapon);
         weaponView.setFitHeight(230);
         weaponView.setFitWidth(150);
@@ -97,14 +84,9 @@ public class selectCards {
             weaponView.setImage(getImage(newValue.toString()));
         });
         
-        Image room = null;
         ComboBox roomOptions = new ComboBox();
         
-        try {
-            room = new Image(new FileInputStream(new File(ImagePathMap.get("room"+currentRoom))));
-        } catch(FileNotFoundException ex) {
-            System.out.println("File not found");
-        }
+        Image room = TextureCache.get(ImagePathMap.get("room"+currentRoom));
         roomOptions.getItems().add(CardNameMap.get("room"+currentRoom));
         roomOptions.setValue(CardNameMap.get("room"+currentRoom));
         ImageView roomView = new ImageView(room);
@@ -157,18 +139,12 @@ public class selectCards {
     }
     
     /**
-     * 
-     * @param key
-     * @return 
+     * Gets the image of a card from the cache
+     * @param key the name of the card
+     * @return the image of the card
      */
     private Image getImage(String key) {
-        try {
-            Image image = new Image(new FileInputStream(new File(ImagePathMap.get(getKey(CardNameMap, key)))));
-            return image;
-        } catch(FileNotFoundException ex) {
-            System.out.println("File not found");
-        }
-        return null;
+        return TextureCache.get(ImagePathMap.get(getKey(CardNameMap, key)));
     }
     
     /**
@@ -190,12 +166,7 @@ public class selectCards {
      * Initialises the Font and tries to load the TTF file
      */
     private void initFonts() {
-        avenir = new Font(30);
-        try {
-            avenir = Font.loadFont(new FileInputStream(new File("./resources/fonts/Avenir-Book.ttf")), 30);
-        } catch(FileNotFoundException ex) {
-            System.out.println("Font not found");
-        }
+        avenir = AssetRegistry.font(AssetRegistry.AVENIR, 30);
     }
    
     /**
@@ -0,0 +1,251 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.metrics;
+
+import clue.action.ActionType;
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where the time in games goes: how many actions of each type were performed and how long they took, along with
+ * counts of the work inside them, tiles expanded by the path searches of the moves and AIs, suggestions refuted or not
+ * and intrigue cards drawn. Only what GameController performs is counted, searches run for anything else such as the
+ * highlighting in the client are not. Every game records into the shared default instance and any number of games can record at once without
+ * locking. The time of an action is its own, the actions it goes on to perform are timed separately.
+ */
+public class GameMetrics {
+
+    private static final ActionType[] TYPES = ActionType.values();
+    private static final GameMetrics DEFAULT = new GameMetrics();
+
+    private final LatencyHistogram[] actions;
+    private final LongAdder bfsExpansions;
+    private final LongAdder suggestionsRefuted;
+    private final LongAdder suggestionsUnrefuted;
+    private final LongAdder intrigueDraws;
+
+    /**
+     * Creates metrics with nothing recorded
+     */
+    public GameMetrics() {
+        actions = new LatencyHistogram[TYPES.length];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = new LatencyHistogram();
+        }
+        bfsExpansions = new LongAdder();
+        suggestionsRefuted = new LongAdder();
+        suggestionsUnrefuted = new LongAdder();
+        intrigueDraws = new LongAdder();
+    }
+
+    /**
+     * Gets the metrics every game records into
+     * @return the shared metrics
+     */
+    public static GameMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Records an action that was performed
+     * @param type the type of the action
+     * @param nanos how long it took, not counting the actions it performed
+     */
+    public void recordAction(ActionType type, long nanos) {
+        actions[type.ordinal()].record(nanos);
+    }
+
+    /**
+     * Counts the tiles a path search took off its queue and looked around
+     * @param expansions the number of tiles
+     */
+    public void addBfsExpansions(long expansions) {
+        bfsExpansions.add(expansions);
+    }
+
+    /**
+     * Counts a suggestion
+     * @param refuted true when another player had to show a card
+     */
+    public void addSuggestion(boolean refuted) {
+        if (refuted) {
+            suggestionsRefuted.increment();
+        } else {
+            suggestionsUnrefuted.increment();
+        }
+    }
+
+    /**
+     * Counts an intrigue card drawn from the deck
+     */
+    public void addIntrigueDraw() {
+        intrigueDraws.increment();
+    }
+
+    /**
+     * Forgets everything recorded so far, what is recorded while it is being reset may or may not be kept
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : actions) {
+            histogram.reset();
+        }
+        bfsExpansions.reset();
+        suggestionsRefuted.reset();
+        suggestionsUnrefuted.reset();
+        intrigueDraws.reset();
+    }
+
+    /**
+     * Copies everything recorded so far
+     * @return the copy, which doesn't change as more is recorded
+     */
+    public Snapshot snapshot() {
+        LatencyHistogram.Snapshot[] copies = new LatencyHistogram.Snapshot[actions.length];
+        for (int i = 0; i < actions.length; i++) {
+            copies[i] = actions[i].snapshot();
+        }
+        return new Snapshot(copies, bfsExpansions.sum(), suggestionsRefuted.sum(), suggestionsUnrefuted.sum(), intrigueDraws.sum());
+    }
+
+    /**
+     * Prints a snapshot every so often on a background thread until the returned dump is closed
+     * @param out where to print
+     * @param period the time between snapshots
+     * @param unit the unit of the period
+     * @return the dump, close it to stop printing
+     */
+    public Dump startDump(PrintStream out, long period, TimeUnit unit) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "GameMetrics dump");
+            thread.setDaemon(true);//never keeps the program running
+            return thread;
+        });
+        timer.scheduleAtFixedRate(() -> snapshot().print(out), period, period, unit);
+        return new Dump(timer);
+    }
+
+    /**
+     * A periodic dump started by startDump
+     */
+    public static class Dump implements Closeable {
+
+        private final ScheduledExecutorService timer;
+
+        /**
+         * Creates a dump
+         * @param timer the thread printing the snapshots
+         */
+        private Dump(ScheduledExecutorService timer) {
+            this.timer = timer;
+        }
+
+        /**
+         * Stops printing snapshots
+         */
+        @Override
+        public void close() {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * The metrics at one moment
+     */
+    public static class Snapshot {
+
+        private final LatencyHistogram.Snapshot[] actions;
+        private final long bfsExpansions;
+        private final long suggestionsRefuted;
+        private final long suggestionsUnrefuted;
+        private final long intrigueDraws;
+
+        /**
+         * Creates a snapshot
+         * @param actions the times of each action type, indexed by ordinal
+         * @param bfsExpansions the tiles expanded by path searches
+         * @param suggestionsRefuted the suggestions another player showed a card for
+         * @param suggestionsUnrefuted the suggestions nobody showed a card for
+         * @param intrigueDraws the intrigue cards drawn
+         */
+        private Snapshot(LatencyHistogram.Snapshot[] actions, long bfsExpansions, long suggestionsRefuted, long suggestionsUnrefuted, long intrigueDraws) {
+            this.actions = actions;
+            this.bfsExpansions = bfsExpansions;
+            this.suggestionsRefuted = suggestionsRefuted;
+            this.suggestionsUnrefuted = suggestionsUnrefuted;
+            this.intrigueDraws = intrigueDraws;
+        }
+
+        /**
+         * Gets the times of one type of action
+         * @param type the action type
+         * @return how many were performed and how long they took
+         */
+        public LatencyHistogram.Snapshot getAction(ActionType type) {
+            return actions[type.ordinal()];
+        }
+
+        /**
+         * Gets how many tiles the path searches expanded
+         * @return the number of tiles
+         */
+        public long getBfsExpansions() {
+            return bfsExpansions;
+        }
+
+        /**
+         * Gets how many suggestions another player had to show a card for
+         * @return the number of suggestions
+         */
+        public long getSuggestionsRefuted() {
+            return suggestionsRefuted;
+        }
+
+        /**
+         * Gets how many suggestions nobody could show a card for
+         * @return the number of suggestions
+         */
+        public long getSuggestionsUnrefuted() {
+            return suggestionsUnrefuted;
+        }
+
+        /**
+         * Gets how many intrigue cards were drawn
+         * @return the number of cards
+         */
+        public long getIntrigueDraws() {
+            return intrigueDraws;
+        }
+
+        /**
+         * Prints a table of the action types that were performed, with their share of the time, followed by the counters
+         * @param out where to print
+         */
+        public void print(PrintStream out) {
+            long total = 0;
+            for (LatencyHistogram.Snapshot action : actions) {
+                total += action.getTotalNanos();
+            }
+            StringBuilder table = new StringBuilder();
+            table.append(String.format("%-20s %10s %10s %7s %10s %10s %10s %10s%n", "action", "count", "total ms", "time %", "mean us", "p50 us", "p99 us", "max us"));
+            for (int i = 0; i < actions.length; i++) {
+                LatencyHistogram.Snapshot action = actions[i];
+                if (action.getCount() == 0) {
+                    continue;
+                }
+                table.append(String.format("%-20s %10d %10.1f %7.1f %10.1f %10.1f %10.1f %10.1f%n", TYPES[i], action.getCount(),
+                        action.getTotalNanos() / 1e6, total == 0 ? 0 : 100.0 * action.getTotalNanos() / total, action.getMean() / 1e3,
+                        action.getPercentile(50) / 1e3, action.getPercentile(99) / 1e3, action.getMax() / 1e3));
+            }
+            table.append(String.format("bfs expansions %d, suggestions refuted %d, unrefuted %d, intrigue draws %d%n",
+                    bfsExpansions, suggestionsRefuted, suggestionsUnrefuted, intrigueDraws));
+            out.print(table);//one print so a dump isn't split up by other output
+        }
+    }
+}
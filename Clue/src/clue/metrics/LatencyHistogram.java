@@ -0,0 +1,180 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of times in nanoseconds that any number of threads can record into without locking, in the style of
+ * HdrHistogram: values under 32 have a bucket each and every power of two above that is split into 32 buckets, so a
+ * value is kept to within 1/32 (about 3%) of what it was whatever its size. Recording is one atomic increment of a
+ * bucket and one add to the total. Times of 2^40ns (about 18 minutes) or more all go in the last bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts;
+    private final LongAdder totalNanos;
+
+    /**
+     * Creates an empty histogram
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        totalNanos = new LongAdder();
+    }
+
+    /**
+     * Records a time
+     * @param nanos the time in nanoseconds, a negative time counts as 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucket(nanos));
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * Forgets every recorded time, times recorded while it is being reset may or may not be kept
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.reset();
+    }
+
+    /**
+     * Copies the counts as they are now, times recorded while it is being copied may or may not be included
+     * @return the copy
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, totalNanos.sum());
+    }
+
+    /**
+     * Gets the bucket a time goes in
+     * @param nanos the time, not negative
+     * @return the index of its bucket
+     */
+    static int bucket(long nanos) {
+        if (nanos < SUB_COUNT) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int mantissa = (int) (nanos >>> (exponent - SUB_BITS));//between SUB_COUNT and 2 * SUB_COUNT - 1
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + mantissa - SUB_COUNT;
+    }
+
+    /**
+     * Gets the largest time that goes in a bucket
+     * @param bucket the index of the bucket
+     * @return the largest time in nanoseconds
+     */
+    static long highest(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long mantissa = SUB_COUNT + bucket % SUB_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * The counts of a histogram at one moment, which doesn't change as more times are recorded
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+
+        /**
+         * Creates a snapshot
+         * @param counts the count of every bucket
+         * @param count the sum of the counts
+         * @param totalNanos the sum of the times
+         */
+        private Snapshot(long[] counts, long count, long totalNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * Gets how many times were recorded
+         * @return the number of times
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the sum of the recorded times
+         * @return the total in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Gets the mean of the recorded times
+         * @return the mean in nanoseconds, 0 when nothing was recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Gets the time that a percentage of the recorded times were no longer than
+         * @param percentile the percentage, 50 for the median
+         * @return the time in nanoseconds, to within 1/32 of it, 0 when nothing was recorded
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long wanted = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= wanted) {
+                    return highest(i);
+                }
+            }
+            return getMax();
+        }
+
+        /**
+         * Gets the longest recorded time
+         * @return the time in nanoseconds, to within 1/32 of it, 0 when nothing was recorded
+         */
+        public long getMax() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return highest(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -36,6 +36,7 @@ public class AiAdvanced extends Player{
     private int suggestionsLeft;
     ArrayList<ArrayList<Integer>> knownCards;
     private boolean waitingForShowCard;
+    private int bfsExpansions;
     
     private ArrayList<ArrayList<Card>> cardLists;//List of each cards players have previously suggested
     private List<Card> shownCards;
@@ -50,12 +51,24 @@ public class AiAdvanced extends Player{
     */
     
     public AiAdvanced(int id, GameController gc ,int width, int height){
+        this(id, gc, width, height, Calendar.getInstance().getTimeInMillis());
+    }
+    
+    /** 
+    * Constructor for AiAdvanced which makes its random choices from a seed.
+    * @param id of the Player.
+    * @param gc GameController object.
+    * @param width of the game board.
+    * @param height of the game board.
+    * @param seed the seed of the ai's random choices.
+    */
+    public AiAdvanced(int id, GameController gc ,int width, int height, long seed){
         super(id, gc);
         this.boardWidth = width;
         this.boardHeight = height;
         this.id = id;
         gameController = gc;
-        rand = new Random(Calendar.getInstance().getTimeInMillis());
+        rand = new Random(seed);
         shownCards = new ArrayList<>();
         suggestionsLeft = rand.nextInt(20)+10;
         waitingForShowCard = false;
@@ -162,6 +175,16 @@ public class AiAdvanced extends Player{
     public boolean isWaiting(){
         return waitingForShowCard;
     }
+
+    /**
+     * Gets how many paths the searches for a room took off their queue and extended since this was last called
+     * @return the number of paths, the count starts again from 0
+     */
+    public int takeBfsExpansions(){
+        int expansions = bfsExpansions;
+        bfsExpansions = 0;
+        return expansions;
+    }
     
     /**
      * Adds a card to the know deck, these cards are cards which are seen by the ai player and are thus not part of the murder cards
@@ -303,19 +326,23 @@ public class AiAdvanced extends Player{
         pathList.add(newPath);
 
         boolean foundRoom = false;        
+        int expanded = 0;
         while(!foundRoom){
             
             if (pathList.isEmpty()){
                 //System.out.println("no valid path found");
+                bfsExpansions += expanded;
                 return new LinkedList<>();
             }
             
             currentPath = pathList.get(0);
+            expanded++;
             //System.out.println("expanding a path to have one extra distance from source");
             
             for (Tile t : currentPath.getLast().getAdjacent()){//try to explore all the tiles adjacent to the last tile in the path
                 if (t.isRoom()){//shortest path found
                     currentPath.add(t);
+                    bfsExpansions += expanded;
                     return currentPath;
                 }
                 else if (t.isFull() || visited[t.getX()][t.getY()]){//if the tile is full or is already visited, do not explore it
@@ -0,0 +1,258 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.replay;
+
+import clue.action.ActionType;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recorded game loaded from a replay file written by ReplayRecorder.
+ * Seeking restores the keyframe at or before the requested event and applies the events after it,
+ * so any point of the game is reached by applying at most keyframeInterval events.
+ */
+public class Replay {
+
+    static final int MAGIC = 0x436C5250;
+    static final int VERSION = 1;
+    static final int TAG_KEYFRAME = 1;
+    static final int TAG_EVENT = 2;
+    static final int TAG_END = 3;
+
+    private final String tilePath;
+    private final String doorPath;
+    private final int keyframeInterval;
+    private final List<ReplayFrame> keyframes;
+    private final List<ReplayEvent> events;
+    private int winner;
+    private boolean complete;
+
+    /**
+     * Creates an empty replay
+     * @param tilePath the tile csv of the recorded board
+     * @param doorPath the door csv of the recorded board
+     * @param keyframeInterval the number of events between keyframes
+     */
+    private Replay(String tilePath, String doorPath, int keyframeInterval) {
+        this.tilePath = tilePath;
+        this.doorPath = doorPath;
+        this.keyframeInterval = keyframeInterval;
+        keyframes = new ArrayList<>();
+        events = new ArrayList<>();
+        winner = -1;
+    }
+
+    /**
+     * Loads a replay file, a file cut short (the game was closed before it ended) is loaded up to the last complete event
+     * @param path the replay file
+     * @return the loaded replay
+     * @throws IOException thrown when the file can't be read or is not a replay
+     */
+    public static Replay load(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a replay file");
+            }
+            int version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("unsupported replay version " + version);
+            }
+            int interval = in.readInt();
+            if (interval < 1) {
+                throw new IOException("bad keyframe interval " + interval);
+            }
+            Replay replay = new Replay(in.readUTF(), in.readUTF(), interval);
+            replay.readBody(in);
+            return replay;
+        }
+    }
+
+    /**
+     * Reads keyframes and events until the end record or the end of the file
+     * @param in the stream positioned after the header
+     * @throws IOException thrown when the file is corrupt
+     */
+    private void readBody(DataInputStream in) throws IOException {
+        ActionType[] types = ActionType.values();
+        try {
+            while (!complete) {
+                int tag = in.readByte();
+                switch (tag) {
+                    case TAG_KEYFRAME:
+                        ReplayFrame keyframe = readKeyframe(in);
+                        if (keyframe.getEventIndex() != events.size() || keyframe.getEventIndex() != keyframes.size() * keyframeInterval) {
+                            throw new IOException("keyframe out of place at event " + keyframe.getEventIndex());
+                        }
+                        keyframes.add(keyframe);
+                        break;
+                    case TAG_EVENT:
+                        if (keyframes.isEmpty()) {
+                            throw new IOException("event before the first keyframe");
+                        }
+                        events.add(readEvent(in, types, keyframes.get(0).getTokenCount()));
+                        break;
+                    case TAG_END:
+                        if (in.readInt() != events.size()) {
+                            throw new IOException("replay is missing events");
+                        }
+                        winner = in.readByte();
+                        complete = true;
+                        break;
+                    default:
+                        throw new IOException("unknown record " + tag);
+                }
+            }
+        } catch (EOFException ex) {
+            //recording stopped before the game ended, keep every whole record read so far
+        }
+        if (keyframes.isEmpty()) {
+            throw new IOException("replay has no recorded events");
+        }
+    }
+
+    /**
+     * Reads a keyframe record
+     * @param in the stream positioned after the tag
+     * @return the keyframe
+     * @throws IOException thrown when the record is cut short
+     */
+    private static ReplayFrame readKeyframe(DataInputStream in) throws IOException {
+        int eventIndex = in.readInt();
+        int playerCount = in.readByte();
+        int weaponCount = in.readByte();
+        ReplayFrame frame = new ReplayFrame(playerCount, weaponCount);
+        for (int i = 0; i < playerCount + weaponCount; i++) {
+            frame.setToken(i, in.readShort(), in.readShort());
+        }
+        frame.setActiveMask(in.readByte() & 0xFF);
+        frame.setCurrentPlayer(in.readByte());
+        frame.setEventIndex(eventIndex);
+        return frame;
+    }
+
+    /**
+     * Reads an event record
+     * @param in the stream positioned after the tag
+     * @param types the action types indexed by ordinal
+     * @param tokenCount the number of tokens in the replay
+     * @return the event
+     * @throws IOException thrown when the record is cut short or corrupt
+     */
+    private static ReplayEvent readEvent(DataInputStream in, ActionType[] types, int tokenCount) throws IOException {
+        int type = in.readByte();
+        if (type < 0 || type >= types.length) {
+            throw new IOException("unknown action type " + type);
+        }
+        int player = in.readByte();
+        int other = in.readByte();
+        boolean result = in.readBoolean();
+        int person = in.readByte();
+        int room = in.readByte();
+        int weapon = in.readByte();
+        int activeMask = in.readByte() & 0xFF;
+        int moved = in.readByte();
+        int[] tokens = new int[moved];
+        int[] x = new int[moved];
+        int[] y = new int[moved];
+        for (int i = 0; i < moved; i++) {
+            tokens[i] = in.readByte();
+            if (tokens[i] < 0 || tokens[i] >= tokenCount) {
+                throw new IOException("unknown token " + tokens[i]);
+            }
+            x[i] = in.readShort();
+            y[i] = in.readShort();
+        }
+        return new ReplayEvent(types[type], player, other, result, person, room, weapon, activeMask, tokens, x, y);
+    }
+
+    /**
+     * Gets the board state after a number of events
+     * @param eventIndex the number of events to apply, 0 is the start of the game and getEventCount() the end
+     * @return a new frame holding the board state
+     */
+    public ReplayFrame seek(int eventIndex) {
+        if (eventIndex < 0 || eventIndex > events.size()) {
+            throw new IndexOutOfBoundsException("event " + eventIndex + " of " + events.size());
+        }
+        ReplayFrame keyframe = keyframes.get(Math.min(eventIndex / keyframeInterval, keyframes.size() - 1));
+        ReplayFrame frame = new ReplayFrame(keyframe.getPlayerCount(), keyframe.getWeaponCount());
+        frame.copyFrom(keyframe);
+        for (int i = keyframe.getEventIndex(); i < eventIndex; i++) {
+            frame.apply(events.get(i));
+        }
+        return frame;
+    }
+
+    /**
+     * Gets a recorded event
+     * @param i the index of the event
+     * @return the event
+     */
+    public ReplayEvent getEvent(int i) {
+        return events.get(i);
+    }
+
+    /**
+     * Gets the number of recorded events
+     * @return the event count
+     */
+    public int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Gets the number of keyframes in the replay
+     * @return the keyframe count
+     */
+    public int getKeyframeCount() {
+        return keyframes.size();
+    }
+
+    /**
+     * Gets the number of events between keyframes
+     * @return the keyframe interval
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Gets the tile csv of the recorded board
+     * @return the tile csv path
+     */
+    public String getTilePath() {
+        return tilePath;
+    }
+
+    /**
+     * Gets the door csv of the recorded board
+     * @return the door csv path
+     */
+    public String getDoorPath() {
+        return doorPath;
+    }
+
+    /**
+     * Gets the winner of the recorded game
+     * @return the winning player id, -1 if no one won or the replay is incomplete
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Gets whether the recording reached the end of the game
+     * @return true if the game ended while recording
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.replay;
+
+import clue.action.ActionType;
+
+/**
+ * One recorded action of a replay, holding the action details and only the tokens it moved.
+ */
+public class ReplayEvent {
+
+    private final ActionType actionType;
+    private final int playerId;
+    private final int otherPlayerId;
+    private final boolean result;
+    private final int personId;
+    private final int roomId;
+    private final int weaponId;
+    private final int activeMask;
+    private final int[] movedTokens;
+    private final int[] movedX;
+    private final int[] movedY;
+
+    /**
+     * Creates a replay event
+     * @param actionType the type of the recorded action
+     * @param playerId the player who performed the action
+     * @param otherPlayerId the player who showed the card for SHOWCARD, the suggester for SHOWCARDS, -1 otherwise
+     * @param result the result of the action
+     * @param personId the person card suggested or accused, -1 if none
+     * @param roomId the room card suggested or accused, -1 if none
+     * @param weaponId the weapon card suggested or accused, -1 if none
+     * @param activeMask the bit mask of active players after the action
+     * @param movedTokens the indexes of the tokens the action moved
+     * @param movedX the new x coordinates of the moved tokens
+     * @param movedY the new y coordinates of the moved tokens
+     */
+    ReplayEvent(ActionType actionType, int playerId, int otherPlayerId, boolean result, int personId, int roomId, int weaponId,
+            int activeMask, int[] movedTokens, int[] movedX, int[] movedY) {
+        this.actionType = actionType;
+        this.playerId = playerId;
+        this.otherPlayerId = otherPlayerId;
+        this.result = result;
+        this.personId = personId;
+        this.roomId = roomId;
+        this.weaponId = weaponId;
+        this.activeMask = activeMask;
+        this.movedTokens = movedTokens;
+        this.movedX = movedX;
+        this.movedY = movedY;
+    }
+
+    /**
+     * Gets the type of the recorded action
+     * @return the action type
+     */
+    public ActionType getActionType() {
+        return actionType;
+    }
+
+    /**
+     * Gets the player who performed the action
+     * @return the player id
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Gets the other player involved in the action
+     * @return the player who showed a card for SHOWCARD, the suggester for SHOWCARDS, -1 otherwise
+     */
+    public int getOtherPlayerId() {
+        return otherPlayerId;
+    }
+
+    /**
+     * Gets the result of the action
+     * @return the result
+     */
+    public boolean getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the person card suggested or accused
+     * @return the person card id, -1 if none
+     */
+    public int getPersonId() {
+        return personId;
+    }
+
+    /**
+     * Gets the room card suggested or accused
+     * @return the room card id, -1 if none
+     */
+    public int getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * Gets the weapon card suggested or accused
+     * @return the weapon card id, -1 if none
+     */
+    public int getWeaponId() {
+        return weaponId;
+    }
+
+    /**
+     * Gets the bit mask of active players after the action
+     * @return the mask, bit i is set when player i is active
+     */
+    public int getActiveMask() {
+        return activeMask;
+    }
+
+    /**
+     * Gets the number of tokens moved by the action
+     * @return the number of moved tokens
+     */
+    public int getMoveCount() {
+        return movedTokens.length;
+    }
+
+    /**
+     * Gets the index of a moved token
+     * @param i the move number
+     * @return the token index
+     */
+    public int getMovedToken(int i) {
+        return movedTokens[i];
+    }
+
+    /**
+     * Gets the new x coordinate of a moved token
+     * @param i the move number
+     * @return the x coordinate
+     */
+    public int getMovedX(int i) {
+        return movedX[i];
+    }
+
+    /**
+     * Gets the new y coordinate of a moved token
+     * @param i the move number
+     * @return the y coordinate
+     */
+    public int getMovedY(int i) {
+        return movedY[i];
+    }
+}
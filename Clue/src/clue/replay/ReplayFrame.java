@@ -0,0 +1,217 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.replay;
+
+import java.util.Arrays;
+
+/**
+ * The positions of every token on the board at one point of a replay.
+ * Tokens are indexed with the players first followed by the weapons, a token at (-1,-1) is not on the board.
+ */
+public class ReplayFrame {
+
+    private final int playerCount;
+    private final int[] x;
+    private final int[] y;
+    private int activeMask;
+    private int currentPlayer;
+    private int eventIndex;
+
+    /**
+     * Creates an empty frame
+     * @param playerCount the number of player tokens
+     * @param weaponCount the number of weapon tokens
+     */
+    public ReplayFrame(int playerCount, int weaponCount) {
+        this.playerCount = playerCount;
+        x = new int[playerCount + weaponCount];
+        y = new int[playerCount + weaponCount];
+        Arrays.fill(x, -1);
+        Arrays.fill(y, -1);
+        currentPlayer = -1;
+    }
+
+    /**
+     * Overwrites this frame with the contents of another frame of the same replay
+     * @param other the frame to copy
+     */
+    public void copyFrom(ReplayFrame other) {
+        System.arraycopy(other.x, 0, x, 0, x.length);
+        System.arraycopy(other.y, 0, y, 0, y.length);
+        activeMask = other.activeMask;
+        currentPlayer = other.currentPlayer;
+        eventIndex = other.eventIndex;
+    }
+
+    /**
+     * Moves the frame forward by one event
+     * @param event the event directly after this frame
+     */
+    void apply(ReplayEvent event) {
+        for (int i = 0; i < event.getMoveCount(); i++) {
+            x[event.getMovedToken(i)] = event.getMovedX(i);
+            y[event.getMovedToken(i)] = event.getMovedY(i);
+        }
+        activeMask = event.getActiveMask();
+        currentPlayer = event.getPlayerId();
+        eventIndex++;
+    }
+
+    /**
+     * Sets the position of a token
+     * @param token the token index
+     * @param tokenX the x coordinate
+     * @param tokenY the y coordinate
+     */
+    void setToken(int token, int tokenX, int tokenY) {
+        x[token] = tokenX;
+        y[token] = tokenY;
+    }
+
+    /**
+     * Sets the bit mask of active players, bit i is set when player i is still in the game
+     * @param activeMask the mask
+     */
+    void setActiveMask(int activeMask) {
+        this.activeMask = activeMask;
+    }
+
+    /**
+     * Sets the id of the player who performed the last event
+     * @param currentPlayer the player id
+     */
+    void setCurrentPlayer(int currentPlayer) {
+        this.currentPlayer = currentPlayer;
+    }
+
+    /**
+     * Sets the number of events applied to reach this frame
+     * @param eventIndex the number of events
+     */
+    void setEventIndex(int eventIndex) {
+        this.eventIndex = eventIndex;
+    }
+
+    /**
+     * Gets the number of player tokens
+     * @return the number of players
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Gets the number of weapon tokens
+     * @return the number of weapons
+     */
+    public int getWeaponCount() {
+        return x.length - playerCount;
+    }
+
+    /**
+     * Gets the total number of tokens
+     * @return players plus weapons
+     */
+    public int getTokenCount() {
+        return x.length;
+    }
+
+    /**
+     * Gets the x coordinate the token should be drawn at
+     * @param token the token index
+     * @return the x coordinate, -1 when not on the board
+     */
+    public int getX(int token) {
+        return x[token];
+    }
+
+    /**
+     * Gets the y coordinate the token should be drawn at
+     * @param token the token index
+     * @return the y coordinate, -1 when not on the board
+     */
+    public int getY(int token) {
+        return y[token];
+    }
+
+    /**
+     * Gets the x coordinate of a player token
+     * @param playerId the player id
+     * @return the x coordinate
+     */
+    public int getPlayerX(int playerId) {
+        return x[playerId];
+    }
+
+    /**
+     * Gets the y coordinate of a player token
+     * @param playerId the player id
+     * @return the y coordinate
+     */
+    public int getPlayerY(int playerId) {
+        return y[playerId];
+    }
+
+    /**
+     * Gets the x coordinate of a weapon token
+     * @param weaponId the weapon id
+     * @return the x coordinate, -1 when the weapon has not been placed
+     */
+    public int getWeaponX(int weaponId) {
+        return x[playerCount + weaponId];
+    }
+
+    /**
+     * Gets the y coordinate of a weapon token
+     * @param weaponId the weapon id
+     * @return the y coordinate, -1 when the weapon has not been placed
+     */
+    public int getWeaponY(int weaponId) {
+        return y[playerCount + weaponId];
+    }
+
+    /**
+     * Gets whether a player is still in the game
+     * @param playerId the player id
+     * @return true if the player is active
+     */
+    public boolean isActive(int playerId) {
+        return (activeMask & (1 << playerId)) != 0;
+    }
+
+    /**
+     * Gets the bit mask of active players
+     * @return the mask, bit i is set when player i is active
+     */
+    public int getActiveMask() {
+        return activeMask;
+    }
+
+    /**
+     * Gets the id of the player who performed the last event
+     * @return the player id, -1 at the start of the replay
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Gets the number of events that have been applied to reach this frame
+     * @return the event index
+     */
+    public int getEventIndex() {
+        return eventIndex;
+    }
+
+    /**
+     * Checks if two frames have the same token positions and players
+     * @param other the frame to compare to
+     * @return true if both frames show the same board
+     */
+    public boolean sameBoard(ReplayFrame other) {
+        return Arrays.equals(x, other.x) && Arrays.equals(y, other.y) && activeMask == other.activeMask;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.replay;
+
+import clue.GameController;
+import clue.GameListener;
+import clue.action.AccuseAction;
+import clue.action.Action;
+import clue.action.ShowCardAction;
+import clue.action.ShowCardsAction;
+import clue.action.SuggestAction;
+import clue.card.WeaponCard;
+import clue.player.Player;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the actions of a game into a replay file.
+ * Every event stores only the tokens that moved, a full keyframe of every token is written every keyframeInterval events
+ * so that a viewer can seek to any point by restoring the nearest keyframe and replaying at most keyframeInterval events.
+ */
+public class ReplayRecorder implements GameListener, Closeable {
+
+    /**
+     * The number of events between keyframes used when none is given
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+
+    private final DataOutputStream out;
+    private final int keyframeInterval;
+    private int eventCount;
+    private int playerCount;
+    private int[] lastX;
+    private int[] lastY;
+    private int[] movedTokens;
+    private int activeMask;
+    private int lastPlayer;
+    private boolean closed;
+
+    /**
+     * Creates a recorder writing to path with the default keyframe interval
+     * @param path the replay file to create
+     * @param tilePath the tile csv of the recorded game's board
+     * @param doorPath the door csv of the recorded game's board
+     * @throws IOException thrown when the replay file could not be created
+     */
+    public ReplayRecorder(String path, String tilePath, String doorPath) throws IOException {
+        this(path, tilePath, doorPath, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates a recorder writing to path
+     * @param path the replay file to create
+     * @param tilePath the tile csv of the recorded game's board
+     * @param doorPath the door csv of the recorded game's board
+     * @param keyframeInterval the number of events between keyframes
+     * @throws IOException thrown when the replay file could not be created
+     */
+    public ReplayRecorder(String path, String tilePath, String doorPath, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("keyframe interval must be at least 1");
+        }
+        this.keyframeInterval = keyframeInterval;
+        lastPlayer = -1;
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+        out.writeInt(Replay.MAGIC);
+        out.writeShort(Replay.VERSION);
+        out.writeInt(keyframeInterval);
+        out.writeUTF(tilePath);
+        out.writeUTF(doorPath);
+    }
+
+    /**
+     * Records an action, writing a keyframe first when one is due
+     * @param game the game the action was performed in
+     * @param action the action that was performed
+     */
+    @Override
+    public void actionPerformed(GameController game, Action action) {
+        if (closed) {
+            return;
+        }
+        try {
+            if (lastX == null) {
+                startRecording(game);
+            }
+            if (eventCount % keyframeInterval == 0) {
+                writeKeyframe();
+            }
+            writeEvent(game, action);
+            eventCount++;
+        } catch (IOException ex) {
+            Logger.getLogger(ReplayRecorder.class.getName()).log(Level.SEVERE, null, ex);
+            close();
+        }
+    }
+
+    /**
+     * Writes the end of the replay and closes the file
+     * @param game the game that ended
+     */
+    @Override
+    public void gameEnded(GameController game) {
+        if (closed) {
+            return;
+        }
+        try {
+            out.writeByte(Replay.TAG_END);
+            out.writeInt(eventCount);
+            out.writeByte(game.getWinner());
+        } catch (IOException ex) {
+            Logger.getLogger(ReplayRecorder.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        close();
+    }
+
+    /**
+     * Closes the replay file, a replay closed before the game ended can still be viewed up to the last recorded event
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException ex) {
+                Logger.getLogger(ReplayRecorder.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    /**
+     * Deletes the oldest replays in a folder until only a number of them are left, so a folder every game is recorded
+     * into doesn't grow forever
+     * @param folder the folder of replays
+     * @param keep how many of the newest replays to keep
+     * @return how many replays were deleted
+     */
+    public static int deleteOldest(File folder, int keep) {
+        File[] replays = folder.listFiles((dir, name) -> name.endsWith(".cluereplay"));
+        if (replays == null || replays.length <= keep) {
+            return 0;
+        }
+        Arrays.sort(replays, (a, b) -> {//newest first, names hold the time they were recorded when it is the same
+            int byTime = Long.compare(b.lastModified(), a.lastModified());
+            return byTime != 0 ? byTime : b.getName().compareTo(a.getName());
+        });
+        int deleted = 0;
+        for (int i = Math.max(0, keep); i < replays.length; i++) {
+            if (replays[i].delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Gets the number of events recorded so far
+     * @return the event count
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Takes the first snapshot of the tokens, the token count is fixed from here on
+     * @param game the recorded game
+     */
+    private void startRecording(GameController game) {
+        List<Player> players = game.getPlayers();
+        List<WeaponCard> weapons = game.getWeaponCards();
+        playerCount = players.size();
+        int tokens = playerCount + weapons.size();
+        lastX = new int[tokens];
+        lastY = new int[tokens];
+        movedTokens = new int[tokens];
+        for (int i = 0; i < playerCount; i++) {
+            lastX[i] = players.get(i).getDrawX();
+            lastY[i] = players.get(i).getDrawY();
+        }
+        for (int i = 0; i < weapons.size(); i++) {
+            lastX[playerCount + i] = weapons.get(i).getDrawX();
+            lastY[playerCount + i] = weapons.get(i).getDrawY();
+        }
+        activeMask = activeMask(players);
+    }
+
+    /**
+     * Writes the position of every token
+     * @throws IOException thrown when the write fails
+     */
+    private void writeKeyframe() throws IOException {
+        out.writeByte(Replay.TAG_KEYFRAME);
+        out.writeInt(eventCount);
+        out.writeByte(playerCount);
+        out.writeByte(lastX.length - playerCount);
+        for (int i = 0; i < lastX.length; i++) {
+            out.writeShort(lastX[i]);
+            out.writeShort(lastY[i]);
+        }
+        out.writeByte(activeMask);
+        out.writeByte(lastPlayer);
+    }
+
+    /**
+     * Writes an action together with the tokens that moved since the previous event
+     * @param game the recorded game
+     * @param action the action to write
+     * @throws IOException thrown when the write fails
+     */
+    private void writeEvent(GameController game, Action action) throws IOException {
+        List<Player> players = game.getPlayers();
+        List<WeaponCard> weapons = game.getWeaponCards();
+        int moved = 0;
+        for (int i = 0; i < lastX.length; i++) {
+            int x;
+            int y;
+            if (i < playerCount) {
+                x = players.get(i).getDrawX();
+                y = players.get(i).getDrawY();
+            } else if (i - playerCount < weapons.size()) {
+                x = weapons.get(i - playerCount).getDrawX();
+                y = weapons.get(i - playerCount).getDrawY();
+            } else {
+                continue;
+            }
+            if (x != lastX[i] || y != lastY[i]) {
+                lastX[i] = x;
+                lastY[i] = y;
+                movedTokens[moved++] = i;
+            }
+        }
+        activeMask = activeMask(players);
+
+        int other = -1;
+        int person = -1;
+        int room = -1;
+        int weapon = -1;
+        switch (action.getActionType()) {
+            case SUGGEST:
+                SuggestAction suggestion = (SuggestAction) action;
+                person = suggestion.getPersonCard().getId();
+                room = suggestion.getRoomCard().getId();
+                weapon = suggestion.getWeaponCard().getId();
+                break;
+            case ACCUSATION:
+                int[] cards = ((AccuseAction) action).getAccusationCards();
+                person = cards[0];
+                weapon = cards[1];
+                room = cards[2];
+                break;
+            case SHOWCARD:
+                other = ((ShowCardAction) action).getWhoShowedTheCard().getId();
+                break;
+            case SHOWCARDS:
+                other = ((ShowCardsAction) action).getSuggester().getId();
+                break;
+            default:
+                break;
+        }
+
+        lastPlayer = action.getPlayer() == null ? -1 : action.getPlayer().getId();
+        out.writeByte(Replay.TAG_EVENT);
+        out.writeByte(action.getActionType().ordinal());
+        out.writeByte(lastPlayer);
+        out.writeByte(other);
+        out.writeBoolean(action.result);
+        out.writeByte(person);
+        out.writeByte(room);
+        out.writeByte(weapon);
+        out.writeByte(activeMask);
+        out.writeByte(moved);
+        for (int i = 0; i < moved; i++) {
+            int token = movedTokens[i];
+            out.writeByte(token);
+            out.writeShort(lastX[token]);
+            out.writeShort(lastY[token]);
+        }
+    }
+
+    /**
+     * Builds the bit mask of active players
+     * @param players every player in the game
+     * @return the mask, bit i is set when player i is active
+     */
+    private static int activeMask(List<Player> players) {
+        int mask = 0;
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).isActive()) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+}
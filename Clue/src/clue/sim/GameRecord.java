@@ -0,0 +1,251 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The outcome of one simulated game, stored as a fixed width record in a results file.
+ * Records are reused by the reader so a whole file can be scanned without allocating per game.
+ */
+public class GameRecord {
+
+    /**
+     * The number of bytes each record takes in a results file
+     */
+    public static final int SIZE = 64;
+    /**
+     * The number of seats at a table
+     */
+    public static final int SEATS = 6;
+    /**
+     * The maximum number of bytes of a map name that are stored
+     */
+    public static final int MAP_NAME_LENGTH = 16;
+
+    /**
+     * Seat kind of a seat nobody sits in
+     */
+    public static final byte EMPTY = 0;
+    /**
+     * Seat kind of a human player
+     */
+    public static final byte HUMAN = 1;
+    /**
+     * Seat kind of an AiAdvanced player
+     */
+    public static final byte AI_ADVANCED = 2;
+
+    private long seed;
+    private final byte[] mapName;
+    private final byte[] seats;
+    private int winner;
+    private int turns;
+    private final int[] suggestions;
+    private long durationNanos;
+
+    /**
+     * Creates an empty record
+     */
+    public GameRecord() {
+        mapName = new byte[MAP_NAME_LENGTH];
+        seats = new byte[SEATS];
+        suggestions = new int[SEATS];
+        winner = -1;
+    }
+
+    /**
+     * Writes the record at the buffer's position and advances it by SIZE bytes
+     * @param buffer the buffer to write to
+     */
+    public void writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putLong(seed);
+        buffer.put(mapName);
+        buffer.put(seats);
+        buffer.put((byte) winner);
+        buffer.putInt(turns);
+        for (int i = 0; i < SEATS; i++) {
+            buffer.putShort((short) Math.min(suggestions[i], Short.MAX_VALUE));
+        }
+        buffer.putLong(durationNanos);
+        while (buffer.position() < start + SIZE) {//reserved
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Reads a record starting at an absolute offset of the buffer, the buffer's position is not changed
+     * @param buffer the buffer to read from
+     * @param offset the offset of the first byte of the record
+     */
+    public void readFrom(ByteBuffer buffer, int offset) {
+        seed = buffer.getLong(offset);
+        for (int i = 0; i < MAP_NAME_LENGTH; i++) {
+            mapName[i] = buffer.get(offset + 8 + i);
+        }
+        for (int i = 0; i < SEATS; i++) {
+            seats[i] = buffer.get(offset + 24 + i);
+        }
+        winner = buffer.get(offset + 30);
+        turns = buffer.getInt(offset + 31);
+        for (int i = 0; i < SEATS; i++) {
+            suggestions[i] = buffer.getShort(offset + 35 + 2 * i);
+        }
+        durationNanos = buffer.getLong(offset + 47);
+    }
+
+    /**
+     * Clears the record so it can be filled for another game
+     */
+    public void clear() {
+        seed = 0;
+        Arrays.fill(mapName, (byte) 0);
+        Arrays.fill(seats, EMPTY);
+        winner = -1;
+        turns = 0;
+        Arrays.fill(suggestions, 0);
+        durationNanos = 0;
+    }
+
+    /**
+     * Gets the seed the game was played with
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed the game was played with
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Gets the name of the map the game was played on
+     * @return the map name
+     */
+    public String getMapName() {
+        int length = 0;
+        while (length < MAP_NAME_LENGTH && mapName[length] != 0) {
+            length++;
+        }
+        return new String(mapName, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Sets the name of the map the game was played on, names longer than MAP_NAME_LENGTH are cut short
+     * @param name the map name
+     */
+    public void setMapName(String name) {
+        Arrays.fill(mapName, (byte) 0);
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, mapName, 0, Math.min(bytes.length, MAP_NAME_LENGTH));
+    }
+
+    /**
+     * Gets who sat in a seat
+     * @param seat the seat (player id)
+     * @return EMPTY, HUMAN or AI_ADVANCED
+     */
+    public byte getSeat(int seat) {
+        return seats[seat];
+    }
+
+    /**
+     * Sets who sat in a seat
+     * @param seat the seat (player id)
+     * @param kind EMPTY, HUMAN or AI_ADVANCED
+     */
+    public void setSeat(int seat, byte kind) {
+        seats[seat] = kind;
+    }
+
+    /**
+     * Gets the number of seats that were played
+     * @return the number of players
+     */
+    public int getPlayerCount() {
+        int count = 0;
+        for (byte seat : seats) {
+            if (seat != EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the seat of the winner
+     * @return the winning player id, -1 if no one won
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Sets the seat of the winner
+     * @param winner the winning player id, -1 if no one won
+     */
+    public void setWinner(int winner) {
+        this.winner = winner;
+    }
+
+    /**
+     * Gets the number of turns played
+     * @return the turn count
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Sets the number of turns played
+     * @param turns the turn count
+     */
+    public void setTurns(int turns) {
+        this.turns = turns;
+    }
+
+    /**
+     * Gets the number of suggestions a seat made
+     * @param seat the seat (player id)
+     * @return the suggestion count
+     */
+    public int getSuggestions(int seat) {
+        return suggestions[seat];
+    }
+
+    /**
+     * Sets the number of suggestions a seat made
+     * @param seat the seat (player id)
+     * @param count the suggestion count
+     */
+    public void setSuggestions(int seat, int count) {
+        suggestions[seat] = count;
+    }
+
+    /**
+     * Gets how long the game took to play
+     * @return the duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Sets how long the game took to play
+     * @param durationNanos the duration in nanoseconds
+     */
+    public void setDurationNanos(long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Threads to play ai only games on, for everything that plays them in bulk: the simulations, the benchmarks, the tests
+ * and the board editor. An ai only game performs each action from inside the one before, so its stack grows with the
+ * length of the game. The default 1MB stack has been enough for every seeded game tried so far but 512KB is not, so
+ * rather than depend on the -Xss of whatever JVM they were started in these threads get a stack with room to spare.
+ */
+public final class GameThreads {
+
+    /**
+     * The stack size of a game thread in bytes
+     */
+    public static final long STACK_SIZE = 64L << 20;
+
+    private GameThreads() {
+    }
+
+    /**
+     * Creates a game thread, it isn't started
+     * @param code what the thread runs
+     * @param name the name of the thread
+     * @return the thread
+     */
+    public static Thread newThread(Runnable code, String name) {
+        return new Thread(null, code, name, STACK_SIZE);
+    }
+
+    /**
+     * Runs code on a game thread of its own and waits for it to finish
+     * @param name the name of the thread
+     * @param code the code to run
+     * @throws Exception what the code threw, errors are thrown as they are
+     */
+    public static void run(String name, Callable<Void> code) throws Exception {
+        Throwable[] thrown = new Throwable[1];
+        Thread thread = newThread(() -> {
+            try {
+                code.call();
+            } catch (Throwable ex) {
+                thrown[0] = ex;
+            }
+        }, name);
+        thread.start();
+        thread.join();
+        if (thrown[0] instanceof Exception) {
+            throw (Exception) thrown[0];
+        }
+        if (thrown[0] instanceof Error) {
+            throw (Error) thrown[0];
+        }
+    }
+
+    /**
+     * Throws away everything printed to System.out, the engine prints on every move and suggestion and writing that
+     * costs more than the games themselves
+     * @return the stream that was System.out, for printing results
+     */
+    public static PrintStream silence() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        return console;
+    }
+}
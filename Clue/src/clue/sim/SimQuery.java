@@ -0,0 +1,221 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Command line aggregates over a results file:
+ * <pre>java clue.sim.SimQuery results.clueres [seat|map|ai|players]</pre>
+ * Every query is a single sequential pass over the memory mapped records.
+ */
+public class SimQuery {
+
+    /**
+     * The totals of one group of games
+     */
+    public static class Totals {
+
+        private long games;
+        private long wins;
+        private long turns;
+        private long durationNanos;
+
+        /**
+         * Gets the number of games in the group
+         * @return the game count
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Gets the number of games the group won
+         * @return the win count
+         */
+        public long getWins() {
+            return wins;
+        }
+
+        /**
+         * Gets the share of games the group won
+         * @return wins divided by games, 0 for an empty group
+         */
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        /**
+         * Gets the mean number of turns of the group's games
+         * @return the mean turn count
+         */
+        public double getMeanTurns() {
+            return games == 0 ? 0 : (double) turns / games;
+        }
+
+        /**
+         * Gets the mean time the group's games took to play
+         * @return the mean duration in milliseconds
+         */
+        public double getMeanMillis() {
+            return games == 0 ? 0 : durationNanos / 1e6 / games;
+        }
+
+        private void add(GameRecord record, boolean won) {
+            games++;
+            if (won) {
+                wins++;
+            }
+            turns += record.getTurns();
+            durationNanos += record.getDurationNanos();
+        }
+    }
+
+    /**
+     * Groups games by seat, a game counts once for every occupied seat and is won by the seat of the winner
+     * @param reader the results to aggregate
+     * @return the totals keyed by "seat n"
+     */
+    public static Map<String, Totals> bySeat(SimResultReader reader) {
+        Map<String, Totals> result = new TreeMap<>();
+        GameRecord record = new GameRecord();
+        for (long i = 0; i < reader.size(); i++) {
+            reader.read(i, record);
+            for (int seat = 0; seat < GameRecord.SEATS; seat++) {
+                if (record.getSeat(seat) != GameRecord.EMPTY) {
+                    totals(result, "seat " + seat).add(record, record.getWinner() == seat);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups games by map, a game is won when anyone won it
+     * @param reader the results to aggregate
+     * @return the totals keyed by map name
+     */
+    public static Map<String, Totals> byMap(SimResultReader reader) {
+        Map<String, Totals> result = new TreeMap<>();
+        GameRecord record = new GameRecord();
+        for (long i = 0; i < reader.size(); i++) {
+            reader.read(i, record);
+            totals(result, record.getMapName()).add(record, record.getWinner() != -1);
+        }
+        return result;
+    }
+
+    /**
+     * Groups games by the kind of player in each seat, a game counts once for every seat the kind occupied
+     * @param reader the results to aggregate
+     * @return the totals keyed by player kind
+     */
+    public static Map<String, Totals> byAi(SimResultReader reader) {
+        Map<String, Totals> result = new TreeMap<>();
+        GameRecord record = new GameRecord();
+        for (long i = 0; i < reader.size(); i++) {
+            reader.read(i, record);
+            for (int seat = 0; seat < GameRecord.SEATS; seat++) {
+                if (record.getSeat(seat) != GameRecord.EMPTY) {
+                    totals(result, kindName(record.getSeat(seat))).add(record, record.getWinner() == seat);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups games by the number of players, a game is won when anyone won it
+     * @param reader the results to aggregate
+     * @return the totals keyed by "n players"
+     */
+    public static Map<String, Totals> byPlayers(SimResultReader reader) {
+        Map<String, Totals> result = new TreeMap<>();
+        GameRecord record = new GameRecord();
+        for (long i = 0; i < reader.size(); i++) {
+            reader.read(i, record);
+            totals(result, record.getPlayerCount() + " players").add(record, record.getWinner() != -1);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the totals of a group, creating them the first time the group is seen
+     * @param groups the groups found so far
+     * @param key the group
+     * @return the group's totals
+     */
+    private static Totals totals(Map<String, Totals> groups, String key) {
+        Totals totals = groups.get(key);
+        if (totals == null) {
+            totals = new Totals();
+            groups.put(key, totals);
+        }
+        return totals;
+    }
+
+    /**
+     * Gets the printed name of a seat kind
+     * @param kind the seat kind stored in a record
+     * @return the name
+     */
+    private static String kindName(byte kind) {
+        switch (kind) {
+            case GameRecord.HUMAN:
+                return "human";
+            case GameRecord.AI_ADVANCED:
+                return "AiAdvanced";
+            default:
+                return "kind " + kind;
+        }
+    }
+
+    /**
+     * Prints a table of grouped totals
+     * @param title the name of the grouping
+     * @param groups the totals to print
+     */
+    private static void print(String title, Map<String, Totals> groups) {
+        System.out.printf("%-18s %10s %10s %8s %9s %9s%n", title, "games", "wins", "win %", "turns", "ms");
+        for (Map.Entry<String, Totals> group : groups.entrySet()) {
+            Totals t = group.getValue();
+            System.out.printf("%-18s %10d %10d %7.2f%% %9.1f %9.2f%n", group.getKey(), t.getGames(), t.getWins(),
+                    100 * t.getWinRate(), t.getMeanTurns(), t.getMeanMillis());
+        }
+        System.out.println();
+    }
+
+    /**
+     * Prints aggregates of a results file
+     * @param args the results file and optionally one of seat, map, ai or players
+     * @throws IOException thrown when the results file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: SimQuery <results file> [seat|map|ai|players]");
+            System.exit(1);
+        }
+        String query = args.length > 1 ? args[1] : "all";
+        try (SimResultReader reader = new SimResultReader(args[0])) {
+            System.out.println(reader.size() + " games");
+            System.out.println();
+            if (query.equals("all") || query.equals("map")) {
+                print("map", byMap(reader));
+            }
+            if (query.equals("all") || query.equals("players")) {
+                print("players", byPlayers(reader));
+            }
+            if (query.equals("all") || query.equals("seat")) {
+                print("seat", bySeat(reader));
+            }
+            if (query.equals("all") || query.equals("ai")) {
+                print("ai", byAi(reader));
+            }
+        }
+    }
+}
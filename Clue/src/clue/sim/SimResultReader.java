@@ -0,0 +1,109 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a results file written by SimResultWriter through memory maps, records are decoded straight from the
+ * mapped pages into a reused GameRecord. Files larger than 2GB are mapped as several segments.
+ * The reader sees the records that were in the file when it was opened.
+ */
+public class SimResultReader implements Closeable {
+
+    /**
+     * The number of records in each mapped segment
+     */
+    private static final int SEGMENT_RECORDS = Integer.MAX_VALUE / GameRecord.SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long recordCount;
+
+    /**
+     * Opens and maps a results file
+     * @param path the results file
+     * @throws IOException thrown when the file can't be read or is not a results file
+     */
+    public SimResultReader(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            checkHeader(channel, path);
+            recordCount = (channel.size() - SimResultWriter.HEADER_SIZE) / GameRecord.SIZE;
+            int segmentCount = (int) ((recordCount + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i * SEGMENT_RECORDS;
+                long records = Math.min(SEGMENT_RECORDS, recordCount - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, SimResultWriter.HEADER_SIZE + first * GameRecord.SIZE, records * GameRecord.SIZE);
+            }
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Checks that a channel holds a results file this version can read
+     * @param channel the open file
+     * @param path the file name used in error messages
+     * @throws IOException thrown when the header is missing or does not match
+     */
+    static void checkHeader(FileChannel channel, String path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SimResultWriter.HEADER_SIZE);
+        long position = 0;
+        while (header.hasRemaining()) {
+            int read = channel.read(header, position);
+            if (read < 0) {
+                throw new IOException(path + " is not a results file");
+            }
+            position += read;
+        }
+        if (header.getInt(0) != SimResultWriter.MAGIC) {
+            throw new IOException(path + " is not a results file");
+        }
+        if (header.getInt(4) != SimResultWriter.VERSION || header.getInt(8) != GameRecord.SIZE) {
+            throw new IOException(path + " was written by a different version");
+        }
+    }
+
+    /**
+     * Gets the number of records in the file
+     * @return the record count
+     */
+    public long size() {
+        return recordCount;
+    }
+
+    /**
+     * Decodes a record
+     * @param index the index of the record, 0 is the oldest
+     * @param into the record to overwrite with the stored values
+     * @return into, for chaining
+     */
+    public GameRecord read(long index, GameRecord into) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("record " + index + " of " + recordCount);
+        }
+        into.readFrom(segments[(int) (index / SEGMENT_RECORDS)], (int) (index % SEGMENT_RECORDS) * GameRecord.SIZE);
+        return into;
+    }
+
+    /**
+     * Closes the file, the mapped records are released once the reader is no longer referenced
+     * @throws IOException thrown when the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
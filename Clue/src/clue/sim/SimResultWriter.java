@@ -0,0 +1,141 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends game records to a results file, safe to share between every thread of a simulation run.
+ * Records are packed into a large direct buffer and written with one channel write per batch,
+ * so an append is a copy of SIZE bytes under a lock and only every BATCH_RECORDS'th append touches the disk.
+ * Opening an existing file appends to it, a record torn by a crash during the last run is dropped.
+ */
+public class SimResultWriter implements Closeable {
+
+    static final int MAGIC = 0x436C5253;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * The number of records buffered before they are written to the file
+     */
+    public static final int BATCH_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long recordCount;
+    private boolean closed;
+
+    /**
+     * Opens a results file for appending, creating it if it doesn't exist
+     * @param path the results file
+     * @throws IOException thrown when the file can't be opened or is not a results file
+     */
+    public SimResultWriter(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = ByteBuffer.allocateDirect(BATCH_RECORDS * GameRecord.SIZE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader();
+            } else {
+                SimResultReader.checkHeader(channel, path);
+            }
+            recordCount = (channel.size() - HEADER_SIZE) / GameRecord.SIZE;
+            long end = HEADER_SIZE + recordCount * GameRecord.SIZE;
+            channel.truncate(end);//drop a torn record
+            channel.position(end);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes the file header of a new results file
+     * @throws IOException thrown when the write fails
+     */
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(GameRecord.SIZE);
+        header.putInt(0);//reserved
+        header.flip();
+        channel.truncate(0);
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    /**
+     * Appends a record, the record can be reused as soon as this returns
+     * @param record the game outcome to store
+     * @throws IOException thrown when a full batch could not be written
+     */
+    public synchronized void append(GameRecord record) throws IOException {
+        if (closed) {
+            throw new IOException("results file is closed");
+        }
+        if (buffer.remaining() < GameRecord.SIZE) {
+            writeBuffer();
+        }
+        record.writeTo(buffer);
+        recordCount++;
+    }
+
+    /**
+     * Writes every buffered record to the file
+     * @throws IOException thrown when the write fails
+     */
+    public synchronized void flush() throws IOException {
+        if (!closed) {
+            writeBuffer();
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Writes out the buffer and empties it
+     * @throws IOException thrown when the write fails
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Gets the number of records in the file including those still buffered
+     * @return the record count
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the buffered records and closes the file
+     * @throws IOException thrown when the last write fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            try {
+                writeBuffer();
+            } finally {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+}
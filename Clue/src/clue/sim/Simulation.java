@@ -0,0 +1,242 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import clue.BoardTopology;
+import clue.GameController;
+import clue.GameController.TooManyPlayersException;
+import clue.GameListener;
+import clue.MissingRoomDuringCreationException;
+import clue.NotEnoughPlayersException;
+import clue.action.Action;
+import clue.metrics.GameMetrics;
+import clue.player.AiAdvanced;
+import clue.player.Player;
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays seeded AI only games on one map and records their outcomes.
+ * Run from the command line to play a batch of games on every core and append the results to a results file:
+ * <pre>java clue.sim.Simulation results.clueres archersAvenue,sampleCustomMap 4 10000 [threads] [first seed] [trace file]</pre>
+ * When a trace file is given every action of every game is also exported to it, the game id of a trace row is the
+ * index of the game in the run.
+ * Every 30 seconds, and once more at the end, it prints where the time in the games went (see GameMetrics).
+ */
+public class Simulation {
+
+    private static final long METRICS_DUMP_SECONDS = 30;
+
+    private final String mapName;
+    private final String tilePath;
+    private final String doorPath;
+    private final BoardTopology topology;
+    private final int ais;
+
+    /**
+     * Creates a simulation of a map in the Maps folder
+     * @param mapName the name of the map folder, its csv files are Maps/name/nameTiles.csv and Maps/name/nameDoors.csv
+     * @param ais the number of ai players in each game
+     */
+    public Simulation(String mapName, int ais) {
+        this(mapName, "Maps/" + mapName + "/" + mapName + "Tiles.csv", "Maps/" + mapName + "/" + mapName + "Doors.csv", ais);
+    }
+
+    /**
+     * Creates a simulation of any board
+     * @param mapName the name stored in the game records
+     * @param tilePath the tile csv of the board
+     * @param doorPath the door csv of the board
+     * @param ais the number of ai players in each game
+     */
+    public Simulation(String mapName, String tilePath, String doorPath, int ais) {
+        this.mapName = mapName;
+        this.tilePath = tilePath;
+        this.doorPath = doorPath;
+        this.topology = null;
+        this.ais = ais;
+    }
+
+    /**
+     * Creates a simulation of a board that is already in memory, every game shares the one topology
+     * @param mapName the name stored in the game records
+     * @param topology the board
+     * @param ais the number of ai players in each game
+     */
+    public Simulation(String mapName, BoardTopology topology, int ais) {
+        this.mapName = mapName;
+        this.tilePath = null;
+        this.doorPath = null;
+        this.topology = topology;
+        this.ais = ais;
+    }
+
+    /**
+     * Plays one game to the end and fills in its record
+     * @param seed the seed of the game
+     * @param record the record to fill, it is cleared first
+     * @param listeners extra listeners to attach to the game
+     * @return the finished game
+     * @throws NoSuchRoomException thrown when the board's door csv points to a missing room
+     * @throws NoSuchTileException thrown when the board's door csv points to a missing tile
+     * @throws MissingRoomDuringCreationException thrown when the board's tile csv is missing a room
+     * @throws TooManyPlayersException thrown when the board has fewer starting tiles than players
+     * @throws NotEnoughPlayersException thrown when fewer than 2 ai players were asked for
+     */
+    public GameController play(long seed, GameRecord record, GameListener... listeners) throws NoSuchRoomException, NoSuchTileException, MissingRoomDuringCreationException, TooManyPlayersException, NotEnoughPlayersException {
+        RecordCollector collector = new RecordCollector(record);
+        GameListener[] all = new GameListener[listeners.length + 1];
+        all[0] = collector;
+        System.arraycopy(listeners, 0, all, 1, listeners.length);
+
+        record.clear();
+        long start = System.nanoTime();
+        GameController game = topology != null
+                ? new GameController(0, ais, topology, seed, all)
+                : new GameController(0, ais, tilePath, doorPath, seed, all);
+        record.setDurationNanos(System.nanoTime() - start);
+        record.setSeed(seed);
+        record.setMapName(mapName);
+        record.setWinner(game.getWinner());
+        for (Player p : game.getPlayers()) {
+            if (p.getId() < GameRecord.SEATS && p.getId() < ais) {
+                record.setSeat(p.getId(), p instanceof AiAdvanced ? GameRecord.AI_ADVANCED : GameRecord.HUMAN);
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Gets the name stored in the records of this simulation
+     * @return the map name
+     */
+    public String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * Counts turns and suggestions as the game is played
+     */
+    private static class RecordCollector implements GameListener {
+
+        private final GameRecord record;
+
+        RecordCollector(GameRecord record) {
+            this.record = record;
+        }
+
+        @Override
+        public void actionPerformed(GameController game, Action action) {
+            switch (action.getActionType()) {
+                case STARTTURN:
+                    record.setTurns(record.getTurns() + 1);
+                    break;
+                case SUGGEST:
+                    int seat = action.getPlayer().getId();
+                    if (seat < GameRecord.SEATS) {
+                        record.setSuggestions(seat, record.getSuggestions(seat) + 1);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void gameEnded(GameController game) {
+        }
+    }
+
+    /**
+     * Plays games on every core and appends their records to a results file
+     * @param args results file, comma separated map names, number of ais, number of games per map, [threads], [first seed], [trace file]
+     * @throws Exception thrown when the results file can't be written or a game could not be created
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("usage: Simulation <results file> <map[,map...]> <ais> <games per map> [threads] [first seed] [trace file]");
+            System.exit(1);
+        }
+        String[] maps = args[1].split(",");
+        int ais = Integer.parseInt(args[2]);
+        int games = Integer.parseInt(args[3]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long firstSeed = args.length > 5 ? Long.parseLong(args[5]) : System.currentTimeMillis();
+        TraceExporter trace = args.length > 6 ? new TraceExporter(args[6], TraceExporter.DEFAULT_BLOCK_ROWS, 2 * threads + 1) : null;
+
+        PrintStream console = GameThreads.silence();
+
+        Simulation[] simulations = new Simulation[maps.length];
+        for (int m = 0; m < maps.length; m++) {//each board is read once, every game on it shares it
+            String folder = "Maps/" + maps[m] + "/" + maps[m];
+            simulations[m] = new Simulation(maps[m], BoardTopology.load(folder + "Tiles.csv", folder + "Doors.csv"), ais);
+        }
+
+        AtomicLong workerCount = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> GameThreads.newThread(runnable, "simulation-" + workerCount.incrementAndGet()));
+        AtomicLong failed = new AtomicLong();
+        long total = (long) maps.length * games;
+        long start = System.nanoTime();
+        GameMetrics.Dump dump = GameMetrics.getDefault().startDump(console, METRICS_DUMP_SECONDS, TimeUnit.SECONDS);
+        try (SimResultWriter writer = new SimResultWriter(args[0])) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int first = t;
+                final TraceExporter.Stream stream = trace == null ? null : trace.openStream();
+                workers.add(pool.submit(() -> {
+                    GameRecord record = new GameRecord();
+                    GameListener[] listeners = stream == null ? new GameListener[0] : new GameListener[]{stream};
+                    try {
+                        for (long i = first; i < total; i += threads) {//each worker plays every threads'th game
+                            Simulation simulation = simulations[(int) (i / games)];
+                            long seed = firstSeed + i % games;
+                            try {
+                                if (stream != null) {
+                                    stream.startGame(i);
+                                }
+                                simulation.play(seed, record, listeners);
+                                writer.append(record);
+                            } catch (IOException | NoSuchRoomException | NoSuchTileException | MissingRoomDuringCreationException
+                                    | TooManyPlayersException | NotEnoughPlayersException | RuntimeException | StackOverflowError ex) {
+                                failed.incrementAndGet();
+                                System.err.println("[Simulation.main] " + simulation.getMapName() + " seed " + seed + " failed: " + ex);
+                            }
+                        }
+                    } finally {//an error the loop doesn't catch still flushes this worker's trace
+                        if (stream != null) {
+                            stream.close();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+            dump.close();
+            if (trace != null) {
+                trace.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long played = total - failed.get();
+        console.printf("%d games in %.1fs (%.1f games/s), %d failed%n", played, seconds, played / seconds, failed.get());
+        if (trace != null) {
+            console.printf("%d actions traced in %d blocks%n", trace.getRowCount(), trace.getBlockCount());
+        }
+        GameMetrics.getDefault().snapshot().print(console);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+/**
+ * A block of action trace rows held column by column, one primitive array per column.
+ * Blocks are filled by a TraceExporter stream, written by its background writer and then reused,
+ * so a long run allocates a fixed number of blocks however many rows it exports.
+ * Values that don't apply to a row (no tile, no card) are stored as -1.
+ */
+public class TraceBlock {
+
+    /**
+     * The names of the columns in the order they are stored in a trace file
+     */
+    public static final String[] COLUMNS = {"game", "turn", "player", "action", "tileX", "tileY", "person", "room", "weapon", "result"};
+
+    static final int GAME = 0;
+    static final int TURN = 1;
+    static final int PLAYER = 2;
+    static final int ACTION = 3;
+    static final int TILE_X = 4;
+    static final int TILE_Y = 5;
+    static final int PERSON = 6;
+    static final int ROOM = 7;
+    static final int WEAPON = 8;
+    static final int RESULT = 9;
+
+    private final long[] games;
+    private final int[][] columns;
+    private int size;
+
+    /**
+     * Creates an empty block
+     * @param capacity the number of rows the block holds
+     */
+    public TraceBlock(int capacity) {
+        games = new long[capacity];
+        columns = new int[COLUMNS.length][];
+        for (int i = 1; i < COLUMNS.length; i++) {
+            columns[i] = new int[capacity];
+        }
+    }
+
+    /**
+     * Appends a row, the caller checks isFull first
+     * @param game the game id
+     * @param turn the turn the action was taken in
+     * @param player the id of the acting player, -1 when the game itself acted
+     * @param action the ordinal of the ActionType
+     * @param tileX the x of the player's tile after the action, -1 for a room
+     * @param tileY the y of the player's tile after the action, the room id for a room
+     * @param person the person card involved
+     * @param room the room card involved
+     * @param weapon the weapon card involved
+     * @param result the action's result
+     */
+    void add(long game, int turn, int player, int action, int tileX, int tileY, int person, int room, int weapon, boolean result) {
+        games[size] = game;
+        columns[TURN][size] = turn;
+        columns[PLAYER][size] = player;
+        columns[ACTION][size] = action;
+        columns[TILE_X][size] = tileX;
+        columns[TILE_Y][size] = tileY;
+        columns[PERSON][size] = person;
+        columns[ROOM][size] = room;
+        columns[WEAPON][size] = weapon;
+        columns[RESULT][size] = result ? 1 : 0;
+        size++;
+    }
+
+    /**
+     * Gets the game ids column
+     * @return the column, only the first size() values are rows
+     */
+    long[] games() {
+        return games;
+    }
+
+    /**
+     * Gets an int column
+     * @param column the column index, any column but GAME
+     * @return the column, only the first size() values are rows
+     */
+    int[] column(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Sets the number of rows after the columns were filled directly
+     * @param size the row count
+     */
+    void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Empties the block so it can be filled again
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gets the number of rows in the block
+     * @return the row count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of rows the block can hold
+     * @return the capacity
+     */
+    public int capacity() {
+        return games.length;
+    }
+
+    /**
+     * Checks whether another row fits
+     * @return true when the block is full
+     */
+    public boolean isFull() {
+        return size == games.length;
+    }
+
+    /**
+     * @param row the row index
+     * @return the game id of a row
+     */
+    public long getGame(int row) {
+        return games[row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the turn of a row
+     */
+    public int getTurn(int row) {
+        return columns[TURN][row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the acting player of a row, -1 when the game itself acted
+     */
+    public int getPlayer(int row) {
+        return columns[PLAYER][row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the ActionType ordinal of a row
+     */
+    public int getAction(int row) {
+        return columns[ACTION][row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the tile x of a row
+     */
+    public int getTileX(int row) {
+        return columns[TILE_X][row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the tile y of a row
+     */
+    public int getTileY(int row) {
+        return columns[TILE_Y][row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the person card id of a row
+     */
+    public int getPerson(int row) {
+        return columns[PERSON][row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the room card id of a row
+     */
+    public int getRoom(int row) {
+        return columns[ROOM][row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the weapon card id of a row
+     */
+    public int getWeapon(int row) {
+        return columns[WEAPON][row];
+    }
+
+    /**
+     * @param row the row index
+     * @return the result of a row
+     */
+    public boolean getResult(int row) {
+        return columns[RESULT][row] != 0;
+    }
+}
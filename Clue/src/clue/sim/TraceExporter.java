@@ -0,0 +1,454 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import clue.GameController;
+import clue.GameListener;
+import clue.action.AccuseAction;
+import clue.action.Action;
+import clue.action.ActionType;
+import clue.action.ShowCardAction;
+import clue.action.SuggestAction;
+import clue.card.Card;
+import clue.player.Player;
+import clue.tile.Tile;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+
+/**
+ * Exports a row for every action of every game played into a columnar, compressed trace file.
+ * Games feed rows through a Stream, one per playing thread, which fills TraceBlocks without locking.
+ * Full blocks are handed to a background writer that encodes each column on its own (game and turn as deltas,
+ * everything else as zig-zag varints), deflates it and appends the block to the file.
+ * Only maxBlocks blocks ever exist, when the writer falls behind the games wait for a block to be written,
+ * so memory stays bounded however long the run.
+ * <pre>
+ * file:  int MAGIC, short VERSION, int block rows, byte column count, UTF column names, block..., int 0
+ * block: int rows, then for every column: int raw length, int compressed length, compressed bytes
+ * </pre>
+ */
+public class TraceExporter implements Closeable {
+
+    static final int MAGIC = 0x436C5454;
+    static final int VERSION = 1;
+
+    /**
+     * The number of rows in a block used when none is given
+     */
+    public static final int DEFAULT_BLOCK_ROWS = 1 << 16;
+    /**
+     * The number of blocks used when none is given
+     */
+    public static final int DEFAULT_MAX_BLOCKS = 8;
+
+    private static final TraceBlock END = new TraceBlock(0);
+
+    private final DataOutputStream out;
+    private final int blockRows;
+    private final int maxBlocks;
+    private final BlockingQueue<TraceBlock> free;
+    private final BlockingQueue<TraceBlock> full;
+    private final Thread writer;
+    private int allocated;
+    private int openStreams;
+    private long rowCount;
+    private long blockCount;
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Creates an exporter with the default block size and count
+     * @param path the trace file to create
+     * @throws IOException thrown when the file could not be created
+     */
+    public TraceExporter(String path) throws IOException {
+        this(path, DEFAULT_BLOCK_ROWS, DEFAULT_MAX_BLOCKS);
+    }
+
+    /**
+     * Creates an exporter and starts its writer
+     * @param path the trace file to create
+     * @param blockRows the number of rows in each block
+     * @param maxBlocks the number of blocks that may exist at once, it must exceed the number of streams
+     * @throws IOException thrown when the file could not be created
+     */
+    public TraceExporter(String path, int blockRows, int maxBlocks) throws IOException {
+        if (blockRows < 1 || maxBlocks < 2) {
+            throw new IllegalArgumentException("a trace needs at least 1 row per block and 2 blocks");
+        }
+        this.blockRows = blockRows;
+        this.maxBlocks = maxBlocks;
+        free = new ArrayBlockingQueue<>(maxBlocks);
+        full = new ArrayBlockingQueue<>(maxBlocks + 1);
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(blockRows);
+        out.writeByte(TraceBlock.COLUMNS.length);
+        for (String column : TraceBlock.COLUMNS) {
+            out.writeUTF(column);
+        }
+        writer = new Thread(this::writeBlocks, "TraceExporter writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens a stream for one playing thread
+     * @return a new stream, attach it to every game the thread plays
+     */
+    public synchronized Stream openStream() {
+        if (closed) {
+            throw new IllegalStateException("trace is closed");
+        }
+        if (openStreams + 1 >= maxBlocks) {//every stream can hold a block, the writer needs one more
+            throw new IllegalStateException("a trace with " + maxBlocks + " blocks can't feed " + (openStreams + 1) + " streams");
+        }
+        openStreams++;
+        return new Stream();
+    }
+
+    /**
+     * Gets an empty block, waiting for the writer when every block is in use
+     * @return the block
+     * @throws InterruptedException thrown when the wait is interrupted
+     */
+    private TraceBlock takeBlock() throws InterruptedException {
+        TraceBlock block = free.poll();
+        if (block != null) {
+            return block;
+        }
+        synchronized (this) {
+            if (allocated < maxBlocks) {
+                allocated++;
+                return new TraceBlock(blockRows);
+            }
+        }
+        return free.take();
+    }
+
+    /**
+     * Queues a filled block for the writer
+     * @param block the block to write
+     * @throws InterruptedException thrown when the wait is interrupted
+     */
+    private void submitBlock(TraceBlock block) throws InterruptedException {
+        full.put(block);
+    }
+
+    /**
+     * The writer thread, writes blocks until the END block is queued. After a failed write the remaining blocks are
+     * discarded so games never wait on a writer that stopped.
+     */
+    private void writeBlocks() {
+        ColumnEncoder encoder = new ColumnEncoder(blockRows);
+        try {
+            while (true) {
+                TraceBlock block = full.take();
+                if (block == END) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        encoder.write(block, out);
+                        synchronized (this) {
+                            rowCount += block.size();
+                            blockCount++;
+                        }
+                    } catch (IOException ex) {
+                        failure = ex;
+                        Logger.getLogger(TraceExporter.class.getName()).log(Level.SEVERE, null, ex);
+                    }
+                }
+                block.clear();
+                free.put(block);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            encoder.end();
+        }
+    }
+
+    /**
+     * Gets the number of rows written to the file so far
+     * @return the row count
+     */
+    public synchronized long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of blocks written to the file so far
+     * @return the block count
+     */
+    public synchronized long getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Waits for every queued block to be written and closes the file, streams should be closed first
+     * @throws IOException thrown when a block or the end of the file could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            full.put(END);
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while closing the trace", ex);
+        }
+        try {
+            if (failure == null) {
+                out.writeInt(0);
+            }
+        } finally {
+            out.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Feeds the actions of the games played by one thread into the trace.
+     * A stream is not thread safe, each playing thread opens its own.
+     */
+    public class Stream implements GameListener, Closeable {
+
+        private TraceBlock block;
+        private long gameId;
+        private int turn;
+        private boolean streamClosed;
+
+        private Stream() {
+        }
+
+        /**
+         * Starts a new game, call before the game is created
+         * @param gameId the id stored in every row of the game
+         */
+        public void startGame(long gameId) {
+            this.gameId = gameId;
+            turn = 0;
+        }
+
+        /**
+         * Adds a row for the action
+         * @param game the game the action was performed in
+         * @param action the action that was performed
+         */
+        @Override
+        public void actionPerformed(GameController game, Action action) {
+            if (streamClosed) {
+                return;
+            }
+            if (action.getActionType() == ActionType.STARTTURN) {
+                turn++;
+            }
+            int playerId = -1;
+            int tileX = -1;
+            int tileY = -1;
+            Player player = action.getPlayer();
+            if (player != null) {
+                playerId = player.getId();
+                Tile position = player.getPosition();
+                if (position != null) {
+                    tileX = position.getX();
+                    tileY = position.getY();
+                }
+            }
+            int person = -1;
+            int room = -1;
+            int weapon = -1;
+            switch (action.getActionType()) {
+                case SUGGEST:
+                    SuggestAction suggestion = (SuggestAction) action;
+                    person = suggestion.getPersonCard().getId();
+                    room = suggestion.getRoomCard().getId();
+                    weapon = suggestion.getWeaponCard().getId();
+                    break;
+                case ACCUSATION:
+                    int[] cards = ((AccuseAction) action).getAccusationCards();
+                    person = cards[0];
+                    weapon = cards[1];
+                    room = cards[2];
+                    break;
+                case SHOWCARD:
+                    Card shown = ((ShowCardAction) action).getCardToShow();
+                    if (shown != null) {
+                        switch (shown.getCardType()) {
+                            case PERSON:
+                                person = shown.getId();
+                                break;
+                            case ROOM:
+                                room = shown.getId();
+                                break;
+                            case WEAPON:
+                                weapon = shown.getId();
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            try {
+                if (block == null) {
+                    block = takeBlock();
+                }
+                block.add(gameId, turn, playerId, action.getActionType().ordinal(), tileX, tileY, person, room, weapon, action.result);
+                if (block.isFull()) {
+                    TraceBlock filled = block;
+                    block = null;
+                    submitBlock(filled);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Logger.getLogger(TraceExporter.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+
+        /**
+         * Does nothing, a block holds the rows of many games
+         * @param game the game that ended
+         */
+        @Override
+        public void gameEnded(GameController game) {
+        }
+
+        /**
+         * Hands the partly filled block to the writer
+         */
+        @Override
+        public void close() {
+            if (streamClosed) {
+                return;
+            }
+            streamClosed = true;
+            try {
+                if (block != null && block.size() > 0) {
+                    submitBlock(block);
+                } else if (block != null) {
+                    free.put(block);
+                }
+                block = null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Logger.getLogger(TraceExporter.class.getName()).log(Level.SEVERE, null, ex);
+            }
+            synchronized (TraceExporter.this) {
+                openStreams--;
+            }
+        }
+    }
+
+    /**
+     * Encodes and compresses the columns of a block, the buffers are sized once for a full block and reused
+     */
+    private static class ColumnEncoder {
+
+        private final byte[] raw;
+        private final byte[] compressed;
+        private final Deflater deflater;
+
+        ColumnEncoder(int blockRows) {
+            raw = new byte[blockRows * 10];//the longest varint of a long
+            compressed = new byte[raw.length + (raw.length >> 6) + 64];
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+
+        /**
+         * Writes a block
+         * @param block the block to write
+         * @param out the trace file
+         * @throws IOException thrown when the write fails
+         */
+        void write(TraceBlock block, DataOutputStream out) throws IOException {
+            int rows = block.size();
+            out.writeInt(rows);
+            long[] games = block.games();
+            int length = 0;
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                length = putVarint(games[i] - previous, length);
+                previous = games[i];
+            }
+            writeColumn(length, out);
+            for (int c = 1; c < TraceBlock.COLUMNS.length; c++) {
+                int[] column = block.column(c);
+                boolean delta = c == TraceBlock.TURN;
+                length = 0;
+                int last = 0;
+                for (int i = 0; i < rows; i++) {
+                    length = putVarint(delta ? column[i] - last : column[i], length);
+                    last = column[i];
+                }
+                writeColumn(length, out);
+            }
+        }
+
+        /**
+         * Deflates the first length bytes of raw and writes them
+         * @param length the encoded length of the column
+         * @param out the trace file
+         * @throws IOException thrown when the write fails
+         */
+        private void writeColumn(int length, DataOutputStream out) throws IOException {
+            deflater.reset();
+            deflater.setInput(raw, 0, length);
+            deflater.finish();
+            int size = 0;
+            while (!deflater.finished()) {
+                size += deflater.deflate(compressed, size, compressed.length - size);
+            }
+            out.writeInt(length);
+            out.writeInt(size);
+            out.write(compressed, 0, size);
+        }
+
+        /**
+         * Writes a zig-zag varint into raw
+         * @param value the value to write
+         * @param position the index to write at
+         * @return the index after the value
+         */
+        private int putVarint(long value, int position) {
+            long v = (value << 1) ^ (value >> 63);
+            while ((v & ~0x7FL) != 0) {
+                raw[position++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            raw[position++] = (byte) v;
+            return position;
+        }
+
+        /**
+         * Frees the deflater
+         */
+        void end() {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import clue.action.ActionType;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a trace file written by TraceExporter one block at a time into a single reused TraceBlock.
+ * A trace cut short by a crash can be read up to its last complete block.
+ * Run from the command line to print a trace as csv:
+ * <pre>java clue.sim.TraceReader trace.cluetrace</pre>
+ */
+public class TraceReader implements Closeable {
+
+    private final DataInputStream in;
+    private final TraceBlock block;
+    private final String[] columns;
+    private final Inflater inflater;
+    private byte[] compressed;
+    private final byte[] raw;
+    private boolean finished;
+    private boolean complete;
+
+    /**
+     * Opens a trace file
+     * @param path the trace file
+     * @throws IOException thrown when the file can't be read or is not a trace file
+     */
+    public TraceReader(String path) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16));
+        try {
+            if (in.readInt() != TraceExporter.MAGIC) {
+                throw new IOException(path + " is not a trace file");
+            }
+            if (in.readShort() != TraceExporter.VERSION) {
+                throw new IOException(path + " was written by a different version");
+            }
+            int blockRows = in.readInt();
+            columns = new String[in.readUnsignedByte()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = in.readUTF();
+            }
+            if (columns.length != TraceBlock.COLUMNS.length || blockRows < 1) {
+                throw new IOException(path + " was written by a different version");
+            }
+            block = new TraceBlock(blockRows);
+            raw = new byte[blockRows * 10];
+            compressed = new byte[1 << 16];
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+        inflater = new Inflater();
+    }
+
+    /**
+     * Gets the names of the columns in the file
+     * @return the column names
+     */
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Reads the next block, overwriting the rows of the previous one
+     * @return the block, null when there are no more
+     * @throws IOException thrown when the file can't be read or a block is corrupt
+     */
+    public TraceBlock nextBlock() throws IOException {
+        if (finished) {
+            return null;
+        }
+        try {
+            int rows = in.readInt();
+            if (rows == 0) {
+                finished = true;
+                complete = true;
+                return null;
+            }
+            if (rows < 0 || rows > block.capacity()) {
+                throw new IOException("corrupt trace block of " + rows + " rows");
+            }
+            long[] games = block.games();
+            int length = readColumn();
+            int position = 0;
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                long v = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = raw[position++];
+                    v |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                previous += (v >>> 1) ^ -(v & 1);
+                games[i] = previous;
+            }
+            checkLength(position, length);
+            for (int c = 1; c < columns.length; c++) {
+                int[] column = block.column(c);
+                boolean delta = c == TraceBlock.TURN;
+                length = readColumn();
+                position = 0;
+                int last = 0;
+                for (int i = 0; i < rows; i++) {
+                    long v = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        b = raw[position++];
+                        v |= (long) (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    int value = (int) ((v >>> 1) ^ -(v & 1));
+                    last = delta ? last + value : value;
+                    column[i] = last;
+                }
+                checkLength(position, length);
+            }
+            block.setSize(rows);
+            return block;
+        } catch (EOFException ex) {//the run ended before the trace was closed
+            finished = true;
+            return null;
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            throw new IOException("corrupt trace column", ex);
+        }
+    }
+
+    /**
+     * Reads and inflates one column into raw
+     * @return the number of encoded bytes
+     * @throws IOException thrown when the column can't be read or inflated
+     */
+    private int readColumn() throws IOException {
+        int length = in.readInt();
+        int size = in.readInt();
+        if (length < 0 || length > raw.length || size < 0) {
+            throw new IOException("corrupt trace column");
+        }
+        if (compressed.length < size) {
+            compressed = new byte[size];
+        }
+        in.readFully(compressed, 0, size);
+        inflater.reset();
+        inflater.setInput(compressed, 0, size);
+        try {
+            int inflated = 0;
+            while (inflated < length) {
+                int n = inflater.inflate(raw, inflated, length - inflated);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != length) {
+                throw new IOException("corrupt trace column");
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("corrupt trace column", ex);
+        }
+        return length;
+    }
+
+    /**
+     * Checks that decoding used exactly the bytes of the column
+     * @param used the bytes decoded
+     * @param length the bytes in the column
+     * @throws IOException thrown when they differ
+     */
+    private static void checkLength(int used, int length) throws IOException {
+        if (used != length) {
+            throw new IOException("corrupt trace column");
+        }
+    }
+
+    /**
+     * Checks whether the trace was closed properly
+     * @return true once the end of a complete trace has been read
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Closes the file
+     * @throws IOException thrown when the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    /**
+     * Prints a trace file as csv
+     * @param args the trace file
+     * @throws IOException thrown when the trace file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: TraceReader <trace file>");
+            System.exit(1);
+        }
+        try (TraceReader reader = new TraceReader(args[0])) {
+            System.out.println(String.join(",", reader.getColumns()));
+            StringBuilder line = new StringBuilder();
+            TraceBlock block;
+            while ((block = reader.nextBlock()) != null) {
+                for (int i = 0; i < block.size(); i++) {
+                    line.setLength(0);
+                    line.append(block.getGame(i)).append(',').append(block.getTurn(i)).append(',').append(block.getPlayer(i))
+                            .append(',').append(ActionType.values()[block.getAction(i)])
+                            .append(',').append(block.getTileX(i)).append(',').append(block.getTileY(i))
+                            .append(',').append(block.getPerson(i)).append(',').append(block.getRoom(i))
+                            .append(',').append(block.getWeapon(i)).append(',').append(block.getResult(i));
+                    System.out.println(line);
+                }
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ package clue.tile;
 
 import clue.card.RoomCard;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a room on the board. Each room should have an associated RoomCard.
@@ -29,6 +30,21 @@ public class Room extends Tile{
         nonOccupiedLocations = new ArrayList<>();
         doorLocations = new ArrayList<>();
     }
+    /**
+     * Creates a new Room from locations that were worked out once for the map, the location arrays are shared and not copied
+     * @param card the RoomCard associated with this room.
+     * @param locations the x,y locations of the room
+     * @param doorLocations x,y and the direction key of each door (up = 1, right = 2, down = 3, left = 4)
+     * @param drawingLocations the locations tokens can be drawn at
+     */
+    public Room(RoomCard card, List<int[]> locations, List<int[]> doorLocations, List<int[]> drawingLocations) {
+        super(-1,card.getId());
+        this.card = card;
+        room = true;
+        this.locations = new ArrayList<>(locations);
+        this.nonOccupiedLocations = new ArrayList<>(drawingLocations);
+        this.doorLocations = new ArrayList<>(doorLocations);
+    }
     /**
      * Creates a new Room
      */
@@ -98,6 +114,14 @@ public class Room extends Tile{
     
     
     
+    /**
+     * Gets how many of the room's locations are free for a token to be drawn at
+     * @return the number of free locations
+     */
+    public int getFreeLocationCount(){
+        return nonOccupiedLocations.size();
+    }
+    
     /**
      * Gets the room id of the room
      * @return the room id
@@ -186,10 +210,16 @@ public class Room extends Tile{
     
     }
     /**
-     * Adds a location resource back to the room to be given to future players
+     * Adds a location resource back to the room to be given to future players, a location that is already free isn't
+     * added again (a full room hands out its first location without taking it off the free list)
      * @param location x,y coordinate of the location resource
      */
     public void unassignLocation(int[] location){
+        for (int loc[] : nonOccupiedLocations){
+            if (loc[0] == location[0] && loc[1] == location[1]){
+                return;
+            }
+        }
         for (int loc[] : locations){
             if (loc[0] == location[0] && loc[1] == location[1]){//only accept the drawn location if room has this location
                 nonOccupiedLocations.add(location);
@@ -0,0 +1,194 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.action.Action;
+import clue.action.MoveAction;
+import clue.action.SuggestAction;
+import clue.card.Card;
+import clue.card.PersonCard;
+import clue.card.RoomCard;
+import clue.card.WeaponCard;
+import clue.player.Player;
+import clue.sim.GameThreads;
+import clue.tile.Tile;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks how many bytes the hot paths of a game allocate once they are warmed up, so a change that makes them allocate
+ * much more fails here rather than showing up as a slower game. The budgets are about twice what they allocate now.
+ *
+ * @author steve
+ */
+public class AllocationBudgetTest {
+
+    private static final int WARMUP = 2000;
+    private static final int MEASURED = 1000;
+    private static final long MOVE_BUDGET = 24000;//about 11KB, two arrays the size of the board and the path
+    private static final long SUGGEST_BUDGET = 5000;//1.1KB to 2.4KB depending on the JVM, mostly the messages it prints
+    private static final long AI_TURN_BUDGET = 25000;//about 12.3KB
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static BoardTopology topology;
+    private PrintStream console;
+
+    public AllocationBudgetTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        topology = BoardTopology.load("resources/archersAvenueTiles.csv", "resources/archersAvenueDoors.csv");
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        console = System.out;
+    }
+
+    @After
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    /**
+     * Test of the bytes allocated by execute, of class MoveAction, for a move across the board.
+     */
+    @Test
+    public void testMoveAction() throws Exception {
+        System.out.println("moveAction");
+        BoardMappings board = new BoardMappings(topology);
+        Tile start = board.getStartingTiles().get(0);
+        Player player = new Player(0, null);
+        player.setPosition(start);
+        Tile far = null;
+        for (Tile tile : MoveAction.reachable(start, 1000, board.getBoardWidth(), board.getBoardHeight())) {//nearest first
+            if (!tile.isRoom()) {
+                far = tile;
+            }
+        }
+        final Tile target = far;
+        long bytes = bytesPer(() -> {
+            player.setMoves(1000);
+            MoveAction move = new MoveAction(player, target, board.getBoardWidth(), board.getBoardHeight());
+            move.execute();
+            assertTrue(move.result);
+        });
+        console.println("  bytes per move: " + bytes);
+        assertTrue(bytes + " bytes per move", bytes <= MOVE_BUDGET);
+    }
+
+    /**
+     * Test of the bytes allocated by execute, of class SuggestAction, for a suggestion nobody can show a card for.
+     */
+    @Test
+    public void testSuggestAction() throws Exception {
+        System.out.println("suggestAction");
+        GameThreads.silence();
+        GameController game = new GameController(6, 0, topology, 1);
+        List<Player> players = game.getPlayers();
+        List<Card> murder = game.getMurderCards();
+        long bytes = bytesPer(() -> {
+            SuggestAction suggestion = new SuggestAction((PersonCard) murder.get(0), (RoomCard) murder.get(1), (WeaponCard) murder.get(2), players.get(0), players);
+            suggestion.execute();
+            assertFalse(suggestion.result);
+        });
+        console.println("  bytes per suggestion: " + bytes);
+        assertTrue(bytes + " bytes per suggestion", bytes <= SUGGEST_BUDGET);
+    }
+
+    /**
+     * Test of the bytes allocated by an AI turn, from its StartTurnAction to its EndTurnAction, in AI only games.
+     */
+    @Test
+    public void testAiTurn() throws Exception {
+        System.out.println("aiTurn");
+        GameThreads.silence();
+        TurnMeter meter = new TurnMeter();
+        GameThreads.run("ai-games", () -> {
+            for (int seed = 0; seed < WARMUP / 10; seed++) {
+                new GameController(0, 6, topology, seed, meter);
+            }
+            meter.bytes = 0;
+            meter.turns = 0;
+            for (int seed = 0; seed < MEASURED / 10; seed++) {
+                new GameController(0, 6, topology, -1 - seed, meter);
+            }
+            return null;
+        });
+        long bytes = meter.bytes / meter.turns;
+        console.println("  bytes per ai turn: " + bytes);
+        assertTrue(bytes + " bytes per ai turn", bytes <= AI_TURN_BUDGET);
+    }
+
+    /**
+     * Runs some code enough times for the JIT to compile it and then measures what it allocates
+     * @param code the code to measure
+     * @return the bytes allocated by one run of the code
+     */
+    private static long bytesPer(Runnable code) {
+        GameThreads.silence();
+        for (int i = 0; i < WARMUP; i++) {
+            code.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED; i++) {
+            code.run();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / MEASURED;
+    }
+
+    /**
+     * Adds up the bytes allocated during each turn
+     */
+    private static class TurnMeter implements GameListener {
+
+        private long bytes;
+        private long turns;
+        private long start = -1;
+
+        @Override
+        public void actionPerformed(GameController game, Action action) {
+            switch (action.getActionType()) {
+                case STARTTURN:
+                    start = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+                    break;
+                case ENDTURN:
+                    if (start >= 0) {
+                        bytes += threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - start;
+                        turns++;
+                        start = -1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void gameEnded(GameController game) {
+            start = -1;
+        }
+    }
+}
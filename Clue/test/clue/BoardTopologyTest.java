@@ -0,0 +1,117 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.tile.Room;
+import clue.tile.Tile;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class BoardTopologyTest {
+
+    private File tiles;
+    private File doors;
+
+    public BoardTopologyTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        BoardTopology.clearCache();
+        tiles = File.createTempFile("tiles", ".csv");
+        doors = File.createTempFile("doors", ".csv");
+        Files.copy(Paths.get("testCsv/tiles1.csv"), tiles.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(Paths.get("testCsv/doors1.csv"), doors.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @After
+    public void tearDown() {
+        tiles.delete();
+        doors.delete();
+    }
+
+    @Test
+    public void testSameContentShared() throws Exception {
+        System.out.println("sameContentShared");
+        BoardTopology topology = BoardTopology.load("testCsv/tiles1.csv", "testCsv/doors1.csv");
+        assertSame(topology, BoardTopology.load("testCsv/tiles1.csv", "testCsv/doors1.csv"));
+        assertSame(topology, BoardTopology.load(tiles.getPath(), doors.getPath()));
+        assertNotSame(topology, BoardTopology.load("testCsv/tiles1WithIds.csv", "testCsv/doors1.csv"));
+        assertSame(topology, new BoardMappings("testCsv/tiles1.csv", "testCsv/doors1.csv").getTopology());
+    }
+
+    @Test
+    public void testEditedMapNotShared() throws Exception {
+        System.out.println("editedMapNotShared");
+        BoardTopology before = BoardTopology.load(tiles.getPath(), doors.getPath());
+        Files.write(doors.toPath(), "1,1,1,U\n".getBytes(), StandardOpenOption.APPEND);
+        BoardTopology after = BoardTopology.load(tiles.getPath(), doors.getPath());
+        assertNotSame(before, after);
+        assertEquals(before.getLayout().getDoorCount() + 1, after.getLayout().getDoorCount());
+    }
+
+    @Test
+    public void testGamesIndependent() throws Exception {
+        System.out.println("gamesIndependent");
+        BoardTopology topology = BoardTopology.load("testCsv/tiles1.csv", "testCsv/doors1.csv");
+        BoardMappings game1 = new BoardMappings(topology);
+        BoardMappings game2 = new BoardMappings(topology);
+        assertNotSame(game1.getTile(5, 6), game2.getTile(5, 6));
+        game1.getTile(5, 6).setOccupied(true);
+        assertTrue(game1.getTile(5, 6).isFull());
+        assertFalse(game2.getTile(5, 6).isFull());
+
+        Room room1 = game1.getRoom(0);
+        Room room2 = game2.getRoom(0);
+        int[] first = room1.assignLocation();
+        room1.assignLocation();
+        assertArrayEquals(first, room2.assignLocation());//room2 still has every location room1 handed out
+        assertEquals(room1.getLocations().size(), topology.getRoomLocations(0).size());
+    }
+
+    @Test
+    public void testStartOrder() throws Exception {
+        System.out.println("startOrder");
+        BoardTopology topology = BoardTopology.load("testCsv/tiles1WithIds.csv", "testCsv/doors1.csv");
+        BoardMappings boardMappings = new BoardMappings(topology);
+        int width = topology.getLayout().getWidth();
+        assertEquals(topology.getStartCount(), boardMappings.getStartingTiles().size());
+        for (int i = 0; i < topology.getStartCount(); i++) {
+            Tile start = boardMappings.getStartingTiles().get(i);
+            assertEquals(topology.getStartCell(i), start.getY() * width + start.getX());
+        }
+    }
+
+    @Test
+    public void testMissingFile() throws Exception {
+        System.out.println("missingFile");
+        BoardTopology topology = BoardTopology.load("testCsv/noSuchTiles.csv", "testCsv/noSuchDoors.csv");
+        assertEquals(0, topology.getStartCount());
+        assertNotSame(topology, BoardTopology.load("testCsv/noSuchTiles.csv", "testCsv/noSuchDoors.csv"));
+    }
+}
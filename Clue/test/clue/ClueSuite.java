@@ -8,7 +8,10 @@ package clue;
 import clue.ai.AiSuite;
 import clue.action.ActionSuite;
 import clue.card.CardSuite;
+import clue.metrics.MetricsSuite;
 import clue.player.PlayerSuite;
+import clue.replay.ReplaySuite;
+import clue.sim.SimSuite;
 import clue.tile.TileSuite;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -22,7 +25,7 @@ import org.junit.runners.Suite;
  * @author steve
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({PlayerSuite.class, AiSuite.class, ActionSuite.class, CardSuite.class, GameStateTest.class, GameControllerTest.class, BoardMappingsTest.class, DoorTest.class, TileSuite.class})
+@Suite.SuiteClasses({PlayerSuite.class, AiSuite.class, ActionSuite.class, CardSuite.class, GameStateTest.class, GameControllerTest.class, BoardMappingsTest.class, MapLayoutTest.class, BoardTopologyTest.class, MapGridTest.class, MapValidatorTest.class, MapHistoryTest.class, AllocationBudgetTest.class, DoorTest.class, TileSuite.class, ReplaySuite.class, SimSuite.class, MetricsSuite.class})
 public class ClueSuite {
 
     @BeforeClass
@@ -492,4 +492,36 @@ public class GameControllerTest {
         System.out.println("AivsAi");
         gc = new GameController(0,2,"resources/archersAvenueTiles.csv", "resources/archersAvenueDoors.csv");
     }
+    
+    /**
+     * Test of the GameListener passed to the constructor, of class GameController.
+     */
+    @Test
+    public void testGameListener() throws Exception{
+        System.out.println("gameListener");
+        final List<ActionType> performed = new ArrayList<>();
+        final int[] ended = new int[1];
+        GameListener listener = new GameListener() {
+            @Override
+            public void actionPerformed(GameController game, Action action) {
+                assertEquals(0, ended[0]);//no actions after the game ended
+                performed.add(action.getActionType());
+            }
+
+            @Override
+            public void gameEnded(GameController game) {
+                ended[0]++;
+            }
+        };
+        gc = new GameController(0,3,"resources/archersAvenueTiles.csv", "resources/archersAvenueDoors.csv", listener);
+        
+        assertEquals(1, ended[0]);
+        assertEquals(ActionType.START, performed.get(0));
+        assertEquals(ActionType.STARTTURN, performed.get(1));
+        for (int i = 1; i < performed.size(); i++){
+            if (performed.get(i) == ActionType.STARTTURN){//turns are reported in order, each turn is ended before the next starts
+                assertTrue(performed.get(i-1) == ActionType.ENDTURN || performed.get(i-1) == ActionType.START);
+            }
+        }
+    }
 }
@@ -0,0 +1,194 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.sim.GameRecord;
+import clue.sim.Simulation;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class MapGridTest {
+
+    public MapGridTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of setType and setDoor methods, of class MapGrid.
+     */
+    @Test
+    public void testSetTypeAndDoor() {
+        System.out.println("setTypeAndDoor");
+        MapGrid grid = new MapGrid(4, 3, MapLayout.TILE);
+        List<int[]> changed = new ArrayList<>();
+        grid.setCellListener((x, y) -> changed.add(new int[]{x, y}));
+
+        assertFalse(grid.setType(1, 2, MapLayout.TILE));
+        assertTrue(grid.setType(1, 2, MapLayout.ROOM));
+        assertEquals(MapLayout.ROOM, grid.getType(1, 2));
+        assertTrue(grid.setDoor(1, 2, (byte) MapLayout.UP));
+        assertEquals(MapLayout.UP, grid.getDoor(1, 2));
+        assertTrue(grid.setType(1, 2, MapLayout.ROOM));//repainting a room removes its door
+        assertEquals(MapGrid.NO_DOOR, grid.getDoor(1, 2));
+        assertEquals(3, changed.size());
+        assertArrayEquals(new int[]{1, 2}, changed.get(0));
+
+        try {
+            grid.setDoor(0, 0, (byte) MapLayout.UP);
+            fail("a door was placed on a tile");
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+
+    /**
+     * Test of fillRect method, of class MapGrid.
+     */
+    @Test
+    public void testFillRect() {
+        System.out.println("fillRect");
+        MapGrid grid = new MapGrid(5, 5, MapLayout.TILE);
+        assertEquals(6, grid.fillRect(3, 2, 1, 1, MapLayout.ROOM));
+        assertEquals(6, grid.count(MapLayout.ROOM));
+        assertEquals(MapLayout.ROOM, grid.getType(1, 1));
+        assertEquals(MapLayout.ROOM, grid.getType(3, 2));
+        assertEquals(MapLayout.TILE, grid.getType(4, 2));
+        assertEquals(4, grid.fillRect(-3, -3, 1, 1, MapLayout.EMPTY));//clamped to the map
+        assertEquals(4, grid.count(MapLayout.EMPTY));
+    }
+
+    /**
+     * Test of floodFill method, of class MapGrid.
+     */
+    @Test
+    public void testFloodFill() {
+        System.out.println("floodFill");
+        MapGrid grid = new MapGrid(6, 6, MapLayout.TILE);
+        for (int y = 0; y < 6; y++) {//a wall splitting the map in two
+            grid.setType(3, y, MapLayout.EMPTY);
+        }
+        grid.setType(1, 1, MapLayout.START);
+
+        assertEquals(17, grid.floodFill(0, 0, MapLayout.ROOM));
+        assertEquals(MapLayout.START, grid.getType(1, 1));
+        assertEquals(MapLayout.TILE, grid.getType(4, 0));
+        assertEquals(0, grid.floodFill(0, 0, MapLayout.ROOM));
+
+        MapGrid large = new MapGrid(500, 500, MapLayout.TILE);
+        assertEquals(250000, large.floodFill(250, 250, MapLayout.EMPTY));
+    }
+
+    /**
+     * Test of labelRooms and getRoomCount methods, of class MapGrid.
+     */
+    @Test
+    public void testLabelRooms() {
+        System.out.println("labelRooms");
+        MapGrid grid = new MapGrid(5, 4, MapLayout.TILE);
+        grid.fillRect(4, 0, 4, 1, MapLayout.ROOM);
+        grid.setType(0, 1, MapLayout.ROOM);//a U shape whose arms only meet on the last row
+        grid.setType(0, 2, MapLayout.ROOM);
+        grid.setType(2, 1, MapLayout.ROOM);
+        grid.fillRect(0, 3, 2, 3, MapLayout.ROOM);
+        grid.setType(2, 2, MapLayout.ROOM);
+        assertEquals(2, grid.getRoomCount());
+        int[] labels = grid.labelRooms();
+        assertEquals(1, labels[4]);//the room met first reading row by row is room 1
+        assertEquals(1, labels[1 * 5 + 4]);
+        assertEquals(2, labels[1 * 5 + 0]);
+        assertEquals(2, labels[1 * 5 + 2]);
+        assertEquals(0, labels[1 * 5 + 1]);
+        assertTrue(grid.isSameRoom(0, 1, 2, 1));
+        assertFalse(grid.isSameRoom(0, 1, 4, 0));
+
+        grid.setType(1, 3, MapLayout.TILE);//cutting the U in two
+        assertEquals(3, grid.getRoomCount());
+        assertFalse(grid.isSameRoom(0, 1, 2, 1));
+        grid.setType(3, 1, MapLayout.ROOM);//joining the right arm to the first room
+        assertEquals(2, grid.getRoomCount());
+        labels = grid.labelRooms();
+        assertEquals(1, labels[1 * 5 + 2]);
+        assertEquals(2, labels[3 * 5 + 0]);
+
+        MapGrid large = new MapGrid(500, 500, MapLayout.ROOM);
+        assertEquals(1, large.getRoomCount());
+        assertEquals(1, large.labelRooms()[250000 - 1]);
+    }
+
+    /**
+     * Test of toLayout method, of class MapGrid, the archers avenue board copied into a grid plays a game.
+     */
+    @Test
+    public void testToLayout() throws Exception {
+        System.out.println("toLayout");
+        MapLayout original = MapLayout.load("resources/archersAvenueTiles.csv", "resources/archersAvenueDoors.csv");
+        MapGrid grid = new MapGrid(original.getWidth(), original.getHeight(), MapLayout.EMPTY);
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                grid.setType(x, y, original.getType(x, y));
+            }
+        }
+        for (int i = 0; i < original.getDoorCount(); i++) {//doors are stored by the tile outside them
+            int x = original.getDoorX(i);
+            int y = original.getDoorY(i);
+            switch (original.getDoorDirection(i)) {
+                case MapLayout.UP:
+                    y++;
+                    break;
+                case MapLayout.DOWN:
+                    y--;
+                    break;
+                case MapLayout.LEFT:
+                    x++;
+                    break;
+                default:
+                    x--;
+                    break;
+            }
+            grid.setDoor(x, y, (byte) original.getDoorDirection(i));
+        }
+        int version = grid.getVersion();
+
+        MapLayout layout = grid.toLayout(false);
+        assertEquals(version, grid.getVersion());
+        assertEquals(original.getRoomCount(), layout.getRoomCount());
+        assertEquals(original.getStartCount(), layout.getStartCount());
+        assertEquals(original.getDoorCount(), layout.getDoorCount());
+
+        Simulation simulation = new Simulation("grid", new BoardTopology(layout), 6);
+        GameRecord record = new GameRecord();
+        simulation.play(42, record);
+        assertTrue(record.getTurns() > 0);
+        assertEquals(6, record.getPlayerCount());
+        grid.setType(0, 0, MapLayout.TILE);
+        assertNotEquals(version, grid.getVersion());
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class MapHistoryTest {
+
+    public MapHistoryTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of undo and redo methods, of class MapHistory.
+     */
+    @Test
+    public void testUndoRedo() {
+        System.out.println("undoRedo");
+        MapGrid grid = new MapGrid(4, 4, MapLayout.TILE);
+        MapHistory history = new MapHistory(grid, 1000);
+        assertFalse(history.canUndo());
+
+        history.beginEdit();
+        grid.setType(0, 0, MapLayout.ROOM);
+        grid.setType(0, 0, MapLayout.START);//painted twice in a row, kept as one change
+        grid.setType(1, 0, MapLayout.ROOM);
+        history.endEdit();
+        assertEquals(2, history.getChangeCount());
+        grid.setDoor(1, 0, (byte) MapLayout.DOWN);//a change outside an edit is an edit of its own
+
+        assertEquals(1, history.undo());
+        assertEquals(MapGrid.NO_DOOR, grid.getDoor(1, 0));
+        assertEquals(2, history.undo());
+        assertEquals(MapLayout.TILE, grid.getType(0, 0));
+        assertEquals(MapLayout.TILE, grid.getType(1, 0));
+        assertFalse(history.canUndo());
+        assertEquals(0, history.undo());
+
+        assertEquals(2, history.redo());
+        assertEquals(MapLayout.START, grid.getType(0, 0));
+        assertEquals(1, history.redo());
+        assertEquals(MapLayout.DOWN, grid.getDoor(1, 0));
+        assertFalse(history.canRedo());
+
+        history.undo();
+        grid.setType(3, 3, MapLayout.EMPTY);//a new change drops the undone door
+        assertFalse(history.canRedo());
+        history.undo();
+        assertEquals(MapLayout.TILE, grid.getType(3, 3));
+        assertEquals(MapLayout.ROOM, grid.getType(1, 0));
+    }
+
+    /**
+     * Test of undoing a fill, and of the change limit, of class MapHistory.
+     */
+    @Test
+    public void testLimit() {
+        System.out.println("limit");
+        MapGrid grid = new MapGrid(500, 500, MapLayout.TILE);
+        MapHistory history = new MapHistory(grid, 300000);
+        history.beginEdit();
+        grid.floodFill(0, 0, MapLayout.ROOM);
+        history.endEdit();
+        assertEquals(1, grid.getRoomCount());
+        assertEquals(250000, history.undo());
+        assertEquals(250000, grid.count(MapLayout.TILE));
+        assertEquals(0, grid.getRoomCount());
+        history.redo();
+
+        history.beginEdit();
+        grid.fillRect(0, 0, 499, 499, MapLayout.EMPTY);//over the limit, the fill before it is dropped
+        history.endEdit();
+        assertEquals(250000, history.getChangeCount());
+        history.undo();
+        assertEquals(250000, grid.count(MapLayout.ROOM));
+        assertFalse(history.canUndo());
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import clue.tile.NoSuchRoomException;
+import clue.tile.NoSuchTileException;
+import clue.tile.Tile;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class MapLayoutTest {
+
+    private File file;
+
+    public MapLayoutTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("layout", MapLayout.EXTENSION);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Checks that two boards have the same tiles with the same adjacencies
+     */
+    private static void assertSameBoard(BoardMappings expected, BoardMappings actual) throws NoSuchRoomException {
+        assertEquals(expected.getBoardWidth(), actual.getBoardWidth());
+        assertEquals(expected.getBoardHeight(), actual.getBoardHeight());
+        assertEquals(expected.getRooms().length, actual.getRooms().length);
+        for (int y = 0; y < expected.getBoardHeight(); y++) {
+            for (int x = 0; x < expected.getBoardWidth(); x++) {
+                Tile e = expected.getTile(x, y);
+                Tile a = actual.getTile(x, y);
+                assertEquals(String.valueOf(e), String.valueOf(a));
+                if (e != null) {
+                    assertEquals(e.getAdjacent().toString(), a.getAdjacent().toString());
+                }
+            }
+        }
+        assertEquals(expected.getStartingTiles().toString(), actual.getStartingTiles().toString());
+    }
+
+    @Test
+    public void testParseCsv() throws Exception {
+        System.out.println("parseCsv");
+        MapLayout layout = MapLayout.parseCsv("testCsv/shortTiles.csv", "testCsv/shortDoors.csv", false);
+        assertEquals(4, layout.getWidth());
+        assertEquals(5, layout.getHeight());
+        assertEquals(MapLayout.START, layout.getType(0, 0));
+        assertEquals(MapLayout.TILE, layout.getType(1, 0));
+        assertEquals(MapLayout.EMPTY, layout.getType(2, 0));
+        assertEquals(MapLayout.INTRIGUE, layout.getType(0, 4));
+        assertEquals(MapLayout.ROOM, layout.getType(1, 2));
+        assertEquals(1, layout.getStartCount());
+        assertEquals(2, layout.getDoorCount());
+        assertFalse(layout.hasDistances());
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        System.out.println("writeRead");
+        MapLayout layout = MapLayout.parseCsv("Maps/archersAvenue/archersAvenueTiles.csv", "Maps/archersAvenue/archersAvenueDoors.csv", false);
+        layout.write(file.getPath());
+        MapLayout read = MapLayout.read(file.getPath());
+        assertEquals(layout.getWidth(), read.getWidth());
+        assertEquals(layout.getHeight(), read.getHeight());
+        assertEquals(layout.getRoomCount(), read.getRoomCount());
+        assertEquals(layout.getShortcutCount(), read.getShortcutCount());
+        for (int y = 0; y < layout.getHeight(); y++) {
+            for (int x = 0; x < layout.getWidth(); x++) {
+                assertEquals(layout.getType(x, y), read.getType(x, y));
+                assertEquals(layout.getValue(x, y), read.getValue(x, y));
+            }
+        }
+        assertEquals(layout.getDoorCount(), read.getDoorCount());
+        for (int i = 0; i < layout.getDoorCount(); i++) {
+            assertEquals(layout.getDoorRoom(i), read.getDoorRoom(i));
+            assertEquals(layout.getDoorX(i), read.getDoorX(i));
+            assertEquals(layout.getDoorY(i), read.getDoorY(i));
+            assertEquals(layout.getDoorDirection(i), read.getDoorDirection(i));
+        }
+        assertEquals(layout.getNodeCount(), read.getNodeCount());
+        for (int n = 0; n < layout.getNodeCount(); n++) {
+            assertEquals(layout.getAdjacencyStart(n), read.getAdjacencyStart(n));
+            assertEquals(layout.getAdjacencyEnd(n), read.getAdjacencyEnd(n));
+        }
+        assertSameBoard(new BoardMappings("Maps/archersAvenue/archersAvenueTiles.csv", "Maps/archersAvenue/archersAvenueDoors.csv"), new BoardMappings(read));
+    }
+
+    @Test
+    public void testLoadCompiled() throws Exception {
+        System.out.println("loadCompiled");
+        MapCompiler.compile("testCsv/tiles1WithIds.csv", "testCsv/doors1.csv", file.getPath(), false);
+        assertSameBoard(new BoardMappings("testCsv/tiles1WithIds.csv", "testCsv/doors1.csv"), new BoardMappings(file.getPath(), ""));
+    }
+
+    @Test
+    public void testDistances() throws Exception {
+        System.out.println("distances");
+        MapCompiler.compile("testCsv/shortTiles.csv", "testCsv/shortDoors.csv", file.getPath(), true);
+        MapLayout layout = MapLayout.read(file.getPath());
+        assertTrue(layout.hasDistances());
+        int start = 0;
+        int right = 1;
+        int empty = 2;
+        assertEquals(0, layout.getDistance(start, start));
+        assertEquals(1, layout.getDistance(start, right));
+        assertEquals(1, layout.getDistance(right, start));
+        assertEquals(-1, layout.getDistance(start, empty));
+    }
+
+    @Test
+    public void testWriteOverItself() throws Exception {
+        System.out.println("writeOverItself");
+        MapCompiler.compile("testCsv/shortTiles.csv", "testCsv/shortDoors.csv", file.getPath(), true);
+        MapLayout layout = MapLayout.read(file.getPath());
+        layout.write(file.getPath());//its distances are still mapped from the file it replaces
+        MapLayout read = MapLayout.read(file.getPath());
+        assertTrue(read.hasDistances());
+        assertEquals(1, read.getDistance(0, 1));
+        assertEquals(1, layout.getDistance(0, 1));
+        File[] left = file.getParentFile().listFiles((dir, name) -> name.startsWith(file.getName()) && name.endsWith(".tmp"));
+        assertEquals(0, left.length);
+    }
+
+    @Test
+    public void testIsCurrent() throws Exception {
+        System.out.println("isCurrent");
+        File tiles = File.createTempFile("layoutTiles", ".csv");
+        try {
+            MapCompiler.compile("testCsv/shortTiles.csv", "testCsv/shortDoors.csv", file.getPath(), false);
+            assertTrue(tiles.setLastModified(file.lastModified() - 2000));
+            assertTrue(MapLayout.isCurrent(file.getPath(), tiles.getPath(), null));
+            assertTrue(MapLayout.isCurrent(file.getPath(), "testCsv/missingDoors.csv"));
+            assertTrue(tiles.setLastModified(file.lastModified() + 2000));//the csv was edited after it was compiled
+            assertFalse(MapLayout.isCurrent(file.getPath(), tiles.getPath(), null));
+            assertFalse(MapLayout.isCurrent("testCsv/missing" + MapLayout.EXTENSION));
+        } finally {
+            tiles.delete();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoDistances() throws Exception {
+        System.out.println("noDistances");
+        MapLayout.parseCsv("testCsv/shortTiles.csv", "testCsv/shortDoors.csv", false).getDistance(0, 1);
+    }
+
+    @Test(expected = MissingRoomDuringCreationException.class)
+    public void testBuilderMissingRoom() throws Exception {
+        System.out.println("builderMissingRoom");
+        new MapLayout.Builder(2, 1).setCell(0, 0, MapLayout.TILE, 0).setCell(1, 0, MapLayout.ROOM, 1).build(false);
+    }
+
+    @Test(expected = NoSuchTileException.class)
+    public void testBuilderDoorOffBoard() throws Exception {
+        System.out.println("builderDoorOffBoard");
+        new MapLayout.Builder(2, 1).setCell(0, 0, MapLayout.TILE, 0).setCell(1, 0, MapLayout.ROOM, 0)
+                .addDoor(0, 5, 0, MapLayout.LEFT).build(false);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNotAMap() throws Exception {
+        System.out.println("readNotAMap");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[64]);
+        }
+        MapLayout.read(file.getPath());
+    }
+}
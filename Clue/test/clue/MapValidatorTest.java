@@ -0,0 +1,120 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class MapValidatorTest {
+
+    private MapGrid grid;
+    private MapValidator validator;
+
+    public MapValidatorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * A 6x3 hall with a 2x2 room in the top left corner, a door on its right and a start in the bottom right corner
+     */
+    @Before
+    public void setUp() {
+        grid = new MapGrid(6, 3, MapLayout.TILE);
+        validator = new MapValidator(grid, 1, 1);
+        grid.setCellListener(validator);
+        grid.fillRect(0, 0, 1, 1, MapLayout.ROOM);
+        grid.setDoor(1, 0, (byte) MapLayout.RIGHT);
+        grid.setType(5, 2, MapLayout.START);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getProblems method, of class MapValidator.
+     */
+    @Test
+    public void testGetProblems() {
+        System.out.println("getProblems");
+        assertTrue(validator.getProblems().isEmpty());
+        grid.setType(4, 0, MapLayout.START);
+        grid.setType(4, 1, MapLayout.ROOM);
+        assertEquals(3, validator.getProblems().size());//two starts, two rooms and a room without a door
+        grid.setType(4, 0, MapLayout.TILE);
+        grid.setType(4, 1, MapLayout.TILE);
+        assertTrue(validator.isValid());
+    }
+
+    /**
+     * Test of isBadDoor method, of class MapValidator.
+     */
+    @Test
+    public void testIsBadDoor() {
+        System.out.println("isBadDoor");
+        assertFalse(validator.isBadDoor(1, 0));
+        grid.setType(2, 0, MapLayout.EMPTY);//painting over the tile the door leads onto
+        assertTrue(validator.isBadDoor(1, 0));
+        assertFalse(validator.isValid());
+        grid.setType(2, 0, MapLayout.INTRIGUE);
+        assertFalse(validator.isBadDoor(1, 0));
+        grid.setDoor(0, 1, (byte) MapLayout.LEFT);//off the board
+        assertTrue(validator.isBadDoor(0, 1));
+        assertEquals(1, validator.getProblems().size());
+        grid.setType(0, 1, MapLayout.ROOM);//repainting the cell removes its door
+        assertTrue(validator.isValid());
+    }
+
+    /**
+     * Test of isConnected method, of class MapValidator.
+     */
+    @Test
+    public void testIsConnected() {
+        System.out.println("isConnected");
+        assertTrue(validator.isConnected());
+        for (int y = 0; y < 3; y++) {//a wall between the room and the start
+            grid.setType(3, y, MapLayout.EMPTY);
+        }
+        assertFalse(validator.isConnected());
+        grid.setType(3, 2, MapLayout.TILE);//a gap in the wall
+        assertTrue(validator.isConnected());
+        grid.setDoor(1, 0, MapGrid.NO_DOOR);
+        assertFalse(validator.isConnected());
+        grid.setDoor(1, 1, (byte) MapLayout.DOWN);//a door on another side of the room
+        assertTrue(validator.isConnected());
+        grid.setType(3, 2, MapLayout.ROOM);//the gap becomes a second room the start can't reach
+        grid.setType(4, 2, MapLayout.EMPTY);
+        assertFalse(validator.isConnected());
+
+        MapGrid large = new MapGrid(500, 500, MapLayout.TILE);
+        MapValidator largeValidator = new MapValidator(large, 1, 1);
+        large.setCellListener(largeValidator);
+        large.setType(499, 499, MapLayout.START);
+        large.fillRect(0, 0, 9, 9, MapLayout.ROOM);
+        large.setDoor(9, 9, (byte) MapLayout.DOWN);
+        assertTrue(largeValidator.isValid());
+        large.fillRect(250, 0, 250, 499, MapLayout.EMPTY);
+        assertFalse(largeValidator.isConnected());
+        large.setType(250, 100, MapLayout.INTRIGUE);
+        assertTrue(largeValidator.isConnected());
+    }
+
+}
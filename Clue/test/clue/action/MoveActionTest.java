@@ -5,8 +5,10 @@
  */
 package clue.action;
 
+import clue.metrics.GameMetrics;
 import clue.player.Player;
 import clue.tile.Tile;
+import java.util.Arrays;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -67,5 +69,70 @@ public class MoveActionTest {
         Tile result = instance.getTile();
         assertEquals(expResult, result);
     }
-    
+
+    /**
+     * Test of getPath method, of class MoveAction.
+     */
+    @Test
+    public void testGetPath() {
+        System.out.println("getPath");
+        Player player = new Player(0);
+        Tile s = new Tile(0,0);
+        Tile middle = new Tile(0,1);
+        Tile t = new Tile(0,2);
+        player.setPosition(s);
+        s.addAdjacent(middle);
+        middle.addAdjacent(t);
+        player.setMoves(2);
+        MoveAction instance = new MoveAction(player,t,10,10);
+        instance.execute();
+        assertEquals(2, instance.getPath().size());
+        assertSame(middle, instance.getPath().get(0));
+        assertSame(t, instance.getPath().get(1));
+
+        player.setMoves(1);
+        instance = new MoveAction(player,t,10,10);
+        instance.execute();
+        assertFalse(instance.result);
+        assertNull(instance.getPath());
+    }
+
+    /**
+     * Test of reachable method, of class MoveAction.
+     */
+    @Test
+    public void testReachable() {
+        System.out.println("reachable");
+        Tile s = new Tile(0,0);
+        Tile a = new Tile(1,0);
+        Tile b = new Tile(2,0);
+        Tile occupied = new Tile(0,1);
+        Tile behind = new Tile(0,2);
+        s.addAdjacentBoth(a);
+        a.addAdjacentBoth(b);
+        s.addAdjacentBoth(occupied);
+        occupied.addAdjacentBoth(behind);
+        occupied.setOccupied(true);
+
+        long expansions = GameMetrics.getDefault().snapshot().getBfsExpansions();
+        assertTrue(MoveAction.reachable(s, 0, 3, 3).isEmpty());
+        assertEquals(Arrays.asList(a), MoveAction.reachable(s, 1, 3, 3));
+        assertEquals(Arrays.asList(a, b), MoveAction.reachable(s, 5, 3, 3));
+        assertEquals(expansions, GameMetrics.getDefault().snapshot().getBfsExpansions());//highlighting isn't game work
+
+        Player player = new Player(0);
+        player.setPosition(s);
+        for (Tile tile : MoveAction.reachable(s, 5, 3, 3)) {
+            player.setMoves(5);
+            MoveAction move = new MoveAction(player, tile, 3, 3);
+            move.execute();
+            assertTrue(move.result);
+            assertTrue(move.getBfsExpansions() > 0);
+        }
+        player.setMoves(5);
+        MoveAction move = new MoveAction(player, behind, 3, 3);
+        move.execute();
+        assertFalse(move.result);
+    }
+
 }
@@ -0,0 +1,120 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.metrics;
+
+import clue.BoardTopology;
+import clue.GameController;
+import clue.action.ActionType;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class GameMetricsTest {
+
+    public GameMetricsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of the metrics an ai only game records, of class GameMetrics.
+     */
+    @Test
+    public void testGame() throws Exception {
+        System.out.println("game");
+        BoardTopology topology = BoardTopology.load("resources/archersAvenueTiles.csv", "resources/archersAvenueDoors.csv");
+        GameMetrics.Snapshot before = GameMetrics.getDefault().snapshot();
+        GameController game = new GameController(0, 4, topology, 7);
+        GameMetrics.Snapshot after = GameMetrics.getDefault().snapshot();
+
+        assertEquals(1, after.getAction(ActionType.START).getCount() - before.getAction(ActionType.START).getCount());
+        assertTrue(after.getAction(ActionType.STARTTURN).getCount() > before.getAction(ActionType.STARTTURN).getCount());
+        long suggestions = after.getAction(ActionType.SUGGEST).getCount() - before.getAction(ActionType.SUGGEST).getCount();
+        assertEquals(suggestions, after.getSuggestionsRefuted() + after.getSuggestionsUnrefuted() - before.getSuggestionsRefuted() - before.getSuggestionsUnrefuted());
+        assertTrue(after.getBfsExpansions() > before.getBfsExpansions());
+        assertFalse(game.getPlayers().isEmpty());
+    }
+
+    /**
+     * Test of recordAction, snapshot, reset and print methods, of class GameMetrics.
+     */
+    @Test
+    public void testSnapshot() {
+        System.out.println("snapshot");
+        GameMetrics metrics = new GameMetrics();
+        metrics.recordAction(ActionType.MOVE, 2000);
+        metrics.recordAction(ActionType.MOVE, 4000);
+        metrics.addBfsExpansions(12);
+        metrics.addSuggestion(true);
+        metrics.addSuggestion(false);
+        metrics.addSuggestion(false);
+        metrics.addIntrigueDraw();
+        GameMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getAction(ActionType.MOVE).getCount());
+        assertEquals(6000, snapshot.getAction(ActionType.MOVE).getTotalNanos());
+        assertEquals(0, snapshot.getAction(ActionType.SUGGEST).getCount());
+        assertEquals(12, snapshot.getBfsExpansions());
+        assertEquals(1, snapshot.getSuggestionsRefuted());
+        assertEquals(2, snapshot.getSuggestionsUnrefuted());
+        assertEquals(1, snapshot.getIntrigueDraws());
+
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        snapshot.print(new PrintStream(printed, true));
+        assertTrue(printed.toString().contains("MOVE"));
+        assertFalse(printed.toString().contains("SUGGEST "));//only the action types that were performed
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getAction(ActionType.MOVE).getCount());
+        assertEquals(0, metrics.snapshot().getBfsExpansions());
+    }
+
+    /**
+     * Test of startDump method, of class GameMetrics.
+     */
+    @Test
+    public void testStartDump() throws InterruptedException {
+        System.out.println("startDump");
+        GameMetrics metrics = new GameMetrics();
+        metrics.recordAction(ActionType.ENDTURN, 1000);
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(printed, true);
+        GameMetrics.Dump dump = metrics.startDump(out, 10, TimeUnit.MILLISECONDS);
+        try {
+            long waited = 0;
+            while (waited < 5000 && !printed.toString().contains("ENDTURN")) {
+                Thread.sleep(10);
+                waited += 10;
+            }
+        } finally {
+            dump.close();
+        }
+        assertTrue(printed.toString().contains("ENDTURN"));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.metrics;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class LatencyHistogramTest {
+
+    public LatencyHistogramTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of bucket and highest methods, of class LatencyHistogram.
+     */
+    @Test
+    public void testBuckets() {
+        System.out.println("buckets");
+        for (long nanos = 0; nanos < 64; nanos++) {//exact below 64
+            assertEquals(nanos, LatencyHistogram.highest(LatencyHistogram.bucket(nanos)));
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        int last = LatencyHistogram.bucket((1L << 40) - 1);
+        long recorded = 0;
+        for (long nanos = 64; nanos > 0; nanos += nanos / 2 + 1) {//up to where it overflows
+            histogram.record(nanos);
+            recorded++;
+            int bucket = LatencyHistogram.bucket(nanos);
+            if (nanos >= 1L << 40) {//too long to keep apart, they all go in the last bucket
+                assertEquals(last, bucket);
+                continue;
+            }
+            long highest = LatencyHistogram.highest(bucket);
+            assertTrue(nanos + " went in a bucket up to " + highest, highest >= nanos && highest - nanos <= nanos / 32);
+            assertEquals(bucket, LatencyHistogram.bucket(highest));
+            assertEquals(Math.min(bucket + 1, last), LatencyHistogram.bucket(highest + 1));
+        }
+        histogram.record(1L << 40);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(recorded + 2, histogram.snapshot().getCount());
+        assertEquals(last, LatencyHistogram.bucket(1L << 40));
+        assertEquals(last, LatencyHistogram.bucket(Long.MAX_VALUE));
+        assertEquals((1L << 40) - 1, histogram.snapshot().getMax());
+    }
+
+    /**
+     * Test of record and snapshot methods, of class LatencyHistogram.
+     */
+    @Test
+    public void testSnapshot() {
+        System.out.println("snapshot");
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getPercentile(99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        histogram.record(1000000);//not in the snapshot taken before it
+        assertEquals(101, snapshot.getCount());
+        assertEquals(5050000, snapshot.getTotalNanos());
+        assertEquals(50000, snapshot.getPercentile(50), 50000 / 32);
+        assertEquals(99000, snapshot.getPercentile(99), 99000 / 32);
+        assertEquals(100000, snapshot.getMax(), 100000 / 32);
+        assertEquals(0, snapshot.getPercentile(0));
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getTotalNanos());
+    }
+
+    /**
+     * Test of record method, of class LatencyHistogram, from several threads at once.
+     */
+    @Test
+    public void testRecordFromThreads() throws InterruptedException {
+        System.out.println("recordFromThreads");
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    histogram.record(i % 1000);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400000, histogram.snapshot().getCount());
+    }
+}
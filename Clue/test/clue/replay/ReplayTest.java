@@ -0,0 +1,192 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.replay;
+
+import clue.GameController;
+import clue.action.ActionType;
+import clue.player.Player;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class ReplayTest {
+    
+    private static final String TILES = "resources/archersAvenueTiles.csv";
+    private static final String DOORS = "resources/archersAvenueDoors.csv";
+    private static final int INTERVAL = 8;
+    
+    private static File replayFile;
+    private static GameController gc;
+    
+    public ReplayTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        replayFile = File.createTempFile("clue", ".cluereplay");
+        replayFile.deleteOnExit();
+        ReplayRecorder recorder = new ReplayRecorder(replayFile.getPath(), TILES, DOORS, INTERVAL);
+        gc = new GameController(0, 4, TILES, DOORS, recorder);
+        recorder.close();
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+        replayFile.delete();
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of load method, of class Replay.
+     */
+    @Test
+    public void testLoad() throws Exception {
+        System.out.println("load");
+        Replay replay = Replay.load(replayFile.getPath());
+        
+        assertTrue(replay.isComplete());
+        assertEquals(TILES, replay.getTilePath());
+        assertEquals(DOORS, replay.getDoorPath());
+        assertEquals(INTERVAL, replay.getKeyframeInterval());
+        assertEquals(gc.getWinner(), replay.getWinner());
+        assertTrue(replay.getEventCount() > 0);
+        assertEquals(ActionType.START, replay.getEvent(0).getActionType());
+        assertEquals((replay.getEventCount() + INTERVAL - 1) / INTERVAL, replay.getKeyframeCount());
+    }
+    
+    /**
+     * Test of seek method, of class Replay, seeking to the end matches the final board
+     */
+    @Test
+    public void testSeekToEnd() throws Exception {
+        System.out.println("seekToEnd");
+        Replay replay = Replay.load(replayFile.getPath());
+        ReplayFrame end = replay.seek(replay.getEventCount());
+        
+        List<Player> players = gc.getPlayers();
+        assertEquals(players.size(), end.getPlayerCount());
+        for (Player p : players){
+            assertEquals(p.getDrawX(), end.getPlayerX(p.getId()));
+            assertEquals(p.getDrawY(), end.getPlayerY(p.getId()));
+            assertEquals(p.isActive(), end.isActive(p.getId()));
+        }
+        assertEquals(replay.getEventCount(), end.getEventIndex());
+    }
+    
+    /**
+     * Test of seek method, of class Replay, seeking backwards gives the same frames as playing forwards
+     */
+    @Test
+    public void testSeekBackwards() throws Exception {
+        System.out.println("seekBackwards");
+        Replay replay = Replay.load(replayFile.getPath());
+        
+        List<ReplayFrame> forwards = new ArrayList<>();
+        ReplayFrame frame = replay.seek(0);
+        forwards.add(frame);
+        for (int i = 0; i < replay.getEventCount(); i++){
+            ReplayFrame next = new ReplayFrame(frame.getPlayerCount(), frame.getWeaponCount());
+            next.copyFrom(frame);
+            next.apply(replay.getEvent(i));
+            forwards.add(next);
+            frame = next;
+        }
+        
+        for (int i = replay.getEventCount(); i >= 0; i--){
+            ReplayFrame seeked = replay.seek(i);
+            assertTrue("frame " + i, forwards.get(i).sameBoard(seeked));
+            assertEquals(i, seeked.getEventIndex());
+        }
+    }
+    
+    /**
+     * Test of seek method, of class Replay, with an event outside the replay
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSeekOutOfRange() throws Exception {
+        System.out.println("seekOutOfRange");
+        Replay replay = Replay.load(replayFile.getPath());
+        replay.seek(replay.getEventCount() + 1);
+    }
+    
+    /**
+     * Test of load method, of class Replay, with a file which is not a replay
+     */
+    @Test(expected = IOException.class)
+    public void testLoadNotAReplay() throws Exception {
+        System.out.println("loadNotAReplay");
+        File notAReplay = File.createTempFile("clue", ".cluereplay");
+        notAReplay.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(notAReplay)) {
+            out.write("0,0,1,1".getBytes());
+        }
+        Replay.load(notAReplay.getPath());
+    }
+    
+    /**
+     * Test of load method, of class Replay, with a recording that was cut short
+     */
+    @Test
+    public void testLoadUnfinished() throws Exception {
+        System.out.println("loadUnfinished");
+        File unfinished = File.createTempFile("clue", ".cluereplay");
+        unfinished.deleteOnExit();
+        byte[] whole = java.nio.file.Files.readAllBytes(replayFile.toPath());
+        try (FileOutputStream out = new FileOutputStream(unfinished)) {
+            out.write(whole, 0, whole.length / 2);
+        }
+        Replay replay = Replay.load(unfinished.getPath());
+        assertFalse(replay.isComplete());
+        assertTrue(replay.getEventCount() > 0);
+        replay.seek(replay.getEventCount());
+    }
+    /**
+     * Test of deleteOldest method, of class ReplayRecorder.
+     */
+    @Test
+    public void testDeleteOldest() throws Exception {
+        System.out.println("deleteOldest");
+        File folder = java.nio.file.Files.createTempDirectory("replays").toFile();
+        File[] replays = new File[5];
+        for (int i = 0; i < replays.length; i++) {
+            replays[i] = new File(folder, "aiGame" + i + ".cluereplay");
+            replays[i].createNewFile();
+            replays[i].setLastModified(1000000000000L + i * 1000);
+        }
+        File other = new File(folder, "notes.txt");
+        other.createNewFile();
+        
+        assertEquals(0, ReplayRecorder.deleteOldest(folder, 5));
+        assertEquals(3, ReplayRecorder.deleteOldest(folder, 2));
+        assertFalse(replays[0].exists() || replays[1].exists() || replays[2].exists());
+        assertTrue(replays[3].exists() && replays[4].exists());
+        assertTrue(other.exists());//only replays are deleted
+        
+        assertEquals(2, ReplayRecorder.deleteOldest(folder, 0));
+        other.delete();
+        folder.delete();
+    }
+    
+}
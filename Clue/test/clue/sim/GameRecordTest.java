@@ -0,0 +1,110 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class GameRecordTest {
+    
+    public GameRecordTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of writeTo and readFrom methods, of class GameRecord.
+     */
+    @Test
+    public void testWriteAndRead() {
+        System.out.println("writeAndRead");
+        GameRecord record = new GameRecord();
+        record.setSeed(-1234567890123L);
+        record.setMapName("archersAvenue");
+        record.setSeat(0, GameRecord.AI_ADVANCED);
+        record.setSeat(1, GameRecord.HUMAN);
+        record.setWinner(1);
+        record.setTurns(321);
+        record.setSuggestions(0, 17);
+        record.setSuggestions(1, 4);
+        record.setDurationNanos(987654321L);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(GameRecord.SIZE * 2);
+        buffer.position(GameRecord.SIZE);
+        record.writeTo(buffer);
+        assertEquals(GameRecord.SIZE * 2, buffer.position());
+        
+        GameRecord read = new GameRecord();
+        read.readFrom(buffer, GameRecord.SIZE);
+        assertEquals(-1234567890123L, read.getSeed());
+        assertEquals("archersAvenue", read.getMapName());
+        assertEquals(GameRecord.AI_ADVANCED, read.getSeat(0));
+        assertEquals(GameRecord.HUMAN, read.getSeat(1));
+        assertEquals(GameRecord.EMPTY, read.getSeat(2));
+        assertEquals(2, read.getPlayerCount());
+        assertEquals(1, read.getWinner());
+        assertEquals(321, read.getTurns());
+        assertEquals(17, read.getSuggestions(0));
+        assertEquals(4, read.getSuggestions(1));
+        assertEquals(0, read.getSuggestions(5));
+        assertEquals(987654321L, read.getDurationNanos());
+    }
+    
+    /**
+     * Test of setMapName method, of class GameRecord, with a name longer than the stored length
+     */
+    @Test
+    public void testLongMapName() {
+        System.out.println("longMapName");
+        GameRecord record = new GameRecord();
+        record.setMapName("aVeryLongCustomMapName");
+        assertEquals("aVeryLongCustomMapName".substring(0, GameRecord.MAP_NAME_LENGTH), record.getMapName());
+        record.setMapName("short");
+        assertEquals("short", record.getMapName());
+    }
+    
+    /**
+     * Test of clear method, of class GameRecord.
+     */
+    @Test
+    public void testClear() {
+        System.out.println("clear");
+        GameRecord record = new GameRecord();
+        record.setWinner(3);
+        record.setTurns(10);
+        record.setSeat(3, GameRecord.AI_ADVANCED);
+        record.setSuggestions(3, 2);
+        record.clear();
+        assertEquals(-1, record.getWinner());
+        assertEquals(0, record.getTurns());
+        assertEquals(0, record.getPlayerCount());
+        assertEquals(0, record.getSuggestions(3));
+        assertEquals("", record.getMapName());
+    }
+}
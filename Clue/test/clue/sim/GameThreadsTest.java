@@ -0,0 +1,78 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.io.IOException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class GameThreadsTest {
+    
+    public GameThreadsTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of run method, of class GameThreads.
+     */
+    @Test
+    public void testRun() throws Exception {
+        System.out.println("run");
+        String[] ranOn = new String[1];
+        GameThreads.run("test-games", () -> {
+            ranOn[0] = Thread.currentThread().getName();
+            return null;
+        });
+        assertEquals("test-games", ranOn[0]);
+    }
+
+    /**
+     * Test of run method, of class GameThreads, with code that throws.
+     */
+    @Test
+    public void testRunThrows() throws Exception {
+        System.out.println("runThrows");
+        try {
+            GameThreads.run("test-games", () -> {
+                throw new IOException("checked");
+            });
+            fail("the exception was lost");
+        } catch (IOException ex) {
+            assertEquals("checked", ex.getMessage());
+        }
+        try {
+            GameThreads.run("test-games", () -> {
+                throw new StackOverflowError("error");
+            });
+            fail("the error was lost");
+        } catch (StackOverflowError ex) {
+            assertEquals("error", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.io.File;
+import java.util.Map;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class SimQueryTest {
+    
+    private static File results;
+    
+    public SimQueryTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        results = File.createTempFile("clue", ".clueres");
+        results.delete();
+        try (SimResultWriter writer = new SimResultWriter(results.getPath())) {
+            GameRecord record = new GameRecord();
+            for (int i = 0; i < 10; i++) {//seat 0 wins 3 games on mapA, nobody wins the rest
+                record.clear();
+                record.setMapName(i < 6 ? "mapA" : "mapB");
+                record.setSeat(0, GameRecord.AI_ADVANCED);
+                record.setSeat(1, GameRecord.AI_ADVANCED);
+                record.setSeat(2, GameRecord.HUMAN);
+                record.setWinner(i < 3 ? 0 : -1);
+                record.setTurns(10);
+                writer.append(record);
+            }
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+        results.delete();
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of bySeat method, of class SimQuery.
+     */
+    @Test
+    public void testBySeat() throws Exception {
+        System.out.println("bySeat");
+        try (SimResultReader reader = new SimResultReader(results.getPath())) {
+            Map<String, SimQuery.Totals> seats = SimQuery.bySeat(reader);
+            assertEquals(3, seats.size());
+            assertEquals(10, seats.get("seat 0").getGames());
+            assertEquals(3, seats.get("seat 0").getWins());
+            assertEquals(0.3, seats.get("seat 0").getWinRate(), 1e-9);
+            assertEquals(0, seats.get("seat 1").getWins());
+            assertEquals(10.0, seats.get("seat 2").getMeanTurns(), 1e-9);
+        }
+    }
+    
+    /**
+     * Test of byMap method, of class SimQuery.
+     */
+    @Test
+    public void testByMap() throws Exception {
+        System.out.println("byMap");
+        try (SimResultReader reader = new SimResultReader(results.getPath())) {
+            Map<String, SimQuery.Totals> maps = SimQuery.byMap(reader);
+            assertEquals(6, maps.get("mapA").getGames());
+            assertEquals(3, maps.get("mapA").getWins());
+            assertEquals(4, maps.get("mapB").getGames());
+            assertEquals(0, maps.get("mapB").getWins());
+        }
+    }
+    
+    /**
+     * Test of byAi and byPlayers methods, of class SimQuery.
+     */
+    @Test
+    public void testByAiAndPlayers() throws Exception {
+        System.out.println("byAiAndPlayers");
+        try (SimResultReader reader = new SimResultReader(results.getPath())) {
+            Map<String, SimQuery.Totals> ais = SimQuery.byAi(reader);
+            assertEquals(20, ais.get("AiAdvanced").getGames());
+            assertEquals(3, ais.get("AiAdvanced").getWins());
+            assertEquals(10, ais.get("human").getGames());
+            assertEquals(10, SimQuery.byPlayers(reader).get("3 players").getGames());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class SimResultWriterTest {
+    
+    private File results;
+    
+    public SimResultWriterTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() throws IOException {
+        results = File.createTempFile("clue", ".clueres");
+        results.delete();
+    }
+    
+    @After
+    public void tearDown() {
+        results.delete();
+    }
+    
+    private static GameRecord record(long seed) {
+        GameRecord record = new GameRecord();
+        record.setSeed(seed);
+        record.setMapName("map" + (seed % 3));
+        record.setSeat(0, GameRecord.AI_ADVANCED);
+        record.setSeat(1, GameRecord.AI_ADVANCED);
+        record.setWinner((int) (seed % 2));
+        record.setTurns((int) seed);
+        return record;
+    }
+
+    /**
+     * Test of append method, of class SimResultWriter, read back by SimResultReader
+     */
+    @Test
+    public void testAppendAndRead() throws Exception {
+        System.out.println("appendAndRead");
+        int count = SimResultWriter.BATCH_RECORDS * 2 + 7;//more than one batch
+        try (SimResultWriter writer = new SimResultWriter(results.getPath())) {
+            for (int i = 0; i < count; i++) {
+                writer.append(record(i));
+            }
+            assertEquals(count, writer.getRecordCount());
+        }
+        
+        try (SimResultReader reader = new SimResultReader(results.getPath())) {
+            assertEquals(count, reader.size());
+            GameRecord read = new GameRecord();
+            for (int i = 0; i < count; i++) {
+                reader.read(i, read);
+                assertEquals(i, read.getSeed());
+                assertEquals(i, read.getTurns());
+                assertEquals("map" + (i % 3), read.getMapName());
+            }
+        }
+    }
+    
+    /**
+     * Test of append method, of class SimResultWriter, from many threads at once
+     */
+    @Test
+    public void testParallelAppend() throws Exception {
+        System.out.println("parallelAppend");
+        final int threads = 8;
+        final int perThread = 5000;
+        try (SimResultWriter writer = new SimResultWriter(results.getPath())) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int first = t * perThread;
+                Thread worker = new Thread(() -> {
+                    GameRecord record = new GameRecord();
+                    for (int i = first; i < first + perThread; i++) {
+                        record.clear();
+                        record.setSeed(i);
+                        try {
+                            writer.append(record);
+                        } catch (IOException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        
+        try (SimResultReader reader = new SimResultReader(results.getPath())) {
+            assertEquals(threads * perThread, reader.size());
+            Set<Long> seeds = new HashSet<>();
+            GameRecord read = new GameRecord();
+            for (long i = 0; i < reader.size(); i++) {
+                seeds.add(reader.read(i, read).getSeed());
+            }
+            assertEquals(threads * perThread, seeds.size());//no record lost or written twice
+        }
+    }
+    
+    /**
+     * Test of the SimResultWriter constructor, reopening a file appends to it and drops a torn record
+     */
+    @Test
+    public void testReopenAppends() throws Exception {
+        System.out.println("reopenAppends");
+        try (SimResultWriter writer = new SimResultWriter(results.getPath())) {
+            writer.append(record(1));
+            writer.append(record(2));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(results, "rw")) {//simulate a crash part way through a record
+            file.seek(file.length());
+            file.write(new byte[GameRecord.SIZE / 2]);
+        }
+        try (SimResultWriter writer = new SimResultWriter(results.getPath())) {
+            assertEquals(2, writer.getRecordCount());
+            writer.append(record(3));
+        }
+        try (SimResultReader reader = new SimResultReader(results.getPath())) {
+            assertEquals(3, reader.size());
+            assertEquals(3, reader.read(2, new GameRecord()).getSeed());
+        }
+    }
+    
+    /**
+     * Test of the SimResultReader constructor with a file that is not a results file
+     */
+    @Test(expected = IOException.class)
+    public void testReadNotAResultsFile() throws Exception {
+        System.out.println("readNotAResultsFile");
+        try (RandomAccessFile file = new RandomAccessFile(results, "rw")) {
+            file.writeBytes("0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0");
+        }
+        new SimResultReader(results.getPath()).close();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import clue.GameController;
+import clue.GameListener;
+import clue.action.Action;
+import clue.action.ActionType;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class SimulationTest {
+    
+    public SimulationTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() {
+    }
+    
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of play method, of class Simulation, the record matches the game played
+     */
+    @Test
+    public void testPlay() throws Exception {
+        System.out.println("play");
+        Simulation simulation = new Simulation("archersAvenue", 4);
+        GameRecord record = new GameRecord();
+        final int[] suggestions = new int[6];
+        final int[] turns = new int[1];
+        GameController game = simulation.play(42, record, new GameListener() {
+            @Override
+            public void actionPerformed(GameController game, Action action) {
+                if (action.getActionType() == ActionType.SUGGEST) {
+                    suggestions[action.getPlayer().getId()]++;
+                } else if (action.getActionType() == ActionType.STARTTURN) {
+                    turns[0]++;
+                }
+            }
+
+            @Override
+            public void gameEnded(GameController game) {
+            }
+        });
+        
+        assertEquals(42, record.getSeed());
+        assertEquals(42, game.getSeed());
+        assertEquals("archersAvenue", record.getMapName());
+        assertEquals(4, record.getPlayerCount());
+        assertEquals(GameRecord.AI_ADVANCED, record.getSeat(3));
+        assertEquals(GameRecord.EMPTY, record.getSeat(4));
+        assertEquals(game.getWinner(), record.getWinner());
+        assertEquals(turns[0], record.getTurns());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(suggestions[i], record.getSuggestions(i));
+        }
+        assertTrue(record.getDurationNanos() > 0);
+    }
+    
+    /**
+     * Test of play method, of class Simulation, the same seed plays the same game
+     */
+    @Test
+    public void testSameSeedSameGame() throws Exception {
+        System.out.println("sameSeedSameGame");
+        Simulation simulation = new Simulation("sampleCustomMap", 3);
+        GameRecord first = new GameRecord();
+        GameRecord second = new GameRecord();
+        for (long seed = 1; seed <= 3; seed++) {
+            simulation.play(seed, first);
+            simulation.play(seed, second);
+            assertEquals(first.getWinner(), second.getWinner());
+            assertEquals(first.getTurns(), second.getTurns());
+            for (int i = 0; i < 6; i++) {
+                assertEquals(first.getSuggestions(i), second.getSuggestions(i));
+            }
+        }
+    }
+}
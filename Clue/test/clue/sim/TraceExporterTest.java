@@ -0,0 +1,222 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package clue.sim;
+
+import clue.GameController;
+import clue.GameListener;
+import clue.action.Action;
+import clue.action.ActionType;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author steve
+ */
+public class TraceExporterTest {
+    
+    private File trace;
+    
+    public TraceExporterTest() {
+    }
+    
+    @BeforeClass
+    public static void setUpClass() {
+    }
+    
+    @AfterClass
+    public static void tearDownClass() {
+    }
+    
+    @Before
+    public void setUp() throws IOException {
+        trace = File.createTempFile("clue", ".cluetrace");
+    }
+    
+    @After
+    public void tearDown() {
+        trace.delete();
+    }
+    
+    /**
+     * Collects the action types and players of a game as it is played
+     */
+    private static class Collector implements GameListener {
+        
+        private final List<int[]> rows = new ArrayList<>();
+
+        @Override
+        public void actionPerformed(GameController game, Action action) {
+            rows.add(new int[]{action.getActionType().ordinal(), action.getPlayer() == null ? -1 : action.getPlayer().getId(), action.result ? 1 : 0});
+        }
+
+        @Override
+        public void gameEnded(GameController game) {
+        }
+    }
+
+    /**
+     * Test of the Stream listener, the trace holds every action of the games in order
+     */
+    @Test
+    public void testExportGames() throws Exception {
+        System.out.println("exportGames");
+        Simulation simulation = new Simulation("archersAvenue", 3);
+        List<Collector> played = new ArrayList<>();
+        try (TraceExporter exporter = new TraceExporter(trace.getPath(), 100, 3)) {//small blocks so games span blocks
+            TraceExporter.Stream stream = exporter.openStream();
+            for (int game = 0; game < 3; game++) {
+                Collector collector = new Collector();
+                stream.startGame(game + 1000);
+                simulation.play(game, new GameRecord(), stream, collector);
+                played.add(collector);
+            }
+            stream.close();
+        }
+        
+        try (TraceReader reader = new TraceReader(trace.getPath())) {
+            assertArrayEquals(TraceBlock.COLUMNS, reader.getColumns());
+            int game = 0;
+            int row = 0;
+            int turn = 0;
+            TraceBlock block;
+            while ((block = reader.nextBlock()) != null) {
+                assertTrue(block.size() <= 100);
+                for (int i = 0; i < block.size(); i++) {
+                    if (row == played.get(game).rows.size()) {
+                        game++;
+                        row = 0;
+                        turn = 0;
+                    }
+                    int[] expected = played.get(game).rows.get(row++);
+                    assertEquals(game + 1000, block.getGame(i));
+                    assertEquals(expected[0], block.getAction(i));
+                    assertEquals(expected[1], block.getPlayer(i));
+                    assertEquals(expected[2] == 1, block.getResult(i));
+                    if (block.getAction(i) == ActionType.STARTTURN.ordinal()) {
+                        turn++;
+                    }
+                    assertEquals(turn, block.getTurn(i));
+                    if (block.getAction(i) == ActionType.SUGGEST.ordinal()) {
+                        assertTrue(block.getPerson(i) >= 0 && block.getRoom(i) >= 0 && block.getWeapon(i) >= 0);
+                        assertEquals(-1, block.getTileX(i));//suggestions are made from inside a room
+                        assertEquals(block.getRoom(i), block.getTileY(i));
+                    }
+                }
+            }
+            assertEquals(2, game);
+            assertEquals(played.get(2).rows.size(), row);
+            assertTrue(reader.isComplete());
+        }
+    }
+    
+    /**
+     * Test of the Stream listener, streams on many threads with few blocks lose no rows
+     */
+    @Test
+    public void testParallelStreams() throws Exception {
+        System.out.println("parallelStreams");
+        final int threads = 4;
+        final int rowsPerThread = 10000;
+        final Action action = new Action(null) {
+        };
+        try (final TraceExporter exporter = new TraceExporter(trace.getPath(), 64, threads + 1)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final TraceExporter.Stream stream = exporter.openStream();
+                final int id = t;
+                Thread worker = new Thread(() -> {
+                    stream.startGame(id);
+                    for (int i = 0; i < rowsPerThread; i++) {
+                        stream.actionPerformed(null, action);
+                    }
+                    stream.close();
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        
+        long[] rows = new long[threads];
+        try (TraceReader reader = new TraceReader(trace.getPath())) {
+            TraceBlock block;
+            while ((block = reader.nextBlock()) != null) {
+                for (int i = 0; i < block.size(); i++) {
+                    rows[(int) block.getGame(i)]++;
+                }
+            }
+        }
+        for (int t = 0; t < threads; t++) {
+            assertEquals(rowsPerThread, rows[t]);
+        }
+    }
+    
+    /**
+     * Test of the openStream method, of class TraceExporter, every stream needs its own block
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testTooManyStreams() throws Exception {
+        System.out.println("tooManyStreams");
+        try (TraceExporter exporter = new TraceExporter(trace.getPath(), 64, 3)) {
+            exporter.openStream();
+            exporter.openStream();
+            exporter.openStream();
+        }
+    }
+    
+    /**
+     * Test of the nextBlock method, of class TraceReader, with a trace that was never closed
+     */
+    @Test
+    public void testReadUnfinished() throws Exception {
+        System.out.println("readUnfinished");
+        Action action = new Action(null) {
+        };
+        try (TraceExporter exporter = new TraceExporter(trace.getPath(), 10, 2)) {
+            TraceExporter.Stream stream = exporter.openStream();
+            for (int i = 0; i < 25; i++) {
+                stream.actionPerformed(null, action);
+            }
+            stream.close();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(trace, "rw")) {//cut off the end marker and half the last block
+            file.setLength(file.length() - 12);
+        }
+        try (TraceReader reader = new TraceReader(trace.getPath())) {
+            int rows = 0;
+            TraceBlock block;
+            while ((block = reader.nextBlock()) != null) {
+                rows += block.size();
+            }
+            assertEquals(20, rows);
+            assertFalse(reader.isComplete());
+        }
+    }
+    
+    /**
+     * Test of the TraceReader constructor with a file that is not a trace
+     */
+    @Test(expected = IOException.class)
+    public void testReadNotATrace() throws Exception {
+        System.out.println("readNotATrace");
+        try (RandomAccessFile file = new RandomAccessFile(trace, "rw")) {
+            file.writeBytes("game,turn,player,action");
+        }
+        new TraceReader(trace.getPath()).close();
+    }
+}
@@ -156,4 +156,22 @@ public class RoomTest {
         fail("The test case is a prototype.");
     }
     
+    /**
+     * Test of unassignLocation method, of class Room, a location already free isn't added again.
+     */
+    @Test
+    public void testUnassignLocation() {
+        System.out.println("unassignLocation");
+        Room instance = new Room(new RoomCard(1));
+        instance.addLocation(0, 0);
+        int[] first = instance.assignLocation();
+        assertEquals(0, instance.getFreeLocationCount());
+        int[] second = instance.assignLocation();//the room is full, its first location is handed out again
+        instance.unassignLocation(first);
+        instance.unassignLocation(second);
+        assertEquals(1, instance.getFreeLocationCount());
+        instance.unassignLocation(new int[]{5, 5});//not a location of the room
+        assertEquals(1, instance.getFreeLocationCount());
+    }
+    
 }